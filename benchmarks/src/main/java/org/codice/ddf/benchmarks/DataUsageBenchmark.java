@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.PersistentItem;
+import org.codice.ddf.persistence.PersistentStore;
+import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.codice.ddf.persistence.attributes.internal.AttributesStoreImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the data usage accounting done by the resource usage plugin for every product
+ * retrieval: a limit check followed by an update of the user's data usage, for users picked at
+ * random. Comparing {@link #singleThread} with {@link #allThreads} shows how the throughput scales
+ * with the number of cores when different users download at the same time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataUsageBenchmark {
+
+  private static final long RESOURCE_SIZE = 4096;
+
+  @Param({"1", "64"})
+  private int userCount;
+
+  private AttributesStoreImpl attributesStore;
+
+  private String[] usernames;
+
+  @Setup
+  public void setUp() throws PersistenceException {
+    attributesStore = new AttributesStoreImpl(new InMemoryPersistentStore());
+    attributesStore.init();
+
+    usernames = new String[userCount];
+    for (int i = 0; i < userCount; i++) {
+      usernames[i] = "user" + i;
+      attributesStore.setDataLimit(usernames[i], Long.MAX_VALUE);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    attributesStore.destroy();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public long singleThread() throws PersistenceException {
+    return download();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public long allThreads() throws PersistenceException {
+    return download();
+  }
+
+  private long download() throws PersistenceException {
+    String username = usernames[ThreadLocalRandom.current().nextInt(userCount)];
+    long dataUsage = attributesStore.getCurrentDataUsageByUser(username);
+    long dataLimit = attributesStore.getDataLimitByUser(username);
+    if (dataLimit >= 0 && dataUsage + RESOURCE_SIZE > dataLimit) {
+      return -1;
+    }
+    attributesStore.updateUserDataUsage(username, RESOURCE_SIZE);
+    return dataUsage;
+  }
+
+  /** Keeps the user attributes in a map, by user name. */
+  private static class InMemoryPersistentStore implements PersistentStore {
+
+    private final Map<String, Map<String, Object>> items = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(String type, Map<String, Object> properties) {
+      String username =
+          (String) properties.get(AttributesStore.USER_KEY + PersistentItem.TEXT_SUFFIX);
+      items.put(username, new HashMap<>(properties));
+    }
+
+    @Override
+    public void add(String type, Collection<Map<String, Object>> items) {
+      items.forEach(item -> add(type, item));
+    }
+
+    @Override
+    public List<Map<String, Object>> get(String type) {
+      return new ArrayList<>(items.values());
+    }
+
+    @Override
+    public List<Map<String, Object>> get(String type, String ecql) {
+      String username = ecql.substring(ecql.indexOf('\'') + 1, ecql.lastIndexOf('\''));
+      Map<String, Object> item = items.get(username);
+      return item == null ? Collections.emptyList() : Collections.singletonList(item);
+    }
+
+    @Override
+    public List<Map<String, Object>> get(String type, String ecql, int startIndex, int pageSize) {
+      return get(type, ecql);
+    }
+
+    @Override
+    public int delete(String type, String ecql) {
+      return 0;
+    }
+
+    @Override
+    public int delete(String type, String ecql, int startIndex, int pageSize) {
+      return 0;
+    }
+
+    @Override
+    public Stream<Map<String, Object>> stream(String type, String ecql) {
+      return get(type, ecql).stream();
+    }
+
+    @Override
+    public long count(String type, String ecql) {
+      return get(type, ecql).size();
+    }
+
+    @Override
+    public long deleteAll(String type, String ecql) {
+      return 0;
+    }
+
+    @Override
+    public long addAll(String type, Stream<Map<String, Object>> items) {
+      long count = 0;
+      for (Iterator<Map<String, Object>> iterator = items.iterator(); iterator.hasNext(); count++) {
+        add(type, iterator.next());
+      }
+      return count;
+    }
+  }
+}
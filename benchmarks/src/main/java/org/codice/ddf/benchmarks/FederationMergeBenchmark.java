@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.ContentType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.federation.impl.SortedFederationStrategy;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.SourceMonitor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.opengis.filter.sort.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the merge of the results returned by several sources into a single sorted page by the
+ * {@link SortedFederationStrategy}. The sources answer immediately with results that were generated
+ * in advance, so the time measured is the time spent by the federation strategy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FederationMergeBenchmark {
+
+  @Param({"2", "8"})
+  private int sourceCount;
+
+  @Param({"100", "1000"})
+  private int resultsPerSource;
+
+  @Param({"100"})
+  private int pageSize;
+
+  @Param({Result.RELEVANCE, Result.TEMPORAL})
+  private String sortBy;
+
+  private ExecutorService queryExecutor;
+
+  private SortedFederationStrategy federationStrategy;
+
+  private List<Source> sources;
+
+  private QueryRequest queryRequest;
+
+  @Setup
+  public void setUp() {
+    queryExecutor =
+        Executors.newCachedThreadPool(
+            StandardThreadFactoryBuilder.newThreadFactory("federationMergeBenchmarkThread"));
+    federationStrategy =
+        new SortedFederationStrategy(
+            queryExecutor, Collections.emptyList(), Collections.emptyList());
+
+    MetacardFixtures fixtures = new MetacardFixtures(0, 256, AttributeMix.TEXT);
+    Random random = new Random(MetacardFixtures.DEFAULT_SEED);
+    sources = new ArrayList<>(sourceCount);
+    for (int i = 0; i < sourceCount; i++) {
+      List<Result> results = new ArrayList<>(resultsPerSource);
+      for (Metacard metacard : fixtures.newMetacards(resultsPerSource)) {
+        ResultImpl result = new ResultImpl(metacard);
+        result.setRelevanceScore(random.nextDouble());
+        results.add(result);
+      }
+      sources.add(new FixedResultsSource("source-" + i, results));
+    }
+
+    queryRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                new GeotoolsFilterBuilder().attribute(Metacard.ANY_TEXT).is().like().text("*"),
+                1,
+                pageSize,
+                new SortByImpl(sortBy, SortOrder.DESCENDING),
+                true,
+                TimeUnit.MINUTES.toMillis(1)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    queryExecutor.shutdownNow();
+  }
+
+  @Benchmark
+  public List<Result> federate() {
+    return federationStrategy.federate(sources, queryRequest).getResults();
+  }
+
+  private static class FixedResultsSource implements Source {
+
+    private final String id;
+
+    private final List<Result> results;
+
+    FixedResultsSource(String id, List<Result> results) {
+      this.id = id;
+      this.results = results;
+    }
+
+    @Override
+    public SourceResponse query(QueryRequest request) {
+      return new SourceResponseImpl(request, null, results, results.size());
+    }
+
+    @Override
+    public boolean isAvailable() {
+      return true;
+    }
+
+    @Override
+    public boolean isAvailable(SourceMonitor callback) {
+      return true;
+    }
+
+    @Override
+    public Set<ContentType> getContentTypes() {
+      return Collections.emptySet();
+    }
+
+    @Override
+    public String getVersion() {
+      return "1.0";
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public String getTitle() {
+      return id;
+    }
+
+    @Override
+    public String getDescription() {
+      return id;
+    }
+
+    @Override
+    public String getOrganization() {
+      return "Codice";
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SolrFilterDelegate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.common.SolrInputDocument;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.opengis.filter.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the translation of a catalog query to a Solr query, done for every query of the local
+ * catalog: the {@link GeotoolsFilterAdapterImpl} visits the {@link Filter} with a new {@link
+ * SolrFilterDelegate}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterAdapterBenchmark {
+
+  /** The kind of query that is translated. */
+  public enum QueryShape {
+    CONTEXTUAL,
+    SPATIAL,
+    TEMPORAL,
+    COMPOUND
+  }
+
+  private static final String AREA = "POLYGON ((-10 -10, -10 10, 10 10, 10 -10, -10 -10))";
+
+  @Param({"CONTEXTUAL", "SPATIAL", "TEMPORAL", "COMPOUND"})
+  private QueryShape shape;
+
+  private final GeotoolsFilterAdapterImpl filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private DynamicSchemaResolver resolver;
+
+  private Filter filter;
+
+  @Setup
+  public void setUp() throws MetacardCreationException {
+    MetacardFixtures fixtures = new MetacardFixtures(14, 1024, AttributeMix.MIXED);
+
+    // Indexing a metacard adds its attributes to the fields known by the resolver, as happens once
+    // the catalog has been running for a while
+    resolver = new DynamicSchemaResolver();
+    resolver.addFields(fixtures.newMetacard(), new SolrInputDocument());
+
+    filter = newFilter(fixtures);
+  }
+
+  @Benchmark
+  public SolrQuery adapt() throws UnsupportedQueryException {
+    return filterAdapter.adapt(filter, new SolrFilterDelegate(resolver));
+  }
+
+  private Filter newFilter(MetacardFixtures fixtures) {
+    Date end = new Date();
+    Date start = new Date(end.getTime() - TimeUnit.DAYS.toMillis(30));
+
+    switch (shape) {
+      case CONTEXTUAL:
+        return filterBuilder.attribute(Metacard.ANY_TEXT).is().like().text("harbor patrol");
+      case SPATIAL:
+        return filterBuilder.attribute(Metacard.ANY_GEO).intersecting().wkt(AREA);
+      case TEMPORAL:
+        return filterBuilder.attribute(Metacard.MODIFIED).during().dates(start, end);
+      case COMPOUND:
+        String longAttribute = fixtures.getExtraDescriptors().get(1).getName();
+        return filterBuilder.allOf(
+            filterBuilder.anyOf(
+                filterBuilder.attribute(Metacard.TITLE).is().like().text("convoy"),
+                filterBuilder.attribute(Metacard.ANY_TEXT).is().like().text("harbor patrol")),
+            filterBuilder.attribute(Metacard.ANY_GEO).intersecting().wkt(AREA),
+            filterBuilder.attribute(Metacard.MODIFIED).during().dates(start, end),
+            filterBuilder.attribute(Metacard.CONTENT_TYPE).is().equalTo().text("nitf"),
+            filterBuilder.attribute(longAttribute).greaterThan().number(0L),
+            filterBuilder.not(filterBuilder.attribute(Metacard.ID).is().equalTo().text("1")));
+      default:
+        throw new IllegalArgumentException("Unsupported query shape " + shape);
+    }
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.adapter.GeometryAdapter;
+import ddf.catalog.transformer.xml.binding.MetacardElement;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import net.opengis.gml.v_3_1_1.AbstractGeometryType;
+import org.codice.ddf.parser.ParserConfigurator;
+import org.codice.ddf.parser.ParserException;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Measures the XML of metacards with a large multipolygon. {@link #marshal} writes the whole
+ * metacard with the {@link MetacardMarshallerImpl}, while {@link #jaxb} only marshals the geometry
+ * attribute with the JAXB binding of {@link GeometryAdapter}, which the marshaller used to do
+ * before parsing the result again to copy it into the metacard.
+ *
+ * <p>Run with {@code -prof gc} to compare the memory allocated per metacard.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeometryMarshallingBenchmark {
+
+  @Param({"10", "100"})
+  private int polygons;
+
+  @Param({"100", "1000"})
+  private int vertices;
+
+  private XmlParser parser;
+
+  private ParserConfigurator parserConfigurator;
+
+  private MetacardMarshallerImpl marshaller;
+
+  private Metacard metacard;
+
+  private Attribute geometry;
+
+  @Setup
+  public void setUp() {
+    parser = new XmlParser();
+    parserConfigurator =
+        parser.configureParser(
+            Arrays.asList(
+                MetacardElement.class.getPackage().getName(),
+                GeometryAdapter.class.getPackage().getName(),
+                AbstractGeometryType.class.getPackage().getName()),
+            MetacardMarshallerImpl.class.getClassLoader());
+    marshaller = new MetacardMarshallerImpl(parser, new PrintWriterProviderImpl());
+
+    geometry = new AttributeImpl(Metacard.GEOGRAPHY, newMultiPolygon(polygons, vertices));
+    MetacardImpl metacardImpl = new MetacardImpl();
+    metacardImpl.setId("00000000000000000000000000000000");
+    metacardImpl.setTitle("Multipolygon");
+    metacardImpl.setAttribute(geometry);
+    metacard = metacardImpl;
+  }
+
+  @Benchmark
+  public String marshal()
+      throws CatalogTransformerException, IOException, XmlPullParserException {
+    return marshaller.marshal(metacard);
+  }
+
+  @Benchmark
+  public byte[] jaxb() throws CatalogTransformerException, ParserException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    parser.marshal(parserConfigurator, GeometryAdapter.marshalFrom(geometry), os);
+    return os.toByteArray();
+  }
+
+  /** @return the WKT of a multipolygon of circles spread over the world */
+  private static String newMultiPolygon(int polygons, int vertices) {
+    StringBuilder wkt = new StringBuilder("MULTIPOLYGON (");
+    for (int p = 0; p < polygons; p++) {
+      double centerX = -170 + (p * 7.3) % 340;
+      double centerY = -80 + (p * 3.1) % 160;
+      wkt.append(p == 0 ? "((" : ", ((");
+      for (int v = 0; v <= vertices; v++) {
+        double angle = 2 * Math.PI * (v % vertices) / vertices;
+        double x = centerX + Math.cos(angle);
+        double y = centerY + Math.sin(angle);
+        wkt.append(v == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.6f %.6f", x, y));
+      }
+      wkt.append("))");
+    }
+    return wkt.append(")").toString();
+  }
+}
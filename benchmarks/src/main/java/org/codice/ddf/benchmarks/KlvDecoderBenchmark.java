@@ -0,0 +1,200 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.libs.klv.KlvBufferDecoder;
+import org.codice.ddf.libs.klv.KlvContext;
+import org.codice.ddf.libs.klv.KlvDataElement;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.codice.ddf.libs.klv.KlvValue;
+import org.codice.ddf.libs.klv.KlvVisitor;
+import org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+import org.codice.ddf.libs.klv.data.numerical.KlvInt;
+import org.codice.ddf.libs.klv.data.numerical.KlvLong;
+import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedShort;
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+import org.codice.ddf.libs.klv.data.text.KlvString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the decoding of a run of STANAG 4609 style KLV packets, each a UAS Datalink Local Set
+ * with a mix of numerical and text values. {@link #decodeToContext} uses the {@link KlvDecoder},
+ * which copies each data element and its value into a new {@link KlvContext}, while {@link
+ * #decodeWithVisitor} uses the {@link KlvBufferDecoder} and reads the values in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KlvDecoderBenchmark {
+
+  private static final byte[] UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
+  private static final int TAG_COUNT = 24;
+
+  @Param({"1", "64"})
+  private int packetCount;
+
+  @Param({"false", "true"})
+  private boolean directBuffer;
+
+  private KlvDecoder decoder;
+
+  private KlvBufferDecoder bufferDecoder;
+
+  private byte[] klvBytes;
+
+  private ByteBuffer klvBuffer;
+
+  @Setup
+  public void setUp() {
+    List<KlvDataElement> dataElements = new ArrayList<>(TAG_COUNT);
+    for (int tag = 1; tag <= TAG_COUNT; tag++) {
+      byte[] key = {(byte) tag};
+      switch (tag % 4) {
+        case 0:
+          dataElements.add(new KlvLong(key, "tag " + tag));
+          break;
+        case 1:
+          dataElements.add(new KlvInt(key, "tag " + tag));
+          break;
+        case 2:
+          dataElements.add(new KlvUnsignedShort(key, "tag " + tag));
+          break;
+        default:
+          dataElements.add(new KlvString(key, "tag " + tag));
+          break;
+      }
+    }
+    KlvContext localSetContext =
+        new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte, dataElements);
+    KlvContext klvContext =
+        new KlvContext(
+            KeyLength.SixteenBytes,
+            LengthEncoding.BER,
+            Collections.singleton(
+                new KlvLocalSet(
+                    UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY, "UAS Datalink", localSetContext)));
+    decoder = new KlvDecoder(klvContext);
+    bufferDecoder = new KlvBufferDecoder(klvContext);
+
+    Random random = new Random(MetacardFixtures.DEFAULT_SEED);
+    ByteArrayOutputStream packets = new ByteArrayOutputStream();
+    for (int i = 0; i < packetCount; i++) {
+      byte[] localSet = newLocalSet(random);
+      packets.write(
+          UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY, 0, UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY.length);
+      packets.write(0x81);
+      packets.write(localSet.length);
+      packets.write(localSet, 0, localSet.length);
+    }
+    klvBytes = packets.toByteArray();
+
+    if (directBuffer) {
+      klvBuffer = ByteBuffer.allocateDirect(klvBytes.length);
+      klvBuffer.put(klvBytes).flip();
+    } else {
+      klvBuffer = ByteBuffer.wrap(klvBytes);
+    }
+  }
+
+  @Benchmark
+  public KlvContext decodeToContext() throws KlvDecodingException {
+    return decoder.decode(klvBytes);
+  }
+
+  @Benchmark
+  public long decodeWithVisitor() throws KlvDecodingException {
+    SummingVisitor visitor = new SummingVisitor();
+    bufferDecoder.decode(klvBuffer, visitor);
+    return visitor.sum;
+  }
+
+  private byte[] newLocalSet(Random random) {
+    ByteArrayOutputStream localSet = new ByteArrayOutputStream();
+    for (int tag = 1; tag <= TAG_COUNT; tag++) {
+      int length;
+      switch (tag % 4) {
+        case 0:
+          length = 8;
+          break;
+        case 1:
+          length = 4;
+          break;
+        case 2:
+          length = 2;
+          break;
+        default:
+          length = 12;
+          break;
+      }
+      localSet.write(tag);
+      localSet.write(length);
+      if (length == 12) {
+        byte[] text =
+            String.format(Locale.ROOT, "SENSOR-%05d", random.nextInt(100000))
+                .getBytes(StandardCharsets.UTF_8);
+        localSet.write(text, 0, length);
+      } else {
+        for (int i = 0; i < length; i++) {
+          localSet.write(random.nextInt(256));
+        }
+      }
+    }
+    return localSet.toByteArray();
+  }
+
+  /** Reads every value as its type, as a consumer of the decoded KLV would. */
+  private static class SummingVisitor implements KlvVisitor {
+    private long sum;
+
+    @Override
+    public void visit(KlvDataElement<?> dataElement, KlvValue value) {
+      if (dataElement instanceof KlvString) {
+        sum += value.getAsString(StandardCharsets.UTF_8).length();
+      } else if (dataElement instanceof KlvUnsignedShort) {
+        sum += value.getAs16bitUnsignedInt();
+      } else if (dataElement instanceof KlvInt) {
+        sum += value.getAs32bitInt();
+      } else {
+        sum += value.getAs64bitLong();
+      }
+    }
+  }
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates synthetic metacards for the benchmarks. Every metacard has the basic attributes, with
+ * metadata of about the requested size, plus a configurable number of extra attributes whose types
+ * are chosen by an {@link AttributeMix}.
+ *
+ * <p>The values are drawn from a {@link Random} with a fixed seed, so two fixtures created with the
+ * same settings generate the same metacards and the benchmark results can be compared across
+ * builds.
+ */
+public class MetacardFixtures {
+
+  /** The types of the extra attributes added to each metacard. */
+  public enum AttributeMix {
+    /** Only string attributes, as produced by most text based input transformers. */
+    TEXT(BasicTypes.STRING_TYPE),
+
+    /** Only numeric attributes. */
+    NUMERIC(BasicTypes.LONG_TYPE, BasicTypes.DOUBLE_TYPE, BasicTypes.INTEGER_TYPE),
+
+    /** Dates and geometries, the attributes that are the most expensive to index and query. */
+    GEO_TEMPORAL(BasicTypes.DATE_TYPE, BasicTypes.GEO_TYPE),
+
+    /** A cycle through every common attribute type. */
+    MIXED(
+        BasicTypes.STRING_TYPE,
+        BasicTypes.LONG_TYPE,
+        BasicTypes.DATE_TYPE,
+        BasicTypes.DOUBLE_TYPE,
+        BasicTypes.BOOLEAN_TYPE,
+        BasicTypes.GEO_TYPE,
+        BasicTypes.INTEGER_TYPE);
+
+    private final List<AttributeType<?>> types;
+
+    AttributeMix(AttributeType<?>... types) {
+      this.types = Arrays.asList(types);
+    }
+
+    AttributeType<?> typeOf(int attributeIndex) {
+      return types.get(attributeIndex % types.size());
+    }
+  }
+
+  public static final long DEFAULT_SEED = 8675309L;
+
+  public static final String SOURCE_ID = "benchmark-source";
+
+  private static final String[] WORDS = {
+    "alpha", "bridge", "convoy", "delta", "echo", "harbor", "imagery", "lumber", "mission", "north",
+    "orbit", "patrol", "quarry", "radar", "sensor", "tango", "uniform", "vessel", "whiskey", "zulu"
+  };
+
+  private static final long EPOCH = 1514764800000L;
+
+  private final Random random;
+
+  private final int metadataBytes;
+
+  private final List<AttributeDescriptor> extraDescriptors;
+
+  private final MetacardType metacardType;
+
+  private int created = 0;
+
+  /**
+   * @param extraAttributes the number of attributes added to each metacard, on top of the basic
+   *     attributes
+   * @param metadataBytes the approximate size, in bytes, of each metacard's metadata
+   * @param mix the types of the extra attributes
+   */
+  public MetacardFixtures(int extraAttributes, int metadataBytes, AttributeMix mix) {
+    this(extraAttributes, metadataBytes, mix, DEFAULT_SEED);
+  }
+
+  public MetacardFixtures(int extraAttributes, int metadataBytes, AttributeMix mix, long seed) {
+    this.random = new Random(seed);
+    this.metadataBytes = metadataBytes;
+
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    extraDescriptors = new ArrayList<>(extraAttributes);
+    for (int i = 0; i < extraAttributes; i++) {
+      AttributeType<?> type = mix.typeOf(i);
+      String format = type.getAttributeFormat().name().toLowerCase(Locale.ROOT);
+      AttributeDescriptor descriptor =
+          new AttributeDescriptorImpl("ext." + format + "-" + i, true, true, false, false, type);
+      extraDescriptors.add(descriptor);
+      descriptors.add(descriptor);
+    }
+
+    metacardType =
+        new MetacardTypeImpl(
+            String.format(Locale.ROOT, "benchmark.%s.%d", mix, extraAttributes), descriptors);
+  }
+
+  public MetacardType getMetacardType() {
+    return metacardType;
+  }
+
+  public List<AttributeDescriptor> getExtraDescriptors() {
+    return extraDescriptors;
+  }
+
+  /** @return a new metacard, with a new id and new attribute values */
+  public MetacardImpl newMetacard() {
+    int index = created++;
+
+    MetacardImpl metacard = new MetacardImpl(metacardType);
+    metacard.setId(String.format(Locale.ROOT, "%032x", random.nextLong() & Long.MAX_VALUE));
+    metacard.setSourceId(SOURCE_ID);
+    metacard.setTitle(words(3) + " " + index);
+    metacard.setDescription(words(12));
+    metacard.setContentTypeName(random.nextBoolean() ? "nitf" : "image/jpeg");
+    metacard.setContentTypeVersion("2.1");
+    metacard.setCreatedDate(date());
+    metacard.setModifiedDate(date());
+    metacard.setEffectiveDate(date());
+    metacard.setLocation(point());
+    metacard.setMetadata(metadata());
+    metacard.setResourceSize(Long.toString(random.nextInt(Integer.MAX_VALUE)));
+
+    for (AttributeDescriptor descriptor : extraDescriptors) {
+      metacard.setAttribute(descriptor.getName(), value(descriptor.getType()));
+    }
+
+    return metacard;
+  }
+
+  public List<Metacard> newMetacards(int count) {
+    List<Metacard> metacards = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      metacards.add(newMetacard());
+    }
+    return metacards;
+  }
+
+  private Serializable value(AttributeType<?> type) {
+    switch (type.getAttributeFormat()) {
+      case STRING:
+        return words(4);
+      case LONG:
+        return random.nextLong();
+      case INTEGER:
+        return random.nextInt();
+      case DOUBLE:
+        return random.nextDouble() * 1000;
+      case BOOLEAN:
+        return random.nextBoolean();
+      case DATE:
+        return date();
+      case GEOMETRY:
+        return random.nextBoolean() ? point() : polygon();
+      default:
+        throw new IllegalArgumentException("Unsupported attribute type " + type);
+    }
+  }
+
+  private Date date() {
+    return new Date(EPOCH + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(365)));
+  }
+
+  private String point() {
+    return String.format(Locale.ROOT, "POINT (%.5f %.5f)", longitude(), latitude());
+  }
+
+  private String polygon() {
+    double lon = longitude();
+    double lat = latitude();
+    double size = 0.01 + random.nextDouble();
+    return String.format(
+        Locale.ROOT,
+        "POLYGON ((%1$.5f %2$.5f, %1$.5f %4$.5f, %3$.5f %4$.5f, %3$.5f %2$.5f, %1$.5f %2$.5f))",
+        lon,
+        lat,
+        Math.min(180, lon + size),
+        Math.min(90, lat + size));
+  }
+
+  private double longitude() {
+    return random.nextDouble() * 360 - 180;
+  }
+
+  private double latitude() {
+    return random.nextDouble() * 180 - 90;
+  }
+
+  private String metadata() {
+    StringBuilder metadata = new StringBuilder(metadataBytes + 64);
+    metadata.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?><metadata><title>");
+    metadata.append(words(3)).append("</title>");
+    while (metadata.length() < metadataBytes) {
+      metadata.append("<paragraph>").append(words(16)).append("</paragraph>");
+    }
+    return metadata.append("</metadata>").toString();
+  }
+
+  private String words(int count) {
+    StringBuilder words = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      if (i > 0) {
+        words.append(' ');
+      }
+      words.append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return words.toString();
+  }
+}
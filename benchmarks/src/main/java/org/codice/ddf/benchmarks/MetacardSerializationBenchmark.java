@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the Java serialization of a {@link ddf.catalog.data.impl.MetacardImpl}, as done when
+ * metacards are cached or sent between nodes, against the binary {@link MetacardCodec}. Since the
+ * codec only decodes an attribute when it is first read, {@link #codecDecodeAll} also reads every
+ * attribute of the decoded metacard.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetacardSerializationBenchmark {
+
+  @Param({"10", "100"})
+  private int extraAttributes;
+
+  @Param({"1024", "32768"})
+  private int metadataBytes;
+
+  @Param({"MIXED"})
+  private AttributeMix mix;
+
+  private final MetacardCodec codec = new MetacardCodec();
+
+  private Metacard metacard;
+
+  private byte[] serialized;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    metacard = new MetacardFixtures(extraAttributes, metadataBytes, mix).newMetacard();
+    serialized = javaSerialize();
+    encoded = codecEncode();
+  }
+
+  @Benchmark
+  public byte[] javaSerialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(metacard);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public Object javaDeserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return in.readObject();
+    }
+  }
+
+  @Benchmark
+  public byte[] codecEncode() throws IOException {
+    return codec.encode(metacard);
+  }
+
+  @Benchmark
+  public Metacard codecDecode() throws IOException {
+    return codec.decode(encoded);
+  }
+
+  @Benchmark
+  public void codecDecodeAll(Blackhole blackhole) throws IOException {
+    Metacard decoded = codec.decode(encoded);
+    for (AttributeDescriptor descriptor : decoded.getMetacardType().getAttributeDescriptors()) {
+      blackhole.consume(decoded.getAttribute(descriptor.getName()));
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardCodec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Java serialization of a {@link MetacardType}, as done by earlier versions of the
+ * Solr catalog provider for the metacard type field, against the binary {@link MetacardCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetacardTypeSerializationBenchmark {
+
+  @Param({"10", "100"})
+  private int extraAttributes;
+
+  private final MetacardCodec codec = new MetacardCodec();
+
+  private MetacardType metacardType;
+
+  private byte[] serialized;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws IOException {
+    metacardType =
+        new MetacardFixtures(extraAttributes, 1024, AttributeMix.MIXED).getMetacardType();
+    serialized = javaSerialize();
+    encoded = codecEncode();
+  }
+
+  @Benchmark
+  public byte[] javaSerialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(metacardType);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public Object javaDeserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return in.readObject();
+    }
+  }
+
+  @Benchmark
+  public byte[] codecEncode() throws IOException {
+    return codec.encodeType(metacardType);
+  }
+
+  @Benchmark
+  public MetacardType codecDecode() throws IOException {
+    return codec.decodeType(encoded);
+  }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.impl.operations.ParallelResultProcessor;
+import ddf.catalog.plugin.StopProcessingException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of the per-result plugin work done on every page of query results, such as
+ * the building of the security policy of each result by the policy plugins. {@link #sequential}
+ * processes the page on the query thread, while {@link #parallel} processes it in chunks with the
+ * {@link ParallelResultProcessor} used by the query operations when parallel plugin processing is
+ * enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostQueryPluginBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  private int pageSize;
+
+  @Param({"1", "2", "4", "8"})
+  private int parallelism;
+
+  @Param({"100"})
+  private int chunkSize;
+
+  private ParallelResultProcessor processor;
+
+  private List<Result> results;
+
+  private List<AttributeDescriptor> descriptors;
+
+  @Setup
+  public void setUp() {
+    MetacardFixtures fixtures = new MetacardFixtures(8, 4096, AttributeMix.TEXT);
+    descriptors = new ArrayList<>(fixtures.getMetacardType().getAttributeDescriptors());
+    results = new ArrayList<>(pageSize);
+    for (Metacard metacard : fixtures.newMetacards(pageSize)) {
+      results.add(new ResultImpl(metacard));
+    }
+    processor = new ParallelResultProcessor(parallelism, chunkSize);
+  }
+
+  @TearDown
+  public void tearDown() {
+    processor.shutdown();
+  }
+
+  @Benchmark
+  public int sequential() {
+    return applyPolicies(results);
+  }
+
+  @Benchmark
+  public int parallel() throws StopProcessingException {
+    int policies = 0;
+    for (int chunkPolicies : processor.process(results, this::applyPolicies)) {
+      policies += chunkPolicies;
+    }
+    return policies;
+  }
+
+  /**
+   * Builds a policy from the text attributes of each result and sets it as the result's security
+   * attribute, like a policy plugin followed by the query operations would.
+   */
+  private int applyPolicies(List<Result> chunk) {
+    int policies = 0;
+    for (Result result : chunk) {
+      Metacard metacard = result.getMetacard();
+      HashMap<String, Set<String>> itemPolicy = new HashMap<>();
+      for (AttributeDescriptor descriptor : descriptors) {
+        Attribute attribute = metacard.getAttribute(descriptor.getName());
+        if (attribute == null) {
+          continue;
+        }
+        for (Serializable value : attribute.getValues()) {
+          if (value instanceof String) {
+            for (String word : ((String) value).split("\\W+")) {
+              itemPolicy.computeIfAbsent(descriptor.getName(), name -> new HashSet<>()).add(word);
+            }
+          }
+        }
+      }
+      metacard.setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicy));
+      policies += itemPolicy.size();
+    }
+    return policies;
+  }
+}
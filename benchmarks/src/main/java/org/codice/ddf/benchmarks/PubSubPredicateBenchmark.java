@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.EventProcessorImpl;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.EntryPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+/**
+ * Measures the evaluation of the subscriptions against a published event, done for every metacard
+ * created, updated or deleted. {@link #evaluateAll} evaluates every subscription's {@link
+ * Predicate}, while {@link #evaluateCandidates} only evaluates the subscriptions returned by the
+ * {@link SubscriptionIndex}, as the {@link EventProcessorImpl} does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PubSubPredicateBenchmark {
+
+  private static final int EVENT_COUNT = 64;
+
+  private static final String[] WORDS = {"harbor", "convoy", "radar", "quarry", "vessel", "orbit"};
+
+  @Param({"100", "1000"})
+  private int subscriptionCount;
+
+  @Param({"4096"})
+  private int metadataBytes;
+
+  private final List<Predicate> predicates = new ArrayList<>();
+
+  private final SubscriptionIndex<Predicate> index = new SubscriptionIndex<>();
+
+  private final List<Event> events = new ArrayList<>(EVENT_COUNT);
+
+  private int next = 0;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(MetacardFixtures.DEFAULT_SEED);
+    for (int i = 0; i < subscriptionCount; i++) {
+      Predicate predicate = newPredicate(i, random);
+      predicates.add(predicate);
+      index.add("subscription-" + i, predicate, predicate);
+    }
+
+    MetacardFixtures fixtures = new MetacardFixtures(4, metadataBytes, AttributeMix.MIXED);
+    CapturingEventAdmin eventAdmin = new CapturingEventAdmin();
+    for (Metacard metacard : fixtures.newMetacards(EVENT_COUNT)) {
+      EventProcessorImpl.processEntry(metacard, PubSubConstants.CREATE, eventAdmin);
+      events.add(eventAdmin.event);
+    }
+  }
+
+  @Benchmark
+  public int evaluateAll() {
+    return countMatches(predicates, nextEvent());
+  }
+
+  @Benchmark
+  public int evaluateCandidates() {
+    Event event = nextEvent();
+    return countMatches(index.getCandidates(event), event);
+  }
+
+  private int countMatches(Iterable<Predicate> subscriptions, Event event) {
+    int matches = 0;
+    for (Predicate predicate : subscriptions) {
+      if (predicate.matches(event)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+
+  private Event nextEvent() {
+    next = (next + 1) % EVENT_COUNT;
+    return events.get(next);
+  }
+
+  private Predicate newPredicate(int subscription, Random random) {
+    switch (subscription % 5) {
+      case 0:
+        return new EntryPredicate(String.format(Locale.ROOT, "%032x", random.nextLong()));
+      case 1:
+        return new ContentTypePredicate(random.nextBoolean() ? "nitf" : "video", null);
+      case 2:
+        return new GeospatialPredicate(box(random), SpatialOperator.OVERLAPS.name(), 0.0);
+      case 3:
+        long start = 1514764800000L + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(365));
+        return SubscriptionFilterVisitor.and(
+            new TemporalPredicate(
+                new Date(start), new Date(start + TimeUnit.DAYS.toMillis(30)), DateType.MODIFIED),
+            new ContentTypePredicate("image/jpeg", null));
+      default:
+        return new ContextualPredicate(WORDS[random.nextInt(WORDS.length)], false, false, null);
+    }
+  }
+
+  private String box(Random random) {
+    double lon = random.nextDouble() * 340 - 170;
+    double lat = random.nextDouble() * 160 - 80;
+    return String.format(
+        Locale.ROOT,
+        "POLYGON ((%1$.3f %2$.3f, %1$.3f %4$.3f, %3$.3f %4$.3f, %3$.3f %2$.3f, %1$.3f %2$.3f))",
+        lon,
+        lat,
+        lon + 10,
+        lat + 10);
+  }
+
+  private static class CapturingEventAdmin implements EventAdmin {
+    private Event event;
+
+    @Override
+    public void postEvent(Event event) {
+      this.event = event;
+    }
+
+    @Override
+    public void sendEvent(Event event) {
+      this.event = event;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transform.QueryResponseTransformer;
+import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import ddf.catalog.transformer.queryresponse.geojson.GeoJsonQueryResponseTransformer;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.activation.MimeType;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the XML and GeoJSON query response transformers on large responses. {@link #stream}
+ * reads the transformed response through a small buffer, as the endpoints do when they copy it to
+ * the client, while {@link #buffer} reads the whole response into a byte array.
+ *
+ * <p>Run with {@code -prof gc} to compare the memory allocated per response. The heap needed by
+ * {@link #stream} can be checked by lowering the {@code -Xmx} of the fork until it fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryResponseTransformerBenchmark {
+
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  @Param({"xml", "geojson"})
+  private String format;
+
+  @Param({"10000"})
+  private int results;
+
+  @Param({"1024"})
+  private int metadataBytes;
+
+  private QueryResponseTransformer transformer;
+
+  private SourceResponse response;
+
+  @Setup
+  public void setUp() {
+    List<Result> resultList =
+        new MetacardFixtures(10, metadataBytes, AttributeMix.MIXED)
+            .newMetacards(results)
+            .stream()
+            .map(ResultImpl::new)
+            .collect(Collectors.toList());
+    response = new SourceResponseImpl(null, resultList, (long) resultList.size());
+
+    if ("xml".equals(format)) {
+      XmlParser parser = new XmlParser();
+      PrintWriterProviderImpl printWriterProvider = new PrintWriterProviderImpl();
+      XmlResponseQueueTransformer xmlTransformer =
+          new XmlResponseQueueTransformer(
+              parser,
+              printWriterProvider,
+              new MetacardMarshallerImpl(parser, printWriterProvider),
+              new MimeType());
+      xmlTransformer.setThreshold(50);
+      transformer = xmlTransformer;
+    } else {
+      transformer = new GeoJsonQueryResponseTransformer(new GeoJsonMetacardTransformer());
+    }
+  }
+
+  @Benchmark
+  public long stream() throws CatalogTransformerException, IOException {
+    byte[] buffer = new byte[READ_BUFFER_SIZE];
+    long length = 0;
+    try (InputStream content = transformer.transform(response, null).getInputStream()) {
+      int read;
+      while ((read = content.read(buffer)) != -1) {
+        length += read;
+      }
+    }
+    return length;
+  }
+
+  @Benchmark
+  public byte[] buffer() throws CatalogTransformerException, IOException {
+    return transformer.transform(response, null).getByteArray();
+  }
+}
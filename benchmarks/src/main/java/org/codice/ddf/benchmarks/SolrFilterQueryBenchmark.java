@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.types.ValidationAttributes;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Validation;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.catalog.source.solr.SolrCatalogProvider;
+import ddf.catalog.source.solr.SolrFilterDelegateFactoryImpl;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.codice.solr.client.solrj.SolrClient;
+import org.codice.solr.factory.impl.HttpSolrClientFactory;
+import org.opengis.filter.Filter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the latency of catalog queries against a Solr server, with the tag and validation
+ * clauses that the catalog framework adds to every query sent either as filter queries or in the
+ * main query, see {@link SolrCatalogProvider#setFilterQueryAttributes}.
+ *
+ * <p>Unlike the other benchmarks, this one needs a running Solr server, set with the {@code
+ * solr.http.url} system property, for instance {@code -jvmArgsAppend
+ * -Dsolr.http.url=http://localhost:8994/solr}. The first run fills the {@code catalog} core with
+ * synthetic metacards up to the number of {@link #documents}, which takes a while for millions of
+ * metacards, and the next runs reuse them. Each query has a different modified date so that Solr's
+ * queryResultCache does not answer it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SolrFilterQueryBenchmark {
+
+  private static final String CORE = "catalog";
+
+  private static final int INGEST_BATCH_SIZE = 1000;
+
+  private static final int QUERY_COUNT = 4096;
+
+  private static final int PAGE_SIZE = 20;
+
+  private static final long EPOCH = 1514764800000L;
+
+  private static final List<String> FILTER_QUERY_ATTRIBUTES =
+      Arrays.asList(Metacard.TAGS, Validation.VALIDATION_ERRORS, Validation.VALIDATION_WARNINGS);
+
+  @Param({"1000000", "5000000"})
+  private int documents;
+
+  @Param({"true", "false"})
+  private boolean filterQueries;
+
+  private final FilterBuilder filterBuilder = new GeotoolsFilterBuilder();
+
+  private SolrClient solrClient;
+
+  private SolrCatalogProvider provider;
+
+  private List<Filter> filters;
+
+  private int next = 0;
+
+  @Setup
+  public void setUp()
+      throws InterruptedException, IngestException, IOException, SolrServerException,
+          UnsupportedQueryException {
+    solrClient = new HttpSolrClientFactory().newClient(CORE);
+    if (!solrClient.isAvailable(1, TimeUnit.MINUTES)) {
+      throw new IllegalStateException(
+          "Solr is not available at " + System.getProperty("solr.http.url"));
+    }
+
+    provider =
+        new SolrCatalogProvider(
+            solrClient, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl());
+    provider.setFilterQueryAttributes(
+        filterQueries ? FILTER_QUERY_ATTRIBUTES : Collections.emptyList());
+
+    ingest(documents - (int) count());
+
+    Random random = new Random(MetacardFixtures.DEFAULT_SEED);
+    filters = new ArrayList<>(QUERY_COUNT);
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      filters.add(newFilter(random));
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    provider.shutdown();
+  }
+
+  @Benchmark
+  public long query() throws UnsupportedQueryException {
+    QueryImpl query = new QueryImpl(filters.get(nextIndex()));
+    query.setPageSize(PAGE_SIZE);
+    query.setRequestsTotalResultsCount(true);
+    return provider.query(new QueryRequestImpl(query)).getHits();
+  }
+
+  /**
+   * @return a query for recent metacards with one of the words of the fixtures in their title,
+   *     ANDed with the clauses the catalog framework adds to every query
+   */
+  private Filter newFilter(Random random) {
+    Filter tags =
+        filterBuilder.not(
+            filterBuilder.anyOf(
+                filterBuilder.attribute(Metacard.TAGS).is().like().text("revision"),
+                filterBuilder.attribute(Metacard.TAGS).is().like().text("deleted")));
+    Filter validation =
+        filterBuilder.anyOf(
+            filterBuilder.attribute(Validation.VALIDATION_ERRORS).empty(),
+            filterBuilder.attribute(Validation.VALIDATION_WARNINGS).empty());
+    Filter title =
+        filterBuilder
+            .attribute(Core.TITLE)
+            .is()
+            .like()
+            .text(random.nextBoolean() ? "radar" : "harbor");
+    Filter modified =
+        filterBuilder
+            .attribute(Core.MODIFIED)
+            .is()
+            .after()
+            .date(new Date(EPOCH + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(300))));
+
+    return filterBuilder.allOf(tags, validation, filterBuilder.allOf(title, modified));
+  }
+
+  private long count() throws UnsupportedQueryException {
+    QueryImpl query = new QueryImpl(filterBuilder.attribute(Core.ID).is().like().text("*"));
+    query.setPageSize(1);
+    query.setRequestsTotalResultsCount(true);
+    return provider.query(new QueryRequestImpl(query)).getHits();
+  }
+
+  /** Creates metacards tagged like the catalog does, a few of them as revisions or invalid. */
+  private void ingest(int count) throws IngestException, IOException, SolrServerException {
+    if (count <= 0) {
+      return;
+    }
+
+    MetacardFixtures fixtures = new MetacardFixtures(0, 256, AttributeMix.TEXT, System.nanoTime());
+    MetacardType metacardType =
+        new MetacardTypeImpl(
+            "benchmark.filter-queries",
+            Arrays.asList(fixtures.getMetacardType(), new ValidationAttributes()));
+
+    List<Metacard> batch = new ArrayList<>(INGEST_BATCH_SIZE);
+    for (int i = 0; i < count; i++) {
+      MetacardImpl metacard = new MetacardImpl(fixtures.newMetacard(), metacardType);
+      metacard.setTags(Collections.singleton(i % 10 == 0 ? "revision" : "resource"));
+      if (i % 20 == 1) {
+        metacard.setAttribute(Validation.VALIDATION_ERRORS, "benchmark-error");
+      }
+      batch.add(metacard);
+
+      if (batch.size() == INGEST_BATCH_SIZE || i == count - 1) {
+        provider.create(new CreateRequestImpl(batch));
+        batch = new ArrayList<>(INGEST_BATCH_SIZE);
+      }
+    }
+
+    solrClient.commit();
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % QUERY_COUNT;
+    return next;
+  }
+}
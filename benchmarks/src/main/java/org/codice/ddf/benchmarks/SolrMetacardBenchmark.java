@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.benchmarks;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.source.solr.DynamicSchemaResolver;
+import ddf.catalog.source.solr.SolrFilterDelegateFactoryImpl;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.codice.ddf.benchmarks.MetacardFixtures.AttributeMix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the conversion of metacards to and from Solr documents: {@link
+ * DynamicSchemaResolver#addFields} when metacards are created or updated, and {@link
+ * SolrMetacardClientImpl#createMetacard} for every query result.
+ *
+ * <p>The documents read by {@link SolrMetacardClientImpl#createMetacard} only hold the fields that
+ * Solr stores and returns, that is the private fields and one field per attribute.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolrMetacardBenchmark {
+
+  private static final int METACARD_COUNT = 64;
+
+  @Param({"10", "100"})
+  private int extraAttributes;
+
+  @Param({"1024", "32768"})
+  private int metadataBytes;
+
+  @Param({"TEXT", "MIXED"})
+  private AttributeMix mix;
+
+  private DynamicSchemaResolver resolver;
+
+  private SolrMetacardClientImpl client;
+
+  private List<Metacard> metacards;
+
+  private List<SolrDocument> documents;
+
+  private int next = 0;
+
+  @Setup
+  public void setUp() throws MetacardCreationException {
+    resolver = new DynamicSchemaResolver();
+
+    // The SolrClient is only used to run requests, none of which are run by this benchmark
+    client =
+        new SolrMetacardClientImpl(
+            null, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl(), resolver);
+
+    metacards =
+        new MetacardFixtures(extraAttributes, metadataBytes, mix).newMetacards(METACARD_COUNT);
+
+    documents = new ArrayList<>(METACARD_COUNT);
+    for (Metacard metacard : metacards) {
+      documents.add(toStoredDocument(metacard, addFields(metacard)));
+    }
+  }
+
+  @Benchmark
+  public SolrInputDocument addFields() throws MetacardCreationException {
+    return addFields(metacards.get(nextIndex()));
+  }
+
+  @Benchmark
+  public Metacard createMetacard() throws MetacardCreationException {
+    return client.createMetacard(documents.get(nextIndex()));
+  }
+
+  private SolrInputDocument addFields(Metacard metacard) throws MetacardCreationException {
+    SolrInputDocument document = new SolrInputDocument();
+    resolver.addFields(metacard, document);
+    return document;
+  }
+
+  private SolrDocument toStoredDocument(Metacard metacard, SolrInputDocument inputDocument) {
+    MetacardType metacardType = metacard.getMetacardType();
+    SolrDocument document = new SolrDocument();
+
+    for (String fieldName : inputDocument.getFieldNames()) {
+      AttributeDescriptor descriptor =
+          metacardType.getAttributeDescriptor(resolver.resolveFieldName(fieldName));
+
+      if (resolver.isPrivateField(fieldName)
+          || (descriptor != null
+              && fieldName.equals(
+                  descriptor.getName()
+                      + resolver.getFieldSuffix(descriptor.getType().getAttributeFormat())))) {
+        document.setField(fieldName, inputDocument.getFieldValues(fieldName));
+      }
+    }
+
+    return document;
+  }
+
+  private int nextIndex() {
+    next = (next + 1) % METACARD_COUNT;
+    return next;
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * An {@link InputStream} whose bytes are produced on demand, one chunk at a time, as the stream is
+ * read. Only the chunk being read is held in memory, which lets transformers return large content
+ * without building all of it up front.
+ *
+ * <p>Implementations return the next chunk from {@link #nextChunk()}. Exceptions thrown while
+ * producing a chunk are reported to the reader of the stream.
+ */
+public abstract class IncrementalInputStream extends InputStream {
+
+  private static final byte[] NO_BYTES = new byte[0];
+
+  private byte[] chunk = NO_BYTES;
+
+  private int position;
+
+  private boolean ended;
+
+  /**
+   * Produces the next bytes of the stream. Called by the thread reading the stream whenever the
+   * previous chunk has been read.
+   *
+   * @return the next chunk, which may be empty, or {@code null} at the end of the stream
+   * @throws IOException if the next chunk could not be produced
+   */
+  protected abstract byte[] nextChunk() throws IOException;
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return chunk[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (offset < 0 || length < 0 || length > bytes.length - offset) {
+      throw new IndexOutOfBoundsException();
+    }
+    if (length == 0) {
+      return 0;
+    }
+
+    int read = 0;
+    while (read < length && fill()) {
+      int count = Math.min(length - read, chunk.length - position);
+      System.arraycopy(chunk, position, bytes, offset + read, count);
+      position += count;
+      read += count;
+    }
+    return read == 0 ? -1 : read;
+  }
+
+  @Override
+  public int available() {
+    return chunk.length - position;
+  }
+
+  /** Ends the stream. Subclasses releasing resources must call this method. */
+  @Override
+  public void close() throws IOException {
+    ended = true;
+    chunk = NO_BYTES;
+    position = 0;
+  }
+
+  private boolean fill() throws IOException {
+    while (position == chunk.length) {
+      if (ended) {
+        return false;
+      }
+      byte[] next = nextChunk();
+      if (next == null) {
+        ended = true;
+        next = NO_BYTES;
+      }
+      chunk = next;
+      position = 0;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,552 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compact, versioned binary encoding for {@link Metacard}s and {@link MetacardType}s that avoids
+ * Java serialization for the common attribute value types.
+ *
+ * <p>{@link MetacardType}s are interned by {@link #getTypeKey(MetacardType)}, so a type that has
+ * already been decoded by this codec is not decoded again. Attribute values are written as tagged,
+ * length-prefixed primitives; only values that are not one of the basic attribute value types fall
+ * back to Java serialization. Each attribute is length-prefixed so that {@link #decode(byte[])}
+ * only indexes the attributes and decodes their values the first time they are read.
+ *
+ * <p>Decoded {@link MetacardType}s are rebuilt from the {@link BasicTypes} matching each
+ * descriptor's {@link AttributeFormat}.
+ *
+ * <p>This class is thread-safe.
+ */
+public class MetacardCodec {
+
+  /** Version of the encoding written by this codec. */
+  public static final byte VERSION = 1;
+
+  private static final byte[] METACARD_MAGIC = {'D', 'M'};
+
+  private static final byte[] TYPE_MAGIC = {'D', 'T'};
+
+  private static final byte TAG_NULL = 0;
+
+  private static final byte TAG_STRING = 1;
+
+  private static final byte TAG_BOOLEAN = 2;
+
+  private static final byte TAG_DATE = 3;
+
+  private static final byte TAG_SHORT = 4;
+
+  private static final byte TAG_INTEGER = 5;
+
+  private static final byte TAG_LONG = 6;
+
+  private static final byte TAG_FLOAT = 7;
+
+  private static final byte TAG_DOUBLE = 8;
+
+  private static final byte TAG_BINARY = 9;
+
+  private static final byte TAG_SERIALIZED = 10;
+
+  private static final int FLAG_INDEXED = 1;
+
+  private static final int FLAG_STORED = 1 << 1;
+
+  private static final int FLAG_TOKENIZED = 1 << 2;
+
+  private static final int FLAG_MULTIVALUED = 1 << 3;
+
+  private static final Map<AttributeFormat, AttributeType<?>> BASIC_TYPES =
+      new EnumMap<>(AttributeFormat.class);
+
+  static {
+    BASIC_TYPES.put(AttributeFormat.DATE, BasicTypes.DATE_TYPE);
+    BASIC_TYPES.put(AttributeFormat.STRING, BasicTypes.STRING_TYPE);
+    BASIC_TYPES.put(AttributeFormat.XML, BasicTypes.XML_TYPE);
+    BASIC_TYPES.put(AttributeFormat.LONG, BasicTypes.LONG_TYPE);
+    BASIC_TYPES.put(AttributeFormat.BINARY, BasicTypes.BINARY_TYPE);
+    BASIC_TYPES.put(AttributeFormat.GEOMETRY, BasicTypes.GEO_TYPE);
+    BASIC_TYPES.put(AttributeFormat.BOOLEAN, BasicTypes.BOOLEAN_TYPE);
+    BASIC_TYPES.put(AttributeFormat.DOUBLE, BasicTypes.DOUBLE_TYPE);
+    BASIC_TYPES.put(AttributeFormat.FLOAT, BasicTypes.FLOAT_TYPE);
+    BASIC_TYPES.put(AttributeFormat.INTEGER, BasicTypes.INTEGER_TYPE);
+    BASIC_TYPES.put(AttributeFormat.OBJECT, BasicTypes.OBJECT_TYPE);
+    BASIC_TYPES.put(AttributeFormat.SHORT, BasicTypes.SHORT_TYPE);
+  }
+
+  private final Cache<String, MetacardType> typeCache;
+
+  public MetacardCodec() {
+    this(4096);
+  }
+
+  /** @param maximumTypes the maximum number of interned {@link MetacardType}s */
+  public MetacardCodec(long maximumTypes) {
+    typeCache = CacheBuilder.newBuilder().maximumSize(maximumTypes).initialCapacity(64).build();
+  }
+
+  /**
+   * Returns the key a {@link MetacardType} is interned by, which is its name and hash code.
+   *
+   * @param metacardType the type
+   * @return the key of the type
+   */
+  public static String getTypeKey(MetacardType metacardType) {
+    return String.format("%s#%s", metacardType.getName(), metacardType.hashCode());
+  }
+
+  /**
+   * Checks whether the bytes were written by {@link #encodeType(MetacardType)}.
+   *
+   * @param bytes the bytes to check
+   * @return {@code true} if the bytes start with the encoded {@link MetacardType} header
+   */
+  public static boolean isEncodedType(byte[] bytes) {
+    return hasMagic(bytes, TYPE_MAGIC);
+  }
+
+  /**
+   * Checks whether the bytes were written by {@link #encode(Metacard)}.
+   *
+   * @param bytes the bytes to check
+   * @return {@code true} if the bytes start with the encoded {@link Metacard} header
+   */
+  public static boolean isEncodedMetacard(byte[] bytes) {
+    return hasMagic(bytes, METACARD_MAGIC);
+  }
+
+  /**
+   * Encodes a {@link MetacardType}. Callers that encode the same type repeatedly should keep the
+   * encoding by {@link #getTypeKey(MetacardType)}.
+   *
+   * @param metacardType the type to encode
+   * @return the encoded type
+   * @throws IOException if the type cannot be encoded
+   */
+  public byte[] encodeType(MetacardType metacardType) throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+      out.write(TYPE_MAGIC);
+      out.writeByte(VERSION);
+      writeString(out, metacardType.getName());
+
+      Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+      out.writeInt(descriptors.size());
+      for (AttributeDescriptor descriptor : descriptors) {
+        writeString(out, descriptor.getName());
+        writeString(out, descriptor.getType().getAttributeFormat().name());
+        int flags = 0;
+        flags |= descriptor.isIndexed() ? FLAG_INDEXED : 0;
+        flags |= descriptor.isStored() ? FLAG_STORED : 0;
+        flags |= descriptor.isTokenized() ? FLAG_TOKENIZED : 0;
+        flags |= descriptor.isMultiValued() ? FLAG_MULTIVALUED : 0;
+        out.writeByte(flags);
+      }
+    }
+
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Decodes a {@link MetacardType} written by {@link #encodeType(MetacardType)}.
+   *
+   * @param bytes the encoded type
+   * @return the decoded type
+   * @throws IOException if the bytes are not a supported encoding of a type
+   */
+  public MetacardType decodeType(byte[] bytes) throws IOException {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      readHeader(buffer, TYPE_MAGIC);
+      String name = readString(buffer);
+
+      int size = buffer.getInt();
+      Set<AttributeDescriptor> descriptors = new HashSet<>(size * 2);
+      for (int i = 0; i < size; i++) {
+        String descriptorName = readString(buffer);
+        AttributeType<?> attributeType =
+            BASIC_TYPES.get(AttributeFormat.valueOf(readString(buffer)));
+        int flags = buffer.get();
+        descriptors.add(
+            new AttributeDescriptorImpl(
+                descriptorName,
+                (flags & FLAG_INDEXED) != 0,
+                (flags & FLAG_STORED) != 0,
+                (flags & FLAG_TOKENIZED) != 0,
+                (flags & FLAG_MULTIVALUED) != 0,
+                attributeType));
+      }
+
+      return new MetacardTypeImpl(name, descriptors);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Could not decode MetacardType.", e);
+    }
+  }
+
+  /**
+   * Encodes a {@link Metacard} together with its {@link MetacardType}. The attributes of a {@link
+   * MetacardImpl} that are not declared by its type are encoded as well.
+   *
+   * @param metacard the metacard to encode
+   * @return the encoded metacard
+   * @throws IOException if the metacard cannot be encoded
+   */
+  public byte[] encode(Metacard metacard) throws IOException {
+    return encode(metacard, encodeType(metacard.getMetacardType()));
+  }
+
+  /**
+   * Encodes a {@link Metacard} together with the encoding of its {@link MetacardType}, for callers
+   * that already keep the encoded types by {@link #getTypeKey(MetacardType)}.
+   *
+   * @param metacard the metacard to encode
+   * @param typeBytes the type of the metacard, as encoded by {@link #encodeType(MetacardType)}
+   * @return the encoded metacard
+   * @throws IOException if the metacard cannot be encoded
+   */
+  public byte[] encode(Metacard metacard, byte[] typeBytes) throws IOException {
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+      out.write(METACARD_MAGIC);
+      out.writeByte(VERSION);
+
+      writeString(out, getTypeKey(metacard.getMetacardType()));
+      out.writeInt(typeBytes.length);
+      out.write(typeBytes);
+
+      writeString(out, metacard.getSourceId());
+
+      List<Attribute> attributes = new ArrayList<>();
+      for (String name : getAttributeNames(metacard)) {
+        Attribute attribute = metacard.getAttribute(name);
+        if (attribute != null && attribute.getValue() != null) {
+          attributes.add(attribute);
+        }
+      }
+
+      out.writeInt(attributes.size());
+      ByteArrayOutputStream attributeBytes = new ByteArrayOutputStream();
+      DataOutputStream attributeOut = new DataOutputStream(attributeBytes);
+      for (Attribute attribute : attributes) {
+        attributeBytes.reset();
+        List<Serializable> values = attribute.getValues();
+        attributeOut.writeInt(values.size());
+        for (Serializable value : values) {
+          writeValue(attributeOut, value);
+        }
+        attributeOut.flush();
+
+        writeString(out, attribute.getName());
+        out.writeInt(attributeBytes.size());
+        attributeBytes.writeTo(out);
+      }
+    }
+
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Decodes a {@link Metacard} written by {@link #encode(Metacard)}. The attribute values are only
+   * decoded when they are first read from the returned {@link Metacard}.
+   *
+   * @param bytes the encoded metacard, which must not be modified afterwards
+   * @return the decoded metacard
+   * @throws IOException if the bytes are not a supported encoding of a metacard
+   */
+  public MetacardImpl decode(byte[] bytes) throws IOException {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      readHeader(buffer, METACARD_MAGIC);
+
+      String typeKey = readString(buffer);
+      int typeLength = buffer.getInt();
+      MetacardType metacardType = typeCache.getIfPresent(typeKey);
+      if (metacardType == null) {
+        byte[] typeBytes = new byte[typeLength];
+        buffer.get(typeBytes);
+        metacardType = decodeType(typeBytes);
+        typeCache.put(typeKey, metacardType);
+      } else {
+        buffer.position(buffer.position() + typeLength);
+      }
+
+      String sourceId = readString(buffer);
+
+      int size = buffer.getInt();
+      Map<String, ByteBuffer> encodedAttributes = new LinkedHashMap<>(size * 2);
+      for (int i = 0; i < size; i++) {
+        String name = readString(buffer);
+        int length = buffer.getInt();
+        ByteBuffer attributeBuffer = buffer.slice();
+        attributeBuffer.limit(length);
+        buffer.position(buffer.position() + length);
+        encodedAttributes.put(name, attributeBuffer);
+      }
+
+      LazyMetacard metacard = new LazyMetacard(metacardType, encodedAttributes);
+      metacard.setSourceId(sourceId);
+      return metacard;
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Could not decode Metacard.", e);
+    }
+  }
+
+  private static Set<String> getAttributeNames(Metacard metacard) {
+    if (metacard instanceof MetacardImpl) {
+      return ((MetacardImpl) metacard).getAttributeNames();
+    }
+
+    Set<String> names = new LinkedHashSet<>();
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      names.add(descriptor.getName());
+    }
+    return names;
+  }
+
+  static Attribute decodeAttribute(String name, ByteBuffer encoded) {
+    ByteBuffer buffer = encoded.duplicate();
+    try {
+      int size = buffer.getInt();
+      if (size == 1) {
+        return new AttributeImpl(name, readValue(buffer));
+      }
+
+      List<Serializable> values = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        values.add(readValue(buffer));
+      }
+      return new AttributeImpl(name, values);
+    } catch (IOException | BufferUnderflowException e) {
+      throw new IllegalStateException("Could not decode attribute " + name, e);
+    }
+  }
+
+  private static void writeValue(DataOutputStream out, Serializable value) throws IOException {
+    if (value == null) {
+      out.writeByte(TAG_NULL);
+    } else if (value instanceof String) {
+      out.writeByte(TAG_STRING);
+      writeString(out, (String) value);
+    } else if (value instanceof Boolean) {
+      out.writeByte(TAG_BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value.getClass() == Date.class) {
+      out.writeByte(TAG_DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (value instanceof Short) {
+      out.writeByte(TAG_SHORT);
+      out.writeShort((Short) value);
+    } else if (value instanceof Integer) {
+      out.writeByte(TAG_INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(TAG_LONG);
+      out.writeLong((Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(TAG_FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(TAG_DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof byte[]) {
+      byte[] bytes = (byte[]) value;
+      out.writeByte(TAG_BINARY);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else {
+      ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+        objectOut.writeObject(value);
+      }
+      out.writeByte(TAG_SERIALIZED);
+      out.writeInt(serialized.size());
+      serialized.writeTo(out);
+    }
+  }
+
+  private static Serializable readValue(ByteBuffer buffer) throws IOException {
+    byte tag = buffer.get();
+    switch (tag) {
+      case TAG_NULL:
+        return null;
+      case TAG_STRING:
+        return readString(buffer);
+      case TAG_BOOLEAN:
+        return buffer.get() != 0;
+      case TAG_DATE:
+        return new Date(buffer.getLong());
+      case TAG_SHORT:
+        return buffer.getShort();
+      case TAG_INTEGER:
+        return buffer.getInt();
+      case TAG_LONG:
+        return buffer.getLong();
+      case TAG_FLOAT:
+        return buffer.getFloat();
+      case TAG_DOUBLE:
+        return buffer.getDouble();
+      case TAG_BINARY:
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+      case TAG_SERIALIZED:
+        byte[] serialized = new byte[buffer.getInt()];
+        buffer.get(serialized);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+          return (Serializable) in.readObject();
+        } catch (ClassNotFoundException e) {
+          throw new IOException("Could not create attribute value.", e);
+        }
+      default:
+        throw new IOException("Unknown attribute value tag " + tag);
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    if (length < 0) {
+      return null;
+    }
+
+    String value;
+    if (buffer.hasArray()) {
+      value =
+          new String(
+              buffer.array(),
+              buffer.arrayOffset() + buffer.position(),
+              length,
+              StandardCharsets.UTF_8);
+      buffer.position(buffer.position() + length);
+    } else {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value;
+  }
+
+  private static void readHeader(ByteBuffer buffer, byte[] magic) throws IOException {
+    byte[] header = new byte[magic.length];
+    buffer.get(header);
+    for (int i = 0; i < magic.length; i++) {
+      if (header[i] != magic[i]) {
+        throw new IOException("Unrecognized encoding header.");
+      }
+    }
+
+    byte version = buffer.get();
+    if (version != VERSION) {
+      throw new IOException("Unsupported encoding version " + version);
+    }
+  }
+
+  private static boolean hasMagic(byte[] bytes, byte[] magic) {
+    if (bytes == null || bytes.length < magic.length) {
+      return false;
+    }
+    for (int i = 0; i < magic.length; i++) {
+      if (bytes[i] != magic[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A {@link MetacardImpl} that keeps the encoded form of its attributes and only decodes an
+   * attribute the first time it is read. Reads are synchronized since decoding an attribute
+   * modifies the metacard.
+   */
+  private static class LazyMetacard extends MetacardImpl {
+
+    private final transient Map<String, ByteBuffer> encodedAttributes;
+
+    private LazyMetacard(MetacardType type, Map<String, ByteBuffer> encodedAttributes) {
+      super(type);
+      this.encodedAttributes = encodedAttributes;
+    }
+
+    @Override
+    public synchronized Attribute getAttribute(String name) {
+      ByteBuffer encoded = encodedAttributes.remove(name);
+      if (encoded != null) {
+        super.setAttribute(decodeAttribute(name, encoded));
+      }
+      return super.getAttribute(name);
+    }
+
+    @Override
+    public synchronized void setAttribute(Attribute attribute) {
+      if (attribute != null) {
+        encodedAttributes.remove(attribute.getName());
+      }
+      super.setAttribute(attribute);
+    }
+
+    @Override
+    protected synchronized Set<String> getAttributeNames() {
+      Set<String> names = super.getAttributeNames();
+      names.addAll(encodedAttributes.keySet());
+      return names;
+    }
+
+    /** Serializes a fully decoded copy so the encoded attributes are not lost. */
+    private synchronized Object writeReplace() {
+      MetacardImpl metacard = new MetacardImpl(getMetacardType());
+      metacard.setSourceId(getSourceId());
+      for (String name : getAttributeNames()) {
+        metacard.setAttribute(getAttribute(name));
+      }
+      return metacard;
+    }
+  }
+}
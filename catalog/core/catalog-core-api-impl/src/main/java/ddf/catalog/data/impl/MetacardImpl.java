@@ -34,6 +34,7 @@
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -766,6 +767,34 @@ public void setAttribute(Attribute attribute) {
     }
   }
 
+  /**
+   * Returns the names of the attributes that have a value, including the ones that are not declared
+   * by the {@link MetacardType}. Only the declared attributes are known when this metacard wraps a
+   * {@link Metacard} that is not a {@code MetacardImpl}.
+   *
+   * @return the names of the attributes that have a value
+   */
+  protected Set<String> getAttributeNames() {
+    if (wrappedMetacard instanceof MetacardImpl) {
+      return ((MetacardImpl) wrappedMetacard).getAttributeNames();
+    }
+
+    Set<String> names = new LinkedHashSet<>();
+    if (wrappedMetacard != null) {
+      MetacardType metacardType = wrappedMetacard.getMetacardType();
+      if (metacardType != null && metacardType.getAttributeDescriptors() != null) {
+        for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
+          if (wrappedMetacard.getAttribute(descriptor.getName()) != null) {
+            names.add(descriptor.getName());
+          }
+        }
+      }
+    } else {
+      names.addAll(map.keySet());
+    }
+    return names;
+  }
+
   /**
    * Serializes this {@link MetacardImpl} instance.
    *
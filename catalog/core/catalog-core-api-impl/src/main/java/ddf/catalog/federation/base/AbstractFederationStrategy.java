@@ -29,12 +29,16 @@
 import ddf.catalog.source.Source;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -109,6 +113,27 @@ protected abstract Runnable createMonitor(
       QueryResponseImpl returnResults,
       Query query);
 
+  /**
+   * Creates the monitor for federated queries, for monitors that handle the source responses in
+   * the order they complete. By default, the queue is ignored and {@link
+   * #createMonitor(ExecutorService, Map, QueryResponseImpl, Query)} is called.
+   *
+   * @param queryExecutorService
+   * @param futures the queries of the sources, in the order the sources were queried
+   * @param completedFutures the futures of {@code futures}, added as their query completes
+   * @param returnResults the query results
+   * @param query
+   * @return the {@link Runnable}
+   */
+  protected Runnable createMonitor(
+      ExecutorService queryExecutorService,
+      Map<Source, Future<SourceResponse>> futures,
+      BlockingQueue<Future<SourceResponse>> completedFutures,
+      QueryResponseImpl returnResults,
+      Query query) {
+    return createMonitor(queryExecutorService, futures, returnResults, query);
+  }
+
   @Override
   public QueryResponse federate(List<Source> sources, final QueryRequest queryRequest) {
     final String methodName = "federate";
@@ -133,7 +158,10 @@ public QueryResponse federate(List<Source> sources, final QueryRequest queryRequ
 
     final QueryResponseImpl queryResponseQueue = new QueryResponseImpl(queryRequest, null);
 
-    Map<Source, Future<SourceResponse>> futures = new HashMap<Source, Future<SourceResponse>>();
+    Map<Source, Future<SourceResponse>> futures = new LinkedHashMap<>();
+    BlockingQueue<Future<SourceResponse>> completedFutures = new LinkedBlockingQueue<>();
+    CompletionService<SourceResponse> completionService =
+        new ExecutorCompletionService<>(queryExecutorService, completedFutures);
 
     Query modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
     QueryRequest modifiedQueryRequest =
@@ -163,7 +191,7 @@ public QueryResponse federate(List<Source> sources, final QueryRequest queryRequ
 
           futures.put(
               source,
-              queryExecutorService.submit(
+              completionService.submit(
                   new CallableSourceResponse(
                       source,
                       modifiedQueryRequest.getQuery(),
@@ -187,7 +215,11 @@ public QueryResponse federate(List<Source> sources, final QueryRequest queryRequ
 
     queryExecutorService.submit(
         createMonitor(
-            queryExecutorService, futures, queryResponseQueue, modifiedQueryRequest.getQuery()));
+            queryExecutorService,
+            futures,
+            completedFutures,
+            queryResponseQueue,
+            modifiedQueryRequest.getQuery()));
 
     QueryResponse queryResponse = null;
     if (offset > 1 && sources.size() > 1) {
@@ -14,6 +14,9 @@
 package ddf.catalog.util.impl;
 
 import static com.google.common.collect.Iterators.limit;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
@@ -28,11 +31,14 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
@@ -50,6 +56,14 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>Queries against the local catalog that start at the first result are paged with a cursor mark
+ * (see {@link ddf.catalog.Constants#CURSOR_MARK_KEY}) when the catalog provider supports it, so the
+ * cost of each page does not grow with the number of results already returned. Otherwise, the
+ * results are paged by start index. Either way, results that were already returned are skipped,
+ * since connected sources queried along with the local catalog may return them again. When paging
+ * with a cursor, only the results of the previous page are remembered, so that iterating over the
+ * results runs in constant memory.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -155,12 +169,13 @@ public Stream<Result> stream() {
   private static class ResultIterator implements Iterator<Result> {
 
     private final QueryFunction queryFunction;
-    private final Set<String> foundIds = new HashSet<>(2048);
+    private Set<String> foundIds = new HashSet<>(2048);
     private int currentIndex;
     private QueryImpl queryCopy;
     private QueryRequestImpl queryRequestCopy;
     private Iterator<Result> results = Collections.emptyIterator();
     private boolean finished = false;
+    private String cursorMark;
 
     ResultIterator(QueryFunction queryFunction, QueryRequest queryRequest) {
       this.queryFunction = queryFunction;
@@ -168,6 +183,10 @@ private static class ResultIterator implements Iterator<Result> {
       copyQueryRequestAndQuery(queryRequest);
 
       this.currentIndex = queryCopy.getStartIndex();
+
+      if (canUseCursor(queryRequest)) {
+        this.cursorMark = INITIAL_CURSOR_MARK;
+      }
     }
 
     @Override
@@ -209,11 +228,31 @@ public Result next() {
     private void fetchNextResults() {
       queryCopy.setStartIndex(currentIndex);
 
+      if (cursorMark != null) {
+        queryRequestCopy.getProperties().put(CURSOR_MARK_KEY, cursorMark);
+      }
+
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
 
         final List<Result> resultList = response.getResults();
 
+        if (cursorMark != null) {
+          Serializable nextCursorMark =
+              Optional.ofNullable(response.getProperties())
+                  .map(m -> m.get(NEXT_CURSOR_MARK_KEY))
+                  .orElse(null);
+
+          if (nextCursorMark instanceof String) {
+            fetchedCursorPage(resultList, (String) nextCursorMark);
+            return;
+          }
+
+          // The catalog did not page with the cursor; continue by start index
+          cursorMark = null;
+          queryRequestCopy.getProperties().remove(CURSOR_MARK_KEY);
+        }
+
         // Because some of the results may be filtered out by the catalog framework's
         // plugins, we need a way to know the actual page size and increment currentIndex based
         // on that number instead of using the result list size.
@@ -238,18 +277,7 @@ private void fetchNextResults() {
         }
         currentIndex += actualResultSize;
 
-        List<Result> dedupedResults = new ArrayList<>(resultList.size());
-        for (Result result : resultList) {
-          if (isDistinctResult(result)) {
-            dedupedResults.add(result);
-          }
-          Optional.ofNullable(result)
-              .map(Result::getMetacard)
-              .map(Metacard::getId)
-              .ifPresent(foundIds::add);
-        }
-
-        this.results = dedupedResults.iterator();
+        this.results = dedupe(resultList, Collections.emptySet()).iterator();
 
         if (response.getHits() >= 0 && currentIndex > response.getHits()) {
           finished = true;
@@ -259,11 +287,49 @@ private void fetchNextResults() {
       }
     }
 
-    private boolean isDistinctResult(@Nullable Result result) {
+    /**
+     * The catalog provider returns each of its results once when paging with a cursor, but the
+     * connected sources queried along with it do not page with the cursor and return the same
+     * results with every page. Removing the results that were on the previous page is then enough,
+     * and only the ids of the previous page are kept.
+     */
+    private void fetchedCursorPage(List<Result> resultList, String nextCursorMark) {
+      Set<String> previousPageIds = foundIds;
+      foundIds = new HashSet<>();
+      this.results = dedupe(resultList, previousPageIds).iterator();
+
+      if (nextCursorMark.equals(cursorMark)) {
+        finished = true;
+      }
+      cursorMark = nextCursorMark;
+    }
+
+    private boolean canUseCursor(QueryRequest queryRequest) {
+      return queryCopy.getStartIndex() <= 1
+          && !queryRequest.isEnterprise()
+          && (queryRequest.getSourceIds() == null || queryRequest.getSourceIds().isEmpty());
+    }
+
+    private List<Result> dedupe(List<Result> resultList, Set<String> previousPageIds) {
+      List<Result> dedupedResults = new ArrayList<>(resultList.size());
+      for (Result result : resultList) {
+        if (isDistinctResult(result, previousPageIds)) {
+          dedupedResults.add(result);
+        }
+        Optional.ofNullable(result)
+            .map(Result::getMetacard)
+            .map(Metacard::getId)
+            .ifPresent(foundIds::add);
+      }
+      return dedupedResults;
+    }
+
+    private boolean isDistinctResult(@Nullable Result result, Set<String> previousPageIds) {
       return result != null
           && (result.getMetacard() == null
               || result.getMetacard().getId() == null
-              || !foundIds.contains(result.getMetacard().getId()));
+              || (!foundIds.contains(result.getMetacard().getId())
+                  && !previousPageIds.contains(result.getMetacard().getId())));
     }
 
     private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
@@ -281,12 +347,17 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               // always get the hit count
               query.getTimeoutMillis());
 
+      Map<String, Serializable> properties = new HashMap<>();
+      if (queryRequest.getProperties() != null) {
+        properties.putAll(queryRequest.getProperties());
+      }
+
       this.queryRequestCopy =
           new QueryRequestImpl(
               queryCopy,
               queryRequest.isEnterprise(),
               queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              properties);
     }
   }
 }
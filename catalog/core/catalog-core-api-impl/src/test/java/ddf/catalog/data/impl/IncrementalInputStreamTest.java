@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+public class IncrementalInputStreamTest {
+
+  @Test
+  public void testReadsChunksInOrder() throws IOException {
+    IncrementalInputStream stream = newStream("abc", "", "d", "efgh");
+
+    assertArrayEquals("abcdefgh".getBytes(StandardCharsets.UTF_8), IOUtils.toByteArray(stream));
+  }
+
+  @Test
+  public void testReadsSingleBytes() throws IOException {
+    IncrementalInputStream stream = newStream("a", "", "b");
+
+    assertEquals('a', stream.read());
+    assertEquals('b', stream.read());
+    assertEquals(-1, stream.read());
+    assertEquals(-1, stream.read());
+  }
+
+  @Test
+  public void testReadFillsBufferAcrossChunks() throws IOException {
+    IncrementalInputStream stream = newStream("ab", "cd", "ef");
+    byte[] bytes = new byte[5];
+
+    assertEquals(5, stream.read(bytes, 0, 5));
+    assertArrayEquals("abcde".getBytes(StandardCharsets.UTF_8), bytes);
+    assertEquals(1, stream.read(bytes, 0, 5));
+    assertEquals(-1, stream.read(bytes, 0, 5));
+  }
+
+  @Test
+  public void testProducesChunksOnDemand() throws IOException {
+    AtomicInteger chunks = new AtomicInteger();
+    IncrementalInputStream stream =
+        new IncrementalInputStream() {
+          @Override
+          protected byte[] nextChunk() {
+            return chunks.incrementAndGet() <= 3 ? new byte[] {1} : null;
+          }
+        };
+
+    stream.read();
+    assertEquals(1, chunks.get());
+
+    stream.close();
+    assertEquals(-1, stream.read());
+    assertEquals(1, chunks.get());
+  }
+
+  @Test(expected = IOException.class)
+  public void testChunkFailure() throws IOException {
+    IncrementalInputStream stream =
+        new IncrementalInputStream() {
+          @Override
+          protected byte[] nextChunk() throws IOException {
+            throw new IOException("failure");
+          }
+        };
+
+    stream.read();
+  }
+
+  private static IncrementalInputStream newStream(String... chunks) {
+    Iterator<String> iterator = Arrays.asList(chunks).iterator();
+    return new IncrementalInputStream() {
+      @Override
+      protected byte[] nextChunk() {
+        return iterator.hasNext() ? iterator.next().getBytes(StandardCharsets.UTF_8) : null;
+      }
+    };
+  }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetacardCodecTest {
+
+  private static final String OBJECT_ATTRIBUTE = "object-attribute";
+
+  private static final String SHORT_ATTRIBUTE = "short-attribute";
+
+  private static final String UNDECLARED_ATTRIBUTE = "undeclared-attribute";
+
+  private MetacardCodec codec;
+
+  private MetacardType metacardType;
+
+  private MetacardImpl metacard;
+
+  @Before
+  public void setUp() throws Exception {
+    codec = new MetacardCodec();
+
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    descriptors.add(
+        new AttributeDescriptorImpl(
+            OBJECT_ATTRIBUTE, false, true, false, true, BasicTypes.OBJECT_TYPE));
+    descriptors.add(
+        new AttributeDescriptorImpl(
+            SHORT_ATTRIBUTE, true, true, false, false, BasicTypes.SHORT_TYPE));
+    metacardType = new MetacardTypeImpl("codec-test", descriptors);
+
+    metacard = new MetacardImpl(metacardType);
+    metacard.setId("1234567890abcdef");
+    metacard.setTitle("Codec Test \u00e9\u4e2d");
+    metacard.setCreatedDate(new Date(1000L));
+    metacard.setModifiedDate(new Date(2000L));
+    metacard.setLocation("POLYGON ((1 1, 1 2, 2 2, 2 1, 1 1))");
+    metacard.setMetadata("<xml>metadata</xml>");
+    metacard.setThumbnail(new byte[] {1, 2, 3});
+    metacard.setResourceURI(new URI("http://example.com/resource"));
+    metacard.setAttribute(SHORT_ATTRIBUTE, (short) 7);
+    metacard.setAttribute(
+        new AttributeImpl(OBJECT_ATTRIBUTE, Arrays.<Serializable>asList(new URI("urn:a"), 42)));
+    metacard.setSourceId("codec-source");
+  }
+
+  @Test
+  public void testMetacardRoundTrip() throws Exception {
+    byte[] bytes = codec.encode(metacard);
+
+    assertTrue(MetacardCodec.isEncodedMetacard(bytes));
+    assertMetacardEquals(metacard, codec.decode(bytes));
+  }
+
+  @Test
+  public void testUndeclaredAttributeRoundTrip() throws Exception {
+    metacard.setAttribute(UNDECLARED_ATTRIBUTE, "undeclared");
+
+    MetacardImpl decoded = codec.decode(codec.encode(metacard));
+
+    assertNull(decoded.getMetacardType().getAttributeDescriptor(UNDECLARED_ATTRIBUTE));
+    assertEquals("undeclared", decoded.getAttribute(UNDECLARED_ATTRIBUTE).getValue());
+    assertMetacardEquals(metacard, decoded);
+  }
+
+  @Test
+  public void testWrappedMetacardUndeclaredAttributeRoundTrip() throws Exception {
+    metacard.setAttribute(UNDECLARED_ATTRIBUTE, "undeclared");
+
+    Metacard decoded = codec.decode(codec.encode(new MetacardImpl(metacard)));
+
+    assertEquals("undeclared", decoded.getAttribute(UNDECLARED_ATTRIBUTE).getValue());
+  }
+
+  @Test
+  public void testMetacardTypeRoundTrip() throws Exception {
+    byte[] bytes = codec.encodeType(metacardType);
+
+    assertTrue(MetacardCodec.isEncodedType(bytes));
+    MetacardType decoded = codec.decodeType(bytes);
+
+    assertEquals(metacardType.getName(), decoded.getName());
+    assertEquals(
+        metacardType.getAttributeDescriptors().size(), decoded.getAttributeDescriptors().size());
+    for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
+      AttributeDescriptor decodedDescriptor = decoded.getAttributeDescriptor(descriptor.getName());
+      assertEquals(
+          descriptor.getType().getAttributeFormat(),
+          decodedDescriptor.getType().getAttributeFormat());
+      assertEquals(descriptor.isIndexed(), decodedDescriptor.isIndexed());
+      assertEquals(descriptor.isStored(), decodedDescriptor.isStored());
+      assertEquals(descriptor.isTokenized(), decodedDescriptor.isTokenized());
+      assertEquals(descriptor.isMultiValued(), decodedDescriptor.isMultiValued());
+    }
+  }
+
+  @Test
+  public void testDecodedTypesAreInterned() throws Exception {
+    Metacard first = codec.decode(codec.encode(metacard));
+    Metacard second = codec.decode(codec.encode(metacard));
+
+    assertSame(first.getMetacardType(), second.getMetacardType());
+  }
+
+  @Test
+  public void testSetAttributeOverridesEncodedValue() throws Exception {
+    MetacardImpl decoded = codec.decode(codec.encode(metacard));
+
+    decoded.setTitle("updated");
+    decoded.setAttribute(Metacard.DESCRIPTION, null);
+
+    assertEquals("updated", decoded.getTitle());
+    assertNull(decoded.getAttribute(Metacard.DESCRIPTION));
+  }
+
+  @Test
+  public void testDecodedMetacardIsJavaSerializable() throws Exception {
+    metacard.setAttribute(UNDECLARED_ATTRIBUTE, "undeclared");
+    Metacard decoded = codec.decode(codec.encode(metacard));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(decoded);
+    }
+
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      Metacard deserialized = (Metacard) in.readObject();
+      assertEquals(MetacardImpl.class, deserialized.getClass());
+      assertMetacardEquals(metacard, deserialized);
+      assertEquals("undeclared", deserialized.getAttribute(UNDECLARED_ATTRIBUTE).getValue());
+    }
+  }
+
+  @Test
+  public void testEncodingIsSmallerThanJavaSerialization() throws Exception {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(metacard);
+    }
+
+    assertTrue(codec.encode(metacard).length < serialized.size());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeJavaSerializedBytes() throws Exception {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(metacardType);
+    }
+
+    assertFalse(MetacardCodec.isEncodedType(serialized.toByteArray()));
+    codec.decodeType(serialized.toByteArray());
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecodeTruncatedBytes() throws Exception {
+    byte[] bytes = codec.encode(metacard);
+
+    codec.decode(Arrays.copyOf(bytes, bytes.length / 2));
+  }
+
+  private void assertMetacardEquals(Metacard expected, Metacard actual) {
+    assertEquals(expected.getSourceId(), actual.getSourceId());
+    assertEquals(expected.getMetacardType().getName(), actual.getMetacardType().getName());
+    for (AttributeDescriptor descriptor : expected.getMetacardType().getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (expected.getAttribute(name) == null) {
+        assertNull(actual.getAttribute(name));
+      } else if (BasicTypes.BINARY_TYPE.equals(descriptor.getType())) {
+        assertArrayEquals(
+            (byte[]) expected.getAttribute(name).getValue(),
+            (byte[]) actual.getAttribute(name).getValue());
+      } else {
+        assertEquals(
+            expected.getAttribute(name).getValues(), actual.getAttribute(name).getValues());
+      }
+    }
+  }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class ResultIterableTest {
+
+  private static final int PAGE_SIZE = 2;
+
+  private final List<String> cursorMarks = new ArrayList<>();
+
+  private final List<Integer> startIndexes = new ArrayList<>();
+
+  private Iterator<SourceResponse> responses;
+
+  private QueryFunction queryFunction;
+
+  @Before
+  public void setUp() {
+    queryFunction =
+        request -> {
+          cursorMarks.add((String) request.getPropertyValue(CURSOR_MARK_KEY));
+          startIndexes.add(request.getQuery().getStartIndex());
+          return responses.next();
+        };
+  }
+
+  @Test
+  public void testLocalQueryPagesWithCursor() {
+    responses =
+        Arrays.asList(
+                cursorResponse("c1", "1", "2"),
+                cursorResponse("c2", "3", "4"),
+                cursorResponse("c2"))
+            .iterator();
+
+    assertThat(
+        ids(ResultIterable.resultIterable(queryFunction, localRequest())),
+        contains("1", "2", "3", "4"));
+    assertThat(cursorMarks, contains(INITIAL_CURSOR_MARK, "c1", "c2"));
+    assertThat(startIndexes, contains(1, 1, 1));
+  }
+
+  @Test
+  public void testCursorPagingStopsWhenCursorMarkRepeats() {
+    responses =
+        Arrays.asList(cursorResponse("c1", "1", "2"), cursorResponse("c1", "3", "4")).iterator();
+
+    assertThat(
+        ids(ResultIterable.resultIterable(queryFunction, localRequest())),
+        contains("1", "2", "3", "4"));
+    assertThat(cursorMarks, contains(INITIAL_CURSOR_MARK, "c1"));
+  }
+
+  @Test
+  public void testCursorPagingRemovesDuplicateResults() {
+    responses =
+        Arrays.asList(
+                cursorResponse("c1", "1", "2"),
+                cursorResponse("c2", "2", "3"),
+                cursorResponse("c2"))
+            .iterator();
+
+    assertThat(
+        ids(ResultIterable.resultIterable(queryFunction, localRequest())),
+        contains("1", "2", "3"));
+  }
+
+  @Test
+  public void testCursorPagingRemovesResultsRepeatedOnEveryPage() {
+    responses =
+        Arrays.asList(
+                cursorResponse("c1", "connected", "1", "2"),
+                cursorResponse("c2", "connected", "3", "4"),
+                cursorResponse("c3", "connected", "5"),
+                cursorResponse("c3", "connected"))
+            .iterator();
+
+    assertThat(
+        ids(ResultIterable.resultIterable(queryFunction, localRequest())),
+        contains("connected", "1", "2", "3", "4", "5"));
+  }
+
+  @Test
+  public void testFallsBackToStartIndexWithoutCursorMark() {
+    responses = Arrays.asList(response(3, "1", "2"), response(3, "3")).iterator();
+
+    assertThat(
+        ids(ResultIterable.resultIterable(queryFunction, localRequest())),
+        contains("1", "2", "3"));
+    assertThat(cursorMarks, contains(INITIAL_CURSOR_MARK, null));
+    assertThat(startIndexes, contains(1, 3));
+  }
+
+  @Test
+  public void testEnterpriseQueryPagesByStartIndex() {
+    responses = Arrays.asList(response(3, "1", "2"), response(3, "3")).iterator();
+
+    QueryRequest request = new QueryRequestImpl(query(), true);
+
+    assertThat(ids(ResultIterable.resultIterable(queryFunction, request)), contains("1", "2", "3"));
+    assertThat(cursorMarks, everyItem(nullValue(String.class)));
+    assertThat(startIndexes, contains(1, 3));
+  }
+
+  private QueryRequest localRequest() {
+    return new QueryRequestImpl(query());
+  }
+
+  private QueryImpl query() {
+    return new QueryImpl(Filter.INCLUDE, 1, PAGE_SIZE, null, true, 0);
+  }
+
+  private List<String> ids(ResultIterable results) {
+    return results.stream().map(r -> r.getMetacard().getId()).collect(Collectors.toList());
+  }
+
+  private SourceResponse cursorResponse(String nextCursorMark, String... ids) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(NEXT_CURSOR_MARK_KEY, nextCursorMark);
+    return new SourceResponseImpl(null, properties, results(ids), 100);
+  }
+
+  private SourceResponse response(long hits, String... ids) {
+    return new SourceResponseImpl(null, new HashMap<>(), results(ids), hits);
+  }
+
+  private List<Result> results(String... ids) {
+    List<Result> results = new ArrayList<>();
+    for (String id : ids) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(id);
+      results.add(new ResultImpl(metacard));
+    }
+    return results;
+  }
+}
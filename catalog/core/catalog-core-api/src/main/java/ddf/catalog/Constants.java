@@ -154,4 +154,24 @@ public final class Constants {
   public static final String SUGGESTION_BUILD_KEY = "suggestion-build";
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
+
+  /**
+   * Query request property holding the cursor mark of the page to retrieve. Sources that support
+   * cursor paging ignore the query's start index when it is present and return the cursor mark of
+   * the following page in the {@link #NEXT_CURSOR_MARK_KEY} response property.
+   */
+  public static final String CURSOR_MARK_KEY = "cursor-mark";
+
+  /** Query response property holding the cursor mark of the following page. */
+  public static final String NEXT_CURSOR_MARK_KEY = "next-cursor-mark";
+
+  /** The cursor mark of the first page of results. */
+  public static final String INITIAL_CURSOR_MARK = "*";
+
+  /**
+   * Request property that, when {@code true}, asks the catalog framework to return the time spent
+   * in each stage, plugin and source of the operation in the response property of the same name,
+   * as a map of microseconds keyed by {@code operation/stage/name}.
+   */
+  public static final String OPERATION_TIMINGS_KEY = "operation-timings";
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.content.data;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Implemented by the {@link java.io.InputStream}s of content that is fully stored in a local file
+ * which does not change while the stream is open, such as the content items the catalog framework
+ * creates from incoming content. Consumers that need the content more than once, or that need to
+ * keep a copy of it, can use the file instead of buffering the stream.
+ *
+ * <p>
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface FileBackedContent {
+  /**
+   * Returns the file holding the content. The file must not be modified or deleted.
+   *
+   * @return the path of the file
+   */
+  Path getPath();
+
+  /**
+   * Returns the digest of the content computed by the {@link
+   * ddf.catalog.content.plugin.ContentDigester} with the given name while the file was written.
+   *
+   * @param digestName the name of the digest
+   * @return the value of the digest, or an empty {@link Optional} if it was not computed
+   */
+  Optional<String> getDigest(String digestName);
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.content.plugin;
+
+/**
+ * Services implementing this interface compute a digest of incoming content while the catalog
+ * framework copies it to its temporary file, so that the digest does not cost another read of the
+ * content. The value is made available to the plugins that follow through the {@link
+ * ddf.catalog.content.data.FileBackedContent} streams of the content items the framework creates.
+ *
+ * <p>
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface ContentDigester {
+  /**
+   * Returns the name under which the values of this digester are made available.
+   *
+   * @return the name of the digest
+   */
+  String getDigestName();
+
+  /**
+   * Returns a new {@link Digest} for the content of one item.
+   *
+   * @return a new digest
+   */
+  Digest newDigest();
+
+  /** The digest of the content of one item, updated as the content is copied. */
+  interface Digest {
+    /**
+     * Updates the digest with the given bytes.
+     *
+     * @param bytes the bytes to add
+     * @param offset the offset of the first byte to add
+     * @param length the number of bytes to add
+     */
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Returns the digest of all the bytes added.
+     *
+     * @return the value of the digest, or {@code null} if it could not be computed
+     */
+    String getValue();
+  }
+}
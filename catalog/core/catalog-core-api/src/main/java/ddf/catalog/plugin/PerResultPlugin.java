@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.plugin;
+
+import ddf.catalog.operation.QueryResponse;
+import java.util.List;
+
+/**
+ * Marks an {@link AccessPlugin} or a {@link PostQueryPlugin} whose processing of a {@link
+ * QueryResponse} is done result by result. Such a plugin:
+ *
+ * <ul>
+ *   <li>only removes, replaces or changes results based on each result on its own, never on the
+ *       other results of the response, their number or their order;
+ *   <li>does not change the properties or the processing details of the response, except for
+ *       adding its own properties to a part of a response, see {@link #RESPONSE_PART};
+ *   <li>can process several parts of the same response at the same time, from different threads.
+ * </ul>
+ *
+ * <p>The catalog framework may then split a large response into parts, process the parts in
+ * parallel and put the processed results back together in their original order.
+ *
+ * <p>{@link PolicyPlugin}s do not need to implement this interface, since they are already given
+ * the results one at a time.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface PerResultPlugin {
+
+  /**
+   * Property set to {@code true} on each part of a response processed in parts. The parts have
+   * their own copy of the properties of the response, and are discarded once their results are put
+   * back together.
+   */
+  String RESPONSE_PART = "ddf.catalog.plugin.responsePart";
+
+  /**
+   * Called once a response was processed in parts, after the processed results were put back
+   * together, on the thread that processed the response. A plugin that reports on a response as a
+   * whole, e.g. in an audit log, does it here instead of for each part.
+   *
+   * @param parts the processed parts of the response, in order
+   * @param response the response with the processed results
+   */
+  default void processedInParts(List<QueryResponse> parts, QueryResponse response) {}
+}
@@ -14,7 +14,7 @@
 package ddf.catalog.backup;
 
 import ddf.catalog.data.Metacard;
-import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Update;
@@ -22,7 +22,7 @@
 import ddf.catalog.plugin.PostIngestPlugin;
 import java.io.File;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -41,6 +41,9 @@
  * <p>The root backup directory and subdirectory levels can be configured in the Backup Post-Ingest
  * Plugin section in the admin console.
  *
+ * <p>Metacards are written with the {@link MetacardCodec}, and can be restored with {@code
+ * catalog:ingest -t ser}.
+ *
  * <p>This feature can be installed/uninstalled with the following commands:
  *
  * <p>ddf@local>feature:install catalog-core-backupplugin ddf@local>feature:uninstall
@@ -66,6 +69,8 @@ public class CatalogBackupPlugin implements PostIngestPlugin {
 
   private File rootDirOjbect;
 
+  private final MetacardCodec metacardCodec = new MetacardCodec();
+
   /**
    * Backs up created metacards to the file system backup.
    *
@@ -213,8 +218,8 @@ private void createFile(Metacard metacard) throws IOException {
     // complete. This makes it easy to find and remove failed files.
     File tempFile = getFile(metacard.getId(), TEMP_FILE_EXTENSION);
 
-    try (ObjectOutputStream oos = new ObjectOutputStream(FileUtils.openOutputStream(tempFile))) {
-      oos.writeObject(new MetacardImpl(metacard));
+    try (OutputStream outputStream = FileUtils.openOutputStream(tempFile)) {
+      outputStream.write(metacardCodec.encode(metacard));
     }
 
     renameTempFile(tempFile);
@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.backup;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.MetacardCodec;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transform.InputTransformer;
+import ddf.catalog.transform.MetacardTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.util.Map;
+import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Transforms metacards to and from the binary encoding of the {@link MetacardCodec}. The encoding
+ * keeps every attribute of a metacard, including the ones its type does not declare, so it can be
+ * used by the metacard backup routes to write backups that are ingested back without loss.
+ */
+public class MetacardCodecTransformer implements MetacardTransformer, InputTransformer {
+
+  private static final MimeType MIME_TYPE;
+
+  static {
+    try {
+      MIME_TYPE = new MimeType("application", "octet-stream");
+    } catch (MimeTypeParseException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final MetacardCodec metacardCodec = new MetacardCodec();
+
+  @Override
+  public BinaryContent transform(Metacard metacard, Map<String, Serializable> arguments)
+      throws CatalogTransformerException {
+    if (metacard == null) {
+      throw new CatalogTransformerException("Cannot transform null metacard.");
+    }
+
+    try {
+      return new BinaryContentImpl(
+          new ByteArrayInputStream(metacardCodec.encode(metacard)), MIME_TYPE);
+    } catch (IOException e) {
+      throw new CatalogTransformerException("Could not encode metacard " + metacard.getId(), e);
+    }
+  }
+
+  @Override
+  public Metacard transform(InputStream input) throws IOException, CatalogTransformerException {
+    return transform(input, null);
+  }
+
+  @Override
+  public Metacard transform(InputStream input, String id)
+      throws IOException, CatalogTransformerException {
+    if (input == null) {
+      throw new CatalogTransformerException("Cannot transform null input.");
+    }
+
+    byte[] bytes = IOUtils.toByteArray(input);
+    if (!MetacardCodec.isEncodedMetacard(bytes)) {
+      throw new CatalogTransformerException("The input is not an encoded metacard.");
+    }
+
+    MetacardImpl metacard = metacardCodec.decode(bytes);
+    if (StringUtils.isNotBlank(id)) {
+      metacard.setId(id);
+    }
+    return metacard;
+  }
+}
@@ -27,6 +27,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
@@ -37,9 +38,8 @@
 import ddf.catalog.operation.UpdateResponse;
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -324,10 +324,9 @@ private String getMetacardPath(String metacardId, int subDirLevels) {
   private Metacard readMetacard(File file) {
 
     Metacard metacard = null;
-    try (FileInputStream fis = new FileInputStream(file);
-        ObjectInputStream ois = new ObjectInputStream(fis)) {
-      metacard = (Metacard) ois.readObject();
-    } catch (ClassNotFoundException | IOException e) {
+    try {
+      metacard = new MetacardCodec().decode(Files.readAllBytes(file.toPath()));
+    } catch (IOException e) {
       fail();
     }
 
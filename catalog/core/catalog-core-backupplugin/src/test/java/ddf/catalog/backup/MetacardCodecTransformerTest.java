@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.backup;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetacardCodecTransformerTest {
+
+  private MetacardCodecTransformer transformer;
+
+  private MetacardImpl metacard;
+
+  @Before
+  public void setUp() {
+    transformer = new MetacardCodecTransformer();
+
+    metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setAttribute("undeclared", "value");
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    BinaryContent content = transformer.transform(metacard, Collections.emptyMap());
+
+    Metacard restored = transformer.transform(content.getInputStream());
+
+    assertThat(content.getMimeTypeValue(), is("application/octet-stream"));
+    assertThat(restored.getId(), is("id"));
+    assertThat(restored.getTitle(), is("title"));
+    assertThat(restored.getAttribute("undeclared").getValue(), is("value"));
+  }
+
+  @Test
+  public void testTransformWithId() throws Exception {
+    BinaryContent content = transformer.transform(metacard, Collections.emptyMap());
+
+    Metacard restored = transformer.transform(content.getInputStream(), "other-id");
+
+    assertThat(restored.getId(), is("other-id"));
+  }
+
+  @Test(expected = CatalogTransformerException.class)
+  public void testTransformNullMetacard() throws Exception {
+    transformer.transform(null, Collections.emptyMap());
+  }
+
+  @Test(expected = CatalogTransformerException.class)
+  public void testTransformUnencodedInput() throws Exception {
+    transformer.transform(new ByteArrayInputStream("<metacard/>".getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -22,6 +22,7 @@
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
@@ -31,6 +32,7 @@
 import ddf.catalog.transform.InputCollectionTransformer;
 import ddf.catalog.transform.InputTransformer;
 import ddf.security.common.audit.SecurityLogger;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -47,6 +49,7 @@
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +65,7 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -85,7 +89,16 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Custom Karaf command for ingesting records into the Catalog. */
+/**
+ * Custom Karaf command for ingesting records into the Catalog.
+ *
+ * <p>The ingest runs as a pipeline of stages: a single thread discovers the files to ingest, a pool
+ * of {@code --multithreaded} threads transforms them into metacards, a scheduler accumulates the
+ * metacards into batches of {@code --batchsize}, and another pool of {@code --multithreaded}
+ * threads creates the batches in the catalog. Each stage hands its output to the next one through
+ * a bounded queue, so a slow stage holds back the stages before it. The number of items each stage
+ * processed, its throughput and its latency are reported at the end of the run.
+ */
 @Service
 @Command(
   scope = CatalogCommands.NAMESPACE,
@@ -144,6 +157,14 @@ public class IngestCommand extends CatalogCommands {
 
   private final AtomicInteger fileCount = new AtomicInteger(Integer.MAX_VALUE);
 
+  private final StageMetrics discoverStage = new StageMetrics("Discover", "file");
+
+  private final StageMetrics transformStage = new StageMetrics("Transform", "file");
+
+  private final StageMetrics batchStage = new StageMetrics("Batch", "batch");
+
+  private final StageMetrics createStage = new StageMetrics("Create", "batch");
+
   @Argument(
     name = "File path or Directory path",
     description =
@@ -239,6 +260,8 @@ public class IngestCommand extends CatalogCommands {
 
   private Optional<InputTransformer> transformer = null;
 
+  private final MetacardCodec metacardCodec = new MetacardCodec();
+
   @Override
   protected Object executeWithSubject() throws Exception {
     if (batchSize * multithreaded > MAX_QUEUE_SIZE) {
@@ -261,33 +284,25 @@ protected Object executeWithSubject() throws Exception {
         Executors.newSingleThreadExecutor(
             StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME));
 
+    ExecutorService transformExecutor = newStageExecutor();
+
     final long start = System.currentTimeMillis();
 
     printProgressAndFlush(start, fileCount.get(), 0);
 
     // Registering for the main thread and on behalf of the buildQueue thread;
     // the buildQueue thread will unregister itself when the files have all
-    // been added to the blocking queue and the final registration will
+    // been handed to the transform stage and the final registration will
     // be held for the await.
     phaser.register();
     phaser.register();
-    queueExecutor.submit(() -> buildQueue(inputFile, metacardQueue, start));
+    queueExecutor.submit(() -> buildQueue(inputFile, transformExecutor, metacardQueue, start));
 
     final ScheduledExecutorService batchScheduler =
         Executors.newSingleThreadScheduledExecutor(
             StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME));
 
-    BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<>(multithreaded);
-    RejectedExecutionHandler rejectedExecutionHandler = new ThreadPoolExecutor.CallerRunsPolicy();
-    ExecutorService executorService =
-        new ThreadPoolExecutor(
-            multithreaded,
-            multithreaded,
-            0L,
-            TimeUnit.MILLISECONDS,
-            blockingQueue,
-            StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME),
-            rejectedExecutionHandler);
+    ExecutorService executorService = newStageExecutor();
 
     final CatalogFacade catalog = getCatalog();
     submitToCatalog(batchScheduler, executorService, metacardQueue, catalog, start);
@@ -297,6 +312,7 @@ protected Object executeWithSubject() throws Exception {
 
     try {
       queueExecutor.shutdown();
+      transformExecutor.shutdown();
       executorService.shutdown();
       batchScheduler.shutdown();
     } catch (SecurityException e) {
@@ -340,11 +356,38 @@ protected Object executeWithSubject() throws Exception {
         INGEST_LOGGER.warn("{} file(s) were ignored.", ignoredAmount);
       }
     }
+    printStageMetrics();
     console.println();
     SecurityLogger.audit("Ingested {} file(s) from {}", ingestCount.get(), filePath);
     return null;
   }
 
+  /**
+   * Creates the pool of threads of a stage. Its queue holds as many tasks as the pool has threads;
+   * once it is full, the thread handing over a task runs it, which holds back the stage before.
+   */
+  private ExecutorService newStageExecutor() {
+    BlockingQueue<Runnable> blockingQueue = new ArrayBlockingQueue<>(multithreaded);
+    RejectedExecutionHandler rejectedExecutionHandler = new ThreadPoolExecutor.CallerRunsPolicy();
+    return new ThreadPoolExecutor(
+        multithreaded,
+        multithreaded,
+        0L,
+        TimeUnit.MILLISECONDS,
+        blockingQueue,
+        StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME),
+        rejectedExecutionHandler);
+  }
+
+  private void printStageMetrics() {
+    console.println();
+    for (StageMetrics stage :
+        Arrays.asList(discoverStage, transformStage, batchStage, createStage)) {
+      console.printf(" %s%n", stage);
+      INGEST_LOGGER.info("Ingest stage {}", stage);
+    }
+  }
+
   private File getInputFile() {
     final File inputFile = new File(filePath);
 
@@ -442,7 +485,7 @@ private String buildIngestLog(ArrayList<Metacard> metacards) {
     return strBuilder.toString();
   }
 
-  private void logIngestException(IngestException exception, File inputFile) {
+  private void logIngestException(Exception exception, File inputFile) {
     LOGGER.debug("Failed to ingest file [{}].", inputFile.getAbsolutePath(), exception);
     INGEST_LOGGER.warn(
         "Failed to ingest file [{}]:\n{}",
@@ -467,9 +510,15 @@ private Metacard readMetacard(File file) throws IngestException {
 
     try {
       if (SERIALIZED_OBJECT_ID.matches(transformerId)) {
-        ois = new ObjectInputStream(new FileInputStream(file));
-        result = (Metacard) ois.readObject();
-        ois.close();
+        // The catalog backup plugin writes metacards with the MetacardCodec
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        if (MetacardCodec.isEncodedMetacard(bytes)) {
+          result = metacardCodec.decode(bytes);
+        } else {
+          ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+          result = (Metacard) ois.readObject();
+          ois.close();
+        }
       } else {
         fis = new FileInputStream(file);
         result = generateMetacard(fis);
@@ -586,7 +635,11 @@ private void moveToFailedIngestDirectory(File source) {
     }
   }
 
-  private void buildQueue(File inputFile, ArrayBlockingQueue<Metacard> metacardQueue, long start) {
+  private void buildQueue(
+      File inputFile,
+      ExecutorService transformExecutor,
+      ArrayBlockingQueue<Metacard> metacardQueue,
+      long start) {
     try {
       if (includeContent) {
         processIncludeContent(metacardQueue);
@@ -596,7 +649,7 @@ private void buildQueue(File inputFile, ArrayBlockingQueue<Metacard> metacardQue
           ingestStream
               .map(Path::toFile)
               .filter(file -> !file.isDirectory())
-              .forEach(file -> addFileToQueue(metacardQueue, start, file));
+              .forEach(file -> addFileToQueue(transformExecutor, metacardQueue, start, file));
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
@@ -606,7 +659,12 @@ private void buildQueue(File inputFile, ArrayBlockingQueue<Metacard> metacardQue
     }
   }
 
-  private void addFileToQueue(ArrayBlockingQueue<Metacard> metacardQueue, long start, File file) {
+  private void addFileToQueue(
+      ExecutorService transformExecutor,
+      ArrayBlockingQueue<Metacard> metacardQueue,
+      long start,
+      File file) {
+    long stageStart = System.nanoTime();
     if (file.isHidden()) {
       fileCount.incrementAndGet();
       ignoreCount.incrementAndGet();
@@ -621,24 +679,41 @@ private void addFileToQueue(ArrayBlockingQueue<Metacard> metacardQueue, long sta
       return;
     }
 
+    // The file keeps its registration while it is transformed and, if it transforms into a
+    // metacard, until that metacard's batch has been processed
+    phaser.register();
+    discoverStage.record(stageStart, 1);
+    transformExecutor.execute(() -> transformFile(metacardQueue, file));
+  }
+
+  private void transformFile(ArrayBlockingQueue<Metacard> metacardQueue, File file) {
+    long stageStart = System.nanoTime();
     Metacard result = null;
     try {
       result = readMetacard(file);
-    } catch (IngestException e) {
+    } catch (IngestException | RuntimeException e) {
       logIngestException(e, file);
       if (failedIngestDirectory != null) {
         moveToFailedIngestDirectory(file);
       }
     }
+    transformStage.record(stageStart, 1);
 
     if (result != null) {
-      putMetacardOnQueue(metacardQueue, result);
+      addMetacardToQueue(metacardQueue, result);
+    } else {
+      phaser.arriveAndDeregister();
     }
   }
 
   private void putMetacardOnQueue(ArrayBlockingQueue<Metacard> metacardQueue, Metacard metacard) {
+    phaser.register();
+    addMetacardToQueue(metacardQueue, metacard);
+  }
+
+  /** Puts a metacard whose party is already registered with the phaser on the queue. */
+  private void addMetacardToQueue(ArrayBlockingQueue<Metacard> metacardQueue, Metacard metacard) {
     try {
-      phaser.register();
       metacardQueue.put(metacard);
     } catch (InterruptedException e) {
       phaser.arriveAndDeregister();
@@ -751,6 +826,7 @@ private void submitToCatalog(
 
     batchScheduler.scheduleWithFixedDelay(
         () -> {
+          long stageStart = System.nanoTime();
           int queueSize = metacardQueue.size();
           if (queueSize > 0) {
             ArrayList<Metacard> metacardBatch = new ArrayList<>(batchSize);
@@ -762,12 +838,16 @@ private void submitToCatalog(
             }
 
             if (!metacardBatch.isEmpty()) {
+              batchStage.record(stageStart, metacardBatch.size());
               executorService.submit(
                   () -> {
+                    long createStart = System.nanoTime();
                     try {
                       processBatch(catalog, metacardBatch);
                     } catch (SourceUnavailableException e) {
                       INGEST_LOGGER.warn("Error on process batch.", e);
+                    } finally {
+                      createStage.record(createStart, metacardBatch.size());
                     }
                   });
 
@@ -837,4 +917,62 @@ private Optional<InputTransformer> getTransformer() {
       throw new IllegalArgumentException("Invalid transformer transformerId: " + transformerId, e);
     }
   }
+
+  /**
+   * Counts the items that went through a stage of the ingest and the time the stage spent on them.
+   * The latency is measured per unit of work of the stage, a file or a batch.
+   */
+  private static class StageMetrics {
+
+    private final String name;
+
+    private final String unit;
+
+    private final AtomicLong itemCount = new AtomicLong();
+
+    private final AtomicLong unitCount = new AtomicLong();
+
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+
+    private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+    StageMetrics(String name, String unit) {
+      this.name = name;
+      this.unit = unit;
+    }
+
+    void record(long startNanos, int items) {
+      long endNanos = System.nanoTime();
+      long elapsedNanos = endNanos - startNanos;
+
+      itemCount.addAndGet(items);
+      unitCount.incrementAndGet();
+      totalNanos.addAndGet(elapsedNanos);
+      maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+      firstStartNanos.accumulateAndGet(startNanos, Math::min);
+      lastEndNanos.accumulateAndGet(endNanos, Math::max);
+    }
+
+    @Override
+    public String toString() {
+      long units = unitCount.get();
+      if (units == 0) {
+        return String.format("%-9s 0 item(s)", name);
+      }
+
+      double seconds = Math.max(lastEndNanos.get() - firstStartNanos.get(), 1L) / 1e9;
+      return String.format(
+          "%-9s %d item(s) [%d items/sec], %.1f ms average and %.1f ms max latency per %s",
+          name,
+          itemCount.get(),
+          (long) (itemCount.get() / seconds),
+          totalNanos.get() / 1e6 / units,
+          maxNanos.get() / 1e6,
+          unit);
+    }
+  }
 }
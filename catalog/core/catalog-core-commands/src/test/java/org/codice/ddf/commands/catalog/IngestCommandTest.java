@@ -160,6 +160,31 @@ public void testIgnoreHiddenFiles() throws Exception {
     assertThat(consoleOutput.getOutput(), not(containsString("ignored")));
   }
 
+  /**
+   * Check the metrics reported for each stage of the ingest
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testStageMetrics() throws Exception {
+    // given
+    testFolder.newFile("somefile1.txt");
+    testFolder.newFile("somefile2.jpg");
+    testFolder.newFile("somefile3.txt");
+
+    ArrayList<String> ignoreList = new ArrayList<>();
+    ignoreList.add(".jpg");
+    ingestCommand.ignoreList = ignoreList;
+
+    // when
+    ingestCommand.executeWithSubject();
+
+    // then
+    assertThat(consoleOutput.getOutput(), containsString("Discover  2 item(s)"));
+    assertThat(consoleOutput.getOutput(), containsString("Transform 2 item(s)"));
+    assertThat(consoleOutput.getOutput(), containsString("Create    0 item(s)"));
+  }
+
   @Test
   public void testIncludeContentNonZipFile() throws Exception {
     // given
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the best {@code capacity} {@link Result}s offered to it according to a {@link Comparator},
+ * without retaining or sorting the results that can no longer make the page.
+ *
+ * <p>Results that compare equal are ordered by the index of their source, then by their position in
+ * the results of that source, whatever the order in which the sources were offered. The merged page
+ * is therefore the same as a stable sort of the results of all sources concatenated in source
+ * order, truncated to {@code capacity}.
+ *
+ * <p>This class is not thread-safe.
+ */
+class BoundedResultHeap {
+
+  private final int capacity;
+
+  private final Comparator<Entry> entryComparator;
+
+  /** Head of the queue is the worst result currently retained. */
+  private final PriorityQueue<Entry> queue;
+
+  /**
+   * @param comparator the {@link Comparator} defining the order of the merged results
+   * @param capacity the maximum number of results to retain, {@code Integer.MAX_VALUE} for no limit
+   */
+  BoundedResultHeap(Comparator<Result> comparator, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be greater than zero.");
+    }
+    this.capacity = capacity;
+    this.entryComparator =
+        Comparator.<Entry, Result>comparing(entry -> entry.result, comparator)
+            .thenComparingInt(entry -> entry.sourceIndex)
+            .thenComparingInt(entry -> entry.position);
+    this.queue = new PriorityQueue<>(Math.min(capacity, 1024) + 1, entryComparator.reversed());
+  }
+
+  /**
+   * Offers every result of a source response to the heap.
+   *
+   * @param sourceIndex the index of the source, which orders the results that compare equal
+   * @param results the results to offer
+   */
+  void offerAll(int sourceIndex, List<Result> results) {
+    int position = 0;
+    for (Result result : results) {
+      offer(new Entry(result, sourceIndex, position++));
+    }
+  }
+
+  private void offer(Entry entry) {
+    if (queue.size() < capacity) {
+      queue.add(entry);
+    } else if (entryComparator.compare(entry, queue.peek()) < 0) {
+      queue.poll();
+      queue.add(entry);
+    }
+  }
+
+  int size() {
+    return queue.size();
+  }
+
+  /**
+   * @return the retained results, best first. Only the retained results are sorted, so the cost is
+   *     bounded by the capacity rather than by the number of results offered.
+   */
+  List<Result> toSortedList() {
+    List<Entry> entries = new ArrayList<>(queue);
+    entries.sort(entryComparator);
+
+    List<Result> results = new ArrayList<>(entries.size());
+    for (Entry entry : entries) {
+      results.add(entry.result);
+    }
+    return results;
+  }
+
+  private static class Entry {
+
+    private final Result result;
+
+    private final int sourceIndex;
+
+    private final int position;
+
+    private Entry(Result result, int sourceIndex, int position) {
+      this.result = result;
+      this.sourceIndex = sourceIndex;
+      this.position = position;
+    }
+  }
+}
@@ -30,14 +30,16 @@
 import ddf.catalog.util.impl.TemporalResultComparator;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -93,7 +95,18 @@ protected Runnable createMonitor(
       final QueryResponseImpl returnResults,
       final Query query) {
 
-    return new SortedQueryMonitor(pool, futures, returnResults, query);
+    return new SortedQueryMonitor(pool, futures, null, returnResults, query);
+  }
+
+  @Override
+  protected Runnable createMonitor(
+      final ExecutorService pool,
+      final Map<Source, Future<SourceResponse>> futures,
+      final BlockingQueue<Future<SourceResponse>> completedFutures,
+      final QueryResponseImpl returnResults,
+      final Query query) {
+
+    return new SortedQueryMonitor(pool, futures, completedFutures, returnResults, query);
   }
 
   private static class SortedQueryMonitor implements Runnable {
@@ -102,6 +115,8 @@ private static class SortedQueryMonitor implements Runnable {
 
     private Map<Source, Future<SourceResponse>> futures;
 
+    private BlockingQueue<Future<SourceResponse>> completedFutures;
+
     private Query query;
 
     private long deadline;
@@ -109,12 +124,14 @@ private static class SortedQueryMonitor implements Runnable {
     public SortedQueryMonitor(
         ExecutorService pool,
         Map<Source, Future<SourceResponse>> futuress,
+        BlockingQueue<Future<SourceResponse>> completedFutures,
         QueryResponseImpl returnResults,
         Query query) {
 
       this.returnResults = returnResults;
       this.query = query;
       this.futures = futuress;
+      this.completedFutures = completedFutures;
 
       deadline = System.currentTimeMillis() + query.getTimeoutMillis();
     }
@@ -144,96 +161,165 @@ public void run() {
         }
       }
 
-      List<Result> resultList = new ArrayList<Result>();
+      int maxResults = query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
+      BoundedResultHeap mergedResults = new BoundedResultHeap(coreComparator, maxResults);
       long totalHits = 0;
       Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
       Map<String, Serializable> returnProperties = returnResults.getProperties();
-      boolean interrupt = false;
-
-      try {
-        for (final Entry<Source, Future<SourceResponse>> entry : futures.entrySet()) {
-          Source site = entry.getKey();
-          SourceResponse sourceResponse = null;
-          try {
-            sourceResponse =
-                query.getTimeoutMillis() < 1
-                    ? entry.getValue().get()
-                    : entry.getValue().get(getTimeRemaining(deadline), TimeUnit.MILLISECONDS);
-          } catch (InterruptedException e) {
+      Map<Source, Future<SourceResponse>> pending = new LinkedHashMap<>(futures);
+      Map<Source, Integer> sourceIndexes = new HashMap<>();
+      for (Source source : futures.keySet()) {
+        sourceIndexes.put(source, sourceIndexes.size());
+      }
+
+      while (!pending.isEmpty()) {
+        Entry<Source, Future<SourceResponse>> entry;
+        try {
+          entry = nextCompleted(pending);
+        } catch (InterruptedException e) {
+          for (Source site : pending.keySet()) {
             LOGGER.info(
                 "Couldn't get results from completed federated query on site with ShortName {}",
                 site.getId(),
                 e);
             processingDetails.add(new ProcessingDetailsImpl(site.getId(), e));
-            interrupt = true;
-          } catch (ExecutionException e) {
-            LOGGER.info(
-                "Couldn't get results from completed federated query on site {}", site.getId(), e);
-            if (LOGGER.isDebugEnabled()) {
-              LOGGER.debug("Adding exception to response.");
-            }
-            processingDetails.add(new ProcessingDetailsImpl(site.getId(), e));
-          } catch (TimeoutException e) {
+          }
+          Thread.currentThread().interrupt();
+          break;
+        }
+
+        if (entry == null) {
+          for (Source site : pending.keySet()) {
             LOGGER.info("search timed out: {} on site {}", new Date(), site.getId());
-            processingDetails.add(new ProcessingDetailsImpl(site.getId(), e));
+            processingDetails.add(new ProcessingDetailsImpl(site.getId(), new TimeoutException()));
           }
-          if (sourceResponse != null) {
-            List<Result> sourceResults = sourceResponse.getResults();
-            resultList.addAll(sourceResults);
-            long sourceHits = sourceResponse.getHits();
-
-            totalHits += sourceHits;
-            Map<String, Serializable> newSourceProperties = new HashMap<String, Serializable>();
-            newSourceProperties.put(QueryResponse.TOTAL_HITS, sourceHits);
-            newSourceProperties.put(QueryResponse.TOTAL_RESULTS_RETURNED, sourceResults.size());
-
-            Map<String, Serializable> originalSourceProperties = sourceResponse.getProperties();
-            if (originalSourceProperties != null) {
-              Serializable object = originalSourceProperties.get(QueryResponse.ELAPSED_TIME);
-              if (object != null && object instanceof Long) {
-                newSourceProperties.put(QueryResponse.ELAPSED_TIME, (Long) object);
-                originalSourceProperties.remove(QueryResponse.ELAPSED_TIME);
-                LOGGER.debug(
-                    "Setting the ellapsedTime responseProperty to {} for source {}",
-                    object,
-                    site.getId());
-              }
-
-              // TODO: for now add all properties into outgoing response's properties.
-              // this is not the best idea because we could get properties from records
-              // that get eliminated by the max results enforcement done below.
-              // See DDF-1183 for a possible solution.
-              returnProperties.putAll(originalSourceProperties);
-            }
-            returnProperties.put(site.getId(), (Serializable) newSourceProperties);
-            LOGGER.debug("Setting the query responseProperties for site {}", site.getId());
-
-            // Add a List of siteIds so endpoints know what sites got queried
-            Serializable siteListObject = returnProperties.get(QueryResponse.SITE_LIST);
-            if (siteListObject != null && siteListObject instanceof List<?>) {
-              ((List) siteListObject).add(site.getId());
-            } else {
-              siteListObject = new ArrayList<String>();
-              ((List) siteListObject).add(site.getId());
-              returnProperties.put(QueryResponse.SITE_LIST, (Serializable) siteListObject);
+          break;
+        }
+
+        Source site = entry.getKey();
+        Future<SourceResponse> future = entry.getValue();
+        pending.remove(site);
+        SourceResponse sourceResponse = null;
+        try {
+          sourceResponse = future.get();
+        } catch (InterruptedException e) {
+          LOGGER.info(
+              "Couldn't get results from completed federated query on site with ShortName {}",
+              site.getId(),
+              e);
+          processingDetails.add(new ProcessingDetailsImpl(site.getId(), e));
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
+          LOGGER.info(
+              "Couldn't get results from completed federated query on site {}", site.getId(), e);
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Adding exception to response.");
+          }
+          processingDetails.add(new ProcessingDetailsImpl(site.getId(), e));
+        }
+        if (sourceResponse != null) {
+          List<Result> sourceResults = sourceResponse.getResults();
+          mergedResults.offerAll(sourceIndexes.get(site), sourceResults);
+          long sourceHits = sourceResponse.getHits();
+
+          totalHits += sourceHits;
+          Map<String, Serializable> newSourceProperties = new HashMap<String, Serializable>();
+          newSourceProperties.put(QueryResponse.TOTAL_HITS, sourceHits);
+          newSourceProperties.put(QueryResponse.TOTAL_RESULTS_RETURNED, sourceResults.size());
+
+          Map<String, Serializable> originalSourceProperties = sourceResponse.getProperties();
+          if (originalSourceProperties != null) {
+            Serializable object = originalSourceProperties.get(QueryResponse.ELAPSED_TIME);
+            if (object != null && object instanceof Long) {
+              newSourceProperties.put(QueryResponse.ELAPSED_TIME, (Long) object);
+              originalSourceProperties.remove(QueryResponse.ELAPSED_TIME);
+              LOGGER.debug(
+                  "Setting the ellapsedTime responseProperty to {} for source {}",
+                  object,
+                  site.getId());
             }
+
+            // TODO: for now add all properties into outgoing response's properties.
+            // this is not the best idea because we could get properties from records
+            // that get eliminated by the max results enforcement done below.
+            // See DDF-1183 for a possible solution.
+            returnProperties.putAll(originalSourceProperties);
+          }
+          returnProperties.put(site.getId(), (Serializable) newSourceProperties);
+          LOGGER.debug("Setting the query responseProperties for site {}", site.getId());
+
+          // Add a List of siteIds so endpoints know what sites got queried
+          Serializable siteListObject = returnProperties.get(QueryResponse.SITE_LIST);
+          if (siteListObject != null && siteListObject instanceof List<?>) {
+            ((List) siteListObject).add(site.getId());
+          } else {
+            siteListObject = new ArrayList<String>();
+            ((List) siteListObject).add(site.getId());
+            returnProperties.put(QueryResponse.SITE_LIST, (Serializable) siteListObject);
           }
         }
-      } finally {
-        if (interrupt) {
-          Thread.currentThread().interrupt();
+      }
+      LOGGER.debug("all sites finished returning results: {}", mergedResults.size());
+
+      returnResults.setHits(totalHits);
+      returnResults.addResults(mergedResults.toSortedList(), true);
+    }
+
+    /**
+     * Returns the next source whose query has completed, in completion order rather than in the
+     * order the sources were submitted, so one slow source does not hold up merging the results of
+     * the sources that have already responded. Without a queue of completed queries, the sources
+     * are waited on in the order they were submitted.
+     *
+     * @return the completed entry, or {@code null} if the query deadline passed first
+     */
+    private Entry<Source, Future<SourceResponse>> nextCompleted(
+        Map<Source, Future<SourceResponse>> pending) throws InterruptedException {
+      boolean timed = query.getTimeoutMillis() >= 1;
+      long timeRemaining = timed ? getTimeRemaining(deadline) : Long.MAX_VALUE;
+      if (timeRemaining <= 0) {
+        return null;
+      }
+
+      if (completedFutures == null) {
+        Entry<Source, Future<SourceResponse>> oldest = pending.entrySet().iterator().next();
+        try {
+          if (timed) {
+            oldest.getValue().get(timeRemaining, TimeUnit.MILLISECONDS);
+          } else {
+            oldest.getValue().get();
+          }
+        } catch (ExecutionException | CancellationException e) {
+          LOGGER.trace("Query on site {} failed", oldest.getKey().getId(), e);
+        } catch (TimeoutException e) {
+          return null;
         }
+        return oldest;
       }
-      LOGGER.debug("all sites finished returning results: {}", resultList.size());
 
-      Collections.sort(resultList, coreComparator);
+      while (true) {
+        Future<SourceResponse> completed =
+            timed
+                ? completedFutures.poll(timeRemaining, TimeUnit.MILLISECONDS)
+                : completedFutures.take();
+        if (completed == null) {
+          return null;
+        }
 
-      returnResults.setHits(totalHits);
-      int maxResults = query.getPageSize() > 0 ? query.getPageSize() : Integer.MAX_VALUE;
+        for (Entry<Source, Future<SourceResponse>> entry : pending.entrySet()) {
+          if (entry.getValue() == completed) {
+            return entry;
+          }
+        }
 
-      returnResults.addResults(
-          resultList.size() > maxResults ? resultList.subList(0, maxResults) : resultList, true);
+        if (timed) {
+          timeRemaining = getTimeRemaining(deadline);
+          if (timeRemaining <= 0) {
+            return null;
+          }
+        }
+      }
     }
 
     private long getTimeRemaining(long deadline) {
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+public class BoundedResultHeapTest {
+
+  private static final RelevanceResultComparator DESCENDING =
+      new RelevanceResultComparator(SortOrder.DESCENDING);
+
+  @Test
+  public void testKeepsBestResultsAcrossSources() {
+    Result a1 = result(0.7);
+    Result a2 = result(0.5);
+    Result a3 = result(0.3);
+    Result b1 = result(0.8);
+    Result b2 = result(0.6);
+    Result b3 = result(0.4);
+
+    BoundedResultHeap heap = new BoundedResultHeap(DESCENDING, 3);
+    heap.offerAll(0, Arrays.asList(a1, a2, a3));
+    heap.offerAll(1, Arrays.asList(b1, b2, b3));
+
+    assertThat(heap.size(), is(3));
+    assertThat(heap.toSortedList(), contains(b1, a1, b2));
+  }
+
+  @Test
+  public void testEqualResultsOrderedBySourceThenPosition() {
+    Result first = result(0.5);
+    Result second = result(0.5);
+    Result third = result(0.5);
+
+    BoundedResultHeap heap = new BoundedResultHeap(DESCENDING, 2);
+    heap.offerAll(1, Collections.singletonList(third));
+    heap.offerAll(0, Arrays.asList(first, second));
+
+    assertThat(heap.toSortedList(), contains(first, second));
+  }
+
+  @Test
+  public void testMatchesStableSortOfAllResults() {
+    Random random = new Random(42);
+    List<Result> all = new ArrayList<>();
+    List<List<Result>> sources = new ArrayList<>();
+    for (int source = 0; source < 4; source++) {
+      List<Result> sourceResults = new ArrayList<>();
+      for (int i = 0; i < 250; i++) {
+        sourceResults.add(result((double) random.nextInt(100)));
+      }
+      sources.add(sourceResults);
+      all.addAll(sourceResults);
+    }
+
+    // The sources complete in a different order than they were queried in
+    BoundedResultHeap heap = new BoundedResultHeap(DESCENDING, 25);
+    for (int source = sources.size() - 1; source >= 0; source--) {
+      heap.offerAll(source, sources.get(source));
+    }
+
+    Collections.sort(all, DESCENDING);
+
+    assertThat(heap.toSortedList(), is(all.subList(0, 25)));
+  }
+
+  @Test
+  public void testUnboundedCapacity() {
+    BoundedResultHeap heap = new BoundedResultHeap(DESCENDING, Integer.MAX_VALUE);
+    Result low = result(0.1);
+    Result high = result(0.9);
+    heap.offerAll(0, Arrays.asList(low, high));
+
+    assertThat(heap.toSortedList(), contains(high, low));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() {
+    new BoundedResultHeap(DESCENDING, 0);
+  }
+
+  private Result result(double relevance) {
+    Result result = mock(Result.class);
+    when(result.getRelevanceScore()).thenReturn(relevance);
+    return result;
+  }
+}
@@ -33,6 +33,7 @@
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 import java.net.URI;
@@ -74,7 +75,10 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   protected CatalogFramework catalog;
 
-  private Map<String, ServiceRegistration> existingSubscriptions;
+  private final SubscriptionIndex<PublishedEventHandler> existingSubscriptions =
+      new SubscriptionIndex<>();
+
+  private ServiceRegistration publishedEventRegistration;
 
   private final ExecutorService threadPool =
       Executors.newCachedThreadPool(
@@ -97,7 +101,6 @@ public EventProcessorImpl(
     this.preSubscription = preSubscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.existingSubscriptions = new HashMap<>();
 
     if (this.preSubscription == null) {
       LOGGER.debug("preSubscription plugins list is NULL");
@@ -222,6 +225,13 @@ public void destroy() {
     String methodName = "destroy";
     LOGGER.trace(ENTERING, methodName);
 
+    synchronized (this) {
+      if (publishedEventRegistration != null) {
+        publishedEventRegistration.unregister();
+        publishedEventRegistration = null;
+      }
+    }
+
     LOGGER.trace(EXITING, methodName);
   }
 
@@ -284,18 +294,13 @@ public void createSubscription(Subscription subscription, String subscriptionId)
       Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
       LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
-      String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
+      registerPublishedEventHandler();
 
-      Dictionary<String, String[]> props = new Hashtable<>(1, 1);
-      props.put(EventConstants.EVENT_TOPIC, topics);
-      ServiceRegistration serviceRegistration =
-          bundleContext.registerService(
-              EventHandler.class.getName(),
-              new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
-              props);
-
-      existingSubscriptions.put(subscriptionId, serviceRegistration);
+      existingSubscriptions.add(
+          subscriptionId,
+          finalPredicate,
+          new PublishedEventHandler(
+              finalPredicate, subscription, preDelivery, catalog, threadPool));
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -333,11 +338,8 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
 
     try {
       LOGGER.debug("Removing subscription: {}", subscriptionId);
-      ServiceRegistration sr = (ServiceRegistration) existingSubscriptions.get(subscriptionId);
-      if (sr != null) {
-        sr.unregister();
+      if (existingSubscriptions.remove(subscriptionId) != null) {
         LOGGER.debug("Removal complete");
-        existingSubscriptions.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -351,6 +353,31 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
     LOGGER.trace(EXITING, methodName);
   }
 
+  /**
+   * Registers a single {@link EventHandler} for the published events of all subscriptions. Each
+   * published event is handed only to the subscriptions the {@link SubscriptionIndex} finds may
+   * match it, instead of to a handler registered for every subscription.
+   */
+  private synchronized void registerPublishedEventHandler() {
+    if (publishedEventRegistration != null) {
+      return;
+    }
+
+    String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
+
+    Dictionary<String, String[]> props = new Hashtable<>(1, 1);
+    props.put(EventConstants.EVENT_TOPIC, topics);
+    publishedEventRegistration =
+        bundleContext.registerService(
+            EventHandler.class.getName(), (EventHandler) this::publishEvent, props);
+  }
+
+  private void publishEvent(Event event) {
+    for (PublishedEventHandler handler : existingSubscriptions.getCandidates(event)) {
+      handler.handleEvent(event);
+    }
+  }
+
   @Override
   public void notifyCreated(Metacard newMetacard) {
     LOGGER.trace("ENTERING: notifyCreated");
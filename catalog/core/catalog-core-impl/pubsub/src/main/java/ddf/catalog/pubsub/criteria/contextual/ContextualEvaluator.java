@@ -17,7 +17,9 @@
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpressionException;
 import org.apache.lucene.analysis.Analyzer;
@@ -25,11 +27,15 @@
 import org.apache.lucene.analysis.tokenattributes.TermAttribute;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.queryParser.ParseException;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.RAMDirectory;
@@ -105,8 +111,75 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
     }
 
     // a. query
-    QueryParser queryParser = null;
-    if (cec.isCaseSensitiveSearch()) {
+    Query q = createQueryParser(cec.isCaseSensitiveSearch()).parse(searchPhrase);
+
+    // b. search
+    int hitsPerPage = 1;
+    IndexSearcher searcher = new IndexSearcher(index, true);
+    TopDocs topDocs = searcher.search(q, hitsPerPage);
+
+    // c. display results
+    LOGGER.debug("Found {} hits.", topDocs.totalHits);
+
+    // searcher can only be closed when there
+    // is no need to access the documents any more.
+    searcher.close();
+
+    return topDocs.totalHits > 0;
+  }
+
+  /**
+   * Gets the single term a search phrase is parsed into. An index can only match such a search
+   * phrase if it contains the term.
+   *
+   * @param searchPhrase the normalized search phrase
+   * @param caseSensitive true if the search phrase is case-sensitive
+   * @return the term, or {@code null} if the search phrase does not parse into a single term
+   */
+  public static Term getSingleTerm(String searchPhrase, boolean caseSensitive) {
+    if (searchPhrase == null || searchPhrase.isEmpty()) {
+      return null;
+    }
+
+    try {
+      Query q = createQueryParser(caseSensitive).parse(searchPhrase);
+      if (q instanceof TermQuery) {
+        return ((TermQuery) q).getTerm();
+      }
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse search phrase [{}]", searchPhrase, e);
+    }
+
+    return null;
+  }
+
+  /**
+   * Gets all of the terms in an index built by {@link #buildIndex(String)}.
+   *
+   * @param index the index
+   * @return the case-insensitive and case-sensitive terms of the index
+   * @throws IOException
+   */
+  public static Set<Term> getTerms(Directory index) throws IOException {
+    Set<Term> terms = new HashSet<>();
+
+    try (IndexReader indexReader = IndexReader.open(index, true)) {
+      TermEnum termEnum = indexReader.terms();
+      try {
+        while (termEnum.next()) {
+          terms.add(termEnum.term());
+        }
+      } finally {
+        termEnum.close();
+      }
+    }
+
+    return terms;
+  }
+
+  private static QueryParser createQueryParser(boolean caseSensitive) {
+    QueryParser queryParser;
+    if (caseSensitive) {
       LOGGER.debug("Doing case-sensitive search ...");
       queryParser =
           new QueryParser(
@@ -127,21 +200,7 @@ public static boolean evaluate(ContextualEvaluationCriteria cec)
     // contextual search phrase
     queryParser.setAllowLeadingWildcard(true);
 
-    Query q = queryParser.parse(searchPhrase);
-
-    // b. search
-    int hitsPerPage = 1;
-    IndexSearcher searcher = new IndexSearcher(index, true);
-    TopDocs topDocs = searcher.search(q, hitsPerPage);
-
-    // c. display results
-    LOGGER.debug("Found {} hits.", topDocs.totalHits);
-
-    // searcher can only be closed when there
-    // is no need to access the documents any more.
-    searcher.close();
-
-    return topDocs.totalHits > 0;
+    return queryParser;
   }
 
   /**
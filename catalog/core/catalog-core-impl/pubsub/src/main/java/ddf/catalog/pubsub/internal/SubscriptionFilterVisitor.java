@@ -77,16 +77,7 @@ public static Predicate and(final Predicate left, final Predicate right) {
     notNull(left, "left");
     notNull(right, "right");
 
-    return new Predicate() {
-      public boolean matches(Event properties) {
-        return left.matches(properties) && right.matches(properties);
-      }
-
-      @Override
-      public String toString() {
-        return "(" + left + ") AND (" + right + ")";
-      }
-    };
+    return new AndPredicate(left, right);
   }
 
   /** A helper method to combine multiple predicates by a logical OR */
@@ -94,32 +85,14 @@ public static Predicate or(final Predicate left, final Predicate right) {
     notNull(left, "left");
     notNull(right, "right");
 
-    return new Predicate() {
-      public boolean matches(Event properties) {
-        return left.matches(properties) || right.matches(properties);
-      }
-
-      @Override
-      public String toString() {
-        return "(" + left + ") OR (" + right + ")";
-      }
-    };
+    return new OrPredicate(left, right);
   }
 
   /** A helper method to combine multiple predicates by a logical NOT */
   public static Predicate not(final Predicate predicate) {
     notNull(predicate, "predicate");
 
-    return new Predicate() {
-      public boolean matches(Event properties) {
-        return !predicate.matches(properties);
-      }
-
-      @Override
-      public String toString() {
-        return "(NOT (" + predicate + ")";
-      }
-    };
+    return new NotPredicate(predicate);
   }
 
   /**
@@ -561,4 +534,80 @@ private com.vividsolutions.jts.geom.Geometry getJtsGeometery(
 
     return jtsGeometry;
   }
+
+  /** Logical AND of two predicates. Visible to the {@link SubscriptionIndex}. */
+  static class AndPredicate implements Predicate {
+    private final Predicate left;
+
+    private final Predicate right;
+
+    AndPredicate(Predicate left, Predicate right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    public boolean matches(Event properties) {
+      return left.matches(properties) && right.matches(properties);
+    }
+
+    Predicate getLeft() {
+      return left;
+    }
+
+    Predicate getRight() {
+      return right;
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + ") AND (" + right + ")";
+    }
+  }
+
+  /** Logical OR of two predicates. Visible to the {@link SubscriptionIndex}. */
+  static class OrPredicate implements Predicate {
+    private final Predicate left;
+
+    private final Predicate right;
+
+    OrPredicate(Predicate left, Predicate right) {
+      this.left = left;
+      this.right = right;
+    }
+
+    public boolean matches(Event properties) {
+      return left.matches(properties) || right.matches(properties);
+    }
+
+    Predicate getLeft() {
+      return left;
+    }
+
+    Predicate getRight() {
+      return right;
+    }
+
+    @Override
+    public String toString() {
+      return "(" + left + ") OR (" + right + ")";
+    }
+  }
+
+  /** Logical NOT of a predicate. */
+  static class NotPredicate implements Predicate {
+    private final Predicate predicate;
+
+    NotPredicate(Predicate predicate) {
+      this.predicate = predicate;
+    }
+
+    public boolean matches(Event properties) {
+      return !predicate.matches(properties);
+    }
+
+    @Override
+    public String toString() {
+      return "(NOT (" + predicate + ")";
+    }
+  }
 }
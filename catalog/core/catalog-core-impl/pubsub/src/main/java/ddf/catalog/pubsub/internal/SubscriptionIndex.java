@@ -0,0 +1,616 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import com.vividsolutions.jts.geom.Envelope;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.bintree.Bintree;
+import com.vividsolutions.jts.index.bintree.Interval;
+import com.vividsolutions.jts.index.quadtree.Quadtree;
+import com.vividsolutions.jts.io.ParseException;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor.AndPredicate;
+import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor.OrPredicate;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.EntryPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.Directory;
+import org.geotools.geometry.jts.WKTReader2;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index over the predicates of the registered subscriptions, used to find the subscriptions that
+ * may match a published event without evaluating the predicate of every subscription.
+ *
+ * <p>Keys are derived from each subscription's predicate such that the predicate can only match an
+ * event if one of its keys matches the event. Entry ids, resource URIs, content types and single
+ * contextual terms are looked up by hash, geospatial criteria by envelope in a quadtree and
+ * absolute temporal criteria by interval in a bintree per date type. The values of an event are
+ * extracted once and looked up in each of these, rather than evaluating every subscription against
+ * the event.
+ *
+ * <p>Subscriptions without keys, such as filterless subscriptions or subscriptions on a relative
+ * time period, are candidates for every event. Candidates still need to be evaluated against their
+ * full predicate.
+ *
+ * <p>This class is thread-safe.
+ *
+ * @param <T> the type of the values associated to the subscriptions
+ */
+public class SubscriptionIndex<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  /** Content types that {@link ContentTypePredicate} compares literally rather than as patterns. */
+  private static final Pattern LITERAL_CONTENT_TYPE = Pattern.compile("[\\w\\- ]+");
+
+  private static final String NULL_CONTENT_TYPE = "null";
+
+  private static final int ENTRY_RANK = 0;
+
+  private static final int CONTEXTUAL_RANK = 1;
+
+  private static final int CONTENT_TYPE_RANK = 2;
+
+  private static final int GEOSPATIAL_RANK = 3;
+
+  private static final int TEMPORAL_RANK = 4;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final Map<String, Registration<T>> subscriptions = new HashMap<>();
+
+  private final Set<String> unindexedSubscriptions = new HashSet<>();
+
+  private final Map<String, Set<String>> entryIdIndex = new HashMap<>();
+
+  private final Map<URI, Set<String>> productUriIndex = new HashMap<>();
+
+  private final Map<String, Set<String>> contentTypeIndex = new HashMap<>();
+
+  private final Map<Term, Set<String>> contextualIndex = new HashMap<>();
+
+  private final Quadtree geospatialIndex = new Quadtree();
+
+  private final Map<DateType, Bintree> temporalIndex = new EnumMap<>(DateType.class);
+
+  /**
+   * Adds a subscription to the index, replacing any subscription with the same id.
+   *
+   * @param subscriptionId the id of the subscription
+   * @param predicate the predicate of the subscription, {@code null} for a filterless subscription
+   * @param value the value to return for the subscription when it is a candidate for an event
+   */
+  public void add(String subscriptionId, Predicate predicate, T value) {
+    lock.writeLock().lock();
+    try {
+      removeSubscription(subscriptionId);
+
+      List<IndexKey> keys = getKeys(subscriptionId, predicate);
+      if (keys == null) {
+        LOGGER.debug("Subscription {} cannot be indexed", subscriptionId);
+        unindexedSubscriptions.add(subscriptionId);
+      } else {
+        LOGGER.debug("Indexing subscription {} with {} keys", subscriptionId, keys.size());
+        keys.forEach(IndexKey::insert);
+      }
+
+      subscriptions.put(subscriptionId, new Registration<>(value, keys));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes a subscription from the index.
+   *
+   * @param subscriptionId the id of the subscription
+   * @return the value of the removed subscription, {@code null} if there was no such subscription
+   */
+  public T remove(String subscriptionId) {
+    lock.writeLock().lock();
+    try {
+      return removeSubscription(subscriptionId);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  public boolean isEmpty() {
+    lock.readLock().lock();
+    try {
+      return subscriptions.isEmpty();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return subscriptions.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the subscriptions whose predicates may match a published event.
+   *
+   * @param event the published event
+   * @return the values of the candidate subscriptions
+   */
+  public Collection<T> getCandidates(Event event) {
+    lock.readLock().lock();
+    try {
+      if (subscriptions.isEmpty()) {
+        return Collections.emptyList();
+      }
+
+      // Every predicate matches a delete event that has no metadata
+      if (isDeletedEntry(event)) {
+        List<T> all = new ArrayList<>(subscriptions.size());
+        subscriptions.values().forEach(registration -> all.add(registration.value));
+        return all;
+      }
+
+      Set<String> candidateIds = new HashSet<>(unindexedSubscriptions);
+      addHashCandidates(entryIdIndex, getEntryId(event), candidateIds);
+      addHashCandidates(productUriIndex, getProductUri(event), candidateIds);
+      addHashCandidates(contentTypeIndex, getContentType(event), candidateIds);
+      addContextualCandidates(event, candidateIds);
+
+      Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+      if (entry != null) {
+        addGeospatialCandidates(entry, candidateIds);
+        addTemporalCandidates(entry, candidateIds);
+      }
+
+      List<T> candidates = new ArrayList<>(candidateIds.size());
+      for (String subscriptionId : candidateIds) {
+        candidates.add(subscriptions.get(subscriptionId).value);
+      }
+
+      LOGGER.debug(
+          "Found {} candidate subscriptions out of {}", candidates.size(), subscriptions.size());
+      return candidates;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private T removeSubscription(String subscriptionId) {
+    Registration<T> registration = subscriptions.remove(subscriptionId);
+    if (registration == null) {
+      return null;
+    }
+
+    if (registration.keys == null) {
+      unindexedSubscriptions.remove(subscriptionId);
+    } else {
+      registration.keys.forEach(IndexKey::delete);
+    }
+
+    return registration.value;
+  }
+
+  /**
+   * Gets the keys of a predicate. The predicate can only match an event if at least one of the keys
+   * matches the event.
+   *
+   * @return the keys, or {@code null} if no keys can be derived from the predicate
+   */
+  private List<IndexKey> getKeys(String subscriptionId, Predicate predicate) {
+    if (predicate instanceof AndPredicate) {
+      AndPredicate and = (AndPredicate) predicate;
+      List<IndexKey> left = getKeys(subscriptionId, and.getLeft());
+      List<IndexKey> right = getKeys(subscriptionId, and.getRight());
+
+      // Both sides have to match, so the keys of either side are enough
+      if (left == null) {
+        return right;
+      } else if (right == null || getRank(left) <= getRank(right)) {
+        return left;
+      }
+      return right;
+    } else if (predicate instanceof OrPredicate) {
+      OrPredicate or = (OrPredicate) predicate;
+      List<IndexKey> left = getKeys(subscriptionId, or.getLeft());
+      List<IndexKey> right = getKeys(subscriptionId, or.getRight());
+
+      if (left == null || right == null) {
+        return null;
+      }
+      List<IndexKey> keys = new ArrayList<>(left);
+      keys.addAll(right);
+      return keys;
+    } else if (predicate instanceof EntryPredicate) {
+      return getEntryKeys(subscriptionId, (EntryPredicate) predicate);
+    } else if (predicate instanceof ContentTypePredicate) {
+      return getContentTypeKeys(subscriptionId, (ContentTypePredicate) predicate);
+    } else if (predicate instanceof ContextualPredicate) {
+      return getContextualKeys(subscriptionId, (ContextualPredicate) predicate);
+    } else if (predicate instanceof GeospatialPredicate) {
+      return getGeospatialKeys(subscriptionId, (GeospatialPredicate) predicate);
+    } else if (predicate instanceof TemporalPredicate) {
+      return getTemporalKeys(subscriptionId, (TemporalPredicate) predicate);
+    }
+
+    return null;
+  }
+
+  private List<IndexKey> getEntryKeys(String subscriptionId, EntryPredicate predicate) {
+    if (predicate.getCatalogId() != null) {
+      return Collections.singletonList(
+          new HashKey<>(entryIdIndex, predicate.getCatalogId(), subscriptionId, ENTRY_RANK));
+    } else if (predicate.getDad() != null) {
+      return Collections.singletonList(
+          new HashKey<>(productUriIndex, predicate.getDad(), subscriptionId, ENTRY_RANK));
+    }
+    return null;
+  }
+
+  private List<IndexKey> getContentTypeKeys(
+      String subscriptionId, ContentTypePredicate predicate) {
+    String type = predicate.getType();
+    if (type != null && LITERAL_CONTENT_TYPE.matcher(type).matches()) {
+      return Collections.singletonList(
+          new HashKey<>(contentTypeIndex, type, subscriptionId, CONTENT_TYPE_RANK));
+    }
+    return null;
+  }
+
+  private List<IndexKey> getContextualKeys(String subscriptionId, ContextualPredicate predicate) {
+    if (predicate.hasTextPaths() || predicate.isFuzzy()) {
+      return null;
+    }
+
+    Term term =
+        ContextualEvaluator.getSingleTerm(predicate.getSearchPhrase(), predicate.isCaseSensitive());
+    if (term == null) {
+      return null;
+    }
+    return Collections.singletonList(
+        new HashKey<>(contextualIndex, term, subscriptionId, CONTEXTUAL_RANK));
+  }
+
+  private List<IndexKey> getGeospatialKeys(String subscriptionId, GeospatialPredicate predicate) {
+    Geometry geometry = predicate.getGeoCriteria();
+    if (geometry == null || geometry.isEmpty()) {
+      return null;
+    }
+
+    // Anything within the distance of the geometry is within the distance of its envelope
+    Envelope envelope = new Envelope(geometry.getEnvelopeInternal());
+    envelope.expandBy(Math.max(predicate.getDistance(), 0));
+    return Collections.singletonList(new GeospatialKey(envelope, subscriptionId));
+  }
+
+  private List<IndexKey> getTemporalKeys(String subscriptionId, TemporalPredicate predicate) {
+    Date start = predicate.getStart();
+    Date end = predicate.getEnd();
+    if (predicate.getOffset() > 0
+        || predicate.getType() == null
+        || (start == null && end == null)) {
+      return null;
+    }
+
+    return Collections.singletonList(
+        new TemporalKey(
+            predicate.getType(),
+            start == null ? Long.MIN_VALUE : start.getTime(),
+            end == null ? Long.MAX_VALUE : end.getTime(),
+            subscriptionId));
+  }
+
+  private static int getRank(List<IndexKey> keys) {
+    int rank = ENTRY_RANK;
+    for (IndexKey key : keys) {
+      rank = Math.max(rank, key.getRank());
+    }
+    return rank;
+  }
+
+  private static <K> void addHashCandidates(
+      Map<K, Set<String>> index, K key, Set<String> candidateIds) {
+    if (key != null) {
+      Set<String> subscriptionIds = index.get(key);
+      if (subscriptionIds != null) {
+        candidateIds.addAll(subscriptionIds);
+      }
+    }
+  }
+
+  private void addContextualCandidates(Event event, Set<String> candidateIds) {
+    if (contextualIndex.isEmpty()) {
+      return;
+    }
+
+    Map<String, Object> contextualMap =
+        (Map<String, Object>) event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    if (contextualMap == null || !(contextualMap.get("DEFAULT_INDEX") instanceof Directory)) {
+      return;
+    }
+
+    Directory index = (Directory) contextualMap.get("DEFAULT_INDEX");
+    try {
+      for (Term term : ContextualEvaluator.getTerms(index)) {
+        addHashCandidates(contextualIndex, term, candidateIds);
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read the terms of the event. Evaluating all contextual terms.", e);
+      contextualIndex.values().forEach(candidateIds::addAll);
+    }
+  }
+
+  private void addGeospatialCandidates(Metacard entry, Set<String> candidateIds) {
+    if (geospatialIndex.size() == 0 || entry.getLocation() == null) {
+      return;
+    }
+
+    Envelope location;
+    try {
+      location = new WKTReader2().read(entry.getLocation()).getEnvelopeInternal();
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse location of entry {}", entry.getId(), e);
+      return;
+    }
+
+    for (Object item : geospatialIndex.query(location)) {
+      GeospatialKey key = (GeospatialKey) item;
+      if (key.envelope.intersects(location)) {
+        candidateIds.add(key.subscriptionId);
+      }
+    }
+  }
+
+  private void addTemporalCandidates(Metacard entry, Set<String> candidateIds) {
+    for (Map.Entry<DateType, Bintree> index : temporalIndex.entrySet()) {
+      Date date = getDate(entry, index.getKey());
+      if (date == null) {
+        continue;
+      }
+
+      long time = date.getTime();
+      for (Object item : index.getValue().query((double) time)) {
+        TemporalKey key = (TemporalKey) item;
+        if (key.start <= time && time <= key.end) {
+          candidateIds.add(key.subscriptionId);
+        }
+      }
+    }
+  }
+
+  private static boolean isDeletedEntry(Event event) {
+    Map<String, Object> contextualMap =
+        (Map<String, Object>) event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    return contextualMap != null
+        && PubSubConstants.DELETE.equals(event.getProperty(PubSubConstants.HEADER_OPERATION_KEY))
+        && PubSubConstants.METADATA_DELETED.equals(contextualMap.get("METADATA"));
+  }
+
+  private static String getEntryId(Event event) {
+    Object id = event.getProperty(PubSubConstants.HEADER_ID_KEY);
+    return id == null ? null : id.toString();
+  }
+
+  private static URI getProductUri(Event event) {
+    String productUri = (String) event.getProperty(PubSubConstants.HEADER_DAD_KEY);
+    if (productUri == null) {
+      return null;
+    }
+
+    try {
+      return new URI(productUri);
+    } catch (URISyntaxException e) {
+      LOGGER.debug("Invalid product URI {}", productUri, e);
+      return null;
+    }
+  }
+
+  /** Extracts the content type the same way the {@link ContentTypePredicate} does. */
+  private static String getContentType(Event event) {
+    Object contentType = event.getProperty(PubSubConstants.HEADER_CONTENT_TYPE_KEY);
+    if (contentType == null || ",".equals(contentType.toString())) {
+      return NULL_CONTENT_TYPE;
+    }
+
+    String type = contentType.toString().split(",")[0];
+    return type.isEmpty() ? NULL_CONTENT_TYPE : type;
+  }
+
+  /** Gets the date the {@link TemporalPredicate} for a date type is evaluated against. */
+  private static Date getDate(Metacard entry, DateType dateType) {
+    switch (dateType) {
+      case MODIFIED:
+        return entry.getModifiedDate();
+      case EFFECTIVE:
+        return entry.getEffectiveDate();
+      case CREATED:
+        return entry.getCreatedDate();
+      case EXPIRATION:
+        return entry.getExpirationDate();
+      case METACARD_CREATED:
+        return getDateAttribute(entry, Core.METACARD_CREATED);
+      case METACARD_MODIFIED:
+        return getDateAttribute(entry, Core.METACARD_MODIFIED);
+      default:
+        return null;
+    }
+  }
+
+  private static Date getDateAttribute(Metacard entry, String attributeName) {
+    Attribute attribute = entry.getAttribute(attributeName);
+    if (attribute == null) {
+      return null;
+    }
+
+    Serializable value = attribute.getValue();
+    return value instanceof Date ? (Date) value : null;
+  }
+
+  private static class Registration<T> {
+    private final T value;
+
+    /** {@code null} if the subscription is not indexed */
+    private final List<IndexKey> keys;
+
+    private Registration(T value, List<IndexKey> keys) {
+      this.value = value;
+      this.keys = keys;
+    }
+  }
+
+  private interface IndexKey {
+    /** @return lower values for keys that are expected to match fewer events */
+    int getRank();
+
+    void insert();
+
+    void delete();
+  }
+
+  private static class HashKey<K> implements IndexKey {
+    private final Map<K, Set<String>> index;
+
+    private final K key;
+
+    private final String subscriptionId;
+
+    private final int rank;
+
+    private HashKey(Map<K, Set<String>> index, K key, String subscriptionId, int rank) {
+      this.index = index;
+      this.key = key;
+      this.subscriptionId = subscriptionId;
+      this.rank = rank;
+    }
+
+    @Override
+    public int getRank() {
+      return rank;
+    }
+
+    @Override
+    public void insert() {
+      index.computeIfAbsent(key, k -> new HashSet<>()).add(subscriptionId);
+    }
+
+    @Override
+    public void delete() {
+      Set<String> subscriptionIds = index.get(key);
+      if (subscriptionIds != null) {
+        subscriptionIds.remove(subscriptionId);
+        if (subscriptionIds.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+  }
+
+  private class GeospatialKey implements IndexKey {
+    private final Envelope envelope;
+
+    private final String subscriptionId;
+
+    private GeospatialKey(Envelope envelope, String subscriptionId) {
+      this.envelope = envelope;
+      this.subscriptionId = subscriptionId;
+    }
+
+    @Override
+    public int getRank() {
+      return GEOSPATIAL_RANK;
+    }
+
+    @Override
+    public void insert() {
+      geospatialIndex.insert(envelope, this);
+    }
+
+    @Override
+    public void delete() {
+      geospatialIndex.remove(envelope, this);
+    }
+  }
+
+  private class TemporalKey implements IndexKey {
+    private final DateType dateType;
+
+    private final long start;
+
+    private final long end;
+
+    private final String subscriptionId;
+
+    private TemporalKey(DateType dateType, long start, long end, String subscriptionId) {
+      this.dateType = dateType;
+      this.start = start;
+      this.end = end;
+      this.subscriptionId = subscriptionId;
+    }
+
+    @Override
+    public int getRank() {
+      return TEMPORAL_RANK;
+    }
+
+    @Override
+    public void insert() {
+      temporalIndex.computeIfAbsent(dateType, type -> new Bintree()).insert(getInterval(), this);
+    }
+
+    @Override
+    public void delete() {
+      Bintree index = temporalIndex.get(dateType);
+      if (index != null) {
+        index.remove(getInterval(), this);
+        if (index.size() == 0) {
+          temporalIndex.remove(dateType);
+        }
+      }
+    }
+
+    private Interval getInterval() {
+      return new Interval((double) start, (double) end);
+    }
+  }
+}
@@ -156,6 +156,11 @@ public DateType getType() {
     return type;
   }
 
+  /** @return the length of the relative time period in milliseconds, 0 for an absolute period */
+  public long getOffset() {
+    return offset;
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
 
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.geospatial.SpatialOperator;
+import ddf.catalog.pubsub.predicate.ContentTypePredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.EntryPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventAdmin;
+
+public class SubscriptionIndexTest {
+
+  private static final String METADATA_FORMAT =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\r\n"
+          + "<Resource>\r\n"
+          + "  <title>%s</title>\r\n"
+          + "</Resource>";
+
+  private static final String POLYGON = "POLYGON ((0 0, 0 10, 10 10, 10 0, 0 0))";
+
+  private static final String FAR_POLYGON = "POLYGON ((50 50, 50 60, 60 60, 60 50, 50 50))";
+
+  private SubscriptionIndex<String> index;
+
+  private MetacardImpl metacard;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex<>();
+
+    metacard = new MetacardImpl();
+    metacard.setId("123");
+    metacard.setContentTypeName("nitf");
+    metacard.setContentTypeVersion("2.0");
+    metacard.setLocation("POINT (5 5)");
+    metacard.setModifiedDate(new Date(10000L));
+    metacard.setMetadata(String.format(METADATA_FORMAT, "Bike race"));
+  }
+
+  @Test
+  public void testEntryCandidates() {
+    add("entry", new EntryPredicate("123"));
+    add("otherEntry", new EntryPredicate("456"));
+
+    assertThat(index.getCandidates(publish(metacard)), containsInAnyOrder("entry"));
+  }
+
+  @Test
+  public void testContentTypeCandidates() {
+    add("nitf", new ContentTypePredicate("nitf", "1.0"));
+    add("video", new ContentTypePredicate("video", null));
+    add("wildcard", new ContentTypePredicate("ni*", null));
+
+    assertThat(index.getCandidates(publish(metacard)), containsInAnyOrder("nitf", "wildcard"));
+  }
+
+  @Test
+  public void testGeospatialCandidates() {
+    add("overlaps", new GeospatialPredicate(POLYGON, SpatialOperator.OVERLAPS.name(), 0.0));
+    add("contains", new GeospatialPredicate(FAR_POLYGON, SpatialOperator.CONTAINS.name(), 0.0));
+    add("near", new GeospatialPredicate("POINT (6 6)", null, 1.5));
+    add("far", new GeospatialPredicate("POINT (8 8)", null, 1.5));
+
+    assertThat(index.getCandidates(publish(metacard)), containsInAnyOrder("overlaps", "near"));
+  }
+
+  @Test
+  public void testTemporalCandidates() {
+    add("during", new TemporalPredicate(new Date(5000L), new Date(15000L), DateType.MODIFIED));
+    add("before", new TemporalPredicate(new Date(0L), new Date(5000L), DateType.MODIFIED));
+    add("openStart", new TemporalPredicate(null, new Date(10000L), DateType.MODIFIED));
+    add("otherType", new TemporalPredicate(new Date(5000L), new Date(15000L), DateType.CREATED));
+    add("relative", new TemporalPredicate(TimeUnit.DAYS.toMillis(1), DateType.MODIFIED));
+
+    assertThat(
+        index.getCandidates(publish(metacard)),
+        containsInAnyOrder("during", "openStart", "relative"));
+  }
+
+  @Test
+  public void testContextualCandidates() {
+    add("bike", new ContextualPredicate("Bike", false, false, null));
+    add("car", new ContextualPredicate("car", false, false, null));
+    add("caseSensitive", new ContextualPredicate("bike", false, true, null));
+    add("phrase", new ContextualPredicate("bike car", false, false, null));
+
+    assertThat(index.getCandidates(publish(metacard)), containsInAnyOrder("bike", "phrase"));
+  }
+
+  @Test
+  public void testAndUsesEitherSide() {
+    add(
+        "and",
+        SubscriptionFilterVisitor.and(
+            new ContentTypePredicate("nitf", null), new EntryPredicate("456")));
+
+    assertThat(index.getCandidates(publish(metacard)), is(empty()));
+  }
+
+  @Test
+  public void testOrUsesBothSides() {
+    add(
+        "indexedOr",
+        SubscriptionFilterVisitor.or(new EntryPredicate("456"), new EntryPredicate("123")));
+    add(
+        "unindexedOr",
+        SubscriptionFilterVisitor.or(
+            new EntryPredicate("456"), new ContentTypePredicate("*", null)));
+    add(
+        "notMatchingOr",
+        SubscriptionFilterVisitor.or(
+            new EntryPredicate("456"), new ContentTypePredicate("video", null)));
+
+    assertThat(
+        index.getCandidates(publish(metacard)), containsInAnyOrder("indexedOr", "unindexedOr"));
+  }
+
+  @Test
+  public void testFilterlessAndNotCandidates() {
+    add("filterless", null);
+    add("not", SubscriptionFilterVisitor.not(new EntryPredicate("123")));
+
+    assertThat(index.getCandidates(publish(metacard)), containsInAnyOrder("filterless", "not"));
+  }
+
+  @Test
+  public void testDeletedEntryMatchesAll() {
+    add("entry", new EntryPredicate("456"));
+    add("video", new ContentTypePredicate("video", null));
+    metacard.setMetadata(PubSubConstants.METADATA_DELETED);
+
+    assertThat(
+        index.getCandidates(publish(metacard, PubSubConstants.DELETE)),
+        containsInAnyOrder("entry", "video"));
+  }
+
+  @Test
+  public void testRemove() {
+    add("entry", new EntryPredicate("123"));
+    add("overlaps", new GeospatialPredicate(POLYGON, SpatialOperator.OVERLAPS.name(), 0.0));
+    add("during", new TemporalPredicate(new Date(5000L), new Date(15000L), DateType.MODIFIED));
+    add("filterless", null);
+
+    assertThat(index.remove("entry"), is("entry"));
+    assertThat(index.remove("overlaps"), is("overlaps"));
+    assertThat(index.remove("during"), is("during"));
+    assertThat(index.remove("filterless"), is("filterless"));
+
+    assertThat(index.isEmpty(), is(true));
+    assertThat(index.getCandidates(publish(metacard)), is(empty()));
+  }
+
+  @Test
+  public void testAddReplacesSubscription() {
+    add("subscription", new EntryPredicate("123"));
+    add("subscription", new EntryPredicate("456"));
+
+    assertThat(index.size(), is(1));
+    assertThat(index.getCandidates(publish(metacard)), is(empty()));
+  }
+
+  private void add(String subscriptionId, Predicate predicate) {
+    index.add(subscriptionId, predicate, subscriptionId);
+  }
+
+  private Event publish(MetacardImpl entry) {
+    return publish(entry, PubSubConstants.CREATE);
+  }
+
+  private Event publish(MetacardImpl entry, String operation) {
+    CapturingEventAdmin eventAdmin = new CapturingEventAdmin();
+    EventProcessorImpl.processEntry(entry, operation, eventAdmin);
+    return eventAdmin.event;
+  }
+
+  private static class CapturingEventAdmin implements EventAdmin {
+    private Event event;
+
+    @Override
+    public void postEvent(Event event) {
+      this.event = event;
+    }
+
+    @Override
+    public void sendEvent(Event event) {
+      this.event = event;
+    }
+  }
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores content once per SHA-256 digest of its bytes. A content file is a hard link to the blob
+ * holding its bytes, so the link count of a blob is its reference count: it is maintained by the
+ * file system, survives crashes, and follows the existing commit and rollback of the temporary
+ * content directories without any bookkeeping. Blobs only linked from the blob directory are
+ * removed by a garbage collection that runs in the background after content files are deleted.
+ */
+class ContentBlobStore {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentBlobStore.class);
+
+  private static final String PARTIAL_EXT = ".partial";
+
+  private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final Path blobDirectory;
+
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+
+  private final ExecutorService garbageCollector =
+      Executors.newSingleThreadExecutor(
+          StandardThreadFactoryBuilder.newThreadFactory("contentBlobGarbageCollector"));
+
+  private final AtomicBoolean garbageCollectionPending = new AtomicBoolean();
+
+  ContentBlobStore(Path blobDirectory) throws IOException {
+    this.blobDirectory = Files.createDirectories(blobDirectory);
+  }
+
+  /**
+   * @return whether the file store of {@code directory} exposes link counts, which content
+   *     addressed storage relies on
+   */
+  static boolean isSupported(Path directory) {
+    try {
+      FileStore fileStore = Files.getFileStore(directory);
+      return fileStore.supportsFileAttributeView("unix");
+    } catch (IOException e) {
+      LOGGER.debug("Unable to get the file store of {}", directory, e);
+      return false;
+    }
+  }
+
+  /**
+   * Stores the content of a stream and links {@code target} to its blob. The stream is copied to a
+   * partial file next to {@code target} while it is hashed, and that copy becomes the blob unless
+   * one with the same digest already exists.
+   *
+   * @return the size of the content
+   */
+  long store(InputStream inputStream, Path target) throws IOException {
+    Path partialPath = target.resolveSibling(target.getFileName() + PARTIAL_EXT);
+    try {
+      Hasher hasher = Hashing.sha256().newHasher();
+      long size = 0;
+      byte[] buffer = new byte[COPY_BUFFER_SIZE];
+      try (OutputStream outputStream = Files.newOutputStream(partialPath)) {
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+          outputStream.write(buffer, 0, read);
+          hasher.putBytes(buffer, 0, read);
+          size += read;
+        }
+      }
+      link(hasher.hash().toString(), partialPath, target);
+      return size;
+    } finally {
+      Files.deleteIfExists(partialPath);
+    }
+  }
+
+  /**
+   * Stores the content of a local file and links {@code target} to its blob. The file is only read
+   * to be hashed; a new blob is linked to it, or copied from it if it is on another file system.
+   *
+   * @return the size of the content
+   */
+  long store(Path source, Path target) throws IOException {
+    String digest =
+        com.google.common.io.Files.asByteSource(source.toFile()).hash(Hashing.sha256()).toString();
+    link(digest, source, target);
+    return Files.size(target);
+  }
+
+  /** Requests a garbage collection of the blobs that are no longer referenced. */
+  void requestGarbageCollection() {
+    if (garbageCollectionPending.compareAndSet(false, true)) {
+      garbageCollector.execute(
+          () -> {
+            garbageCollectionPending.set(false);
+            try {
+              collectGarbage();
+            } catch (IOException | RuntimeException e) {
+              LOGGER.info("Unable to remove unreferenced content blobs.", e);
+            }
+          });
+    }
+  }
+
+  /** Removes the blobs that are no longer referenced and the partial blobs left by a crash. */
+  void collectGarbage() throws IOException {
+    int removed = 0;
+    try (DirectoryStream<Path> prefixes = Files.newDirectoryStream(blobDirectory)) {
+      for (Path prefix : prefixes) {
+        if (!Files.isDirectory(prefix)) {
+          continue;
+        }
+        try (DirectoryStream<Path> blobs = Files.newDirectoryStream(prefix)) {
+          for (Path blob : blobs) {
+            if (removeIfUnreferenced(blob)) {
+              removed++;
+            }
+          }
+        }
+      }
+    }
+    LOGGER.debug("Removed {} unreferenced content blobs.", removed);
+  }
+
+  void destroy() {
+    garbageCollector.shutdown();
+    try {
+      garbageCollector.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  Path getBlobDirectory() {
+    return blobDirectory;
+  }
+
+  Path getBlobPath(String digest) {
+    return blobDirectory.resolve(digest.substring(0, 2)).resolve(digest);
+  }
+
+  private void link(String digest, Path source, Path target) throws IOException {
+    Path blobPath = getBlobPath(digest);
+    Lock lock = locks.get(digest);
+    lock.lock();
+    try {
+      if (!blobPath.toFile().exists()) {
+        createBlob(source, blobPath);
+      }
+      try {
+        Files.createLink(target, blobPath);
+      } catch (FileSystemException e) {
+        // Most likely the blob has reached the maximum number of links of the file system.
+        LOGGER.debug("Unable to link {} to {}, copying it instead.", target, blobPath, e);
+        Files.copy(blobPath, target);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void createBlob(Path source, Path blobPath) throws IOException {
+    Files.createDirectories(blobPath.getParent());
+    Path partialPath = blobPath.resolveSibling(blobPath.getFileName() + PARTIAL_EXT);
+    try {
+      Files.deleteIfExists(partialPath);
+      try {
+        Files.createLink(partialPath, source);
+      } catch (IOException | UnsupportedOperationException e) {
+        LOGGER.debug("Unable to link {} to {}, copying it instead.", partialPath, source, e);
+        Files.copy(source, partialPath);
+      }
+      Files.move(partialPath, blobPath, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(partialPath);
+    }
+  }
+
+  private boolean removeIfUnreferenced(Path blob) throws IOException {
+    String name = blob.getFileName().toString();
+    boolean partial = name.endsWith(PARTIAL_EXT);
+    String digest = partial ? name.substring(0, name.length() - PARTIAL_EXT.length()) : name;
+    Lock lock = locks.get(digest);
+    lock.lock();
+    try {
+      // Partial blobs are written and removed under the lock, so this one was left by a crash.
+      if (partial || (Integer) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE) <= 1) {
+        return Files.deleteIfExists(blob);
+      }
+      return false;
+    } catch (NoSuchFileException e) {
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -18,6 +18,7 @@
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.data.impl.ContentItemValidator;
 import ddf.catalog.content.operation.CreateStorageRequest;
@@ -37,6 +38,7 @@
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolutionException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -45,6 +47,7 @@
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
@@ -53,9 +56,11 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -72,6 +77,8 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String DEFAULT_TMP = "tmp";
 
+  public static final String DEFAULT_BLOBS = "blobs";
+
   public static final String KARAF_HOME = "karaf.home";
 
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
@@ -80,6 +87,8 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String REF_EXT = "external-reference";
 
+  private static final String PARTIAL_EXT = "partial";
+
   /** Mapper for file extensions-to-mime types (and vice versa) */
   private MimeTypeMapper mimeTypeMapper;
 
@@ -88,6 +97,11 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   private Path baseContentTmpDirectory;
 
+  private boolean contentAddressed = false;
+
+  /** Store of the content blobs, only set when content addressed storage is enabled */
+  private ContentBlobStore blobStore;
+
   private Map<String, List<Metacard>> deletionMap = new ConcurrentHashMap<>();
 
   private Map<String, Set<String>> updateMap = new ConcurrentHashMap<>();
@@ -311,6 +325,7 @@ private void commitDeletes(StorageRequest request) throws StorageException {
       }
     } finally {
       rollback(request);
+      requestBlobGarbageCollection();
     }
   }
 
@@ -324,6 +339,7 @@ private boolean isDirectoryEmpty(Path dir) throws IOException {
   }
 
   private void commitUpdates(StorageRequest request) throws StorageException {
+    boolean replacedContent = false;
     try {
       for (String contentUri : updateMap.get(request.getId())) {
         Path contentIdDir = getTempContentItemDir(request.getId(), new URI(contentUri));
@@ -342,6 +358,7 @@ private void commitUpdates(StorageRequest request) throws StorageException {
               for (Path file : files) {
                 if (!file.toFile().isDirectory()) {
                   Files.deleteIfExists(file);
+                  replacedContent = true;
                 }
               }
             }
@@ -370,6 +387,9 @@ private void commitUpdates(StorageRequest request) throws StorageException {
       throw new StorageException(e);
     } finally {
       rollback(request);
+      if (replacedContent) {
+        requestBlobGarbageCollection();
+      }
     }
   }
 
@@ -380,13 +400,33 @@ public void rollback(StorageRequest request) throws StorageException {
     deletionMap.remove(id);
     updateMap.remove(id);
     try {
+      // Content left in the temporary directory was not committed, its blobs may be unreferenced.
+      boolean uncommittedContent = blobStore != null && containsFiles(requestIdDir);
       FileUtils.deleteDirectory(requestIdDir.toFile());
+      if (uncommittedContent) {
+        requestBlobGarbageCollection();
+      }
     } catch (IOException e) {
       throw new StorageException(
           "Unable to remove temporary content storage for request: " + id, e);
     }
   }
 
+  private boolean containsFiles(Path dir) throws IOException {
+    if (!dir.toFile().exists()) {
+      return false;
+    }
+    try (Stream<Path> paths = Files.walk(dir)) {
+      return paths.anyMatch(Files::isRegularFile);
+    }
+  }
+
+  private void requestBlobGarbageCollection() {
+    if (blobStore != null) {
+      blobStore.requestGarbageCollection();
+    }
+  }
+
   private ContentItem readContent(URI uri) throws StorageException {
     Path file = getContentFilePath(uri);
 
@@ -456,7 +496,11 @@ private ContentItem readContent(URI uri) throws StorageException {
       } catch (IOException e) {
         LOGGER.info("Unable to retrieve size of file: {}", file.toAbsolutePath().toString(), e);
       }
-      byteSource = com.google.common.io.Files.asByteSource(file.toFile());
+      // External references are read but never linked, their files are not ours.
+      byteSource =
+          reference == null
+              ? new StoredContentByteSource(file)
+              : com.google.common.io.Files.asByteSource(file.toFile());
     } else {
       URI finalReference = reference;
       byteSource =
@@ -582,7 +626,7 @@ public InputStream openStream() throws IOException {
           };
     } else {
       try (InputStream inputStream = item.getInputStream()) {
-        copy = Files.copy(inputStream, contentItemPath);
+        copy = writeContentFile(inputStream, contentItemPath);
       }
       byteSource = com.google.common.io.Files.asByteSource(contentItemPath.toFile());
 
@@ -612,6 +656,54 @@ public InputStream openStream() throws IOException {
     return contentItem;
   }
 
+  /**
+   * Writes the content of an item to its file. Content already stored here, such as the previous
+   * content versioned by the historian, is hard linked. With content addressed storage, other
+   * content is linked to the blob of its digest. Otherwise content the catalog framework already
+   * holds in a local file is hard linked when possible, and anything else is copied to a partial
+   * file which is then atomically renamed, so the content file never exists partially written.
+   */
+  private long writeContentFile(InputStream inputStream, Path contentItemPath)
+      throws IOException {
+    if (contentItemPath.toFile().exists()) {
+      throw new FileAlreadyExistsException(contentItemPath.toString());
+    }
+
+    Path sourcePath = null;
+    if (inputStream instanceof FileBackedContent) {
+      sourcePath = ((FileBackedContent) inputStream).getPath();
+      if (blobStore != null && !sourcePath.startsWith(baseContentDirectory)) {
+        return blobStore.store(sourcePath, contentItemPath);
+      }
+      try {
+        Files.createLink(contentItemPath, sourcePath);
+        return Files.size(contentItemPath);
+      } catch (IOException | UnsupportedOperationException | SecurityException e) {
+        LOGGER.debug(
+            "Unable to link {} to {}, copying it instead.", contentItemPath, sourcePath, e);
+      }
+    }
+
+    if (blobStore != null) {
+      return blobStore.store(inputStream, contentItemPath);
+    }
+
+    Path partialPath = Paths.get(contentItemPath.toString() + "." + PARTIAL_EXT);
+    try {
+      long copy;
+      if (sourcePath != null) {
+        Files.copy(sourcePath, partialPath);
+        copy = Files.size(partialPath);
+      } else {
+        copy = Files.copy(inputStream, partialPath);
+      }
+      Files.move(partialPath, contentItemPath, StandardCopyOption.ATOMIC_MOVE);
+      return copy;
+    } finally {
+      Files.deleteIfExists(partialPath);
+    }
+  }
+
   public MimeTypeMapper getMimeTypeMapper() {
     return mimeTypeMapper;
   }
@@ -620,6 +712,50 @@ public void setMimeTypeMapper(MimeTypeMapper mimeTypeMapper) {
     this.mimeTypeMapper = mimeTypeMapper;
   }
 
+  /**
+   * Enables or disables content addressed storage, in which identical content is only stored once.
+   * Content stored before it was enabled stays where it is.
+   */
+  public void setContentAddressed(boolean contentAddressed) throws IOException {
+    this.contentAddressed = contentAddressed;
+    configureBlobStore();
+  }
+
+  public void destroy() {
+    if (blobStore != null) {
+      blobStore.destroy();
+    }
+  }
+
+  // package-private for unit testing
+  ContentBlobStore getBlobStore() {
+    return blobStore;
+  }
+
+  private void configureBlobStore() throws IOException {
+    if (baseContentDirectory == null) {
+      return;
+    }
+
+    Path blobDirectory = baseContentDirectory.resolve(DEFAULT_BLOBS);
+    if (!contentAddressed) {
+      destroy();
+      blobStore = null;
+    } else if (blobStore == null || !blobStore.getBlobDirectory().equals(blobDirectory)) {
+      if (!ContentBlobStore.isSupported(baseContentDirectory)) {
+        LOGGER.warn(
+            "The file system of {} does not support hard link counts, "
+                + "content addressed storage is disabled.",
+            baseContentDirectory);
+        return;
+      }
+      destroy();
+      blobStore = new ContentBlobStore(blobDirectory);
+      // Collects the blobs left unreferenced by a crash.
+      blobStore.requestGarbageCollection();
+    }
+  }
+
   public void setBaseContentDirectory(final String baseDirectory) throws IOException {
 
     Path directory;
@@ -661,6 +797,7 @@ public void setBaseContentDirectory(final String baseDirectory) throws IOExcepti
 
     this.baseContentDirectory = directories;
     this.baseContentTmpDirectory = tmpDirectories;
+    configureBlobStore();
   }
 
   private String tryCanonicalizeDirectory(String directory) {
@@ -673,6 +810,49 @@ private String tryCanonicalizeDirectory(String directory) {
     return normalized;
   }
 
+  /**
+   * {@link ByteSource} of a stored content file whose streams implement {@link FileBackedContent},
+   * so that storing the same content again, as versioning does, can link the file instead of
+   * copying it. Stored content files are never modified in place, which makes sharing them safe.
+   */
+  private static class StoredContentByteSource extends ByteSource {
+    private final Path file;
+
+    StoredContentByteSource(Path file) {
+      this.file = file;
+    }
+
+    @Override
+    public InputStream openStream() throws IOException {
+      return new StoredContentInputStream(Files.newInputStream(file), file);
+    }
+
+    @Override
+    public long size() throws IOException {
+      return Files.size(file);
+    }
+  }
+
+  private static class StoredContentInputStream extends FilterInputStream
+      implements FileBackedContent {
+    private final Path file;
+
+    StoredContentInputStream(InputStream inputStream, Path file) {
+      super(inputStream);
+      this.file = file;
+    }
+
+    @Override
+    public Path getPath() {
+      return file;
+    }
+
+    @Override
+    public Optional<String> getDigest(String digestName) {
+      return Optional.empty();
+    }
+  }
+
   private static class ContentItemDecorator implements ContentItem {
 
     private final ContentItem updateContentItem;
@@ -23,6 +23,7 @@
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -31,10 +32,12 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
@@ -54,6 +57,7 @@
 import ddf.mime.MimeTypeResolver;
 import ddf.mime.mapper.MimeTypeMapperImpl;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
@@ -68,6 +72,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
@@ -122,6 +127,7 @@ public void setUp() throws IOException {
 
   @After
   public void clean() {
+    provider.destroy();
     tempFolder.delete();
   }
 
@@ -148,6 +154,147 @@ public void testCreateMimeTypeWithIdAndOtherParameter() throws Exception {
     assertContentItem(TEST_INPUT_CONTENTS, mimeType, "test.xml");
   }
 
+  @Test
+  public void testCreateFileBackedContent() throws Exception {
+    Path sourcePath = tempFolder.newFile("source.nitf").toPath();
+    Files.write(sourcePath, TEST_INPUT_CONTENTS.getBytes());
+    ByteSource byteSource =
+        new ByteSource() {
+          @Override
+          public InputStream openStream() throws IOException {
+            return new FileBackedContentInputStream(sourcePath);
+          }
+        };
+    ContentItem contentItem =
+        new ContentItemImpl(
+            UUID.randomUUID().toString().replaceAll("-", ""),
+            "",
+            byteSource,
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            byteSource.size(),
+            mock(Metacard.class));
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(Collections.singletonList(contentItem), null);
+
+    CreateStorageResponse createResponse = provider.create(createRequest);
+    ContentItem createdContentItem = createResponse.getCreatedContentItems().get(0);
+    provider.commit(createRequest);
+
+    // The source file may go away once the content is stored.
+    Files.delete(sourcePath);
+    assertThat(createdContentItem.getSize(), is((long) TEST_INPUT_CONTENTS.length()));
+    assertReadRequest(createdContentItem.getUri(), NITF_MIME_TYPE);
+    ReadStorageResponse readResponse =
+        provider.read(
+            new ReadStorageRequestImpl(
+                new URI(createdContentItem.getUri()), Collections.emptyMap()));
+    try (InputStream inputStream = readResponse.getContentItem().getInputStream()) {
+      assertThat(IOUtils.toString(inputStream), is(TEST_INPUT_CONTENTS));
+    }
+  }
+
+  @Test
+  public void testStoringStoredContentLinksIt() throws Exception {
+    CreateStorageResponse createResponse =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    ContentItem storedItem =
+        provider
+            .read(
+                new ReadStorageRequestImpl(
+                    new URI(createResponse.getCreatedContentItems().get(0).getUri()),
+                    Collections.emptyMap()))
+            .getContentItem();
+
+    // Simulates what the Historian does to version content
+    ContentItem versionItem =
+        new ContentItemImpl(
+            UUID.randomUUID().toString().replaceAll("-", ""),
+            "",
+            new ByteSource() {
+              @Override
+              public InputStream openStream() throws IOException {
+                return storedItem.getInputStream();
+              }
+            },
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            storedItem.getSize(),
+            mock(Metacard.class));
+    CreateStorageRequest versionRequest =
+        new CreateStorageRequestImpl(Collections.singletonList(versionItem), null);
+    CreateStorageResponse versionResponse = provider.create(versionRequest);
+    provider.commit(versionRequest);
+
+    assertThat(
+        Files.isSameFile(
+            getStoredFile(createResponse.getCreatedContentItems().get(0)),
+            getStoredFile(versionResponse.getCreatedContentItems().get(0))),
+        is(true));
+  }
+
+  @Test
+  public void testContentAddressedStorageStoresIdenticalContentOnce() throws Exception {
+    assumeTrue(ContentBlobStore.isSupported(tempFolder.getRoot().toPath()));
+    provider.setContentAddressed(true);
+    ContentBlobStore blobStore = provider.getBlobStore();
+
+    ContentItem first =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, "first.nitf")
+            .getCreatedContentItems()
+            .get(0);
+    ContentItem second =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, "second.nitf")
+            .getCreatedContentItems()
+            .get(0);
+    ContentItem other =
+        assertContentItem("Other contents", NITF_MIME_TYPE, "other.nitf")
+            .getCreatedContentItems()
+            .get(0);
+
+    Path blob = getBlob(blobStore, TEST_INPUT_CONTENTS);
+    assertThat(Files.isSameFile(getStoredFile(first), blob), is(true));
+    assertThat(Files.isSameFile(getStoredFile(second), blob), is(true));
+    assertThat(Files.isSameFile(getStoredFile(other), blob), is(false));
+
+    deleteContent(first);
+    blobStore.collectGarbage();
+    assertThat(Files.exists(blob), is(true));
+    assertReadRequest(second.getUri(), NITF_MIME_TYPE);
+
+    deleteContent(second);
+    blobStore.collectGarbage();
+    assertThat(Files.exists(blob), is(false));
+    assertThat(Files.exists(getBlob(blobStore, "Other contents")), is(true));
+  }
+
+  @Test
+  public void testContentAddressedStorageRollback() throws Exception {
+    assumeTrue(ContentBlobStore.isSupported(tempFolder.getRoot().toPath()));
+    provider.setContentAddressed(true);
+    ContentBlobStore blobStore = provider.getBlobStore();
+    ByteSource byteSource = ByteSource.wrap(TEST_INPUT_CONTENTS.getBytes());
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(
+            Collections.singletonList(
+                new ContentItemImpl(
+                    UUID.randomUUID().toString().replaceAll("-", ""),
+                    "",
+                    byteSource,
+                    NITF_MIME_TYPE,
+                    TEST_INPUT_FILENAME,
+                    byteSource.size(),
+                    mock(Metacard.class))),
+            null);
+
+    provider.create(createRequest);
+    assertThat(Files.exists(getBlob(blobStore, TEST_INPUT_CONTENTS)), is(true));
+
+    provider.rollback(createRequest);
+    blobStore.collectGarbage();
+    assertThat(Files.exists(getBlob(blobStore, TEST_INPUT_CONTENTS)), is(false));
+  }
+
   @Test
   public void testRead() throws Exception {
     CreateStorageResponse createResponse =
@@ -700,6 +847,31 @@ public InputStream openStream() throws IOException {
     return createResponse;
   }
 
+  private Path getStoredFile(ContentItem item) {
+    List<String> parts = provider.getContentFilePathParts(item.getId(), item.getQualifier());
+    return Paths.get(
+        baseDir,
+        FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+        FileSystemStorageProvider.DEFAULT_CONTENT_STORE,
+        parts.get(0),
+        parts.get(1),
+        parts.get(2),
+        item.getFilename());
+  }
+
+  private Path getBlob(ContentBlobStore blobStore, String data) {
+    return blobStore.getBlobPath(Hashing.sha256().hashBytes(data.getBytes()).toString());
+  }
+
+  private void deleteContent(ContentItem item) throws Exception {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn(item.getId());
+    DeleteStorageRequest deleteRequest =
+        new DeleteStorageRequestImpl(Collections.singletonList(metacard), null);
+    provider.delete(deleteRequest);
+    provider.commit(deleteRequest);
+  }
+
   private void assertReadRequest(String uriString, String mimeType)
       throws StorageException, IOException, URISyntaxException {
     final URI uri = new URI(uriString);
@@ -806,4 +978,24 @@ private void submitAndVerifySuccessfulUpdateStorageRequest(ContentItem... reques
       assertReadRequest(responseContentItem.getUri(), responseContentItem.getMimeType().toString());
     }
   }
+
+  private static class FileBackedContentInputStream extends FilterInputStream
+      implements FileBackedContent {
+    private final Path path;
+
+    FileBackedContentInputStream(Path path) throws IOException {
+      super(Files.newInputStream(path));
+      this.path = path;
+    }
+
+    @Override
+    public Path getPath() {
+      return path;
+    }
+
+    @Override
+    public Optional<String> getDigest(String digestName) {
+      return Optional.empty();
+    }
+  }
 }
@@ -22,6 +22,7 @@
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.impl.ResourceRequestById;
+import ddf.catalog.plugin.PerResultPlugin;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PostQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
@@ -30,7 +31,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MetacardResourceSizePlugin implements PostQueryPlugin {
+public class MetacardResourceSizePlugin implements PostQueryPlugin, PerResultPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardResourceSizePlugin.class);
 
@@ -29,6 +29,7 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.Validation;
@@ -104,6 +105,8 @@ public class DynamicSchemaResolver {
   protected static final String COULD_NOT_READ_METACARD_TYPE_MESSAGE =
       "Could not read MetacardType.";
 
+  protected static final String COULD_NOT_READ_METACARD_MESSAGE = "Could not read Metacard.";
+
   protected static final String FIELDS_KEY = "fields";
 
   protected static final String COULD_NOT_SERIALIZE_OBJECT_MESSAGE = "Could not serialize object";
@@ -120,6 +123,7 @@ public class DynamicSchemaResolver {
           SOLR_CLOUD_VERSION_FIELD,
           SchemaFields.METACARD_TYPE_FIELD_NAME,
           SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+          SchemaFields.METACARD_OBJECT_FIELD_NAME,
           LUX_XML_FIELD_NAME,
           SCORE_FIELD_NAME);
 
@@ -159,6 +163,8 @@ public class DynamicSchemaResolver {
   protected Cache<String, byte[]> metacardTypeNameToSerialCache =
       CacheBuilder.newBuilder().maximumSize(4096).initialCapacity(64).build();
 
+  protected MetacardCodec metacardCodec = new MetacardCodec();
+
   private Processor processor = new Processor(new Config());
 
   public DynamicSchemaResolver(
@@ -190,6 +196,7 @@ public DynamicSchemaResolver(List<String> additionalFields) {
 
     fieldsCache.add(SchemaFields.METACARD_TYPE_FIELD_NAME);
     fieldsCache.add(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+    fieldsCache.add(SchemaFields.METACARD_OBJECT_FIELD_NAME);
 
     for (String field : additionalFields) {
       if (StringUtils.isNotBlank(field)) {
@@ -352,7 +359,7 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
     /*
      * Lastly the metacardType must be added to the solr document. These are internal fields
      */
-    String schemaName = String.format("%s#%s", schema.getName(), schema.hashCode());
+    String schemaName = MetacardCodec.getTypeKey(schema);
     solrInputDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, schemaName);
     byte[] metacardTypeBytes = metacardTypeNameToSerialCache.getIfPresent(schemaName);
 
@@ -372,6 +379,49 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
     solrInputDocument.addField(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME, metacardTypeBytes);
   }
 
+  /**
+   * Adds the whole {@link Metacard}, encoded with the {@link MetacardCodec}, to the {@link
+   * SolrInputDocument} so that it can be read back by {@link #decodeMetacard(SolrDocument)}
+   * without converting each field.
+   */
+  public void addEncodedMetacard(Metacard metacard, SolrInputDocument solrInputDocument)
+      throws MetacardCreationException {
+    byte[] metacardTypeBytes =
+        metacardTypeNameToSerialCache.getIfPresent(
+            MetacardCodec.getTypeKey(metacard.getMetacardType()));
+
+    try {
+      byte[] metacardBytes =
+          MetacardCodec.isEncodedType(metacardTypeBytes)
+              ? metacardCodec.encode(metacard, metacardTypeBytes)
+              : metacardCodec.encode(metacard);
+      solrInputDocument.addField(SchemaFields.METACARD_OBJECT_FIELD_NAME, metacardBytes);
+    } catch (IOException e) {
+      throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
+    }
+  }
+
+  /**
+   * Reads the {@link Metacard} added by {@link #addEncodedMetacard(Metacard, SolrInputDocument)}.
+   * Its attributes are only decoded when they are first read.
+   *
+   * @return the decoded metacard, or {@code null} if the document has no encoded metacard
+   */
+  public MetacardImpl decodeMetacard(SolrDocument doc) throws MetacardCreationException {
+    Object bytes = doc.getFirstValue(SchemaFields.METACARD_OBJECT_FIELD_NAME);
+    if (!(bytes instanceof byte[]) || !MetacardCodec.isEncodedMetacard((byte[]) bytes)) {
+      return null;
+    }
+
+    try {
+      return metacardCodec.decode((byte[]) bytes);
+    } catch (IOException e) {
+      LOGGER.info("IO exception decoding metacard", e);
+
+      throw new MetacardCreationException(COULD_NOT_READ_METACARD_MESSAGE);
+    }
+  }
+
   /*
    * Truncation that takes multibyte UTF-8 characters and surrogate pairs into consideration.
    * https://stackoverflow.com/questions/119328/how-do-i-truncate-a-java-string-to-fit-in-a-given-number-of-bytes-once-utf-8-en
@@ -619,8 +669,6 @@ public String getFieldSuffix(AttributeFormat format) {
     return schemaFields.getFieldSuffix(format);
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationException {
     String mTypeFieldName = doc.getFirstValue(SchemaFields.METACARD_TYPE_FIELD_NAME).toString();
 
@@ -632,6 +680,31 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
 
     byte[] bytes = (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
 
+    if (MetacardCodec.isEncodedType(bytes)) {
+      try {
+        cachedMetacardType = metacardCodec.decodeType(bytes);
+      } catch (IOException e) {
+        LOGGER.info("IO exception decoding cached metacard type", e);
+
+        throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE);
+      }
+    } else {
+      cachedMetacardType = deserialize(bytes);
+    }
+
+    metacardTypeNameToSerialCache.put(mTypeFieldName, bytes);
+    metacardTypesCache.put(mTypeFieldName, cachedMetacardType);
+    addToFieldsCache(cachedMetacardType.getAttributeDescriptors());
+    return cachedMetacardType;
+  }
+
+  /**
+   * Reads a {@link MetacardType} that was stored with Java serialization before the {@link
+   * MetacardCodec} was used for the metacard type field.
+   */
+  @SuppressWarnings(
+      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
+  private MetacardType deserialize(byte[] bytes) throws MetacardCreationException {
     ByteArrayInputStream bais = null;
     ObjectInputStream in = null;
     try {
@@ -640,7 +713,7 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
 
       in = new ObjectInputStream(bais);
 
-      cachedMetacardType = (MetacardType) in.readObject();
+      return (MetacardType) in.readObject();
 
     } catch (IOException e) {
 
@@ -655,11 +728,6 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
       IOUtils.closeQuietly(bais);
       IOUtils.closeQuietly(in);
     }
-
-    metacardTypeNameToSerialCache.put(mTypeFieldName, bytes);
-    metacardTypesCache.put(mTypeFieldName, cachedMetacardType);
-    addToFieldsCache(cachedMetacardType.getAttributeDescriptors());
-    return cachedMetacardType;
   }
 
   public String getCaseSensitiveField(String mappedPropertyName) {
@@ -718,18 +786,8 @@ private void addToFieldsCache(Set<AttributeDescriptor> descriptors) {
   }
 
   private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
     try {
-      ObjectOutputStream out = new ObjectOutputStream(baos);
-      out.writeObject(anywhereMType);
-
-      byte[] bytes = baos.toByteArray();
-
-      baos.close();
-      out.close();
-
-      return bytes;
+      return metacardCodec.encodeType(anywhereMType);
     } catch (IOException e) {
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE, e);
     }
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * A metacard read from a {@link SolrDocument} that only converts the Solr values of an attribute
+ * when the attribute is first accessed. Results that are filtered out, paged through or only
+ * partially transformed never pay for the conversion of the attributes they do not use.
+ *
+ * <p>The metacard is serialized as a regular {@link MetacardImpl} with all its attributes.
+ */
+class LazySolrMetacard extends MetacardImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient SolrDocument document;
+
+  private final transient DynamicSchemaResolver resolver;
+
+  /** The Solr field of each attribute that has not been converted yet. */
+  private final transient Map<String, String> unconvertedFields = new HashMap<>();
+
+  private final transient Map<String, Attribute> attributes = new LinkedHashMap<>();
+
+  LazySolrMetacard(MetacardType type, SolrDocument document, DynamicSchemaResolver resolver) {
+    super(type);
+    this.document = document;
+    this.resolver = resolver;
+
+    for (String solrFieldName : document.getFieldNames()) {
+      if (!resolver.isPrivateField(solrFieldName)) {
+        unconvertedFields.put(resolver.resolveFieldName(solrFieldName), solrFieldName);
+      }
+    }
+  }
+
+  @Override
+  public synchronized Attribute getAttribute(String name) {
+    String solrFieldName = unconvertedFields.remove(name);
+    if (solrFieldName != null) {
+      putAttribute(
+          new AttributeImpl(
+              name,
+              resolver.getDocValues(solrFieldName, document.getFieldValues(solrFieldName))));
+    }
+    return attributes.get(name);
+  }
+
+  @Override
+  public synchronized void setAttribute(Attribute attribute) {
+    if (attribute != null && attribute.getName() != null) {
+      unconvertedFields.remove(attribute.getName());
+      putAttribute(attribute);
+    }
+  }
+
+  @Override
+  protected synchronized Set<String> getAttributeNames() {
+    Set<String> names = new LinkedHashSet<>(attributes.keySet());
+    names.addAll(unconvertedFields.keySet());
+    return names;
+  }
+
+  private void putAttribute(Attribute attribute) {
+    Serializable value = attribute.getValue();
+    if (value != null) {
+      attributes.put(attribute.getName(), attribute);
+    } else {
+      attributes.remove(attribute.getName());
+    }
+  }
+
+  private synchronized Object writeReplace() {
+    for (String name : unconvertedFields.keySet().toArray(new String[0])) {
+      getAttribute(name);
+    }
+
+    MetacardImpl metacard = new MetacardImpl(getMetacardType());
+    metacard.setSourceId(getSourceId());
+    attributes.values().forEach(metacard::setAttribute);
+    return metacard;
+  }
+}
@@ -30,6 +30,7 @@
 import ddf.catalog.util.impl.MaskableImpl;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -109,6 +110,52 @@ public void setDisableTextPath(boolean disableTextPath) {
     ConfigurationStore.getInstance().setDisableTextPath(disableTextPath);
   }
 
+  /**
+   * Sets the attributes whose clauses, when they are ANDed with the rest of a query, are sent to
+   * Solr as separate filter queries. Solr caches the documents matched by each filter query, which
+   * speeds up the clauses repeated by most queries such as the tag, validation and security
+   * filters. An empty list sends every clause in the main query.
+   *
+   * @param filterQueryAttributes the attribute names
+   */
+  public void setFilterQueryAttributes(List<String> filterQueryAttributes) {
+    provider.setFilterQueryAttributes(filterQueryAttributes);
+  }
+
+  /**
+   * Sets the number of threads that convert the documents of query responses to results while the
+   * responses are still being read. With 0, the documents are converted one after the other in the
+   * query thread once the whole response has been read.
+   *
+   * @param hydrationThreads the number of threads
+   */
+  public void setHydrationThreads(int hydrationThreads) {
+    provider.setHydrationThreads(hydrationThreads);
+  }
+
+  /**
+   * Sets whether result metacards only convert the Solr values of an attribute when the attribute
+   * is first accessed. This saves the conversion of the attributes that are never read, for
+   * instance by transformers that only write a few of them.
+   *
+   * @param lazyHydration {@code true} to convert the attributes on first access
+   */
+  public void setLazyHydration(boolean lazyHydration) {
+    provider.setLazyHydration(lazyHydration);
+  }
+
+  /**
+   * Sets whether the documents of added metacards also store the whole metacard in a compact
+   * binary form, and whether results are decoded from it instead of being converted from each Solr
+   * field. Metacards added before this was enabled are still converted from their fields until
+   * they are updated.
+   *
+   * @param encodedMetacards {@code true} to store and read the binary metacards
+   */
+  public void setEncodedMetacards(boolean encodedMetacards) {
+    provider.setEncodedMetacards(encodedMetacards);
+  }
+
   @Override
   public Set<ContentType> getContentTypes() {
     return provider.getContentTypes();
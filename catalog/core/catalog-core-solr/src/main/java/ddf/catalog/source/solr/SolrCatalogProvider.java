@@ -13,6 +13,7 @@
  */
 package ddf.catalog.source.solr;
 
+import com.google.common.collect.Lists;
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
@@ -382,22 +383,7 @@ public DeleteResponse delete(DeleteRequest deleteRequest) throws IngestException
       return new DeleteResponseImpl(deleteRequest, null, deletedMetacards);
     }
 
-    if (identifiers.size() <= MAX_BOOLEAN_CLAUSES) {
-      deleteListOfMetacards(deletedMetacards, identifiers, attributeName);
-    } else {
-      List<? extends Serializable> identifierPaged;
-      int currPagingSize;
-
-      for (currPagingSize = MAX_BOOLEAN_CLAUSES;
-          currPagingSize < identifiers.size();
-          currPagingSize += MAX_BOOLEAN_CLAUSES) {
-        identifierPaged = identifiers.subList(currPagingSize - MAX_BOOLEAN_CLAUSES, currPagingSize);
-        deleteListOfMetacards(deletedMetacards, identifierPaged, attributeName);
-      }
-      identifierPaged =
-          identifiers.subList(currPagingSize - MAX_BOOLEAN_CLAUSES, identifiers.size());
-      deleteListOfMetacards(deletedMetacards, identifierPaged, attributeName);
-    }
+    deleteListOfMetacards(deletedMetacards, identifiers, attributeName);
 
     return new DeleteResponseImpl(deleteRequest, null, deletedMetacards);
   }
@@ -484,13 +470,19 @@ private void deleteListOfMetacards(
       String attributeName)
       throws IngestException {
     String fieldName = attributeName + SchemaFields.TEXT_SUFFIX;
-    List<Metacard> metacards = getMetacards(identifiers, fieldName);
-    deletedMetacards.addAll(metacards);
+    for (List<? extends Serializable> identifierPaged :
+        Lists.partition(identifiers, MAX_BOOLEAN_CLAUSES)) {
+      deletedMetacards.addAll(getMetacards(identifierPaged, fieldName));
+      LOGGER.debug(
+          "Found {} metacard(s) to delete out of {} identifier(s)",
+          deletedMetacards.size(),
+          identifiers.size());
+    }
 
     try {
       // the assumption is if something was deleted, it should be gone
       // right away, such as expired data, etc.
-      // so we force the commit
+      // so we force a single commit once all the identifiers are deleted
       client.deleteByIds(fieldName, identifiers, true);
     } catch (SolrServerException | SolrException | IOException e) {
       LOGGER.info("Failed to delete metacards by ID(s).", e);
@@ -546,12 +538,49 @@ private String generatePrimaryKey() {
     return UUID.randomUUID().toString().replaceAll("-", "");
   }
 
+  /**
+   * Sets the attributes whose clauses are sent to Solr as separate, cached filter queries.
+   *
+   * @see SolrMetacardClientImpl#setFilterQueryAttributes
+   */
+  public void setFilterQueryAttributes(List<String> filterQueryAttributes) {
+    client.setFilterQueryAttributes(filterQueryAttributes);
+  }
+
+  /**
+   * Sets the number of threads converting query response documents to results.
+   *
+   * @see SolrMetacardClientImpl#setHydrationThreads(int)
+   */
+  public void setHydrationThreads(int hydrationThreads) {
+    client.setHydrationThreads(hydrationThreads);
+  }
+
+  /**
+   * Sets whether result metacards convert their attributes on first access.
+   *
+   * @see SolrMetacardClientImpl#setLazyHydration(boolean)
+   */
+  public void setLazyHydration(boolean lazyHydration) {
+    client.setLazyHydration(lazyHydration);
+  }
+
+  /**
+   * Sets whether documents store their metacard in binary form and results are decoded from it.
+   *
+   * @see SolrMetacardClientImpl#setEncodedMetacards(boolean)
+   */
+  public void setEncodedMetacards(boolean encodedMetacards) {
+    client.setEncodedMetacards(encodedMetacards);
+  }
+
   public boolean isForcedAutoCommit() {
     return ConfigurationStore.getInstance().isForceAutoCommit();
   }
 
   public void shutdown() {
     LOGGER.debug("Closing down Solr client.");
+    client.shutdown();
     try {
       solr.close();
     } catch (IOException e) {
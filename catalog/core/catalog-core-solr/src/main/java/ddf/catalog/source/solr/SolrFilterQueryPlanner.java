@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import com.google.common.collect.ImmutableSet;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Security;
+import ddf.catalog.data.types.Validation;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.geotools.filter.visitor.DefaultFilterVisitor;
+import org.opengis.filter.And;
+import org.opengis.filter.BinaryComparisonOperator;
+import org.opengis.filter.BinaryLogicOperator;
+import org.opengis.filter.Filter;
+import org.opengis.filter.Not;
+import org.opengis.filter.Or;
+import org.opengis.filter.PropertyIsBetween;
+import org.opengis.filter.PropertyIsLike;
+import org.opengis.filter.PropertyIsNull;
+import org.opengis.filter.expression.Expression;
+import org.opengis.filter.expression.Literal;
+import org.opengis.filter.expression.PropertyName;
+
+/**
+ * Splits the top-level conjunction of a query into the clauses sent to Solr as separate filter
+ * queries ({@code fq}) and the clauses kept in the main query ({@code q}).
+ *
+ * <p>Most catalog queries are ANDed with clauses that are the same across thousands of requests:
+ * the tag and validation filters added by the catalog framework, security markings or a content
+ * type restriction. Filter queries do not contribute to the relevance score and Solr caches the
+ * documents they match in its filterCache, so these clauses are only evaluated once instead of
+ * being scored again for every request.
+ *
+ * <p>A clause becomes a filter query when it only references the configured attributes and only
+ * uses comparison, like, null and logical operators. Spatial, temporal, function and XPath clauses
+ * always stay in the main query.
+ */
+final class SolrFilterQueryPlanner {
+
+  static final Set<String> DEFAULT_ATTRIBUTES =
+      ImmutableSet.of(
+          Metacard.TAGS,
+          Metacard.CONTENT_TYPE,
+          Validation.VALIDATION_ERRORS,
+          Validation.VALIDATION_WARNINGS,
+          Security.ACCESS_GROUPS,
+          Security.ACCESS_INDIVIDUALS,
+          Security.ACCESS_ADMINISTRATORS);
+
+  private static final String MATCH_ALL_DOCS = "*:*";
+
+  private final FilterAdapter filterAdapter;
+
+  private volatile Set<String> attributes = DEFAULT_ATTRIBUTES;
+
+  SolrFilterQueryPlanner(FilterAdapter filterAdapter) {
+    this.filterAdapter = filterAdapter;
+  }
+
+  /**
+   * @param attributes the attributes whose clauses are sent as filter queries, or an empty
+   *     collection to keep the whole filter in the main query
+   */
+  void setAttributes(Collection<String> attributes) {
+    this.attributes = attributes == null ? ImmutableSet.of() : ImmutableSet.copyOf(attributes);
+  }
+
+  /**
+   * Adapts a filter the way {@link FilterAdapter#adapt} does, except that the cacheable clauses of
+   * its top-level conjunction are added to the returned query as filter queries.
+   */
+  SolrQuery adapt(Filter filter, SolrFilterDelegate delegate) throws UnsupportedQueryException {
+    Set<String> filterQueryAttributes = attributes;
+    if (filterQueryAttributes.isEmpty()) {
+      return filterAdapter.adapt(filter, delegate);
+    }
+
+    List<Filter> queryClauses = new ArrayList<>();
+    List<Filter> filterQueryClauses = new ArrayList<>();
+    for (Filter clause : getConjuncts(filter)) {
+      if (isFilterQueryClause(clause, filterQueryAttributes)) {
+        filterQueryClauses.add(clause);
+      } else {
+        queryClauses.add(clause);
+      }
+    }
+
+    if (filterQueryClauses.isEmpty()) {
+      return filterAdapter.adapt(filter, delegate);
+    }
+
+    SolrQuery query = adaptConjunction(queryClauses, delegate);
+
+    // Identical clauses, like a tag filter added by both the framework and a plugin, only need
+    // one filter query
+    Set<String> filterQueries = new LinkedHashSet<>();
+    for (Filter clause : filterQueryClauses) {
+      filterQueries.add(normalize(filterAdapter.adapt(clause, delegate).getQuery()));
+    }
+    query.addFilterQuery(filterQueries.toArray(new String[filterQueries.size()]));
+
+    return query;
+  }
+
+  private SolrQuery adaptConjunction(List<Filter> clauses, SolrFilterDelegate delegate)
+      throws UnsupportedQueryException {
+    if (clauses.isEmpty()) {
+      return new SolrQuery(MATCH_ALL_DOCS);
+    } else if (clauses.size() == 1) {
+      return filterAdapter.adapt(clauses.get(0), delegate);
+    }
+
+    List<SolrQuery> operands = new ArrayList<>(clauses.size());
+    for (Filter clause : clauses) {
+      operands.add(filterAdapter.adapt(clause, delegate));
+    }
+    try {
+      return delegate.and(operands);
+    } catch (UnsupportedOperationException e) {
+      throw new UnsupportedQueryException(e.getMessage(), e);
+    }
+  }
+
+  /** @return the children of the filter, and of its nested conjunctions, if it is an {@link And} */
+  @SuppressWarnings("unchecked")
+  private static List<Filter> getConjuncts(Filter filter) {
+    Object conjuncts = filter.accept(new ConjunctionVisitor(), null);
+    return conjuncts instanceof List ? (List<Filter>) conjuncts : Collections.singletonList(filter);
+  }
+
+  private static boolean isFilterQueryClause(Filter filter, Set<String> attributes) {
+    if (filter instanceof BinaryLogicOperator) {
+      List<Filter> children = ((BinaryLogicOperator) filter).getChildren();
+      return children != null
+          && !children.isEmpty()
+          && children.stream().allMatch(child -> isFilterQueryClause(child, attributes));
+    } else if (filter instanceof Not) {
+      return isFilterQueryClause(((Not) filter).getFilter(), attributes);
+    } else if (filter instanceof PropertyIsLike) {
+      return isAttribute(((PropertyIsLike) filter).getExpression(), attributes);
+    } else if (filter instanceof PropertyIsNull) {
+      return isAttribute(((PropertyIsNull) filter).getExpression(), attributes);
+    } else if (filter instanceof PropertyIsBetween) {
+      PropertyIsBetween between = (PropertyIsBetween) filter;
+      return isAttribute(between.getExpression(), attributes)
+          && between.getLowerBoundary() instanceof Literal
+          && between.getUpperBoundary() instanceof Literal;
+    } else if (filter instanceof BinaryComparisonOperator) {
+      Expression first = ((BinaryComparisonOperator) filter).getExpression1();
+      Expression second = ((BinaryComparisonOperator) filter).getExpression2();
+      return (isAttribute(first, attributes) && second instanceof Literal)
+          || (first instanceof Literal && isAttribute(second, attributes));
+    }
+    return false;
+  }
+
+  private static boolean isAttribute(Expression expression, Set<String> attributes) {
+    return expression instanceof PropertyName
+        && attributes.contains(((PropertyName) expression).getPropertyName());
+  }
+
+  /**
+   * Collapses the whitespace outside of quoted phrases, so that the same clause always produces
+   * the same filter query text regardless of how the delegate padded its operators.
+   */
+  static String normalize(String clause) {
+    StringBuilder builder = new StringBuilder(clause.length());
+    boolean quoted = false;
+    boolean escaped = false;
+    boolean space = false;
+
+    for (int i = 0; i < clause.length(); i++) {
+      char c = clause.charAt(i);
+      if (!quoted && !escaped && Character.isWhitespace(c)) {
+        space = builder.length() > 0;
+        continue;
+      }
+      if (space) {
+        builder.append(' ');
+        space = false;
+      }
+      builder.append(c);
+
+      if (escaped) {
+        escaped = false;
+      } else if (c == '\\') {
+        escaped = true;
+      } else if (c == '"') {
+        quoted = !quoted;
+      }
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Collects the children of an {@link And} and of the {@link And}s nested directly in it. Returns
+   * {@code null} for any other filter.
+   */
+  private static class ConjunctionVisitor extends DefaultFilterVisitor {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object visit(And filter, Object data) {
+      List<Filter> conjuncts = new ArrayList<>();
+      for (Filter child : filter.getChildren()) {
+        Object nested = child.accept(this, null);
+        if (nested instanceof List) {
+          conjuncts.addAll((List<Filter>) nested);
+        } else {
+          conjuncts.add(child);
+        }
+      }
+      return conjuncts;
+    }
+
+    @Override
+    public Object visit(Or filter, Object data) {
+      return null;
+    }
+
+    @Override
+    public Object visit(Not filter, Object data) {
+      return null;
+    }
+  }
+}
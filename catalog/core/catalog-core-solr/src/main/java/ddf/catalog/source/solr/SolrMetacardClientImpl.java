@@ -14,8 +14,11 @@
 package ddf.catalog.source.solr;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -63,12 +66,16 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest.METHOD;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.impl.StreamingBinaryResponseParser;
 import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.PivotField;
@@ -78,6 +85,8 @@
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -109,14 +118,36 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   public static final String EXCLUDE_ATTRIBUTES = "excludeAttributes";
 
+  /** Number of rows per page when paging with a cursor mark and no page size was requested. */
+  public static final int DEFAULT_CURSOR_PAGE_SIZE = 1000;
+
+  private static final String ID_SORT_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
+  /** Number of identifiers sent to Solr in each delete request. */
+  public static final int DELETE_BATCH_SIZE = 10000;
+
+  private static final String TERMS_SEPARATOR = " OR ";
+
+  /**
+   * Number of documents, per hydration thread, that can wait to be converted before the thread
+   * reading the Solr response converts them itself.
+   */
+  private static final int HYDRATION_QUEUE_SIZE_PER_THREAD = 64;
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
 
-  private final FilterAdapter filterAdapter;
-
   private final DynamicSchemaResolver resolver;
 
+  private final SolrFilterQueryPlanner filterQueryPlanner;
+
+  private volatile ThreadPoolExecutor hydrationExecutor;
+
+  private volatile boolean lazyHydration;
+
+  private volatile boolean encodedMetacards;
+
   private static final Supplier<Boolean> ZERO_PAGESIZE_COMPATIBILTY =
       () -> Boolean.valueOf(System.getProperty(ZERO_PAGESIZE_COMPATIBILITY_PROPERTY));
 
@@ -127,14 +158,93 @@ public SolrMetacardClientImpl(
       DynamicSchemaResolver dynamicSchemaResolver) {
     this.client = client;
     filterDelegateFactory = solrFilterDelegateFactory;
-    filterAdapter = catalogFilterAdapter;
     resolver = dynamicSchemaResolver;
+    filterQueryPlanner = new SolrFilterQueryPlanner(catalogFilterAdapter);
   }
 
   public SolrClient getClient() {
     return client;
   }
 
+  /**
+   * Sets the attributes whose clauses, when they are ANDed with the rest of a query, are sent to
+   * Solr as separate filter queries so that Solr can cache the documents they match.
+   *
+   * @param filterQueryAttributes the attribute names, or an empty collection to send every clause
+   *     in the main query
+   */
+  public void setFilterQueryAttributes(Collection<String> filterQueryAttributes) {
+    filterQueryPlanner.setAttributes(filterQueryAttributes);
+  }
+
+  /**
+   * Sets the number of threads that convert the documents of query responses to results. With one
+   * or more threads, query responses are streamed and each document is converted as soon as it is
+   * read, while the rest of the response is still being received. With 0, the documents are
+   * converted one after the other once the whole response has been read.
+   *
+   * @param hydrationThreads the number of threads, 0 to convert the documents in the query thread
+   */
+  public synchronized void setHydrationThreads(int hydrationThreads) {
+    ThreadPoolExecutor previousExecutor = hydrationExecutor;
+    int previousThreads = previousExecutor == null ? 0 : previousExecutor.getMaximumPoolSize();
+    if (Math.max(hydrationThreads, 0) == previousThreads) {
+      return;
+    }
+
+    hydrationExecutor = hydrationThreads > 0 ? newHydrationExecutor(hydrationThreads) : null;
+    if (previousExecutor != null) {
+      previousExecutor.shutdown();
+    }
+  }
+
+  /** Stops the threads converting the documents of query responses. */
+  public synchronized void shutdown() {
+    ThreadPoolExecutor executor = hydrationExecutor;
+    hydrationExecutor = null;
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Sets whether the metacards created from Solr documents only convert the values of an attribute
+   * when the attribute is first accessed, rather than all of them up front.
+   *
+   * @param lazyHydration {@code true} to convert the attributes on first access
+   */
+  public void setLazyHydration(boolean lazyHydration) {
+    this.lazyHydration = lazyHydration;
+  }
+
+  /**
+   * Sets whether the added documents also store their whole metacard encoded with the {@link
+   * ddf.catalog.data.impl.MetacardCodec}, and whether results are decoded from that field instead
+   * of being converted from each Solr field. Documents that were added without the encoded
+   * metacard are still converted from their fields.
+   *
+   * @param encodedMetacards {@code true} to store and read the encoded metacards
+   */
+  public void setEncodedMetacards(boolean encodedMetacards) {
+    this.encodedMetacards = encodedMetacards;
+  }
+
+  private static ThreadPoolExecutor newHydrationExecutor(int threads) {
+    // Runs the conversion in the thread reading the response when every hydration thread is busy
+    // and the queue is full, or when the executor was replaced while a query was using it
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            1L,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(threads * HYDRATION_QUEUE_SIZE_PER_THREAD),
+            StandardThreadFactoryBuilder.newThreadFactory("solrResultHydrationThread"),
+            (task, rejectingExecutor) -> task.run());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   @Override
   public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
     if (request == null || request.getQuery() == null) {
@@ -189,13 +299,28 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
     long totalHits = 0;
 
+    ThreadPoolExecutor executor = hydrationExecutor;
+    StreamingResultHydrator hydrator =
+        executor != null ? new StreamingResultHydrator(executor, this::createResult) : null;
+
     try {
-      QueryResponse solrResponse = client.query(query, METHOD.POST);
+      QueryResponse solrResponse = queryPage(query, hydrator, results);
+
+      boolean pagedByCaller = getCursorMark(request) != null;
+      if (!pagedByCaller && query.get(CursorMarkParams.CURSOR_MARK_PARAM) != null) {
+        solrResponse = queryRemainingPages(query, solrResponse, hydrator, results);
+      }
 
       SolrDocumentList docs = solrResponse.getResults();
       if (docs != null) {
         totalHits = docs.getNumFound();
-        addDocsToResults(docs, results);
+      }
+      if (hydrator != null) {
+        results.addAll(hydrator.getResults());
+      }
+
+      if (pagedByCaller && solrResponse.getNextCursorMark() != null) {
+        responseProps.put(NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
       }
 
       SuggesterResponse suggesterResponse = solrResponse.getSuggesterResponse();
@@ -227,12 +352,68 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       }
 
     } catch (SolrServerException | IOException | SolrException e) {
+      if (hydrator != null) {
+        hydrator.cancel();
+      }
       throw new UnsupportedQueryException("Could not complete solr query.", e);
     }
 
     return new SourceResponseImpl(request, responseProps, results, totalHits);
   }
 
+  /**
+   * Runs the query, adding the results to {@code results} or handing the documents to the hydrator
+   * when there is one.
+   */
+  private QueryResponse queryPage(
+      SolrQuery query, StreamingResultHydrator hydrator, List<Result> results)
+      throws SolrServerException, IOException, UnsupportedQueryException {
+    if (hydrator != null) {
+      return queryAndStream(query, hydrator);
+    }
+
+    QueryResponse solrResponse = client.query(query, METHOD.POST);
+    if (solrResponse.getResults() != null) {
+      addDocsToResults(solrResponse.getResults(), results);
+    }
+    return solrResponse;
+  }
+
+  /**
+   * Reads the pages following {@code firstPage} of a query for all the records, which is paged
+   * with a cursor mark rather than asking Solr for every matching document at once.
+   *
+   * @return the response of the last page
+   */
+  private QueryResponse queryRemainingPages(
+      SolrQuery query,
+      QueryResponse firstPage,
+      StreamingResultHydrator hydrator,
+      List<Result> results)
+      throws SolrServerException, IOException, UnsupportedQueryException {
+    QueryResponse page = firstPage;
+    String cursorMark = query.get(CursorMarkParams.CURSOR_MARK_PARAM);
+    while (page.getNextCursorMark() != null && !page.getNextCursorMark().equals(cursorMark)) {
+      cursorMark = page.getNextCursorMark();
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+      page = queryPage(query, hydrator, results);
+    }
+    return page;
+  }
+
+  /**
+   * Runs the query with a response parser that hands each document to the hydrator as soon as it
+   * is read. The documents are not added to the document list of the returned response.
+   */
+  private QueryResponse queryAndStream(SolrQuery query, StreamingResultHydrator hydrator)
+      throws SolrServerException, IOException {
+    org.apache.solr.client.solrj.request.QueryRequest queryRequest =
+        new org.apache.solr.client.solrj.request.QueryRequest(query, METHOD.POST);
+    queryRequest.setStreamingResponseCallback(hydrator);
+    queryRequest.setResponseParser(new StreamingBinaryResponseParser(hydrator));
+    return new QueryResponse(client.request(queryRequest), null);
+  }
+
   private void addDocsToResults(SolrDocumentList docs, List<Result> results)
       throws UnsupportedQueryException {
     for (SolrDocument doc : docs) {
@@ -418,7 +599,7 @@ protected SolrQuery getSolrQuery(QueryRequest request, SolrFilterDelegate solrFi
       solrFilterDelegate.setSortPolicy(sortBys.toArray(new SortBy[0]));
     }
 
-    SolrQuery query = filterAdapter.adapt(request.getQuery(), solrFilterDelegate);
+    SolrQuery query = filterQueryPlanner.adapt(request.getQuery(), solrFilterDelegate);
 
     return postAdapt(request, solrFilterDelegate, query);
   }
@@ -441,7 +622,20 @@ protected SolrQuery postAdapt(
     // Solr is 0-based
     query.setStart(request.getQuery().getStartIndex() - 1);
 
-    if (queryingForAllRecords(request)) {
+    String cursorMark = getCursorMark(request);
+
+    if (cursorMark == null
+        && queryingForAllRecords(request)
+        && request.getQuery().getStartIndex() == 1) {
+      // Reads all the records a page at a time, see query(QueryRequest)
+      cursorMark = INITIAL_CURSOR_MARK;
+      query.setRows(DEFAULT_CURSOR_PAGE_SIZE);
+    } else if (cursorMark != null) {
+      // Cursor paging ignores the start index and bounds each page rather than the whole result
+      query.setStart(0);
+      int pageSize = request.getQuery().getPageSize();
+      query.setRows(pageSize > 0 ? pageSize : DEFAULT_CURSOR_PAGE_SIZE);
+    } else if (queryingForAllRecords(request)) {
       try {
         query.setRows(queryForNumberOfRows(query));
       } catch (SolrServerException | IOException | SolrException | ArithmeticException exception) {
@@ -453,6 +647,10 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
+    if (cursorMark != null) {
+      addCursorMark(query, cursorMark);
+    }
+
     filterAttributes(request, query);
 
     return query;
@@ -471,7 +669,12 @@ private void filterAttributes(QueryRequest request, SolrQuery query) {
             .stream()
             .filter(Objects::nonNull)
             .filter(field -> excludedAttributes.stream().anyMatch(field::startsWith))
-            .collect(Collectors.toSet());
+            .collect(Collectors.toCollection(HashSet::new));
+
+    // The encoded metacard holds every attribute, so it must not be returned either
+    if (encodedMetacards) {
+      excludedFields.add(SchemaFields.METACARD_OBJECT_FIELD_NAME);
+    }
 
     Set<String> wildcardFields =
         SchemaFields.FORMAT_TO_SUFFIX_MAP
@@ -493,7 +696,7 @@ private void filterAttributes(QueryRequest request, SolrQuery query) {
                         .stream()
                         .filter(Objects::nonNull)
                         .filter(field -> field.endsWith(suffix))
-                        .filter(field -> excludedAttributes.stream().noneMatch(field::startsWith)))
+                        .filter(field -> !excludedFields.contains(field)))
             .collect(Collectors.toSet());
 
     Set<String> fields = Sets.union(includedFields, wildcardFields);
@@ -515,6 +718,24 @@ private boolean skipFilteredAttributes(QueryRequest request) {
         || "true".equals(System.getProperty("solr.client.filterAttributes.disable"));
   }
 
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
+  /**
+   * Pages with a cursor mark, which needs a sort that ends on the unique key so that every document
+   * has a stable position between requests.
+   */
+  private void addCursorMark(SolrQuery query, String cursorMark) {
+    boolean sortedById =
+        query.getSorts().stream().anyMatch(sort -> ID_SORT_FIELD.equals(sort.getItem()));
+    if (!sortedById) {
+      query.addSort(ID_SORT_FIELD, SolrQuery.ORDER.asc);
+    }
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+  }
+
   private boolean queryingForAllRecords(QueryRequest request) {
     if (ZERO_PAGESIZE_COMPATIBILTY.get()) {
       return request.getQuery().getPageSize() < 1;
@@ -628,6 +849,17 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
 
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
     MetacardType metacardType = resolver.getMetacardType(doc);
+    if (encodedMetacards) {
+      MetacardImpl metacard = resolver.decodeMetacard(doc);
+      if (metacard != null) {
+        return metacard;
+      }
+    }
+
+    if (lazyHydration) {
+      return new LazySolrMetacard(metacardType, doc, resolver);
+    }
+
     MetacardImpl metacard = new MetacardImpl(metacardType);
 
     for (String solrFieldName : doc.getFieldNames()) {
@@ -670,6 +902,9 @@ protected SolrInputDocument getSolrInputDocument(Metacard metacard)
     SolrInputDocument solrInputDocument = new SolrInputDocument();
 
     resolver.addFields(metacard, solrInputDocument);
+    if (encodedMetacards) {
+      resolver.addEncodedMetacard(metacard, solrInputDocument);
+    }
 
     return solrInputDocument;
   }
@@ -684,25 +919,14 @@ public void deleteByIds(
 
     if (Metacard.ID.equals(fieldName)) {
       CollectionUtils.transform(identifiers, Object::toString);
-      client.deleteById((List<String>) identifiers);
-    } else {
-      if (identifiers.size() < SolrCatalogProvider.MAX_BOOLEAN_CLAUSES) {
-        client.deleteByQuery(getIdentifierQuery(fieldName, identifiers));
-      } else {
-        int i;
-        for (i = SolrCatalogProvider.MAX_BOOLEAN_CLAUSES;
-            i < identifiers.size();
-            i += SolrCatalogProvider.MAX_BOOLEAN_CLAUSES) {
-          client.deleteByQuery(
-              getIdentifierQuery(
-                  fieldName, identifiers.subList(i - SolrCatalogProvider.MAX_BOOLEAN_CLAUSES, i)));
-        }
-        client.deleteByQuery(
-            getIdentifierQuery(
-                fieldName,
-                identifiers.subList(
-                    i - SolrCatalogProvider.MAX_BOOLEAN_CLAUSES, identifiers.size())));
+      int deleted = 0;
+      for (List<String> batch : Lists.partition((List<String>) identifiers, DELETE_BATCH_SIZE)) {
+        client.deleteById(batch);
+        deleted += batch.size();
+        LOGGER.debug("Deleted {} of {} document(s) by ID", deleted, identifiers.size());
       }
+    } else {
+      deleteByTerms(fieldName, identifiers);
     }
 
     if (forceCommit) {
@@ -710,6 +934,50 @@ public void deleteByIds(
     }
   }
 
+  /**
+   * Deletes the documents whose field matches one of the identifiers with terms queries, which
+   * unlike boolean queries are not limited in the number of identifiers they can match. The rare
+   * identifiers that contain the terms separator are matched with a boolean query instead.
+   */
+  private void deleteByTerms(String fieldName, List<? extends Serializable> identifiers)
+      throws IOException, SolrServerException {
+    List<String> terms = new ArrayList<>(identifiers.size());
+    List<Serializable> quotedIdentifiers = new ArrayList<>();
+    for (Serializable identifier : identifiers) {
+      if (identifier == null) {
+        continue;
+      }
+
+      String term = identifier.toString();
+      if (term.contains(TERMS_SEPARATOR)) {
+        quotedIdentifiers.add(identifier);
+      } else {
+        terms.add(term);
+      }
+    }
+
+    int deleted = 0;
+    for (List<String> batch : Lists.partition(terms, DELETE_BATCH_SIZE)) {
+      client.deleteByQuery(getTermsQuery(fieldName, batch));
+      deleted += batch.size();
+      LOGGER.debug("Deleted {} of {} identifier(s) in {}", deleted, terms.size(), fieldName);
+    }
+
+    for (List<Serializable> batch :
+        Lists.partition(quotedIdentifiers, SolrCatalogProvider.MAX_BOOLEAN_CLAUSES)) {
+      client.deleteByQuery(getIdentifierQuery(fieldName, batch));
+    }
+  }
+
+  private String getTermsQuery(String fieldName, List<String> terms) {
+    return "{!terms cache=false separator=\""
+        + TERMS_SEPARATOR
+        + "\" f="
+        + fieldName
+        + "}"
+        + String.join(TERMS_SEPARATOR, terms);
+  }
+
   @Override
   public void deleteByQuery(String query) throws IOException, SolrServerException {
     client.deleteByQuery(query);
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * Converts the documents of a Solr response to {@link Result}s while the response is still being
+ * read. Each document is handed to the executor as soon as it is parsed, and {@link #getResults}
+ * returns the results in the order Solr sent the documents.
+ */
+class StreamingResultHydrator extends StreamingResponseCallback {
+
+  /** Converts one Solr document to a {@link Result}. */
+  @FunctionalInterface
+  interface ResultFactory {
+    Result createResult(SolrDocument document) throws MetacardCreationException;
+  }
+
+  private final Executor executor;
+
+  private final ResultFactory resultFactory;
+
+  private final List<Future<Result>> results = new ArrayList<>();
+
+  StreamingResultHydrator(Executor executor, ResultFactory resultFactory) {
+    this.executor = executor;
+    this.resultFactory = resultFactory;
+  }
+
+  @Override
+  public void streamSolrDocument(SolrDocument document) {
+    CompletableFuture<Result> result = new CompletableFuture<>();
+    results.add(result);
+    executor.execute(
+        () -> {
+          if (result.isCancelled()) {
+            return;
+          }
+          try {
+            result.complete(resultFactory.createResult(document));
+          } catch (MetacardCreationException | RuntimeException e) {
+            result.completeExceptionally(e);
+          }
+        });
+  }
+
+  @Override
+  public void streamDocListInfo(long numFound, long start, Float maxScore) {
+    // The number of documents found is also in the document list of the response
+  }
+
+  /**
+   * Waits for the conversion of every document streamed so far.
+   *
+   * @return the results, in the order of the documents in the Solr response
+   * @throws UnsupportedQueryException if a document could not be converted
+   */
+  List<Result> getResults() throws UnsupportedQueryException {
+    List<Result> converted = new ArrayList<>(results.size());
+    try {
+      for (Future<Result> result : results) {
+        converted.add(result.get());
+      }
+    } catch (ExecutionException e) {
+      cancel();
+      throw new UnsupportedQueryException("Could not create result metacard(s).", e.getCause());
+    } catch (InterruptedException e) {
+      cancel();
+      Thread.currentThread().interrupt();
+      throw new UnsupportedQueryException("Interrupted while creating result metacard(s).", e);
+    }
+    return converted;
+  }
+
+  /** Skips the conversions that have not started yet, when the results are not needed anymore. */
+  void cancel() {
+    results.forEach(result -> result.cancel(false));
+  }
+}
@@ -17,6 +17,7 @@
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
@@ -32,10 +33,12 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardCodec;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.impl.types.CoreAttributes;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.nio.BufferOverflowException;
 import java.util.ArrayList;
@@ -43,7 +46,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import org.apache.commons.io.IOUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -51,7 +54,7 @@
 
 public class DynamicSchemaResolverTest {
 
-  private static final int INITIAL_FIELDS_CACHE_COUNT = 8;
+  private static final int INITIAL_FIELDS_CACHE_COUNT = 9;
   /**
    * Verify that when a metacard type has attribute descriptors that inherit from
    * AttributeDescriptorImpl, the attribute descriptors are recreated as AttributeDescriptorsImpls
@@ -90,7 +93,8 @@ public void testAddFields() throws Exception {
     verify(mockSolrInputDocument)
         .addField(eq(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME), metacardTypeBytes.capture());
     byte[] serializedMetacardType = metacardTypeBytes.getValue();
-    MetacardType metacardType = deserializeMetacardType(serializedMetacardType);
+    assertThat(MetacardCodec.isEncodedType(serializedMetacardType), is(true));
+    MetacardType metacardType = new MetacardCodec().decodeType(serializedMetacardType);
     for (AttributeDescriptor attributeDescriptor : metacardType.getAttributeDescriptors()) {
       assertThat(
           attributeDescriptor.getClass().getName(), is(AttributeDescriptorImpl.class.getName()));
@@ -160,13 +164,72 @@ public void testAdditionalFieldConstructor() throws Exception {
     assertThat(resolver.fieldsCache, hasItem(anotherExtraField));
   }
 
-  private MetacardType deserializeMetacardType(byte[] serializedMetacardType)
-      throws ClassNotFoundException, IOException {
-    ByteArrayInputStream bais = new ByteArrayInputStream((byte[]) serializedMetacardType);
-    ObjectInputStream in = new ObjectInputStream(bais);
-    MetacardType metacardType = (MetacardType) in.readObject();
-    IOUtils.closeQuietly(bais);
-    IOUtils.closeQuietly(in);
-    return metacardType;
+  @Test
+  public void testGetMetacardTypeEncoded() throws Exception {
+    MetacardType metacardType =
+        new MetacardTypeImpl("encoded", MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    SolrDocument document = new SolrDocument();
+    document.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, "encoded#1");
+    document.addField(
+        SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+        new MetacardCodec().encodeType(metacardType));
+
+    MetacardType resolved = new DynamicSchemaResolver().getMetacardType(document);
+
+    assertThat(resolved.getName(), is("encoded"));
+    assertThat(
+        resolved.getAttributeDescriptors().size(),
+        is(metacardType.getAttributeDescriptors().size()));
+  }
+
+  /** Metacard types indexed before the binary encoding was introduced must still be readable. */
+  @Test
+  public void testGetMetacardTypeJavaSerialized() throws Exception {
+    MetacardType metacardType =
+        new MetacardTypeImpl("serialized", MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+      out.writeObject(metacardType);
+    }
+    SolrDocument document = new SolrDocument();
+    document.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, "serialized#1");
+    document.addField(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME, baos.toByteArray());
+
+    MetacardType resolved = new DynamicSchemaResolver().getMetacardType(document);
+
+    assertThat(resolved, is(metacardType));
+  }
+
+  @Test
+  public void testDecodeEncodedMetacard() throws Exception {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+    metacard.setSourceId("source");
+    metacard.setAttribute("undeclared", "value");
+    DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+    resolver.addFields(metacard, solrInputDocument);
+    resolver.addEncodedMetacard(metacard, solrInputDocument);
+    SolrDocument document = new SolrDocument();
+    for (String fieldName : solrInputDocument.getFieldNames()) {
+      document.addField(fieldName, solrInputDocument.getFieldValues(fieldName));
+    }
+
+    MetacardImpl decoded = resolver.decodeMetacard(document);
+
+    assertThat(resolver.isPrivateField(SchemaFields.METACARD_OBJECT_FIELD_NAME), is(true));
+    assertThat(decoded.getId(), is("id"));
+    assertThat(decoded.getTitle(), is("title"));
+    assertThat(decoded.getSourceId(), is("source"));
+    assertThat(decoded.getAttribute("undeclared").getValue(), is("value"));
+  }
+
+  @Test
+  public void testDecodeDocumentWithoutEncodedMetacard() throws Exception {
+    SolrDocument document = new SolrDocument();
+    document.addField(Metacard.TITLE + SchemaFields.TEXT_SUFFIX, "title");
+
+    assertThat(new DynamicSchemaResolver().decodeMetacard(document), nullValue());
   }
 }
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.apache.solr.common.SolrDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+public class LazySolrMetacardTest {
+
+  private DynamicSchemaResolver resolver;
+
+  private LazySolrMetacard metacard;
+
+  @Before
+  public void setUp() {
+    resolver = spy(new DynamicSchemaResolver());
+
+    SolrDocument document = new SolrDocument();
+    document.addField(Metacard.TITLE + SchemaFields.TEXT_SUFFIX, "title");
+    document.addField(Metacard.DESCRIPTION + SchemaFields.TEXT_SUFFIX, "description");
+    document.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, "type");
+
+    metacard = new LazySolrMetacard(MetacardImpl.BASIC_METACARD, document, resolver);
+  }
+
+  @Test
+  public void testConvertsAttributesOnFirstAccess() {
+    verify(resolver, never()).getDocValues(anyString(), Matchers.any());
+
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(metacard.getTitle(), is("title"));
+
+    verify(resolver, times(1)).getDocValues(anyString(), Matchers.any());
+    verify(resolver).getDocValues(eq(Metacard.TITLE + SchemaFields.TEXT_SUFFIX), Matchers.any());
+  }
+
+  @Test
+  public void testPrivateFieldsAreNotAttributes() {
+    assertThat(metacard.getAttribute(SchemaFields.METACARD_TYPE_FIELD_NAME), nullValue());
+  }
+
+  @Test
+  public void testSetAttributeReplacesUnconvertedValue() {
+    metacard.setAttribute(Metacard.TITLE, "new title");
+
+    assertThat(metacard.getTitle(), is("new title"));
+    verify(resolver, never()).getDocValues(anyString(), Matchers.any());
+  }
+
+  @Test
+  public void testSetNullAttributeRemovesUnconvertedValue() {
+    metacard.setAttribute(Metacard.TITLE, null);
+
+    assertThat(metacard.getAttribute(Metacard.TITLE), nullValue());
+  }
+
+  @Test
+  public void testSerializesAsMetacardImpl() throws Exception {
+    metacard.setSourceId("source");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(metacard);
+    }
+    Object copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = in.readObject();
+    }
+
+    assertThat(copy, instanceOf(MetacardImpl.class));
+    assertThat(copy, not(instanceOf(LazySolrMetacard.class)));
+    MetacardImpl deserialized = (MetacardImpl) copy;
+    assertThat(deserialized.getSourceId(), is("source"));
+    assertThat(deserialized.getTitle(), is("title"));
+    assertThat(deserialized.getDescription(), is("description"));
+    assertThat(
+        deserialized.getMetacardType().getName(), is(MetacardImpl.BASIC_METACARD.getName()));
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Validation;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import java.util.Collections;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.Filter;
+
+public class SolrFilterQueryPlannerTest {
+
+  private final FilterBuilder builder = new GeotoolsFilterBuilder();
+
+  private final FilterAdapter filterAdapter = new GeotoolsFilterAdapterImpl();
+
+  private final DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+
+  private final Filter tags =
+      builder.not(
+          builder.anyOf(
+              builder.attribute(Metacard.TAGS).is().like().text("revision"),
+              builder.attribute(Metacard.TAGS).is().like().text("deleted")));
+
+  private final Filter validation =
+      builder.anyOf(
+          builder.attribute(Validation.VALIDATION_ERRORS).empty(),
+          builder.attribute(Validation.VALIDATION_WARNINGS).empty());
+
+  private final Filter text = builder.attribute(Metacard.ANY_TEXT).is().like().text("radar");
+
+  private SolrFilterQueryPlanner planner;
+
+  @Before
+  public void setUp() {
+    planner = new SolrFilterQueryPlanner(filterAdapter);
+  }
+
+  @Test
+  public void cacheableClausesAreFilterQueries() throws Exception {
+    SolrQuery query = adapt(builder.allOf(tags, validation, text));
+
+    assertThat(query.getQuery(), is(adaptAlone(text)));
+    assertThat(
+        query.getFilterQueries(),
+        arrayContaining(
+            SolrFilterQueryPlanner.normalize(adaptAlone(tags)),
+            SolrFilterQueryPlanner.normalize(adaptAlone(validation))));
+  }
+
+  @Test
+  public void nestedConjunctionsAreFlattened() throws Exception {
+    SolrQuery query = adapt(builder.allOf(tags, builder.allOf(validation, text)));
+
+    assertThat(query.getQuery(), is(adaptAlone(text)));
+    assertThat(query.getFilterQueries(), arrayWithSize(2));
+  }
+
+  @Test
+  public void remainingClausesAreCombined() throws Exception {
+    Filter title = builder.attribute(Metacard.TITLE).is().like().text("harbor");
+
+    SolrQuery query = adapt(builder.allOf(tags, text, title));
+
+    assertThat(query.getQuery(), is(adaptAlone(builder.allOf(text, title))));
+    assertThat(query.getFilterQueries(), arrayWithSize(1));
+  }
+
+  @Test
+  public void onlyCacheableClausesMatchAllDocuments() throws Exception {
+    SolrQuery query = adapt(builder.allOf(tags, validation));
+
+    assertThat(query.getQuery(), is("*:*"));
+    assertThat(query.getFilterQueries(), arrayWithSize(2));
+  }
+
+  @Test
+  public void duplicateClausesAreOneFilterQuery() throws Exception {
+    SolrQuery query = adapt(builder.allOf(tags, text, tags));
+
+    assertThat(query.getFilterQueries(), arrayWithSize(1));
+  }
+
+  @Test
+  public void clauseWithOtherAttributesStaysInQuery() throws Exception {
+    Filter tagsOrText = builder.anyOf(tags, text);
+
+    SolrQuery query = adapt(builder.allOf(tagsOrText, validation));
+
+    assertThat(query.getQuery(), is(adaptAlone(tagsOrText)));
+    assertThat(query.getFilterQueries(), arrayWithSize(1));
+    assertThat(query.getFilterQueries()[0], not(containsString(Metacard.TAGS)));
+  }
+
+  @Test
+  public void disjunctionIsNotSplit() throws Exception {
+    Filter filter = builder.anyOf(tags, text);
+
+    SolrQuery query = adapt(filter);
+
+    assertThat(query.getQuery(), is(adaptAlone(filter)));
+    assertThat(query.getFilterQueries(), is(nullValue()));
+  }
+
+  @Test
+  public void noAttributesDisablesFilterQueries() throws Exception {
+    planner.setAttributes(Collections.emptyList());
+    Filter filter = builder.allOf(tags, validation, text);
+
+    SolrQuery query = adapt(filter);
+
+    assertThat(query.getQuery(), is(adaptAlone(filter)));
+    assertThat(query.getFilterQueries(), is(nullValue()));
+  }
+
+  @Test
+  public void configuredAttributesAreFilterQueries() throws Exception {
+    planner.setAttributes(Collections.singletonList(Metacard.TITLE));
+    Filter title = builder.attribute(Metacard.TITLE).is().equalTo().text("harbor");
+
+    SolrQuery query = adapt(builder.allOf(tags, title));
+
+    assertThat(query.getQuery(), is(adaptAlone(tags)));
+    assertThat(
+        query.getFilterQueries(),
+        arrayContaining(SolrFilterQueryPlanner.normalize(adaptAlone(title))));
+  }
+
+  @Test
+  public void normalizeCollapsesWhitespaceOutsideQuotes() {
+    assertThat(
+        SolrFilterQueryPlanner.normalize(" (  a:b   OR  c:\"x  y\" )  AND d:e\\ f "),
+        is("( a:b OR c:\"x  y\" ) AND d:e\\ f"));
+  }
+
+  private SolrQuery adapt(Filter filter) throws Exception {
+    return planner.adapt(filter, new SolrFilterDelegate(resolver));
+  }
+
+  private String adaptAlone(Filter filter) throws Exception {
+    return filterAdapter.adapt(filter, new SolrFilterDelegate(resolver)).getQuery();
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
+
+import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.apache.solr.common.SolrDocument;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingResultHydratorTest {
+
+  private static final String ID_FIELD = "id_txt";
+
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    executor.shutdownNow();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testResultsKeepTheOrderOfTheDocuments() throws Exception {
+    Random random = new Random();
+    StreamingResultHydrator hydrator =
+        new StreamingResultHydrator(
+            executor,
+            document -> {
+              try {
+                // Converts the documents out of order
+                Thread.sleep(random.nextInt(5));
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return toResult(document);
+            });
+
+    List<String> ids = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      ids.add(Integer.toString(i));
+      hydrator.streamSolrDocument(newDocument(Integer.toString(i)));
+    }
+
+    assertThat(getIds(hydrator.getResults()), is(ids));
+  }
+
+  @Test
+  public void testNoDocuments() throws Exception {
+    StreamingResultHydrator hydrator =
+        new StreamingResultHydrator(executor, StreamingResultHydratorTest::toResult);
+    hydrator.streamDocListInfo(0, 0, null);
+
+    assertThat(hydrator.getResults(), is(empty()));
+  }
+
+  @Test
+  public void testConversionFailure() throws Exception {
+    MetacardCreationException failure = new MetacardCreationException("failure");
+    StreamingResultHydrator hydrator =
+        new StreamingResultHydrator(
+            executor,
+            document -> {
+              if ("1".equals(document.getFieldValue(ID_FIELD))) {
+                throw failure;
+              }
+              return toResult(document);
+            });
+
+    for (int i = 0; i < 3; i++) {
+      hydrator.streamSolrDocument(newDocument(Integer.toString(i)));
+    }
+
+    try {
+      hydrator.getResults();
+      fail();
+    } catch (UnsupportedQueryException e) {
+      assertThat(e.getCause(), is(failure));
+    }
+  }
+
+  @Test
+  public void testCancelSkipsPendingConversions() throws Exception {
+    List<Runnable> tasks = new ArrayList<>();
+    AtomicInteger conversions = new AtomicInteger();
+    StreamingResultHydrator hydrator =
+        new StreamingResultHydrator(
+            tasks::add,
+            document -> {
+              conversions.incrementAndGet();
+              return toResult(document);
+            });
+
+    hydrator.streamSolrDocument(newDocument("0"));
+    hydrator.streamSolrDocument(newDocument("1"));
+    tasks.get(0).run();
+    hydrator.cancel();
+    tasks.get(1).run();
+
+    assertThat(conversions.get(), is(1));
+  }
+
+  @Test
+  public void testRunsInCallingThreadWithDirectExecutor() throws Exception {
+    StreamingResultHydrator hydrator =
+        new StreamingResultHydrator(Runnable::run, StreamingResultHydratorTest::toResult);
+
+    hydrator.streamSolrDocument(newDocument("0"));
+    hydrator.streamSolrDocument(newDocument("1"));
+
+    List<Result> results = hydrator.getResults();
+    assertThat(getIds(results), contains("0", "1"));
+    assertThat(results.get(0), instanceOf(ResultImpl.class));
+  }
+
+  private static Result toResult(SolrDocument document) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId((String) document.getFieldValue(ID_FIELD));
+    return new ResultImpl(metacard);
+  }
+
+  private static SolrDocument newDocument(String id) {
+    SolrDocument document = new SolrDocument();
+    document.addField(ID_FIELD, id);
+    return document;
+  }
+
+  private static List<String> getIds(List<Result> results) {
+    return results
+        .stream()
+        .map(result -> result.getMetacard().getId())
+        .collect(Collectors.toList());
+  }
+}
@@ -80,6 +80,14 @@ public void testDeleteLargeList() throws IngestException, UnsupportedQueryExcept
     addAndDeleteMetacards(metacardCount);
   }
 
+  /** Deletes more records than a boolean query can match, which are deleted with a single commit */
+  @Test
+  public void testDeleteListLargerThanBooleanClauseLimit()
+      throws IngestException, UnsupportedQueryException {
+    int metacardCount = 2500;
+    addAndDeleteMetacards(metacardCount);
+  }
+
   @Test
   public void testDeleteLargeGetByIdList() throws IngestException, UnsupportedQueryException {
     addAndDeleteMetacards(SolrMetacardClientImpl.GET_BY_ID_LIMIT);
@@ -13,13 +13,17 @@
  */
 package ddf.catalog.source.solr.provider;
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
@@ -53,6 +57,7 @@
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -765,6 +770,37 @@ public void testQueryExcludedAttributes() throws Exception {
     assertThat(sourceResponse.getResults().get(0).getMetacard().getTitle(), is(nullValue()));
   }
 
+  @Test
+  public void testQueryEncodedMetacards() throws Exception {
+    deleteAll();
+
+    provider.setEncodedMetacards(true);
+    try {
+      MockMetacard metacard = new MockMetacard(Library.getFlagstaffRecord());
+      String soughtWord = "nitf";
+      metacard.setTitle(soughtWord);
+      create(metacard);
+
+      QueryImpl query =
+          new QueryImpl(filterBuilder.attribute(Metacard.ANY_TEXT).is().like().text(soughtWord));
+      SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query));
+      assertEquals(1, sourceResponse.getResults().size());
+      Metacard result = sourceResponse.getResults().get(0).getMetacard();
+      assertThat(result.getTitle(), is(soughtWord));
+      assertThat(result.getMetadata(), is(metacard.getMetadata()));
+
+      Map<String, Serializable> properties = new HashMap<>();
+      properties.put(
+          SolrMetacardClientImpl.EXCLUDE_ATTRIBUTES,
+          com.google.common.collect.Sets.newHashSet(Metacard.TITLE));
+      sourceResponse = provider.query(new QueryRequestImpl(query, properties));
+      assertEquals(1, sourceResponse.getResults().size());
+      assertThat(sourceResponse.getResults().get(0).getMetacard().getTitle(), is(nullValue()));
+    } finally {
+      provider.setEncodedMetacards(false);
+    }
+  }
+
   /** Testing Tokenization of the search phrase. */
   @Test
   public void testWhitespaceTokenizedFieldWithWildcardSearch() throws Exception {
@@ -1401,6 +1437,84 @@ public void testStartIndex() throws Exception {
     }
   }
 
+  @Test
+  public void testCursorMarkPaging() throws Exception {
+
+    deleteAll();
+
+    List<Metacard> list = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      list.add(new MockMetacard(Library.getFlagstaffRecord()));
+    }
+
+    create(list);
+
+    QueryImpl query =
+        new QueryImpl(
+            filterBuilder
+                .attribute(Metacard.TITLE)
+                .is()
+                .equalTo()
+                .text(Library.FLAGSTAFF_QUERY_PHRASE));
+    query.setPageSize(2);
+    query.setStartIndex(1);
+
+    Set<String> ids = new HashSet<>();
+    String cursorMark = INITIAL_CURSOR_MARK;
+    String nextCursorMark = null;
+    int pages = 0;
+
+    while (!cursorMark.equals(nextCursorMark)) {
+      if (nextCursorMark != null) {
+        cursorMark = nextCursorMark;
+      }
+
+      Map<String, Serializable> properties = new HashMap<>();
+      properties.put(CURSOR_MARK_KEY, cursorMark);
+      SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query, properties));
+
+      assertThat(sourceResponse.getResults().size(), lessThanOrEqualTo(2));
+      assertEquals(9L, sourceResponse.getHits());
+      sourceResponse.getResults().forEach(result -> ids.add(result.getMetacard().getId()));
+
+      nextCursorMark = (String) sourceResponse.getPropertyValue(NEXT_CURSOR_MARK_KEY);
+      assertThat(nextCursorMark, notNullValue());
+      pages++;
+    }
+
+    assertThat(ids.size(), is(9));
+    assertThat(pages, is(6));
+  }
+
+  @Test
+  public void testQueryForAllRecordsPagesWithCursor() throws Exception {
+
+    deleteAll();
+
+    List<Metacard> list = new ArrayList<>();
+    for (int i = 0; i < 9; i++) {
+      list.add(new MockMetacard(Library.getFlagstaffRecord()));
+    }
+
+    create(list);
+
+    QueryImpl query =
+        new QueryImpl(
+            filterBuilder
+                .attribute(Metacard.TITLE)
+                .is()
+                .equalTo()
+                .text(Library.FLAGSTAFF_QUERY_PHRASE));
+    query.setPageSize(-1);
+    query.setStartIndex(1);
+
+    SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query));
+
+    assertThat(sourceResponse.getResults().size(), is(9));
+    assertEquals(9L, sourceResponse.getHits());
+    assertThat(sourceResponse.getPropertyValue(NEXT_CURSOR_MARK_KEY), nullValue());
+  }
+
   @Test
   public void testFacetedResponse() throws Exception {
 
@@ -49,15 +49,14 @@
  * exceptions per {@link Source}.
  *
  * <p>The metrics and their associated {@link ddf.metrics.collector.JmxCollector}s are created when
- * the {@link Source} is created and deleted when the {@link Source} is deleted. (The associated RRD
- * file remains available indefinitely and accessible from the Metrics tab in the Web Admin console
- * unless an administrator manually deletes it).
+ * the {@link Source} is created and deleted when the {@link Source} is deleted. (The associated
+ * data source in the shared RRD file of the source metrics remains available indefinitely and
+ * accessible from the Metrics tab in the Web Admin console).
  *
  * <p>If a {@link Source} is renamed, i.e., its ID changed, then the {@link Source}'s existing
  * metrics' MBeans and {@link ddf.metrics.collector.JmxCollector}s are deleted and new metrics
- * created using the new {@link Source} 's ID. However, the RRD file for the {@link Source}'s
- * previous source ID remains available and accessible from the Metrics tab in the Web Admin console
- * unless an administrator manually deletes it.
+ * created using the new {@link Source} 's ID. However, the data of the {@link Source}'s previous
+ * source ID remains available and accessible from the Metrics tab in the Web Admin console.
  *
  * @author rodgersh
  */
@@ -298,12 +297,13 @@ public void addingSource(final Source source, Map props) {
 
     if (executorPool == null) {
       executorPool =
-          Executors.newCachedThreadPool(
+          Executors.newSingleThreadExecutor(
               StandardThreadFactoryBuilder.newThreadFactory("sourceMetricThread"));
     }
 
-    // Creating JmxCollectors for all of the source metrics can be time consuming,
-    // so do this in a separate thread to prevent blacklisting by EventAdmin
+    // Creating the metrics for a source registers their MBeans, so do this in a separate
+    // thread to prevent blacklisting by EventAdmin. The JmxCollectors wait for their MBeans
+    // on the shared RRD sampling thread, so one thread is enough for any number of sources.
     final Runnable metricsCreator =
         new Runnable() {
           public void run() {
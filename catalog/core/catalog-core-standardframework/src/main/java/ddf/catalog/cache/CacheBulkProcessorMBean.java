@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache;
+
+/** MBean interface exposing the statistics of the queue of metacards written to the cache. */
+public interface CacheBulkProcessorMBean {
+
+  String OBJECT_NAME =
+      "ddf.catalog.cache.solr.impl.CacheBulkProcessor:service=cache-bulk-processor";
+
+  /** @return the number of metacards waiting to be written to the cache */
+  int getQueueDepth();
+
+  /** @return the number of metacards that were not written to the cache because it was full */
+  long getDroppedCount();
+
+  /** @return the number of metacards written to the cache */
+  long getFlushedCount();
+
+  /** @return the mean duration of the recent writes to the cache, in milliseconds */
+  double getFlushLatencyMillis();
+
+  /** @return the number of metacards written to the cache per second over the last minute */
+  double getDocumentsPerSecond();
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache;
+
+/**
+ * A {@link ResourceCacheInterface} that stores the cached products as files in a directory, where
+ * each product is written to a file named by its cache key.
+ */
+public interface FileSystemResourceCache extends ResourceCacheInterface {
+
+  /** @return the directory where the cached products are written */
+  String getProductCacheDirectory();
+
+  /**
+   * Changes the directory where the cached products are written. The entries cached in the
+   * previous directory are no longer returned by the cache.
+   *
+   * @param productCacheDirectory the new product cache directory
+   */
+  void setProductCacheDirectory(String productCacheDirectory);
+
+  /** @return the maximum size of the cached products, in megabytes. 0 means no limit. */
+  long getCacheDirMaxSizeMegabytes();
+
+  /**
+   * Sets the maximum size of the cached products. The least valuable products are removed from the
+   * cache when it is exceeded.
+   *
+   * @param cacheDirMaxSizeMegabytes the maximum size in megabytes, or 0 for no limit
+   */
+  void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes);
+
+  /** Releases the resources held by the cache. The cached products are left on disk. */
+  void teardownCache();
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache;
+
+/** MBean interface exposing the statistics of the local product cache. */
+public interface LocalResourceCacheMBean {
+
+  String OBJECT_NAME = "ddf.catalog.cache.impl.LocalResourceCache:service=product-cache";
+
+  /** @return the number of requests for a cached product that were answered by the cache */
+  long getHitCount();
+
+  /** @return the number of requests for a cached product that were not answered by the cache */
+  long getMissCount();
+
+  /** @return the number of products removed from the cache to stay under its maximum size */
+  long getEvictionCount();
+
+  /** @return the total size of the evicted products, in bytes */
+  long getEvictedBytes();
+
+  /** @return the number of products in the cache */
+  int getEntryCount();
+
+  /** @return the total size of the products in the cache, in bytes */
+  long getCachedBytes();
+
+  /** @return the maximum size of the products in the cache, in megabytes. 0 means no limit. */
+  long getCacheDirMaxSizeMegabytes();
+}
@@ -0,0 +1,529 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static ddf.catalog.cache.impl.CachedResourceMetacardComparator.isSame;
+
+import ddf.catalog.cache.FileSystemResourceCache;
+import ddf.catalog.cache.LocalResourceCacheMBean;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.OperationsException;
+import javax.management.StandardMBean;
+import org.apache.commons.io.FileUtils;
+import org.codice.ddf.configuration.PropertyResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Product cache that runs in the local node only, as an alternative to the Hazelcast backed {@link
+ * ResourceCacheImpl}.
+ *
+ * <p>The cached products and their {@link ReliableResource} entries are stored in the product cache
+ * directory in the same format as the {@link ResourceCacheImpl}, so either cache can be used with
+ * an existing directory. On startup, the index of the cache is rebuilt from the names, sizes and
+ * modification times of the files in the directory, and each {@link ReliableResource} is only read
+ * from disk the first time it is requested.
+ *
+ * <p>When the size of the cached products exceeds the maximum, products are evicted following a
+ * segmented LRU policy weighted by product size. New products enter a probationary segment and are
+ * moved to a protected segment, which holds up to {@value #PROTECTED_PERCENT}% of the maximum size,
+ * when they are requested again. Products are evicted from the least recently used end of the
+ * probationary segment first, so a burst of products that are retrieved only once does not flush
+ * the products that are retrieved often.
+ */
+public class LocalResourceCache implements FileSystemResourceCache, LocalResourceCacheMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocalResourceCache.class);
+
+  private static final String PRODUCT_CACHE_NAME = "Product_Cache";
+
+  private static final long BYTES_IN_MEGABYTES = FileUtils.ONE_MB;
+
+  private static final long DEFAULT_MAX_CACHE_DIR_SIZE_BYTES = 10737418240L; // 10 GB
+
+  private static final int PROTECTED_PERCENT = 80;
+
+  private final Set<String> pendingCache = ConcurrentHashMap.newKeySet();
+
+  private final LinkedHashMap<String, CacheEntry> probationSegment = new LinkedHashMap<>();
+
+  private final LinkedHashMap<String, CacheEntry> protectedSegment = new LinkedHashMap<>();
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  private final AtomicLong evictedBytes = new AtomicLong();
+
+  /** Directory for products cached to file system */
+  private String productCacheDirectory;
+
+  private FileSystemPersistenceProvider persistenceProvider;
+
+  private long maxDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_BYTES;
+
+  private long probationBytes = 0;
+
+  private long protectedBytes = 0;
+
+  private ObjectName objectName;
+
+  public LocalResourceCache(String productCacheDirectory) {
+    this.productCacheDirectory = productCacheDirectory;
+    initCache();
+    configureMBean();
+  }
+
+  /** Rebuilds the index of the cache from the files in the product cache directory. */
+  public synchronized void initCache() {
+    long start = System.currentTimeMillis();
+
+    probationSegment.clear();
+    protectedSegment.clear();
+    probationBytes = 0;
+    protectedBytes = 0;
+
+    persistenceProvider =
+        new FileSystemPersistenceProvider(PRODUCT_CACHE_NAME, productCacheDirectory);
+
+    List<CacheEntry> entries = new ArrayList<>();
+    for (String key : persistenceProvider.loadAllKeys()) {
+      File product = getProductFile(key);
+      if (product.isFile()) {
+        entries.add(new CacheEntry(key, product.length(), getEntryFile(key).lastModified()));
+      } else {
+        LOGGER.debug("Removing cache entry {} whose product is no longer in the cache", key);
+        persistenceProvider.delete(key);
+      }
+    }
+
+    entries.sort(Comparator.comparingLong(entry -> entry.lastTouchedMillis));
+    for (CacheEntry entry : entries) {
+      addToProbation(entry);
+    }
+    evictIfNeeded();
+
+    LOGGER.debug(
+        "Loaded {} product cache entries ({} bytes) from {} in {} ms",
+        getEntryCount(),
+        getCachedBytes(),
+        productCacheDirectory,
+        System.currentTimeMillis() - start);
+  }
+
+  @Override
+  public void teardownCache() {
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (OperationsException | MBeanException e) {
+        LOGGER.debug("Could not unregister MBean.", e);
+      }
+      objectName = null;
+    }
+  }
+
+  @Override
+  public synchronized long getCacheDirMaxSizeMegabytes() {
+    return maxDirSizeBytes / BYTES_IN_MEGABYTES;
+  }
+
+  @Override
+  public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
+    LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
+    synchronized (this) {
+      maxDirSizeBytes = cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES;
+      evictIfNeeded();
+    }
+  }
+
+  @Override
+  public synchronized String getProductCacheDirectory() {
+    return productCacheDirectory;
+  }
+
+  @Override
+  public void setProductCacheDirectory(String productCacheDirectory) {
+    synchronized (this) {
+      this.productCacheDirectory = new PropertyResolver(productCacheDirectory).getResolvedString();
+    }
+    initCache();
+  }
+
+  @Override
+  public boolean isPending(String key) {
+    return pendingCache.contains(key);
+  }
+
+  /**
+   * Called by ReliableResourceDownloadManager when resource has completed being cached to disk and
+   * is ready to be added to the cache.
+   *
+   * @param reliableResource the resource to add to the cache
+   */
+  @Override
+  public void put(ReliableResource reliableResource) {
+    LOGGER.trace("ENTERING: put(ReliableResource)");
+    reliableResource.setLastTouchedMillis(System.currentTimeMillis());
+
+    long size = reliableResource.getSize();
+    if (size < 0) {
+      size = new File(reliableResource.getFilePath()).length();
+    }
+
+    synchronized (this) {
+      persistenceProvider.store(reliableResource.getKey(), reliableResource);
+
+      removeFromSegments(reliableResource.getKey());
+      CacheEntry entry =
+          new CacheEntry(reliableResource.getKey(), size, reliableResource.getLastTouchedMillis());
+      entry.resource = reliableResource;
+      addToProbation(entry);
+      evictIfNeeded();
+    }
+
+    removePendingCacheEntry(reliableResource.getKey());
+    LOGGER.trace("EXITING: put(ReliableResource)");
+  }
+
+  @Override
+  public void removePendingCacheEntry(String cacheKey) {
+    if (!pendingCache.remove(cacheKey)) {
+      LOGGER.debug("Did not find pending cache entry with key = {}", cacheKey);
+    } else {
+      LOGGER.debug("Removed pending cache entry with key = {}", cacheKey);
+    }
+  }
+
+  @Override
+  public void addPendingCacheEntry(ReliableResource reliableResource) {
+    String cacheKey = reliableResource.getKey();
+    if (isPending(cacheKey)) {
+      LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
+    } else if (containsValid(cacheKey, reliableResource.getMetacard())) {
+      LOGGER.debug("Cache entry with key = {} is already in cache", cacheKey);
+    } else {
+      pendingCache.add(cacheKey);
+    }
+  }
+
+  /**
+   * @param key
+   * @return Resource, {@code null} if not found.
+   */
+  @Override
+  public Resource getValid(String key, Metacard latestMetacard) {
+    if (key == null) {
+      throw new IllegalArgumentException("Must specify non-null key");
+    }
+    if (latestMetacard == null) {
+      throw new IllegalArgumentException("Must specify non-null metacard");
+    }
+    LOGGER.debug("key {}", key);
+
+    ReliableResource cachedResource = load(key);
+    if (cachedResource == null) {
+      LOGGER.debug("No product found in cache for key = {}", key);
+      missCount.incrementAndGet();
+      return null;
+    }
+
+    if (!validateCacheEntry(cachedResource, latestMetacard)) {
+      LOGGER.debug(
+          "Entry found in cache was out-of-date or otherwise invalid.  Will need to be re-cached.  Entry key: {}",
+          key);
+      missCount.incrementAndGet();
+      return null;
+    }
+
+    if (!cachedResource.hasProduct()) {
+      LOGGER.debug(
+          "Entry found in the cache, but no product found in cache directory for key = {}", key);
+      remove(key);
+      missCount.incrementAndGet();
+      return null;
+    }
+
+    touch(cachedResource);
+    hitCount.incrementAndGet();
+    return cachedResource;
+  }
+
+  @Override
+  public boolean containsValid(String key, Metacard latestMetacard) {
+    if (key == null) {
+      return false;
+    }
+    ReliableResource cachedResource = load(key);
+    return (cachedResource != null) && (validateCacheEntry(cachedResource, latestMetacard));
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  @Override
+  public long getEvictedBytes() {
+    return evictedBytes.get();
+  }
+
+  @Override
+  public synchronized int getEntryCount() {
+    return probationSegment.size() + protectedSegment.size();
+  }
+
+  @Override
+  public synchronized long getCachedBytes() {
+    return probationBytes + protectedBytes;
+  }
+
+  /**
+   * Compares the {@link Metacard} in a {@link ReliableResource} pulled from cache with a Metacard
+   * obtained directly from the Catalog to ensure they are the same. The cached product is removed
+   * if they are not.
+   *
+   * @return true if the cached ReliableResource still matches the most recent Metacard from the
+   *     Catalog, false otherwise
+   */
+  protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard latestMetacard) {
+    if (cachedResource == null || latestMetacard == null) {
+      throw new IllegalArgumentException(
+          "Neither the cachedResource nor the metacard retrieved from the catalog can be null.");
+    }
+
+    if (isSame(cachedResource.getMetacard(), new MetacardImpl(latestMetacard))) {
+      LOGGER.debug("Metacard has not changed");
+      return true;
+    }
+
+    LOGGER.debug("Metacard has changed");
+    remove(cachedResource.getKey());
+    return false;
+  }
+
+  /**
+   * @return the cached {@link ReliableResource} with the given key, read from the product cache
+   *     directory if it has not been read yet, or {@code null} if the cache does not contain it
+   */
+  private ReliableResource load(String key) {
+    CacheEntry entry;
+    synchronized (this) {
+      entry = getEntry(key);
+      if (entry == null || entry.resource != null) {
+        return entry == null ? null : entry.resource;
+      }
+    }
+
+    Object value = persistenceProvider.loadAll(Collections.singleton(key)).get(key);
+    if (!(value instanceof ReliableResource)) {
+      LOGGER.debug("Unable to read product cache entry {}", key);
+      remove(key);
+      return null;
+    }
+
+    synchronized (this) {
+      if (entry.resource == null) {
+        entry.resource = (ReliableResource) value;
+      }
+      return entry.resource;
+    }
+  }
+
+  /** Records a request for a cached product, which protects it from eviction. */
+  private void touch(ReliableResource cachedResource) {
+    long now = System.currentTimeMillis();
+    cachedResource.setLastTouchedMillis(now);
+
+    synchronized (this) {
+      CacheEntry entry = probationSegment.remove(cachedResource.getKey());
+      if (entry != null) {
+        probationBytes -= entry.size;
+      } else {
+        entry = protectedSegment.remove(cachedResource.getKey());
+        if (entry == null) {
+          return;
+        }
+        protectedBytes -= entry.size;
+      }
+
+      entry.lastTouchedMillis = now;
+      protectedSegment.put(entry.key, entry);
+      protectedBytes += entry.size;
+
+      long maxProtectedBytes =
+          maxDirSizeBytes > 0 ? maxDirSizeBytes / 100 * PROTECTED_PERCENT : Long.MAX_VALUE;
+      Iterator<CacheEntry> leastRecentlyUsed = protectedSegment.values().iterator();
+      while (protectedBytes > maxProtectedBytes && protectedSegment.size() > 1) {
+        CacheEntry demoted = leastRecentlyUsed.next();
+        leastRecentlyUsed.remove();
+        protectedBytes -= demoted.size;
+        addToProbation(demoted);
+      }
+    }
+
+    // The modification time of the entry file orders the entries when the index is rebuilt
+    try {
+      Files.setLastModifiedTime(
+          getEntryFile(cachedResource.getKey()).toPath(), FileTime.fromMillis(now));
+    } catch (IOException e) {
+      LOGGER.debug("Unable to update the modification time of cache entry {}", cachedResource, e);
+    }
+  }
+
+  private synchronized void remove(String key) {
+    CacheEntry entry = removeFromSegments(key);
+    deleteFiles(key, entry == null || entry.resource == null ? null : entry.resource.getFilePath());
+  }
+
+  private void evictIfNeeded() {
+    while (maxDirSizeBytes > 0 && getCachedBytes() > maxDirSizeBytes) {
+      Map<String, CacheEntry> segment =
+          probationSegment.isEmpty() ? protectedSegment : probationSegment;
+      if (segment.isEmpty()) {
+        return;
+      }
+
+      CacheEntry evicted = segment.values().iterator().next();
+      LOGGER.debug("Evicting product cache entry {} ({} bytes)", evicted.key, evicted.size);
+      removeFromSegments(evicted.key);
+      deleteFiles(evicted.key, evicted.resource == null ? null : evicted.resource.getFilePath());
+
+      evictionCount.incrementAndGet();
+      evictedBytes.addAndGet(evicted.size);
+    }
+  }
+
+  private CacheEntry getEntry(String key) {
+    CacheEntry entry = probationSegment.get(key);
+    return entry != null ? entry : protectedSegment.get(key);
+  }
+
+  private void addToProbation(CacheEntry entry) {
+    probationSegment.put(entry.key, entry);
+    probationBytes += entry.size;
+  }
+
+  private CacheEntry removeFromSegments(String key) {
+    CacheEntry entry = probationSegment.remove(key);
+    if (entry != null) {
+      probationBytes -= entry.size;
+      return entry;
+    }
+
+    entry = protectedSegment.remove(key);
+    if (entry != null) {
+      protectedBytes -= entry.size;
+    }
+    return entry;
+  }
+
+  private void deleteFiles(String key, String productFilePath) {
+    persistenceProvider.delete(key);
+
+    File product = productFilePath != null ? new File(productFilePath) : getProductFile(key);
+    if (product.exists() && !FileUtils.deleteQuietly(product)) {
+      LOGGER.debug("File was not removed from cache directory.  File Path: {}", product);
+    }
+  }
+
+  private File getProductFile(String key) {
+    return new File(persistenceProvider.getPersistencePath(), key);
+  }
+
+  private File getEntryFile(String key) {
+    return new File(persistenceProvider.getPersistencePath(), key + ".ser");
+  }
+
+  private void configureMBean() {
+    LOGGER.debug("Registering product cache MBean");
+    final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(LocalResourceCacheMBean.OBJECT_NAME);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Could not create object name", e);
+      return;
+    }
+    try {
+      registerMBean(mbeanServer, objectName);
+    } catch (Exception e) {
+      LOGGER.debug("Could not register MBean.", e);
+    }
+  }
+
+  private void registerMBean(MBeanServer mbeanServer, ObjectName objectName)
+      throws NotCompliantMBeanException, MBeanException, OperationsException {
+    try {
+      mbeanServer.registerMBean(new StandardMBean(this, LocalResourceCacheMBean.class), objectName);
+    } catch (InstanceAlreadyExistsException e) {
+      LOGGER.debug("Re-registering product cache MBean");
+      mbeanServer.unregisterMBean(objectName);
+      mbeanServer.registerMBean(new StandardMBean(this, LocalResourceCacheMBean.class), objectName);
+    }
+  }
+
+  private static class CacheEntry {
+
+    private final String key;
+
+    private final long size;
+
+    private long lastTouchedMillis;
+
+    /** Read from the product cache directory the first time the entry is requested */
+    private ReliableResource resource;
+
+    CacheEntry(String key, long size, long lastTouchedMillis) {
+      this.key = key;
+      this.size = size;
+      this.lastTouchedMillis = lastTouchedMillis;
+    }
+  }
+}
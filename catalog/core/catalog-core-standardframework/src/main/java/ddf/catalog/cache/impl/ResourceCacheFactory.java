@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import ddf.catalog.cache.FileSystemResourceCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the product cache selected with the {@value #CACHE_TYPE_PROPERTY} system property: the
+ * {@link LocalResourceCache} when it is set to {@value #LOCAL}, and the Hazelcast backed {@link
+ * ResourceCacheImpl} otherwise.
+ */
+public class ResourceCacheFactory {
+
+  public static final String CACHE_TYPE_PROPERTY = "org.codice.ddf.catalog.resource.cache.type";
+
+  public static final String LOCAL = "local";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheFactory.class);
+
+  private ResourceCacheFactory() {}
+
+  public static FileSystemResourceCache newResourceCache(
+      String productCacheDirectory, String cacheType) {
+    if (LOCAL.equalsIgnoreCase(cacheType)) {
+      LOGGER.debug("Using the local product cache in {}", productCacheDirectory);
+      return new LocalResourceCache(productCacheDirectory);
+    }
+
+    LOGGER.debug("Using the Hazelcast product cache in {}", productCacheDirectory);
+    return new ResourceCacheImpl(productCacheDirectory);
+  }
+}
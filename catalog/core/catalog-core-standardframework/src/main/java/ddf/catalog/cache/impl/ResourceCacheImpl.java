@@ -24,7 +24,7 @@
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 import com.hazelcast.map.merge.PassThroughMergePolicy;
-import ddf.catalog.cache.ResourceCacheInterface;
+import ddf.catalog.cache.FileSystemResourceCache;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
@@ -38,7 +38,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ResourceCacheImpl implements ResourceCacheInterface {
+public class ResourceCacheImpl implements FileSystemResourceCache {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheImpl.class);
 
@@ -94,24 +94,29 @@ public void initCache() {
     setCache(null);
   }
 
+  @Override
   public void teardownCache() {
     instance.shutdown();
   }
 
+  @Override
   public long getCacheDirMaxSizeMegabytes() {
     LOGGER.debug("Getting max size for cache directory.");
     return cacheListener.getMaxDirSizeBytes() / BYTES_IN_MEGABYTES;
   }
 
+  @Override
   public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
     LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
     cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
   }
 
+  @Override
   public String getProductCacheDirectory() {
     return productCacheDirectory;
   }
 
+  @Override
   public void setProductCacheDirectory(String productCacheDirectory) {
     this.productCacheDirectory = new PropertyResolver(productCacheDirectory).getResolvedString();
     initCache();
@@ -13,30 +13,104 @@
  */
 package ddf.catalog.cache.solr.impl;
 
-import com.google.common.collect.Lists;
+import ddf.catalog.cache.CacheBulkProcessorMBean;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.OperationsException;
+import javax.management.StandardMBean;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Bulk adds metacards to the cache that are not needed immediately. */
-public class CacheBulkProcessor {
+/**
+ * Bulk adds metacards to the cache that are not needed immediately.
+ *
+ * <p>Metacards wait in a bounded backlog keyed by metacard ID, so a metacard added again before it
+ * was written replaces the pending version in place. Flusher threads write the backlog to the cache
+ * in batches, as soon as a full batch is pending or once the flush interval has elapsed since the
+ * last batch. What happens to the metacards added while the backlog is full depends on the {@link
+ * OverflowPolicy}.
+ *
+ * <p>The metacards of a batch that could not be written are put back in the backlog if there is
+ * room for them, and are dropped once they failed {@value #MAX_FLUSH_ATTEMPTS} times.
+ */
+public class CacheBulkProcessor implements CacheBulkProcessorMBean {
+
+  /** What to do with the metacards added while the backlog is full. */
+  public enum OverflowPolicy {
+    /**
+     * New metacards are dropped, while the metacards already pending are still replaced by their
+     * latest version.
+     */
+    COALESCE,
+
+    /**
+     * The thread adding the metacards waits for the flushers to make room, and drops them if the
+     * backlog is still full after the block timeout.
+     */
+    BLOCK,
+
+    /**
+     * One of every {@value #SAMPLE_RATE} new metacards replaces the oldest pending metacard, so the
+     * backlog keeps a sample of the most recent results. The others are dropped.
+     */
+    SAMPLE;
+
+    private static final int SAMPLE_RATE = 10;
+  }
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CacheBulkProcessor.class);
 
-  private final ScheduledExecutorService batchScheduler =
-      Executors.newSingleThreadScheduledExecutor();
+  private static final int DEFAULT_FLUSHER_COUNT = 2;
+
+  private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** Signaled when a full batch is pending or the flushers have to stop */
+  private final Condition batchReady = lock.newCondition();
+
+  /** Signaled when the flushers took metacards out of the backlog */
+  private final Condition notFull = lock.newCondition();
+
+  private final LinkedHashMap<String, Metacard> metacardsToCache = new LinkedHashMap<>();
+
+  /** Number of failed writes of the pending metacards that were put back in the backlog */
+  private final Map<String, Integer> failedFlushes = new HashMap<>();
 
-  private final Map<String, Metacard> metacardsToCache = new ConcurrentHashMap<>();
+  private final ExecutorService flushers =
+      Executors.newCachedThreadPool(
+          StandardThreadFactoryBuilder.newThreadFactory("cacheBulkProcessorThread"));
+
+  private final SolrCache cache;
+
+  private final long delayNanos;
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private final AtomicLong flushedCount = new AtomicLong();
+
+  private final FlushStatistics flushStatistics = new FlushStatistics();
 
   private long flushInterval = TimeUnit.SECONDS.toMillis(10);
 
@@ -44,86 +118,91 @@ public class CacheBulkProcessor {
 
   private int batchSize = 500;
 
-  private Date lastBulkAdd = new Date();
+  private long blockTimeout = TimeUnit.SECONDS.toMillis(5);
+
+  private OverflowPolicy overflowPolicy = OverflowPolicy.COALESCE;
+
+  private int flusherCount = DEFAULT_FLUSHER_COUNT;
+
+  private int runningFlushers = 0;
+
+  /** Number of metacards taken out of the backlog that are being written to the cache */
+  private int inFlight = 0;
+
+  private long overflowCount = 0;
+
+  private long lastBulkAdd = System.currentTimeMillis();
+
+  private boolean shutdown = false;
 
   private CacheStrategy cacheStrategy;
 
+  private ObjectName objectName;
+
   public CacheBulkProcessor(final SolrCache cache) {
     this(cache, 1, TimeUnit.SECONDS, CacheStrategy.ALL);
   }
 
   /**
-   * Create a new cache bulk processor that will check added metacards for bulk processing at the
-   * configured delay interval.
+   * Create a new cache bulk processor whose flushers check whether the pending metacards need to be
+   * written to the cache at least once per delay interval.
    *
    * @param cache target Solr cache to bulk add metacards
-   * @param delay delay between decision to bulk add
+   * @param delay maximum delay between two checks of the pending metacards
    * @param delayUnit units of the delay
    */
-  @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
   public CacheBulkProcessor(
       final SolrCache cache,
       final long delay,
       final TimeUnit delayUnit,
       CacheStrategy cacheStrategy) {
-    batchScheduler.scheduleWithFixedDelay(
-        () -> {
-          try {
-            if (metacardsToCache.size() > 0
-                && (metacardsToCache.size() >= batchSize || timeToFlush())) {
-              LOGGER.debug("{} metacards to batch add to cache", metacardsToCache.size());
-
-              List<Metacard> metacards = new ArrayList<>(metacardsToCache.values());
-              for (Collection<Metacard> batch : Lists.partition(metacards, batchSize)) {
-                LOGGER.debug("Caching a batch of {} metacards", batch.size());
-                cache.create(batch);
-
-                for (Metacard metacard : batch) {
-                  metacardsToCache.remove(metacard.getId());
-                }
-              }
-
-              lastBulkAdd = new Date();
-            }
-          } catch (VirtualMachineError vme) {
-            throw vme;
-          } catch (Throwable throwable) {
-            LOGGER.warn("Scheduled bulk ingest to cache failed", throwable);
-          }
-        },
-        delay,
-        delay,
-        delayUnit);
-
+    this.cache = cache;
+    this.delayNanos = delayUnit.toNanos(delay);
     this.cacheStrategy = cacheStrategy;
-  }
 
-  private boolean timeToFlush() {
-    Date now = new Date();
-    return now.getTime() - lastBulkAdd.getTime() > flushInterval;
+    setFlusherCount(DEFAULT_FLUSHER_COUNT);
+    configureMBean();
   }
 
   /**
-   * Adds metacards to be bulk added to cache. Metacards will be ignored if backlog grows too large.
-   * Metacard currently in backlog will be updated if added again.
+   * Adds metacards to be bulk added to cache. Metacard currently in backlog will be updated if
+   * added again. New metacards are handled according to the {@link OverflowPolicy} when the backlog
+   * is full.
    *
    * @param results metacards to add to current batch
    */
   public void add(final List<Result> results) {
-    if (metacardsToCache.size() < maximumBacklogSize) {
-      cacheStrategy
-          .getCacheStrategyFunction()
-          .accept(results, m -> metacardsToCache.put(m.getId(), m));
-    }
+    cacheStrategy.getCacheStrategyFunction().accept(results, this::offer);
   }
 
   /** Shutdown scheduled tasks. */
   public void shutdown() {
-    batchScheduler.shutdown();
+    lock.lock();
+    try {
+      shutdown = true;
+      batchReady.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    flushers.shutdown();
+
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (OperationsException | MBeanException e) {
+        LOGGER.debug("Could not unregister MBean.", e);
+      }
+    }
   }
 
   int pendingMetacards() {
-    return metacardsToCache.size();
+    lock.lock();
+    try {
+      return metacardsToCache.size() + inFlight;
+    } finally {
+      lock.unlock();
+    }
   }
 
   public void setFlushInterval(long flushInterval) {
@@ -141,4 +220,292 @@ public void setMaximumBacklogSize(int maximumBacklogSize) {
   public void setCacheStrategy(CacheStrategy cacheStrategy) {
     this.cacheStrategy = cacheStrategy;
   }
+
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /** @param blockTimeout milliseconds to wait for room when the overflow policy is BLOCK */
+  public void setBlockTimeout(long blockTimeout) {
+    this.blockTimeout = blockTimeout;
+  }
+
+  /**
+   * Sets the number of threads writing the pending metacards to the cache concurrently.
+   *
+   * @param flusherCount number of flusher threads, at least 1
+   */
+  public void setFlusherCount(int flusherCount) {
+    lock.lock();
+    try {
+      this.flusherCount = Math.max(1, flusherCount);
+      while (!shutdown && runningFlushers < this.flusherCount) {
+        runningFlushers++;
+        flushers.execute(this::flushPendingMetacards);
+      }
+      // Wakes up the flushers so that the extra ones stop
+      batchReady.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return metacardsToCache.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  @Override
+  public long getFlushedCount() {
+    return flushedCount.get();
+  }
+
+  @Override
+  public double getFlushLatencyMillis() {
+    return flushStatistics.getLatencyMillis();
+  }
+
+  @Override
+  public double getDocumentsPerSecond() {
+    return flushStatistics.getDocumentsPerSecond();
+  }
+
+  private void offer(Metacard metacard) {
+    lock.lock();
+    try {
+      if (metacardsToCache.containsKey(metacard.getId())) {
+        metacardsToCache.put(metacard.getId(), metacard);
+        failedFlushes.remove(metacard.getId());
+        return;
+      }
+
+      if (metacardsToCache.size() >= maximumBacklogSize && !makeRoom()) {
+        droppedCount.incrementAndGet();
+        return;
+      }
+
+      metacardsToCache.put(metacard.getId(), metacard);
+      if (metacardsToCache.size() >= batchSize) {
+        batchReady.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** @return true if a new metacard can be added to the backlog */
+  private boolean makeRoom() {
+    switch (overflowPolicy) {
+      case BLOCK:
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+        batchReady.signal();
+        while (!shutdown && metacardsToCache.size() >= maximumBacklogSize && remainingNanos > 0) {
+          try {
+            remainingNanos = notFull.awaitNanos(remainingNanos);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        return metacardsToCache.size() < maximumBacklogSize;
+      case SAMPLE:
+        if (overflowCount++ % OverflowPolicy.SAMPLE_RATE != 0 || metacardsToCache.isEmpty()) {
+          return false;
+        }
+        Iterator<String> oldest = metacardsToCache.keySet().iterator();
+        failedFlushes.remove(oldest.next());
+        oldest.remove();
+        droppedCount.incrementAndGet();
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void flushPendingMetacards() {
+    while (true) {
+      List<Metacard> batch;
+      lock.lock();
+      try {
+        if (shutdown || runningFlushers > flusherCount) {
+          runningFlushers--;
+          return;
+        }
+        batch = takeBatch();
+      } catch (InterruptedException e) {
+        runningFlushers--;
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        lock.unlock();
+      }
+
+      if (!batch.isEmpty()) {
+        flush(batch);
+      }
+    }
+  }
+
+  /** Must be called while holding the lock. */
+  private List<Metacard> takeBatch() throws InterruptedException {
+    if (!isBatchReady()) {
+      batchReady.awaitNanos(delayNanos);
+      if (shutdown || !isBatchReady()) {
+        return Collections.emptyList();
+      }
+    }
+
+    LOGGER.debug("{} metacards to batch add to cache", metacardsToCache.size());
+    List<Metacard> batch = new ArrayList<>(Math.min(batchSize, metacardsToCache.size()));
+    Iterator<Metacard> pending = metacardsToCache.values().iterator();
+    while (pending.hasNext() && batch.size() < batchSize) {
+      batch.add(pending.next());
+      pending.remove();
+    }
+
+    inFlight += batch.size();
+    lastBulkAdd = System.currentTimeMillis();
+    notFull.signalAll();
+    return batch;
+  }
+
+  private boolean isBatchReady() {
+    return !metacardsToCache.isEmpty()
+        && (metacardsToCache.size() >= batchSize
+            || System.currentTimeMillis() - lastBulkAdd > flushInterval);
+  }
+
+  @SuppressWarnings("squid:S1181" /*Catching throwable intentionally*/)
+  private void flush(List<Metacard> batch) {
+    boolean flushed = false;
+    try {
+      LOGGER.debug("Caching a batch of {} metacards", batch.size());
+      long start = System.nanoTime();
+      cache.create(batch);
+      flushStatistics.record(batch.size(), System.nanoTime() - start);
+      flushedCount.addAndGet(batch.size());
+      flushed = true;
+    } catch (VirtualMachineError vme) {
+      throw vme;
+    } catch (Throwable throwable) {
+      LOGGER.warn("Scheduled bulk ingest to cache failed", throwable);
+    } finally {
+      lock.lock();
+      try {
+        if (!flushed) {
+          requeue(batch);
+        } else if (!failedFlushes.isEmpty()) {
+          batch.forEach(metacard -> failedFlushes.remove(metacard.getId()));
+        }
+        inFlight -= batch.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** Must be called while holding the lock. */
+  private void requeue(List<Metacard> batch) {
+    for (Metacard metacard : batch) {
+      String id = metacard.getId();
+      if (metacardsToCache.containsKey(id)) {
+        // A newer version was added in the meantime and replaces the one that failed
+        failedFlushes.remove(id);
+        continue;
+      }
+
+      int attempts = failedFlushes.merge(id, 1, Integer::sum);
+      if (attempts >= MAX_FLUSH_ATTEMPTS || metacardsToCache.size() >= maximumBacklogSize) {
+        LOGGER.debug("Dropping metacard {} after {} failed cache write(s)", id, attempts);
+        failedFlushes.remove(id);
+        droppedCount.incrementAndGet();
+      } else {
+        metacardsToCache.put(id, metacard);
+      }
+    }
+  }
+
+  private void configureMBean() {
+    LOGGER.debug("Registering Cache Bulk Processor MBean");
+    final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(CacheBulkProcessorMBean.OBJECT_NAME);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Could not create object name", e);
+      return;
+    }
+    try {
+      registerMBean(mbeanServer, objectName);
+    } catch (Exception e) {
+      LOGGER.debug("Could not register MBean.", e);
+    }
+  }
+
+  private void registerMBean(MBeanServer mbeanServer, ObjectName objectName)
+      throws NotCompliantMBeanException, MBeanException, OperationsException {
+    try {
+      mbeanServer.registerMBean(new StandardMBean(this, CacheBulkProcessorMBean.class), objectName);
+    } catch (InstanceAlreadyExistsException e) {
+      LOGGER.debug("Re-registering Cache Bulk Processor MBean");
+      mbeanServer.unregisterMBean(objectName);
+      mbeanServer.registerMBean(new StandardMBean(this, CacheBulkProcessorMBean.class), objectName);
+    }
+  }
+
+  /** Latency and throughput of the writes to the cache. */
+  private static class FlushStatistics {
+
+    private static final long RATE_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final double LATENCY_WEIGHT = 0.2;
+
+    private long windowStart = System.nanoTime();
+
+    private long windowDocuments = 0;
+
+    private double documentsPerSecond = 0;
+
+    private double latencyMillis = 0;
+
+    private boolean firstFlush = true;
+
+    synchronized void record(int documents, long latencyNanos) {
+      roll(System.nanoTime());
+      windowDocuments += documents;
+
+      // Exponentially weighted so that the value follows the recent flushes
+      double millis = latencyNanos / 1e6;
+      latencyMillis =
+          firstFlush ? millis : latencyMillis + LATENCY_WEIGHT * (millis - latencyMillis);
+      firstFlush = false;
+    }
+
+    synchronized double getLatencyMillis() {
+      return latencyMillis;
+    }
+
+    synchronized double getDocumentsPerSecond() {
+      roll(System.nanoTime());
+      return documentsPerSecond;
+    }
+
+    private void roll(long now) {
+      long elapsed = now - windowStart;
+      if (elapsed >= RATE_WINDOW_NANOS) {
+        documentsPerSecond = windowDocuments * 1e9 / elapsed;
+        windowStart = now;
+        windowDocuments = 0;
+      }
+    }
+  }
 }
@@ -46,6 +46,7 @@ public CacheSolrMetacardClient(
         catalogFilterAdapter,
         solrFilterDelegateFactory,
         new DynamicSchemaResolver(ADDITIONAL_FIELDS));
+    setEncodedMetacards(true);
   }
 
   @Override
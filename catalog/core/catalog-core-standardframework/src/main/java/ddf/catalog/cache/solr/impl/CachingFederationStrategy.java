@@ -568,4 +568,13 @@ private SourceResponse cloneResponse(SourceResponse sourceResponse) {
   public void setCacheStrategy(String cacheStrategy) {
     cacheBulkProcessor.setCacheStrategy(CacheStrategy.valueOf(cacheStrategy));
   }
+
+  public void setCacheFlusherCount(int cacheFlusherCount) {
+    cacheBulkProcessor.setFlusherCount(cacheFlusherCount);
+  }
+
+  public void setCacheOverflowPolicy(String cacheOverflowPolicy) {
+    cacheBulkProcessor.setOverflowPolicy(
+        CacheBulkProcessor.OverflowPolicy.valueOf(cacheOverflowPolicy));
+  }
 }
@@ -95,6 +95,8 @@ public class CreateOperations {
 
   private final OperationsStorageSupport opsStorageSupport;
 
+  private OperationTimings operationTimings = new OperationTimings();
+
   public CreateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -112,19 +114,49 @@ public CreateOperations(
     this.opsStorageSupport = opsStorageSupport;
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
   //
   // Delegate methods
   //
   public CreateResponse create(CreateRequest createRequest)
       throws IngestException, SourceUnavailableException {
-    CreateResponse createResponse = doCreate(createRequest);
-    createResponse = doPostIngest(createResponse);
-    return createResponse;
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.CREATE, createRequest)) {
+      CreateResponse createResponse = doCreate(createRequest);
+      createResponse = doPostIngest(createResponse);
+      return scope.complete(createResponse);
+    }
   }
 
   public CreateResponse create(
       CreateStorageRequest streamCreateRequest, List<String> fanoutTagBlacklist)
       throws IngestException, SourceUnavailableException {
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.CREATE, streamCreateRequest)) {
+      return scope.complete(doCreate(streamCreateRequest, fanoutTagBlacklist));
+    }
+  }
+
+  private void rollbackStorage(CreateStorageRequest createStorageRequest) {
+    if (createStorageRequest != null) {
+      try {
+        sourceOperations.getStorage().rollback(createStorageRequest);
+      } catch (StorageException e1) {
+        LOGGER.info(
+            "Unable to remove temporary content for id: {}", createStorageRequest.getId(), e1);
+      }
+    }
+  }
+
+  //
+  // Private helper methods
+  //
+  private CreateResponse doCreate(
+      CreateStorageRequest streamCreateRequest, List<String> fanoutTagBlacklist)
+      throws IngestException, SourceUnavailableException {
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamCreateRequest.getContentItems().size());
     HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
@@ -161,11 +193,18 @@ public CreateResponse create(
                 contentItems, streamCreateRequest.getId(), streamCreateRequest.getProperties());
         createStorageRequest = processPreCreateStoragePlugins(createStorageRequest);
 
+        long storageStart = System.nanoTime();
         try {
           createStorageResponse = sourceOperations.getStorage().create(createStorageRequest);
           createStorageResponse.getProperties().put(CONTENT_PATHS, tmpContentPaths);
         } catch (StorageException e) {
           throw new IngestException("Could not store content items.", e);
+        } finally {
+          operationTimings.record(
+              OperationTimings.CREATE,
+              OperationTimings.SOURCE_STAGE,
+              sourceOperations.getStorage(),
+              storageStart);
         }
 
         createStorageResponse = processPostCreateStoragePlugins(createStorageResponse);
@@ -198,20 +237,6 @@ public CreateResponse create(
     return createResponse;
   }
 
-  private void rollbackStorage(CreateStorageRequest createStorageRequest) {
-    if (createStorageRequest != null) {
-      try {
-        sourceOperations.getStorage().rollback(createStorageRequest);
-      } catch (StorageException e1) {
-        LOGGER.info(
-            "Unable to remove temporary content for id: {}", createStorageRequest.getId(), e1);
-      }
-    }
-  }
-
-  //
-  // Private helper methods
-  //
   private CreateResponse doCreate(CreateRequest createRequest)
       throws IngestException, SourceUnavailableException {
     CreateResponse createResponse = null;
@@ -414,7 +439,10 @@ private CreateResponse doRemoteCreate(CreateRequest createRequest) {
           exceptions.add(
               new ProcessingDetailsImpl(store.getId(), null, "CatalogStore is not available"));
         } else {
+          long start = System.nanoTime();
           CreateResponse response = store.create(createRequest);
+          operationTimings.record(
+              OperationTimings.CREATE, OperationTimings.SOURCE_STAGE, store.getId(), start);
           properties.put(store.getId(), new ArrayList<>(response.getCreatedMetacards()));
         }
       } catch (IngestException e) {
@@ -460,10 +488,14 @@ private CreateResponse validateFixCreateResponse(
 
   private CreateResponse processPostIngestPlugins(CreateResponse createResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = System.nanoTime();
       try {
         createResponse = plugin.process(createResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.CREATE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return createResponse;
@@ -492,16 +524,28 @@ private CreateResponse getCreateResponse(CreateRequest createRequest) throws Ing
       return null;
     }
 
-    return sourceOperations.getCatalog().create(createRequest);
+    long start = System.nanoTime();
+    try {
+      return sourceOperations.getCatalog().create(createRequest);
+    } finally {
+      operationTimings.record(
+          OperationTimings.CREATE,
+          OperationTimings.SOURCE_STAGE,
+          sourceOperations.getCatalog().getId(),
+          start);
+    }
   }
 
   private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = System.nanoTime();
       try {
         createRequest = plugin.process(createRequest);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(OperationTimings.CREATE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return createRequest;
@@ -510,7 +554,10 @@ private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
   private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       createRequest = plugin.processPreCreate(createRequest);
+      operationTimings.record(
+          OperationTimings.CREATE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return createRequest;
   }
@@ -518,7 +565,10 @@ private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
   private CreateRequest processPreAuthorizationPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       createRequest = plugin.processPreCreate(createRequest);
+      operationTimings.record(
+          OperationTimings.CREATE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return createRequest;
   }
@@ -531,8 +581,11 @@ private CreateRequest updateCreateRequestPolicyMap(CreateRequest createRequest)
     for (Metacard metacard : createRequest.getMetacards()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+        long start = System.nanoTime();
         PolicyResponse policyResponse =
             plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+        operationTimings.record(
+            OperationTimings.CREATE, OperationTimings.SECURITY_STAGE, plugin, start);
         opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
         opsSecuritySupport.buildPolicyMap(
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
@@ -590,10 +643,14 @@ private void populateMetacardMap(
   private CreateStorageResponse processPostCreateStoragePlugins(
       CreateStorageResponse createStorageResponse) {
     for (final PostCreateStoragePlugin plugin : frameworkProperties.getPostCreateStoragePlugins()) {
+      long start = System.nanoTime();
       try {
         createStorageResponse = plugin.process(createStorageResponse);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.CREATE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return createStorageResponse;
@@ -602,10 +659,13 @@ private CreateStorageResponse processPostCreateStoragePlugins(
   private CreateStorageRequest processPreCreateStoragePlugins(
       CreateStorageRequest createStorageRequest) {
     for (final PreCreateStoragePlugin plugin : frameworkProperties.getPreCreateStoragePlugins()) {
+      long start = System.nanoTime();
       try {
         createStorageRequest = plugin.process(createStorageRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(OperationTimings.CREATE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return createStorageRequest;
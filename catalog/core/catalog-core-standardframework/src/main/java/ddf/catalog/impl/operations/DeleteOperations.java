@@ -96,6 +96,8 @@ public class DeleteOperations {
 
   private RemoteDeleteOperations remoteDeleteOperations;
 
+  private OperationTimings operationTimings = new OperationTimings();
+
   public DeleteOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -113,12 +115,19 @@ public void setHistorian(Historian historian) {
     this.historian = historian;
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
   //
   // Delegate methods
   //
   public DeleteResponse delete(DeleteRequest deleteRequest, List<String> fanoutTagBlacklist)
       throws IngestException, SourceUnavailableException {
-    return doDelete(deleteRequest, fanoutTagBlacklist);
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.DELETE, deleteRequest)) {
+      return scope.complete(doDelete(deleteRequest, fanoutTagBlacklist));
+    }
   }
 
   private List<Metacard> getDeleteMetacards(DeleteRequest deleteRequest) {
@@ -251,10 +260,14 @@ private String buildDeleteLog(DeleteResponse deleteResponse) {
 
   private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = System.nanoTime();
       try {
         deleteResponse = plugin.process(deleteResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin exception", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.DELETE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return deleteResponse;
@@ -263,7 +276,10 @@ private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
   private DeleteResponse processPostDeleteAccessPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       deleteResponse = plugin.processPostDelete(deleteResponse);
+      operationTimings.record(
+          OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return deleteResponse;
   }
@@ -277,8 +293,11 @@ private DeleteRequest populateDeleteRequestPolicyMap(
       for (Metacard metacard : deleteResponse.getDeletedMetacards()) {
         HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
         for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+          long start = System.nanoTime();
           PolicyResponse policyResponse =
               plugin.processPostDelete(metacard, unmodifiableProperties);
+          operationTimings.record(
+              OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
           opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
           opsSecuritySupport.buildPolicyMap(
               responsePolicyMap, policyResponse.operationPolicy().entrySet());
@@ -298,14 +317,27 @@ private DeleteResponse performLocalDelete(
       return null;
     }
 
+    long storageStart = System.nanoTime();
     try {
       sourceOperations.getStorage().delete(deleteStorageRequest);
     } catch (StorageException e) {
       LOGGER.info("Unable to delete stored content items. Not removing stored metacards", e);
       throw new InternalIngestException(
           "Unable to delete stored content items. Not removing stored metacards.", e);
+    } finally {
+      operationTimings.record(
+          OperationTimings.DELETE,
+          OperationTimings.SOURCE_STAGE,
+          sourceOperations.getStorage(),
+          storageStart);
     }
+    long start = System.nanoTime();
     DeleteResponse deleteResponse = sourceOperations.getCatalog().delete(deleteRequest);
+    operationTimings.record(
+        OperationTimings.DELETE,
+        OperationTimings.SOURCE_STAGE,
+        sourceOperations.getCatalog().getId(),
+        start);
     deleteResponse = injectAttributes(deleteResponse);
     try {
       historian.version(deleteResponse);
@@ -364,10 +396,13 @@ private boolean foundAllDeleteRequestMetacards(
   private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = System.nanoTime();
       try {
         deleteRequest = plugin.process(deleteRequest);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(OperationTimings.DELETE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return deleteRequest;
@@ -376,7 +411,10 @@ private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
   private DeleteRequest processPreDeleteAccessPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       deleteRequest = plugin.processPreDelete(deleteRequest);
+      operationTimings.record(
+          OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return deleteRequest;
   }
@@ -389,7 +427,10 @@ private DeleteRequest processPreDeletePolicyPlugins(DeleteRequest deleteRequest)
 
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      long start = System.nanoTime();
       PolicyResponse policyResponse = plugin.processPreDelete(metacards, unmodifiableProperties);
+      operationTimings.record(
+          OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
       opsSecuritySupport.buildPolicyMap(
           requestPolicyMap, policyResponse.operationPolicy().entrySet());
     }
@@ -437,7 +478,10 @@ private DeleteRequest populateMetacards(
   private DeleteRequest preProcessPreAuthorizationPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       deleteRequest = plugin.processPreDelete(deleteRequest);
+      operationTimings.record(
+          OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return deleteRequest;
   }
@@ -445,7 +489,10 @@ private DeleteRequest preProcessPreAuthorizationPlugins(DeleteRequest deleteRequ
   private DeleteResponse postProcessPreAuthorizationPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       deleteResponse = plugin.processPostDelete(deleteResponse);
+      operationTimings.record(
+          OperationTimings.DELETE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return deleteResponse;
   }
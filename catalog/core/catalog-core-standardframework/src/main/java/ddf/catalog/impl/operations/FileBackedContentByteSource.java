@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import com.google.common.io.ByteSource;
+import ddf.catalog.content.data.FileBackedContent;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link ByteSource} of a temporary content file written by the {@code CatalogFrameworkImpl}. Its
+ * streams implement {@link FileBackedContent} so that transformers, plugins and storage providers
+ * can use the file and the digests computed while it was written instead of reading the stream
+ * again.
+ */
+class FileBackedContentByteSource extends ByteSource {
+  private final Path path;
+
+  private final Map<String, String> digests;
+
+  FileBackedContentByteSource(Path path) {
+    this(path, Collections.emptyMap());
+  }
+
+  FileBackedContentByteSource(Path path, Map<String, String> digests) {
+    this.path = path;
+    this.digests = Collections.unmodifiableMap(digests);
+  }
+
+  @Override
+  public InputStream openStream() throws IOException {
+    return new FileBackedContentInputStream(Files.newInputStream(path));
+  }
+
+  @Override
+  public long size() throws IOException {
+    return Files.size(path);
+  }
+
+  private class FileBackedContentInputStream extends FilterInputStream
+      implements FileBackedContent {
+    FileBackedContentInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public Path getPath() {
+      return path;
+    }
+
+    @Override
+    public Optional<String> getDigest(String digestName) {
+      return Optional.ofNullable(digests.get(digestName));
+    }
+  }
+}
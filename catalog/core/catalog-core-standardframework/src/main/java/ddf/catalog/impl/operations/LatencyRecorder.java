@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latencies into a fixed set of log-linear buckets, in the manner of an HdrHistogram, so
+ * that recording is a few lock-free increments and percentiles can be read at any time.
+ *
+ * <p>Latencies are kept in microseconds. Each power of two is split into {@value #HALF_COUNT}
+ * buckets, which bounds the error of a percentile to about 1.6%, and latencies over an hour are
+ * recorded as an hour.
+ */
+final class LatencyRecorder {
+
+  private static final int SUB_BUCKET_BITS = 7;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+  private static final int MAX_VALUE_BITS = 32;
+
+  private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+  private static final int BUCKET_COUNT =
+      SUB_BUCKET_COUNT + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * HALF_COUNT;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+  private final LongAdder total = new LongAdder();
+
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /** @param nanos the latency to record, in nanoseconds */
+  void record(long nanos) {
+    long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+    buckets.incrementAndGet(indexOf(micros));
+    total.add(micros);
+    max.accumulate(micros);
+  }
+
+  /** @return the number of recorded latencies */
+  long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      count += buckets.get(i);
+    }
+    return count;
+  }
+
+  /** @return the sum of the recorded latencies, in microseconds */
+  long getTotal() {
+    return total.sum();
+  }
+
+  /** @return the largest recorded latency, in microseconds */
+  long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency, in microseconds, under which the given percentage of the recorded
+   *     latencies fall, or 0 if none were recorded
+   */
+  long getPercentile(double percentile) {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /** Forgets the recorded latencies. Latencies recorded at the same time may be partly kept. */
+  void reset() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets.set(i, 0);
+    }
+    total.reset();
+    max.reset();
+  }
+
+  static int indexOf(long micros) {
+    if (micros < SUB_BUCKET_COUNT) {
+      return (int) micros;
+    }
+    int shift = Long.SIZE - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+    return SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (int) (micros >>> shift) - HALF_COUNT;
+  }
+
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+    long subBucket = (index - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
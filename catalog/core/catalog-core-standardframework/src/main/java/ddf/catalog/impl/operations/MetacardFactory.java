@@ -71,7 +71,7 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
 
     for (InputTransformer candidate : listOfCandidates) {
       try (InputStream transformerStream =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+          new FileBackedContentByteSource(tmpContentPath).openStream()) {
         generatedMetacard = candidate.transform(transformerStream);
       } catch (CatalogTransformerException | IOException e) {
         List<String> stackTraces = Arrays.asList(ExceptionUtils.getRootCauseStackTrace(e));
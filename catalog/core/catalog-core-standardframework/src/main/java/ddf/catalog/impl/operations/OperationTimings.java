@@ -0,0 +1,353 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import ddf.catalog.Constants;
+import ddf.catalog.operation.Operation;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.OperationsException;
+import javax.management.StandardMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the stages of the catalog operations and each plugin and source they call, for the
+ * operations of the {@code CatalogFrameworkImpl}.
+ *
+ * <p>Every latency is recorded into a {@link LatencyRecorder} per operation, stage and plugin class
+ * or source ID, which are exposed through JMX and {@link #writeText(Writer)}. When a request has
+ * the {@link Constants#OPERATION_TIMINGS_KEY} property set to {@code true}, the latencies of the
+ * request are also summed per timer and returned in the same property of its response.
+ */
+public class OperationTimings implements OperationTimingsMBean {
+
+  static final String QUERY = "query";
+
+  static final String CREATE = "create";
+
+  static final String UPDATE = "update";
+
+  static final String DELETE = "delete";
+
+  static final String RESOURCE = "resource";
+
+  static final String TRANSFORM = "transform";
+
+  static final String SECURITY_STAGE = "security";
+
+  static final String PRE_STAGE = "pre";
+
+  static final String SOURCE_STAGE = "source";
+
+  static final String POST_STAGE = "post";
+
+  static final String TRANSFORM_STAGE = "transform";
+
+  static final String TOTAL_STAGE = "total";
+
+  static final String METRIC_NAME = "ddf_catalog_operation_latency_microseconds";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationTimings.class);
+
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+  private final ConcurrentMap<Timer, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+
+  private final ThreadLocal<Map<String, Long>> requestTimings = new ThreadLocal<>();
+
+  private ObjectName objectName;
+
+  public void init() {
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(OBJECT_NAME);
+      registerMBean(mbeanServer);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Could not create object name", e);
+    } catch (OperationsException | MBeanException e) {
+      LOGGER.debug("Could not register operation timings MBean.", e);
+    }
+  }
+
+  public void destroy() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+      LOGGER.debug("Could not unregister operation timings MBean.", e);
+    }
+  }
+
+  private void registerMBean(MBeanServer mbeanServer)
+      throws NotCompliantMBeanException, MBeanException, OperationsException {
+    try {
+      mbeanServer.registerMBean(new StandardMBean(this, OperationTimingsMBean.class), objectName);
+    } catch (InstanceAlreadyExistsException e) {
+      LOGGER.debug("Re-registering operation timings MBean");
+      mbeanServer.unregisterMBean(objectName);
+      mbeanServer.registerMBean(new StandardMBean(this, OperationTimingsMBean.class), objectName);
+    }
+  }
+
+  /**
+   * Starts timing an operation. The returned scope must be closed on the thread that opened it.
+   *
+   * <p>The latencies of the operations run while the scope of another one is open, such as the
+   * queries run by an update, are returned with those of the outer operation.
+   *
+   * @param operation the name of the operation
+   * @param request the request of the operation, which may ask for its timings
+   * @return the scope of the operation
+   */
+  Scope open(String operation, Operation request) {
+    Map<String, Long> outerTimings = requestTimings.get();
+    if (outerTimings == null && isRequested(request)) {
+      requestTimings.set(new LinkedHashMap<>());
+    }
+    return new Scope(operation, outerTimings == null, System.nanoTime());
+  }
+
+  /**
+   * Records the time spent in a plugin since {@code startNanos}.
+   *
+   * @param plugin the plugin, whose class names the timer
+   */
+  void record(String operation, String stage, Object plugin, long startNanos) {
+    record(operation, stage, plugin == null ? null : plugin.getClass().getName(), startNanos);
+  }
+
+  /**
+   * Records the time spent in a stage since {@code startNanos}.
+   *
+   * @param name the name of the timer in the stage, usually a source ID
+   */
+  void record(String operation, String stage, String name, long startNanos) {
+    recordNanos(operation, stage, name, System.nanoTime() - startNanos);
+  }
+
+  void recordNanos(String operation, String stage, String name, long nanos) {
+    Timer timer = new Timer(operation, stage, String.valueOf(name));
+    LatencyRecorder recorder = recorders.get(timer);
+    if (recorder == null) {
+      recorder = recorders.computeIfAbsent(timer, t -> new LatencyRecorder());
+    }
+    recorder.record(nanos);
+
+    Map<String, Long> timings = requestTimings.get();
+    if (timings != null) {
+      timings.merge(timer.toString(), nanos, Long::sum);
+    }
+  }
+
+  /**
+   * Writes the timers in the Prometheus text format, as a summary of the latencies per operation,
+   * stage and name.
+   */
+  public void writeText(Writer writer) throws IOException {
+    writer.write("# HELP " + METRIC_NAME + " Latency of the catalog operations.\n");
+    writer.write("# TYPE " + METRIC_NAME + " summary\n");
+    for (Map.Entry<Timer, LatencyRecorder> entry : getSortedRecorders().entrySet()) {
+      Timer timer = entry.getKey();
+      LatencyRecorder recorder = entry.getValue();
+      String labels = timer.toLabels();
+      for (double quantile : QUANTILES) {
+        writer.write(
+            String.format(
+                "%s{%s,quantile=\"%s\"} %d\n",
+                METRIC_NAME, labels, quantile, recorder.getPercentile(quantile * 100)));
+      }
+      writer.write(String.format("%s_max{%s} %d\n", METRIC_NAME, labels, recorder.getMax()));
+      writer.write(String.format("%s_sum{%s} %d\n", METRIC_NAME, labels, recorder.getTotal()));
+      writer.write(String.format("%s_count{%s} %d\n", METRIC_NAME, labels, recorder.getCount()));
+    }
+  }
+
+  @Override
+  public String[] getTimers() {
+    return getSortedRecorders().keySet().stream().map(Timer::toString).toArray(String[]::new);
+  }
+
+  @Override
+  public long getCount(String timer) {
+    LatencyRecorder recorder = getRecorder(timer);
+    return recorder == null ? 0 : recorder.getCount();
+  }
+
+  @Override
+  public long getMean(String timer) {
+    LatencyRecorder recorder = getRecorder(timer);
+    if (recorder == null) {
+      return 0;
+    }
+    long count = recorder.getCount();
+    return count == 0 ? 0 : recorder.getTotal() / count;
+  }
+
+  @Override
+  public long getPercentile(String timer, double percentile) {
+    LatencyRecorder recorder = getRecorder(timer);
+    return recorder == null ? 0 : recorder.getPercentile(percentile);
+  }
+
+  @Override
+  public long getMax(String timer) {
+    LatencyRecorder recorder = getRecorder(timer);
+    return recorder == null ? 0 : recorder.getMax();
+  }
+
+  @Override
+  public void reset() {
+    recorders.values().forEach(LatencyRecorder::reset);
+  }
+
+  private LatencyRecorder getRecorder(String timer) {
+    return recorders
+        .entrySet()
+        .stream()
+        .filter(entry -> entry.getKey().toString().equals(timer))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElse(null);
+  }
+
+  private Map<Timer, LatencyRecorder> getSortedRecorders() {
+    Map<Timer, LatencyRecorder> sorted = new LinkedHashMap<>();
+    recorders
+        .entrySet()
+        .stream()
+        .sorted(Map.Entry.comparingByKey(Comparator.comparing(Timer::toString)))
+        .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+    return sorted;
+  }
+
+  private static boolean isRequested(Operation request) {
+    return request != null
+        && request.getProperties() != null
+        && Boolean.parseBoolean(
+            String.valueOf(request.getProperties().get(Constants.OPERATION_TIMINGS_KEY)));
+  }
+
+  /** The timing of one operation, opened by {@link #open(String, Operation)}. */
+  final class Scope implements AutoCloseable {
+
+    private final String operation;
+
+    private final boolean ownsTimings;
+
+    private final long startNanos;
+
+    private Scope(String operation, boolean ownsTimings, long startNanos) {
+      this.operation = operation;
+      this.ownsTimings = ownsTimings;
+      this.startNanos = startNanos;
+    }
+
+    /**
+     * Records the total time of the operation and, if they were asked for, adds the timings of the
+     * request to the response.
+     *
+     * @return the response
+     */
+    <T extends Operation> T complete(T response) {
+      recordNanos(operation, TOTAL_STAGE, "", System.nanoTime() - startNanos);
+
+      Map<String, Long> timings = requestTimings.get();
+      if (ownsTimings && timings != null && response != null && response.getProperties() != null) {
+        LinkedHashMap<String, Long> micros = new LinkedHashMap<>();
+        timings.forEach((timer, nanos) -> micros.put(timer, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        response.getProperties().put(Constants.OPERATION_TIMINGS_KEY, (Serializable) micros);
+      }
+      return response;
+    }
+
+    @Override
+    public void close() {
+      if (ownsTimings) {
+        requestTimings.remove();
+      }
+    }
+  }
+
+  private static final class Timer {
+
+    private final String operation;
+
+    private final String stage;
+
+    private final String name;
+
+    private final int hashCode;
+
+    private Timer(String operation, String stage, String name) {
+      this.operation = operation;
+      this.stage = stage;
+      this.name = name;
+      this.hashCode = Objects.hash(operation, stage, name);
+    }
+
+    private String toLabels() {
+      return String.format(
+          "operation=\"%s\",stage=\"%s\",name=\"%s\"",
+          escape(operation), escape(stage), escape(name));
+    }
+
+    private static String escape(String value) {
+      return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Timer)) {
+        return false;
+      }
+      Timer timer = (Timer) o;
+      return operation.equals(timer.operation)
+          && stage.equals(timer.stage)
+          && name.equals(timer.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return name.isEmpty() ? operation + "/" + stage : operation + "/" + stage + "/" + name;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+/**
+ * MBean interface exposing the latencies recorded by the catalog framework for each operation,
+ * stage, plugin and source. Timers are named {@code operation/stage/name}, where the name is the
+ * class of the plugin or the ID of the source, and latencies are in microseconds.
+ */
+public interface OperationTimingsMBean {
+
+  String OBJECT_NAME = OperationTimings.class.getName() + ":service=operation-timings";
+
+  /** @return the names of the timers that recorded at least one latency */
+  String[] getTimers();
+
+  /**
+   * @param timer name of the timer
+   * @return the number of latencies recorded by the timer
+   */
+  long getCount(String timer);
+
+  /**
+   * @param timer name of the timer
+   * @return the mean latency recorded by the timer
+   */
+  long getMean(String timer);
+
+  /**
+   * @param timer name of the timer
+   * @param percentile the percentile, between 0 and 100
+   * @return the latency under which the given percentage of the latencies recorded by the timer
+   *     fall
+   */
+  long getPercentile(String timer, double percentile);
+
+  /**
+   * @param timer name of the timer
+   * @return the largest latency recorded by the timer
+   */
+  long getMax(String timer);
+
+  /** Forgets all the recorded latencies. */
+  void reset();
+}
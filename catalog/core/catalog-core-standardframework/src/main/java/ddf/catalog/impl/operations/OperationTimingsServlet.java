@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import java.io.IOException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/** Serves the latencies of the catalog operations in the Prometheus text format for scraping. */
+public class OperationTimingsServlet extends HttpServlet {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  @SuppressWarnings("squid:S2226" /* Lifecycle managed by blueprint */)
+  private final transient OperationTimings operationTimings;
+
+  public OperationTimingsServlet(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
+  @Override
+  protected void doGet(HttpServletRequest request, HttpServletResponse response)
+      throws ServletException, IOException {
+    response.setContentType(CONTENT_TYPE);
+    response.setStatus(HttpServletResponse.SC_OK);
+    operationTimings.writeText(response.getWriter());
+  }
+}
@@ -15,6 +15,7 @@
 
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.plugin.ContentDigester;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeInjector;
@@ -29,10 +30,12 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -58,6 +61,8 @@
 public class OperationsMetacardSupport {
   private static final Logger LOGGER = LoggerFactory.getLogger(OperationsMetacardSupport.class);
 
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
   //
   // Injected properties
   //
@@ -65,12 +70,18 @@ public class OperationsMetacardSupport {
 
   private final MetacardFactory metacardFactory;
 
+  private List<ContentDigester> contentDigesters = Collections.emptyList();
+
   public OperationsMetacardSupport(
       FrameworkProperties frameworkProperties, MetacardFactory metacardFactory) {
     this.frameworkProperties = frameworkProperties;
     this.metacardFactory = metacardFactory;
   }
 
+  public void setContentDigesters(List<ContentDigester> contentDigesters) {
+    this.contentDigesters = contentDigesters;
+  }
+
   /**
    * Processes input metacard, injecting attributes as defined by the {@code injectors}.
    *
@@ -97,6 +108,7 @@ void generateMetacardAndContentItems(
         Path tmpPath = null;
         String fileName;
         long size;
+        Map<String, String> digests = new HashMap<>();
         try (InputStream inputStream = contentItem.getInputStream()) {
           fileName = contentItem.getFilename();
           if (inputStream == null) {
@@ -113,8 +125,7 @@ void generateMetacardAndContentItems(
               Files.createTempFile(
                   FilenameUtils.getBaseName(sanitizedFilename),
                   FilenameUtils.getExtension(sanitizedFilename));
-          Files.copy(inputStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
-          size = Files.size(tmpPath);
+          size = copyContent(inputStream, tmpPath, digests);
 
           final String key = contentItem.getId();
           Map<String, Path> pathAndQualifiers = tmpContentPaths.get(key);
@@ -161,7 +172,7 @@ void generateMetacardAndContentItems(
             new ContentItemImpl(
                 metacard.getId(),
                 qualifiedContent ? contentItem.getQualifier() : "",
-                com.google.common.io.Files.asByteSource(tmpPath.toFile()),
+                new FileBackedContentByteSource(tmpPath, digests),
                 mimeTypeRaw,
                 fileName,
                 size,
@@ -179,6 +190,45 @@ void generateMetacardAndContentItems(
     }
   }
 
+  /**
+   * Copies the incoming content to its temporary file, handing every chunk to the {@link
+   * ContentDigester}s as it goes so that the content only has to be read once.
+   *
+   * @param inputStream the incoming content
+   * @param tmpPath the temporary file to write
+   * @param digests the map to put the value of each digest into, by digest name
+   * @return the number of bytes copied
+   */
+  private long copyContent(InputStream inputStream, Path tmpPath, Map<String, String> digests)
+      throws IOException {
+    Map<String, ContentDigester.Digest> contentDigests = new HashMap<>();
+    for (ContentDigester contentDigester : new ArrayList<>(contentDigesters)) {
+      contentDigests.put(contentDigester.getDigestName(), contentDigester.newDigest());
+    }
+
+    long size = 0;
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    try (OutputStream outputStream = Files.newOutputStream(tmpPath)) {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        for (ContentDigester.Digest digest : contentDigests.values()) {
+          digest.update(buffer, 0, read);
+        }
+        size += read;
+      }
+    }
+
+    contentDigests.forEach(
+        (digestName, digest) -> {
+          String value = digest.getValue();
+          if (value != null) {
+            digests.put(digestName, value);
+          }
+        });
+    return size;
+  }
+
   /**
    * Updates any empty metacard attributes with those defined in the {@link
    * DefaultAttributeValueRegistry}.
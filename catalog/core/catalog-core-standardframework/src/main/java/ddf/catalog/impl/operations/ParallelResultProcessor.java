@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.plugin.StopProcessingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.platform.util.ForkJoinPoolFactory;
+
+/**
+ * Processes the results of a query response in chunks, on a bounded {@link ForkJoinPool}. The
+ * outputs of the chunks are returned in the order of the results they were computed from.
+ *
+ * <p>The chunks are processed as the {@link Subject} of the calling thread, if any, for the plugins
+ * that rely on the subject bound to the current thread.
+ */
+public class ParallelResultProcessor {
+
+  public static final int DEFAULT_CHUNK_SIZE = 100;
+
+  private final ForkJoinPool pool;
+
+  private final int chunkSize;
+
+  /**
+   * @param parallelism maximum number of chunks processed at the same time
+   * @param chunkSize maximum number of results in a chunk
+   */
+  public ParallelResultProcessor(int parallelism, int chunkSize) {
+    this.pool = new ForkJoinPool(Math.max(1, parallelism), new ForkJoinPoolFactory(), null, false);
+    this.chunkSize = Math.max(1, chunkSize);
+  }
+
+  /**
+   * @param results the results to process
+   * @return true if there are enough results to split them into several chunks
+   */
+  public boolean isWorthSplitting(List<Result> results) {
+    return results.size() > chunkSize;
+  }
+
+  /**
+   * Applies the function to each chunk of the results.
+   *
+   * @param results the results to process
+   * @param function the function applied to each chunk
+   * @return the outputs of the function, in the order of the chunks
+   * @throws StopProcessingException if the function failed to process a chunk
+   */
+  public <T> List<T> process(List<Result> results, ChunkFunction<T> function)
+      throws StopProcessingException {
+    Subject subject = ThreadContext.getSubject();
+    try {
+      return pool.invoke(new ChunkTask<>(new ArrayList<>(results), function, subject, chunkSize));
+    } catch (ChunkFailureException e) {
+      throw e.getCause();
+    }
+  }
+
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  /** Function applied to each chunk of the results. */
+  @FunctionalInterface
+  public interface ChunkFunction<T> {
+    T apply(List<Result> chunk) throws StopProcessingException;
+  }
+
+  private static class ChunkTask<T> extends RecursiveTask<List<T>> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<Result> results;
+
+    private final transient ChunkFunction<T> function;
+
+    private final transient Subject subject;
+
+    private final int chunkSize;
+
+    ChunkTask(List<Result> results, ChunkFunction<T> function, Subject subject, int chunkSize) {
+      this.results = results;
+      this.function = function;
+      this.subject = subject;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected List<T> compute() {
+      if (results.size() <= chunkSize) {
+        List<T> outputs = new ArrayList<>();
+        outputs.add(apply());
+        return outputs;
+      }
+
+      int half = results.size() / 2;
+      ChunkTask<T> left = new ChunkTask<>(results.subList(0, half), function, subject, chunkSize);
+      left.fork();
+      List<T> rightOutputs =
+          new ChunkTask<>(results.subList(half, results.size()), function, subject, chunkSize)
+              .compute();
+      List<T> outputs = left.join();
+      outputs.addAll(rightOutputs);
+      return outputs;
+    }
+
+    private T apply() {
+      try {
+        if (subject == null) {
+          return function.apply(results);
+        }
+        return subject.execute(() -> function.apply(results));
+      } catch (StopProcessingException e) {
+        throw new ChunkFailureException(e);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof StopProcessingException) {
+          throw new ChunkFailureException((StopProcessingException) e.getCause());
+        } else if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      }
+    }
+  }
+
+  /** Carries a {@link StopProcessingException} out of the {@link ForkJoinPool}. */
+  private static class ChunkFailureException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ChunkFailureException(StopProcessingException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized StopProcessingException getCause() {
+      return (StopProcessingException) super.getCause();
+    }
+  }
+}
@@ -40,10 +40,10 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.plugin.PerResultPlugin;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PolicyPlugin;
 import ddf.catalog.plugin.PolicyResponse;
-import ddf.catalog.plugin.PostQueryPlugin;
 import ddf.catalog.plugin.PreAuthorizationPlugin;
 import ddf.catalog.plugin.PreQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
@@ -68,6 +68,7 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -121,6 +122,16 @@ public class QueryOperations extends DescribableImpl {
 
   private long queryTimeoutMillis = 300000;
 
+  private boolean parallelPluginProcessing = false;
+
+  private int pluginParallelism = Runtime.getRuntime().availableProcessors();
+
+  private int pluginChunkSize = ParallelResultProcessor.DEFAULT_CHUNK_SIZE;
+
+  private volatile ParallelResultProcessor resultProcessor;
+
+  private OperationTimings operationTimings = new OperationTimings();
+
   public QueryOperations(
       FrameworkProperties frameworkProperties,
       SourceOperations sourceOperations,
@@ -148,6 +159,52 @@ public void setQueryTimeoutMillis(long queryTimeoutMillis) {
     this.queryTimeoutMillis = queryTimeoutMillis;
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
+  /**
+   * Enables the processing of the results by the policy plugins, and by the access and post-query
+   * plugins that are {@link PerResultPlugin}s, in parallel chunks.
+   *
+   * @param parallelPluginProcessing true to process large responses in parallel
+   */
+  public synchronized void setParallelPluginProcessing(boolean parallelPluginProcessing) {
+    this.parallelPluginProcessing = parallelPluginProcessing;
+    updateResultProcessor();
+  }
+
+  /** @param pluginParallelism maximum number of chunks of results processed at the same time */
+  public synchronized void setPluginParallelism(int pluginParallelism) {
+    this.pluginParallelism =
+        pluginParallelism > 0 ? pluginParallelism : Runtime.getRuntime().availableProcessors();
+    updateResultProcessor();
+  }
+
+  /** @param pluginChunkSize number of results in a chunk processed by a single thread */
+  public synchronized void setPluginChunkSize(int pluginChunkSize) {
+    this.pluginChunkSize = pluginChunkSize;
+    updateResultProcessor();
+  }
+
+  public synchronized void destroy() {
+    if (resultProcessor != null) {
+      resultProcessor.shutdown();
+      resultProcessor = null;
+    }
+  }
+
+  private void updateResultProcessor() {
+    ParallelResultProcessor previous = resultProcessor;
+    resultProcessor =
+        parallelPluginProcessing
+            ? new ParallelResultProcessor(pluginParallelism, pluginChunkSize)
+            : null;
+    if (previous != null) {
+      previous.shutdown();
+    }
+  }
+
   //
   // Delegate methods
   //
@@ -177,7 +234,8 @@ QueryResponse query(
 
     queryRequest = setFlagsOnRequest(queryRequest);
 
-    try {
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.QUERY, queryRequest)) {
       queryRequest = validateQueryRequest(queryRequest);
       queryRequest = getFanoutQuery(queryRequest, fanoutEnabled);
       queryRequest = preProcessPreAuthorizationPlugins(queryRequest);
@@ -198,7 +256,10 @@ QueryResponse query(
         }
       }
 
+      long federationStart = System.nanoTime();
       queryResponse = doQuery(queryRequest, fedStrategy);
+      operationTimings.record(
+          OperationTimings.QUERY, OperationTimings.SOURCE_STAGE, fedStrategy, federationStart);
 
       // Allow callers to determine the total results returned from the query; this value
       // may differ from the number of filtered results after processing plugins have been run.
@@ -211,11 +272,10 @@ QueryResponse query(
       queryResponse = processPostQueryAccessPlugins(queryResponse);
       queryResponse = processPostQueryPlugins(queryResponse);
 
+      return scope.complete(queryResponse);
     } catch (RuntimeException re) {
       throw new UnsupportedQueryException("Exception during runtime while performing query", re);
     }
-
-    return queryResponse;
   }
 
   /**
@@ -271,10 +331,31 @@ QueryResponse doQuery(QueryRequest queryRequest, FederationStrategy strategy)
     }
 
     QueryResponse response = strategy.federate(querySources.sourcesToQuery, queryRequest);
+    recordSourceTimes(querySources.sourcesToQuery, response);
     frameworkProperties.getQueryResponsePostProcessor().processResponse(response);
     return addProcessingDetails(querySources.exceptions, response);
   }
 
+  /**
+   * Records the time each source took to respond, as reported by the federation strategy in the
+   * properties of the response. Sources still running when the strategy returned are not recorded.
+   */
+  private void recordSourceTimes(List<Source> sources, QueryResponse response) {
+    for (Source source : sources) {
+      Serializable sourceProperties = response.getProperties().get(source.getId());
+      if (sourceProperties instanceof Map) {
+        Object elapsedTime = ((Map<?, ?>) sourceProperties).get(QueryResponse.ELAPSED_TIME);
+        if (elapsedTime instanceof Long) {
+          operationTimings.recordNanos(
+              OperationTimings.QUERY,
+              OperationTimings.SOURCE_STAGE,
+              source.getId(),
+              TimeUnit.MILLISECONDS.toNanos((Long) elapsedTime));
+        }
+      }
+    }
+  }
+
   <T extends Request> T setFlagsOnRequest(T request) {
     if (request != null) {
       Set<String> ids = getCombinedIdSet(request);
@@ -390,62 +471,177 @@ boolean includesLocalSources(Set<String> sourceIds) {
 
   private QueryResponse processPostQueryPlugins(QueryResponse queryResponse)
       throws FederationException {
-    for (PostQueryPlugin service : frameworkProperties.getPostQuery()) {
-      try {
-        queryResponse = service.process(queryResponse);
-      } catch (PluginExecutionException see) {
-        LOGGER.debug("Error executing PostQueryPlugin: {}", see.getMessage(), see);
-      } catch (StopProcessingException e) {
-        throw new FederationException("Query could not be executed.", e);
-      }
+    try {
+      return processPostQueryPlugins(
+          OperationTimings.POST_STAGE,
+          frameworkProperties.getPostQuery(),
+          queryResponse,
+          (plugin, response) -> {
+            try {
+              return plugin.process(response);
+            } catch (PluginExecutionException see) {
+              LOGGER.debug("Error executing PostQueryPlugin: {}", see.getMessage(), see);
+              return response;
+            }
+          });
+    } catch (StopProcessingException e) {
+      throw new FederationException("Query could not be executed.", e);
     }
-    return queryResponse;
   }
 
   private QueryResponse processPostQueryAccessPlugins(QueryResponse queryResponse)
       throws FederationException {
-    for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      try {
-        queryResponse = plugin.processPostQuery(queryResponse);
-      } catch (StopProcessingException e) {
-        throw new FederationException("Query could not be executed.", e);
+    try {
+      return processPostQueryPlugins(
+          OperationTimings.SECURITY_STAGE,
+          frameworkProperties.getAccessPlugins(),
+          queryResponse,
+          AccessPlugin::processPostQuery);
+    } catch (StopProcessingException e) {
+      throw new FederationException("Query could not be executed.", e);
+    }
+  }
+
+  /**
+   * Runs the plugins one after the other. Consecutive {@link PerResultPlugin}s are run together on
+   * chunks of the results in parallel, if enabled, and the processed chunks are put back together
+   * in their original order before each of these plugins is told the response was processed in
+   * parts.
+   */
+  private <T> QueryResponse processPostQueryPlugins(
+      String stage, List<T> plugins, QueryResponse queryResponse, ResponsePlugin<T> responsePlugin)
+      throws StopProcessingException {
+    ParallelResultProcessor processor = resultProcessor;
+    List<T> remainingPlugins = new ArrayList<>(plugins);
+    while (!remainingPlugins.isEmpty()) {
+      int stageSize = 0;
+      if (processor != null && processor.isWorthSplitting(queryResponse.getResults())) {
+        while (stageSize < remainingPlugins.size()
+            && remainingPlugins.get(stageSize) instanceof PerResultPlugin) {
+          stageSize++;
+        }
       }
+
+      if (stageSize == 0) {
+        queryResponse =
+            processPlugin(stage, remainingPlugins.remove(0), queryResponse, responsePlugin);
+      } else {
+        List<T> chunkedPlugins = remainingPlugins.subList(0, stageSize);
+        queryResponse =
+            processInChunks(stage, processor, chunkedPlugins, queryResponse, responsePlugin);
+        chunkedPlugins.clear();
+      }
+    }
+    return queryResponse;
+  }
+
+  private <T> QueryResponse processPlugin(
+      String stage, T plugin, QueryResponse queryResponse, ResponsePlugin<T> responsePlugin)
+      throws StopProcessingException {
+    long start = System.nanoTime();
+    try {
+      return responsePlugin.process(plugin, queryResponse);
+    } finally {
+      operationTimings.record(OperationTimings.QUERY, stage, plugin, start);
+    }
+  }
+
+  private <T> QueryResponse processInChunks(
+      String stage,
+      ParallelResultProcessor processor,
+      List<T> plugins,
+      QueryResponse queryResponse,
+      ResponsePlugin<T> responsePlugin)
+      throws StopProcessingException {
+    List<QueryResponse> processedChunks =
+        processor.process(
+            queryResponse.getResults(),
+            chunk -> {
+              Map<String, Serializable> chunkProperties =
+                  new HashMap<>(queryResponse.getProperties());
+              chunkProperties.put(PerResultPlugin.RESPONSE_PART, true);
+              QueryResponse chunkResponse =
+                  new QueryResponseImpl(
+                      queryResponse.getRequest(),
+                      chunk,
+                      true,
+                      queryResponse.getHits(),
+                      chunkProperties);
+              for (T plugin : plugins) {
+                chunkResponse = processPlugin(stage, plugin, chunkResponse, responsePlugin);
+              }
+              return chunkResponse;
+            });
+
+    List<Result> results = queryResponse.getResults();
+    results.clear();
+    processedChunks.forEach(chunkResponse -> results.addAll(chunkResponse.getResults()));
+    for (T plugin : plugins) {
+      ((PerResultPlugin) plugin).processedInParts(processedChunks, queryResponse);
     }
     return queryResponse;
   }
 
   private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse)
       throws FederationException {
-    HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryResponse.getProperties());
-    for (Result result : queryResponse.getResults()) {
-      HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
-      for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        try {
-          PolicyResponse policyResponse = plugin.processPostQuery(result, unmodifiableProperties);
-          opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
-          opsSecuritySupport.buildPolicyMap(
-              responsePolicyMap, policyResponse.operationPolicy().entrySet());
-        } catch (StopProcessingException e) {
-          throw new FederationException("Query could not be executed.", e);
+    List<Result> results = queryResponse.getResults();
+    ParallelResultProcessor processor = resultProcessor;
+    HashMap<String, Set<String>> responsePolicyMap;
+    try {
+      if (processor != null && processor.isWorthSplitting(results)) {
+        // Policy plugins are given one result at a time, so the chunks can always be processed in
+        // parallel
+        responsePolicyMap = new HashMap<>();
+        List<HashMap<String, Set<String>>> chunkPolicyMaps =
+            processor.process(
+                results, chunk -> populateResultPolicyMaps(chunk, unmodifiableProperties));
+        for (HashMap<String, Set<String>> chunkPolicyMap : chunkPolicyMaps) {
+          opsSecuritySupport.buildPolicyMap(responsePolicyMap, chunkPolicyMap.entrySet());
         }
+      } else {
+        responsePolicyMap = populateResultPolicyMaps(results, unmodifiableProperties);
       }
-      result.getMetacard().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
+    } catch (StopProcessingException e) {
+      throw new FederationException("Query could not be executed.", e);
     }
     queryResponse.getProperties().put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
 
     return queryResponse;
   }
 
+  private HashMap<String, Set<String>> populateResultPolicyMaps(
+      List<Result> results, Map<String, Serializable> unmodifiableProperties)
+      throws StopProcessingException {
+    HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
+    for (Result result : results) {
+      HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
+      for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+        long start = System.nanoTime();
+        PolicyResponse policyResponse = plugin.processPostQuery(result, unmodifiableProperties);
+        operationTimings.record(
+            OperationTimings.QUERY, OperationTimings.SECURITY_STAGE, plugin, start);
+        opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
+        opsSecuritySupport.buildPolicyMap(
+            responsePolicyMap, policyResponse.operationPolicy().entrySet());
+      }
+      result.getMetacard().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
+    }
+    return responsePolicyMap;
+  }
+
   private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws FederationException {
     for (PreQueryPlugin service : frameworkProperties.getPreQuery()) {
+      long start = System.nanoTime();
       try {
         queryReq = service.process(queryReq);
       } catch (PluginExecutionException see) {
         LOGGER.debug("Error executing PreQueryPlugin: {}", see.getMessage(), see);
       } catch (StopProcessingException e) {
         throw new FederationException("Query could not be executed.", e);
+      } finally {
+        operationTimings.record(OperationTimings.QUERY, OperationTimings.PRE_STAGE, service, start);
       }
     }
     return queryReq;
@@ -454,10 +650,14 @@ private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws Federa
   private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
       throws FederationException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       try {
         queryReq = plugin.processPreQuery(queryReq);
       } catch (StopProcessingException e) {
         throw new FederationException("Query could not be executed.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.QUERY, OperationTimings.SECURITY_STAGE, plugin, start);
       }
     }
     return queryReq;
@@ -466,10 +666,14 @@ private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
   private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest)
       throws FederationException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       try {
         queryRequest = plugin.processPreQuery(queryRequest);
       } catch (StopProcessingException e) {
         throw new FederationException("Query could not be executed.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.QUERY, OperationTimings.SECURITY_STAGE, plugin, start);
       }
     }
     return queryRequest;
@@ -478,10 +682,14 @@ private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest
   private QueryResponse postProcessPreAuthorizationPlugins(QueryResponse queryResponse)
       throws FederationException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       try {
         queryResponse = plugin.processPostQuery(queryResponse);
       } catch (StopProcessingException e) {
         throw new FederationException("Query could not be executed.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.QUERY, OperationTimings.SECURITY_STAGE, plugin, start);
       }
     }
     return queryResponse;
@@ -493,6 +701,7 @@ private QueryRequest populateQueryRequestPolicyMap(QueryRequest queryReq)
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryReq.getProperties());
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      long start = System.nanoTime();
       try {
         PolicyResponse policyResponse =
             plugin.processPreQuery(queryReq.getQuery(), unmodifiableProperties);
@@ -500,6 +709,9 @@ private QueryRequest populateQueryRequestPolicyMap(QueryRequest queryReq)
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
       } catch (StopProcessingException e) {
         throw new FederationException("Query could not be executed.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.QUERY, OperationTimings.SECURITY_STAGE, plugin, start);
       }
     }
     queryReq.getProperties().put(PolicyPlugin.OPERATION_SECURITY, requestPolicyMap);
@@ -732,6 +944,12 @@ private Filter getFilterWithValidationFilter() {
         builder.attribute(Validation.VALIDATION_WARNINGS).empty());
   }
 
+  /** Runs a single access or post-query plugin on a query response. */
+  @FunctionalInterface
+  private interface ResponsePlugin<T> {
+    QueryResponse process(T plugin, QueryResponse queryResponse) throws StopProcessingException;
+  }
+
   static class QuerySources {
     private final FrameworkProperties frameworkProperties;
 
@@ -87,6 +87,8 @@ public class ResourceOperations extends DescribableImpl {
 
   private final OperationsSecuritySupport opsSecuritySupport;
 
+  private OperationTimings operationTimings = new OperationTimings();
+
   public ResourceOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -100,6 +102,10 @@ public ResourceOperations(
     setOrganization(SystemInfo.getOrganization());
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
   //
   // Delegate methods
   //
@@ -294,6 +300,19 @@ ResourceResponse getResource(
       String resourceSiteName,
       boolean fanoutEnabled)
       throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.RESOURCE, resourceRequest)) {
+      return scope.complete(
+          doGetResource(resourceRequest, isEnterprise, resourceSiteName, fanoutEnabled));
+    }
+  }
+
+  private ResourceResponse doGetResource(
+      ResourceRequest resourceRequest,
+      boolean isEnterprise,
+      String resourceSiteName,
+      boolean fanoutEnabled)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
     ResourceResponse resourceResponse = null;
     ResourceRequest resourceReq = resourceRequest;
     String resourceSourceName = resourceSiteName;
@@ -382,11 +401,18 @@ ResourceResponse getResource(
                 frameworkProperties.getResourceReaders(), responseURI, metacard, requestProperties);
       }
 
+      long downloadStart = System.nanoTime();
       try {
         resourceResponse =
             frameworkProperties.getDownloadManager().download(resourceRequest, metacard, retriever);
       } catch (DownloadException e) {
         LOGGER.info("Unable to download resource", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.RESOURCE,
+            OperationTimings.SOURCE_STAGE,
+            resourceSourceName,
+            downloadStart);
       }
 
       resourceResponse = putPropertiesInResponse(resourceRequest, resourceResponse);
@@ -429,10 +455,14 @@ private ResourceResponse putPropertiesInResponse(
   private ResourceResponse processPostResourcePlugins(ResourceResponse resourceResponse)
       throws StopProcessingException {
     for (PostResourcePlugin plugin : frameworkProperties.getPostResource()) {
+      long start = System.nanoTime();
       try {
         resourceResponse = plugin.process(resourceResponse);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.RESOURCE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return resourceResponse;
@@ -441,7 +471,10 @@ private ResourceResponse processPostResourcePlugins(ResourceResponse resourceRes
   private ResourceResponse processPostResourceAccessPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return resourceResponse;
   }
@@ -450,7 +483,10 @@ private ResourceResponse processPostResourcePolicyPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      long start = System.nanoTime();
       PolicyResponse policyResponse = plugin.processPostResource(resourceResponse, metacard);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
       opsSecuritySupport.buildPolicyMap(
           responsePolicyMap, policyResponse.operationPolicy().entrySet());
     }
@@ -461,6 +497,7 @@ private ResourceResponse processPostResourcePolicyPlugins(
   private ResourceRequest processPreResourcePlugins(ResourceRequest resourceReq)
       throws StopProcessingException {
     for (PreResourcePlugin plugin : frameworkProperties.getPreResource()) {
+      long start = System.nanoTime();
       try {
         ResourceRequest processed = plugin.process(resourceReq);
         if (processed != null) {
@@ -468,6 +505,9 @@ private ResourceRequest processPreResourcePlugins(ResourceRequest resourceReq)
         }
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.RESOURCE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return resourceReq;
@@ -476,7 +516,10 @@ private ResourceRequest processPreResourcePlugins(ResourceRequest resourceReq)
   private ResourceRequest processPreResourceAccessPlugins(ResourceRequest resourceReq)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       resourceReq = plugin.processPreResource(resourceReq);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return resourceReq;
   }
@@ -485,7 +528,10 @@ private ResourceRequest processPreResourcePolicyPlugins(ResourceRequest resource
       throws StopProcessingException {
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      long start = System.nanoTime();
       PolicyResponse policyResponse = plugin.processPreResource(resourceReq);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
       opsSecuritySupport.buildPolicyMap(
           requestPolicyMap, policyResponse.operationPolicy().entrySet());
     }
@@ -496,7 +542,10 @@ private ResourceRequest processPreResourcePolicyPlugins(ResourceRequest resource
   private ResourceRequest preProcessPreAuthorizationPlugins(ResourceRequest resourceRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       resourceRequest = plugin.processPreResource(resourceRequest);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return resourceRequest;
   }
@@ -504,7 +553,10 @@ private ResourceRequest preProcessPreAuthorizationPlugins(ResourceRequest resour
   private ResourceResponse postProcessPreAuthorizationPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      operationTimings.record(
+          OperationTimings.RESOURCE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return resourceResponse;
   }
@@ -36,10 +36,16 @@
 public class TransformOperations {
   private FrameworkProperties frameworkProperties;
 
+  private OperationTimings operationTimings = new OperationTimings();
+
   public TransformOperations(FrameworkProperties frameworkProperties) {
     this.frameworkProperties = frameworkProperties;
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
   //
   // Delegate methods
   //
@@ -79,7 +85,13 @@ public BinaryContent transform(
 
     MetacardTransformer transformer =
         (MetacardTransformer) frameworkProperties.getBundleContext().getService(refs[0]);
-    return transformer.transform(metacard, requestProperties);
+    long start = System.nanoTime();
+    try {
+      return transformer.transform(metacard, requestProperties);
+    } finally {
+      operationTimings.record(
+          OperationTimings.TRANSFORM, OperationTimings.TRANSFORM_STAGE, transformer, start);
+    }
   }
 
   public BinaryContent transform(
@@ -117,7 +129,13 @@ public BinaryContent transform(
     } else {
       QueryResponseTransformer transformer =
           (QueryResponseTransformer) frameworkProperties.getBundleContext().getService(refs[0]);
-      return transformer.transform(response, requestProperties);
+      long start = System.nanoTime();
+      try {
+        return transformer.transform(response, requestProperties);
+      } finally {
+        operationTimings.record(
+            OperationTimings.TRANSFORM, OperationTimings.TRANSFORM_STAGE, transformer, start);
+      }
     }
   }
 }
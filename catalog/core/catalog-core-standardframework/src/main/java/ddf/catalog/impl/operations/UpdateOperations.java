@@ -110,6 +110,8 @@ public class UpdateOperations {
 
   private Historian historian;
 
+  private OperationTimings operationTimings = new OperationTimings();
+
   public UpdateOperations(
       FrameworkProperties frameworkProperties,
       QueryOperations queryOperations,
@@ -131,14 +133,29 @@ public void setHistorian(Historian historian) {
     this.historian = historian;
   }
 
+  public void setOperationTimings(OperationTimings operationTimings) {
+    this.operationTimings = operationTimings;
+  }
+
   //
   // Delegate methods
   //
   public UpdateResponse update(UpdateRequest updateRequest)
       throws IngestException, SourceUnavailableException {
-    UpdateResponse updateResponse = doUpdate(updateRequest);
-    updateResponse = doPostIngest(updateResponse);
-    return updateResponse;
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.UPDATE, updateRequest)) {
+      UpdateResponse updateResponse = doUpdate(updateRequest);
+      updateResponse = doPostIngest(updateResponse);
+      return scope.complete(updateResponse);
+    }
+  }
+
+  public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
+      throws IngestException, SourceUnavailableException {
+    try (OperationTimings.Scope scope =
+        operationTimings.open(OperationTimings.UPDATE, streamUpdateRequest)) {
+      return scope.complete(doUpdate(streamUpdateRequest));
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -152,7 +169,7 @@ private Map<String, Metacard> getUpdateMap(UpdateRequest updateRequest) {
             .orElseGet(HashMap::new);
   }
 
-  public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
+  private UpdateResponse doUpdate(UpdateStorageRequest streamUpdateRequest)
       throws IngestException, SourceUnavailableException {
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamUpdateRequest.getContentItems().size());
@@ -181,11 +198,18 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
                 contentItems, streamUpdateRequest.getId(), streamUpdateRequest.getProperties());
         updateStorageRequest = processPreUpdateStoragePlugins(updateStorageRequest);
 
+        long storageStart = System.nanoTime();
         try {
           updateStorageResponse = sourceOperations.getStorage().update(updateStorageRequest);
           updateStorageResponse.getProperties().put(CONTENT_PATHS, tmpContentPaths);
         } catch (StorageException e) {
           throw new IngestException("Could not store content items. Removed created metacards.", e);
+        } finally {
+          operationTimings.record(
+              OperationTimings.UPDATE,
+              OperationTimings.SOURCE_STAGE,
+              sourceOperations.getStorage(),
+              storageStart);
         }
 
         updateStorageResponse = processPostUpdateStoragePlugins(updateStorageResponse);
@@ -434,7 +458,10 @@ private UpdateResponse doRemoteUpdate(UpdateRequest updateRequest) {
           exceptions.add(
               new ProcessingDetailsImpl(store.getId(), null, "CatalogStore is not available"));
         } else {
+          long start = System.nanoTime();
           UpdateResponse response = store.update(updateRequest);
+          operationTimings.record(
+              OperationTimings.UPDATE, OperationTimings.SOURCE_STAGE, store.getId(), start);
           properties.put(store.getId(), new ArrayList<>(response.getUpdatedMetacards()));
           updates = response.getUpdatedMetacards();
         }
@@ -481,10 +508,14 @@ private UpdateResponse validateFixUpdateResponse(
 
   private UpdateResponse processPostIngestPlugins(UpdateResponse updateResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      long start = System.nanoTime();
       try {
         updateResponse = plugin.process(updateResponse);
       } catch (PluginExecutionException e) {
         LOGGER.info("Plugin exception", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.UPDATE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return updateResponse;
@@ -511,7 +542,13 @@ private UpdateResponse performLocalUpdate(UpdateRequest updateRequest)
       return null;
     }
 
+    long start = System.nanoTime();
     UpdateResponse updateResponse = sourceOperations.getCatalog().update(updateRequest);
+    operationTimings.record(
+        OperationTimings.UPDATE,
+        OperationTimings.SOURCE_STAGE,
+        sourceOperations.getCatalog().getId(),
+        start);
     updateResponse = historian.version(updateResponse);
     return updateResponse;
   }
@@ -519,10 +556,13 @@ private UpdateResponse performLocalUpdate(UpdateRequest updateRequest)
   private UpdateRequest processPreIngestPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      long start = System.nanoTime();
       try {
         updateRequest = plugin.process(updateRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug("error processing update in PreIngestPlugin", e);
+      } finally {
+        operationTimings.record(OperationTimings.UPDATE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return updateRequest;
@@ -532,7 +572,10 @@ private UpdateRequest processPreUpdateAccessPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      long start = System.nanoTime();
       updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      operationTimings.record(
+          OperationTimings.UPDATE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return updateRequest;
   }
@@ -547,12 +590,15 @@ private UpdateRequest populateUpdateRequestPolicyMap(UpdateRequest updateRequest
       Metacard oldMetacard = metacardMap.get(update.getKey().toString());
 
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+        long start = System.nanoTime();
         PolicyResponse updatePolicyResponse =
             plugin.processPreUpdate(
                 update.getValue(), Collections.unmodifiableMap(updateRequest.getProperties()));
         PolicyResponse oldPolicyResponse =
             plugin.processPreUpdate(
                 oldMetacard, Collections.unmodifiableMap(updateRequest.getProperties()));
+        operationTimings.record(
+            OperationTimings.UPDATE, OperationTimings.SECURITY_STAGE, plugin, start);
 
         opsSecuritySupport.buildPolicyMap(
             itemPolicyMap, updatePolicyResponse.itemPolicy().entrySet());
@@ -614,7 +660,10 @@ private UpdateRequest processPreAuthorizationPlugins(UpdateRequest updateRequest
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      long start = System.nanoTime();
       updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      operationTimings.record(
+          OperationTimings.UPDATE, OperationTimings.SECURITY_STAGE, plugin, start);
     }
     return updateRequest;
   }
@@ -662,10 +711,14 @@ private UpdateRequest validateLocalSource(UpdateRequest updateRequest)
   private UpdateStorageResponse processPostUpdateStoragePlugins(
       UpdateStorageResponse updateStorageResponse) {
     for (final PostUpdateStoragePlugin plugin : frameworkProperties.getPostUpdateStoragePlugins()) {
+      long start = System.nanoTime();
       try {
         updateStorageResponse = plugin.process(updateStorageResponse);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(
+            OperationTimings.UPDATE, OperationTimings.POST_STAGE, plugin, start);
       }
     }
     return updateStorageResponse;
@@ -674,10 +727,13 @@ private UpdateStorageResponse processPostUpdateStoragePlugins(
   private UpdateStorageRequest processPreUpdateStoragePlugins(
       UpdateStorageRequest updateStorageRequest) {
     for (final PreUpdateStoragePlugin plugin : frameworkProperties.getPreUpdateStoragePlugins()) {
+      long start = System.nanoTime();
       try {
         updateStorageRequest = plugin.process(updateStorageRequest);
       } catch (PluginExecutionException e) {
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        operationTimings.record(OperationTimings.UPDATE, OperationTimings.PRE_STAGE, plugin, start);
       }
     }
     return updateStorageRequest;
@@ -0,0 +1,379 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.resource.download;
+
+import com.google.common.io.CountingOutputStream;
+import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.catalog.resource.download.ReliableResourceStatus.DownloadStatus;
+import ddf.catalog.resourceretriever.ResourceRetriever;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RangedResourceCallable downloads a product of known size as several byte ranges at the same time.
+ * The first range is read from the product @InputStream that is already open, and each of the
+ * other ranges is read from a new @InputStream retrieved with the @ResourceRetriever, skipping
+ * forward to the start of the range and bounded to its length when the source supports it. Every
+ * range is written at its own position in the cache file, and its @InputStream is closed once the
+ * range is read. The last range is read until the EOF, so that a product larger than its expected
+ * size is not cached truncated.
+ *
+ * <p>The client's @FileBackedOutputStream is fed from the cache file with {@link
+ * FileChannel#transferTo} as the bytes at the start of the file become contiguous, so the bytes
+ * read reported by this @Callable are the bytes handed to the client. If a range cannot be read or
+ * written, the download stops with the matching @DownloadStatus and the @ReliableResourceDownloader
+ * retries sequentially from that count, exactly as it does for a @ReliableResourceCallable.
+ */
+class RangedResourceCallable extends ReliableResourceCallable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RangedResourceCallable.class);
+
+  private static final long WAIT_FOR_RANGES_MS = 100;
+
+  private final InputStream input;
+
+  private final CountingOutputStream countingFbos;
+
+  private final FileChannel cacheChannel;
+
+  private final ResourceRetriever retriever;
+
+  private final long resourceSize;
+
+  private final int chunkSize;
+
+  private final Object lock;
+
+  private final Object progress = new Object();
+
+  private final List<Range> ranges;
+
+  private final ExecutorService rangeExecutor;
+
+  private final Runnable firstRangeTask;
+
+  private volatile boolean stopped = false;
+
+  private volatile boolean endVerified = false;
+
+  private volatile DownloadStatus failure;
+
+  /**
+   * @param input the product @InputStream, positioned at the start of the product. It is closed
+   *     once the first range is read.
+   * @param countingFbos the FileBackedOutputStream read by the client, number of bytes written to
+   *     it are counted
+   * @param cacheChannel the cache file, opened for reading and writing. It is closed when the
+   *     download ends.
+   * @param retriever the @ResourceRetriever used to open the product at the start of each range
+   * @param resourceSize the size of the product, in bytes
+   * @param rangeCount the number of ranges to download at the same time
+   * @param chunkSize the number of bytes to read from a range's @InputStream per chunk
+   */
+  RangedResourceCallable(
+      InputStream input,
+      CountingOutputStream countingFbos,
+      FileChannel cacheChannel,
+      ResourceRetriever retriever,
+      long resourceSize,
+      int rangeCount,
+      int chunkSize,
+      Object lock) {
+    super(input, countingFbos, null, chunkSize, lock);
+    this.input = input;
+    this.countingFbos = countingFbos;
+    this.cacheChannel = cacheChannel;
+    this.retriever = retriever;
+    this.resourceSize = resourceSize;
+    this.chunkSize = chunkSize;
+    this.lock = lock;
+
+    long rangeSize = (resourceSize + rangeCount - 1) / rangeCount;
+    this.ranges = new ArrayList<>(rangeCount);
+    for (long start = 0; start < resourceSize; start += rangeSize) {
+      ranges.add(new Range(start, Math.min(resourceSize, start + rangeSize)));
+    }
+
+    this.rangeExecutor =
+        Executors.newFixedThreadPool(
+            ranges.size(),
+            StandardThreadFactoryBuilder.newThreadFactory("reliableResourceRangeThread"));
+    this.firstRangeTask =
+        () -> {
+          try {
+            copyRange(input, ranges.get(0));
+          } finally {
+            IOUtils.closeQuietly(input);
+          }
+        };
+  }
+
+  @Override
+  public void setInterruptDownload(boolean interruptDownload) {
+    super.setInterruptDownload(interruptDownload);
+    stop();
+  }
+
+  @Override
+  public void setCancelDownload(boolean cancelDownload) {
+    super.setCancelDownload(cancelDownload);
+    stop();
+  }
+
+  @Override
+  public ReliableResourceStatus call() {
+    LOGGER.debug("Downloading {} bytes in {} ranges", resourceSize, ranges.size());
+
+    rangeExecutor.execute(firstRangeTask);
+    for (Range range : ranges.subList(1, ranges.size())) {
+      rangeExecutor.execute(() -> fetchRange(range));
+    }
+
+    WritableByteChannel clientChannel = Channels.newChannel(countingFbos);
+    try {
+      // The contiguous bytes are handed to the client even after a range fails, so that the retry
+      // attempt skips as many bytes as possible
+      while (serveClient(clientChannel)
+          && (bytesRead.get() < resourceSize || !endVerified)
+          && failure == null) {
+        waitForRanges();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug("Interrupted while waiting for product ranges");
+      Thread.currentThread().interrupt();
+      return reliableResourceStatus;
+    } finally {
+      shutdownRanges();
+      IOUtils.closeQuietly(cacheChannel);
+    }
+
+    if (failure != null) {
+      reliableResourceStatus = new ReliableResourceStatus(failure, bytesRead.get());
+    } else if (!stopped && endVerified && bytesRead.get() == resourceSize) {
+      LOGGER.debug("Entire file downloaded successfully");
+      reliableResourceStatus =
+          new ReliableResourceStatus(DownloadStatus.RESOURCE_DOWNLOAD_COMPLETE, bytesRead.get());
+      reliableResourceStatus.setMessage("Download completed successfully");
+    }
+
+    return reliableResourceStatus;
+  }
+
+  private void fetchRange(Range range) {
+    InputStream rangeInput;
+    try {
+      // The last range is not bounded since it is read until the EOF
+      ResourceResponse rangeResponse =
+          range.end == resourceSize
+              ? retriever.retrieveResource(range.start)
+              : retriever.retrieveResource(range.start, range.end - range.start);
+      rangeInput = rangeResponse.getResource().getInputStream();
+    } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
+      LOGGER.info("Unable to retrieve product starting at byte {}", range.start, e);
+      fail(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION);
+      return;
+    }
+
+    // Closing releases the connection. CXF's DelegatingInputStream does a consume() as part of its
+    // close() operation, which reads whatever the source returned beyond a bounded range.
+    try {
+      copyRange(rangeInput, range);
+    } finally {
+      IOUtils.closeQuietly(rangeInput);
+    }
+  }
+
+  private void copyRange(InputStream rangeInput, Range range) {
+    byte[] buffer = new byte[chunkSize];
+
+    while (!stopped && range.remaining() > 0) {
+      int n;
+      try {
+        n = rangeInput.read(buffer, 0, (int) Math.min(buffer.length, range.remaining()));
+      } catch (IOException e) {
+        if (!stopped) {
+          LOGGER.info("IOException during read of product range starting at {}", range.start, e);
+        }
+        fail(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION);
+        return;
+      }
+
+      if (n < 0) {
+        LOGGER.info("Product ended before byte {} of range starting at {}", range.end, range.start);
+        fail(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION);
+        return;
+      }
+
+      try {
+        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, n);
+        long position = range.start + range.done.get();
+        while (chunk.hasRemaining()) {
+          position += cacheChannel.write(chunk, position);
+        }
+      } catch (IOException e) {
+        if (!stopped) {
+          LOGGER.info("IOException during write to cached file", e);
+        }
+        fail(DownloadStatus.CACHED_FILE_OUTPUT_STREAM_EXCEPTION);
+        return;
+      }
+
+      range.done.addAndGet(n);
+      signalProgress();
+    }
+
+    if (!stopped && failure == null && range.end == resourceSize) {
+      verifyEnd(rangeInput);
+    }
+  }
+
+  /**
+   * Checks that the product ends where the last range does. A product that is larger than its
+   * expected size is downloaded sequentially from the end of the last range instead.
+   */
+  private void verifyEnd(InputStream rangeInput) {
+    try {
+      if (rangeInput.read() < 0) {
+        endVerified = true;
+        signalProgress();
+      } else {
+        LOGGER.info(
+            "Product is larger than {} bytes - downloading the rest sequentially", resourceSize);
+        fail(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION);
+      }
+    } catch (IOException e) {
+      if (!stopped) {
+        LOGGER.info("IOException while checking the end of the product", e);
+      }
+      fail(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION);
+    }
+  }
+
+  /**
+   * Hands the bytes that are contiguous from the start of the cache file, and have not been handed
+   * to the client yet, to the client's @FileBackedOutputStream.
+   *
+   * @return false if the download should stop
+   */
+  private boolean serveClient(WritableByteChannel clientChannel) {
+    long contiguousBytes = getContiguousBytes();
+
+    // Synchronized so that the Callable is not shutdown while in the middle of writing to the
+    // FileBackedOutputStream, which would leave bytesRead out of sync with it
+    synchronized (lock) {
+      if (stopped || Thread.currentThread().isInterrupted()) {
+        return false;
+      }
+
+      try {
+        while (bytesRead.get() < contiguousBytes) {
+          long position = bytesRead.get();
+          bytesRead.addAndGet(
+              cacheChannel.transferTo(position, contiguousBytes - position, clientChannel));
+        }
+        countingFbos.flush();
+      } catch (IOException e) {
+        if (!stopped) {
+          LOGGER.info("IOException during write to FileBackedOutputStream for client to read", e);
+          fail(DownloadStatus.CLIENT_OUTPUT_STREAM_EXCEPTION);
+        }
+        return false;
+      }
+    }
+
+    LOGGER.trace("bytesRead = {}", bytesRead.get());
+    return true;
+  }
+
+  private long getContiguousBytes() {
+    long contiguousBytes = 0;
+    for (Range range : ranges) {
+      contiguousBytes = range.start + range.done.get();
+      if (range.remaining() > 0) {
+        break;
+      }
+    }
+    return contiguousBytes;
+  }
+
+  private void waitForRanges() throws InterruptedException {
+    synchronized (progress) {
+      if (!stopped && failure == null && getContiguousBytes() == bytesRead.get()) {
+        progress.wait(WAIT_FOR_RANGES_MS);
+      }
+    }
+  }
+
+  private void signalProgress() {
+    synchronized (progress) {
+      progress.notifyAll();
+    }
+  }
+
+  private void fail(DownloadStatus status) {
+    if (!stopped && failure == null) {
+      failure = status;
+    }
+    signalProgress();
+  }
+
+  private void stop() {
+    stopped = true;
+    shutdownRanges();
+    signalProgress();
+  }
+
+  /**
+   * Stops the ranges, closing the product @InputStream if the first range has not started to read
+   * it yet.
+   */
+  private void shutdownRanges() {
+    if (rangeExecutor.shutdownNow().contains(firstRangeTask)) {
+      IOUtils.closeQuietly(input);
+    }
+  }
+
+  private static class Range {
+
+    private final long start;
+
+    private final long end;
+
+    private final AtomicLong done = new AtomicLong(0);
+
+    Range(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    long remaining() {
+      return end - start - done.get();
+    }
+  }
+}
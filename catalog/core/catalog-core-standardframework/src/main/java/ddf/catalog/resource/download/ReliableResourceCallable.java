@@ -57,9 +57,9 @@ public class ReliableResourceCallable implements Callable<ReliableResourceStatus
    * Since this long is read by a different thread needs to be AtomicLong to make setting its value
    * thread-safe.
    */
-  private AtomicLong bytesRead = new AtomicLong(0);
+  final AtomicLong bytesRead = new AtomicLong(0);
 
-  private ReliableResourceStatus reliableResourceStatus;
+  ReliableResourceStatus reliableResourceStatus;
 
   private int chunkSize;
 
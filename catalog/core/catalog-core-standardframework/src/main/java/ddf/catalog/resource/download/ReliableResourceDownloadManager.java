@@ -173,6 +173,10 @@ public void setChunkSize(int chunkSize) {
     downloaderConfig.setChunkSize(chunkSize);
   }
 
+  public void setConcurrentRanges(int concurrentRanges) {
+    downloaderConfig.setConcurrentRanges(concurrentRanges);
+  }
+
   public boolean isCacheEnabled() {
     return downloaderConfig.isCacheEnabled();
   }
@@ -16,8 +16,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.io.CountingOutputStream;
 import com.google.common.io.FileBackedOutputStream;
+import ddf.catalog.cache.FileSystemResourceCache;
 import ddf.catalog.cache.impl.CacheKey;
-import ddf.catalog.cache.impl.ResourceCacheImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.event.retrievestatus.DownloadStatusInfo;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
@@ -37,6 +37,9 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Timer;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -48,6 +51,7 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.math.NumberUtils;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -95,7 +99,7 @@ public class ReliableResourceDownloader implements Runnable {
 
   private DownloadsStatusEventListener eventListener;
 
-  private ResourceCacheImpl resourceCache;
+  private FileSystemResourceCache resourceCache;
 
   private DownloadsStatusEventPublisher eventPublisher;
 
@@ -223,9 +227,12 @@ public void run() {
             downloadIdentifier);
 
     try {
-      reliableResourceCallable =
-          new ReliableResourceCallable(
-              resourceInputStream, countingFbos, fos, downloaderConfig.getChunkSize(), lock);
+      reliableResourceCallable = createRangedResourceCallable();
+      if (reliableResourceCallable == null) {
+        reliableResourceCallable =
+            new ReliableResourceCallable(
+                resourceInputStream, countingFbos, fos, downloaderConfig.getChunkSize(), lock);
+      }
       downloadFuture = null;
       ResourceRetrievalMonitor resourceRetrievalMonitor = null;
       this.downloadState.setDownloadState(DownloadManagerState.DownloadState.IN_PROGRESS);
@@ -333,6 +340,9 @@ public void run() {
         } else {
           bytesRead = reliableResourceStatus.getBytesRead();
           LOGGER.debug("Download not complete, only read {} bytes", bytesRead);
+          if (reliableResourceCallable instanceof RangedResourceCallable) {
+            reliableResourceStatus = resumeAfterRangedDownload(reliableResourceStatus);
+          }
           if (fos != null) {
             fos.flush();
           }
@@ -439,7 +449,9 @@ public void run() {
                 "",
                 reliableResourceStatus.getBytesRead(),
                 downloadIdentifier);
-            if (doCaching && downloaderConfig.isCacheWhenCanceled()) {
+            if (doCaching
+                && downloaderConfig.isCacheWhenCanceled()
+                && resourceInputStream != null) {
               LOGGER.debug("Continuing to cache product");
               reliableResourceCallable =
                   new ReliableResourceCallable(
@@ -540,6 +552,97 @@ private ReliableResourceCallable retrieveResource(long bytesRead) {
     return reliableResourceCallable;
   }
 
+  /**
+   * Creates a {@link RangedResourceCallable} that downloads the product into the cache file as
+   * several ranges at the same time, if that is enabled and the product's size is known.
+   *
+   * @return the @RangedResourceCallable, or null if the product should be downloaded sequentially
+   */
+  private ReliableResourceCallable createRangedResourceCallable() {
+    long resourceSize = NumberUtils.toLong(metacard.getResourceSize(), -1L);
+    long rangeCount =
+        Math.min(
+            downloaderConfig.getConcurrentRanges(), resourceSize / downloaderConfig.getChunkSize());
+
+    // Ranges are re-retrieved from the start of the product, so a request that already skips
+    // bytes cannot be split
+    if (!doCaching
+        || rangeCount < 2
+        || resourceResponse.getRequest().containsPropertyName(ResourceRetriever.BYTES_TO_SKIP)) {
+      return null;
+    }
+
+    // The size reported by the source, e.g., from the Content-Length, is more reliable than the
+    // metacard's. The RangedResourceCallable still reads the last range until the EOF.
+    long reportedSize = resourceResponse.getResource().getSize();
+    if (reportedSize > 0 && reportedSize != resourceSize) {
+      LOGGER.debug(
+          "Product size of {} bytes does not match the metacard's {} bytes - product will be downloaded sequentially",
+          reportedSize,
+          resourceSize);
+      return null;
+    }
+
+    try {
+      FileChannel cacheChannel =
+          FileChannel.open(
+              Paths.get(filePath), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      ReliableResourceCallable rangedCallable =
+          new RangedResourceCallable(
+              resourceInputStream,
+              countingFbos,
+              cacheChannel,
+              retriever,
+              resourceSize,
+              (int) rangeCount,
+              downloaderConfig.getChunkSize(),
+              lock);
+
+      // The product InputStream is read and closed by the RangedResourceCallable from now on
+      resourceInputStream = null;
+      return rangedCallable;
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to open cache file {} - product will be downloaded sequentially", filePath);
+      return null;
+    }
+  }
+
+  /**
+   * The {@link RangedResourceCallable} reads ahead of the bytes it hands to the client, so the
+   * sequential download that takes over after it stops has to re-retrieve the product, skipping
+   * the bytes already handed to the client, and write to the cache file from that position.
+   *
+   * @return the status to handle, changed to a product InputStream exception if the product could
+   *     not be re-retrieved for a download that will not re-retrieve it on its own
+   */
+  private ReliableResourceStatus resumeAfterRangedDownload(ReliableResourceStatus status)
+      throws IOException {
+    long bytesRead = status.getBytesRead();
+    if (doCaching) {
+      fos.getChannel().position(bytesRead);
+    }
+
+    DownloadStatus downloadStatus = status.getDownloadStatus();
+    if (DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION.equals(downloadStatus)
+        || DownloadStatus.RESOURCE_DOWNLOAD_INTERRUPTED.equals(downloadStatus)
+        || (DownloadStatus.RESOURCE_DOWNLOAD_CANCELED.equals(downloadStatus)
+            && !downloaderConfig.isCacheWhenCanceled())) {
+      return status;
+    }
+
+    try {
+      LOGGER.debug("Re-retrieving resource after ranged download, skipping {} bytes", bytesRead);
+      resourceInputStream = retriever.retrieveResource(bytesRead).getResource().getInputStream();
+    } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
+      LOGGER.info("Unable to re-retrieve product after ranged download of {}", filePath);
+      if (!DownloadStatus.RESOURCE_DOWNLOAD_CANCELED.equals(downloadStatus)) {
+        return new ReliableResourceStatus(DownloadStatus.PRODUCT_INPUT_STREAM_EXCEPTION, bytesRead);
+      }
+    }
+    return status;
+  }
+
   private void deleteCacheFile(FileOutputStream fos) {
     LOGGER.debug("Deleting partially cached file {}", filePath);
     IOUtils.closeQuietly(fos);
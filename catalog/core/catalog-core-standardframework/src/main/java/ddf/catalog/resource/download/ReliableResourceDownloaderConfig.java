@@ -13,7 +13,7 @@
  */
 package ddf.catalog.resource.download;
 
-import ddf.catalog.cache.impl.ResourceCacheImpl;
+import ddf.catalog.cache.FileSystemResourceCache;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher;
 
@@ -37,7 +37,7 @@ public class ReliableResourceDownloaderConfig {
 
   private boolean cacheWhenCanceled = false;
 
-  private ResourceCacheImpl resourceCache;
+  private FileSystemResourceCache resourceCache;
 
   private DownloadsStatusEventPublisher eventPublisher;
 
@@ -45,6 +45,8 @@ public class ReliableResourceDownloaderConfig {
 
   private int chunkSize = DEFAULT_CHUNK_SIZE;
 
+  private int concurrentRanges = 1;
+
   public int getChunkSize() {
     return chunkSize;
   }
@@ -53,6 +55,20 @@ public void setChunkSize(int chunkSize) {
     this.chunkSize = chunkSize;
   }
 
+  /**
+   * Returns the maximum number of byte ranges of a product that are downloaded at the same time
+   * while it is being cached. Only products whose size is known are split, into ranges of at least
+   * the chunk size, and the source must honor the number of bytes to skip when the product is
+   * retrieved. A value of 1 downloads every product sequentially.
+   */
+  public int getConcurrentRanges() {
+    return concurrentRanges;
+  }
+
+  public void setConcurrentRanges(int concurrentRanges) {
+    this.concurrentRanges = Math.max(1, concurrentRanges);
+  }
+
   public int getMonitorInitialDelayMS() {
     return monitorInitialDelayMS;
   }
@@ -77,11 +93,11 @@ public void setEventPublisher(DownloadsStatusEventPublisher eventPublisher) {
     this.eventPublisher = eventPublisher;
   }
 
-  public ResourceCacheImpl getResourceCache() {
+  public FileSystemResourceCache getResourceCache() {
     return resourceCache;
   }
 
-  public void setResourceCache(ResourceCacheImpl resourceCache) {
+  public void setResourceCache(FileSystemResourceCache resourceCache) {
     this.resourceCache = resourceCache;
   }
 
@@ -62,6 +62,12 @@ public ResourceResponse retrieveResource() throws ResourceNotFoundException {
 
   @Override
   public ResourceResponse retrieveResource(long bytesToSkip) throws ResourceNotFoundException {
+    return retrieveResource(bytesToSkip, 0);
+  }
+
+  @Override
+  public ResourceResponse retrieveResource(long bytesToSkip, long bytesToRead)
+      throws ResourceNotFoundException {
     final String methodName = "retrieveResource";
     LOGGER.trace("ENTERING: {}", methodName);
     ResourceResponse resource = null;
@@ -76,6 +82,10 @@ public ResourceResponse retrieveResource(long bytesToSkip) throws ResourceNotFou
       props.put(BYTES_TO_SKIP, bytesToSkip);
     }
 
+    if (bytesToRead > 0) {
+      props.put(BYTES_TO_READ, bytesToRead);
+    }
+
     URI derivedUri = null;
     Serializable serializable = props.get(ContentItem.QUALIFIER_KEYWORD);
     if (serializable != null && serializable instanceof String) {
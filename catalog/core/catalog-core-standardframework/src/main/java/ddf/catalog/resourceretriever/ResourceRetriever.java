@@ -22,9 +22,25 @@ public interface ResourceRetriever {
 
   static final String BYTES_TO_SKIP = "BytesToSkip";
 
+  static final String BYTES_TO_READ = "BytesToRead";
+
   public ResourceResponse retrieveResource()
       throws ResourceNotFoundException, ResourceNotSupportedException, IOException;
 
   public ResourceResponse retrieveResource(long bytesToSkip)
       throws ResourceNotFoundException, ResourceNotSupportedException, IOException;
+
+  /**
+   * Retrieves the given number of bytes of the resource, starting after the skipped bytes. The
+   * request is bounded when the source supports it, so that the underlying connection can be
+   * released as soon as the bytes are read. Sources that cannot bound the request return the rest
+   * of the resource.
+   *
+   * @param bytesToSkip the number of bytes to skip from the start of the resource
+   * @param bytesToRead the number of bytes to retrieve
+   */
+  default ResourceResponse retrieveResource(long bytesToSkip, long bytesToRead)
+      throws ResourceNotFoundException, ResourceNotSupportedException, IOException {
+    return retrieveResource(bytesToSkip);
+  }
 }
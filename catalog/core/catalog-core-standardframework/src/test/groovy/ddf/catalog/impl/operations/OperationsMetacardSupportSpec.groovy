@@ -14,6 +14,8 @@
 package ddf.catalog.impl.operations
 
 import ddf.catalog.content.data.ContentItem
+import ddf.catalog.content.data.FileBackedContent
+import ddf.catalog.content.plugin.ContentDigester
 import ddf.catalog.data.*
 import ddf.catalog.impl.FrameworkProperties
 import ddf.catalog.source.IngestException
@@ -195,6 +197,47 @@ class OperationsMetacardSupportSpec extends Specification {
         thrown(IngestException)
     }
 
+    def 'test generation of content items computes digests while copying'() {
+        setup:
+        def metacardMap = [:]
+        List<ContentItem> contentItems = []
+        Map<String, Map<String, Path>> contentPaths = [:]
+        frameworkProperties.mimeTypeMapper.guessMimeType(_, _) >> { 'text/plain' }
+        def item = Mock(ContentItem)
+        item.getFilename() >> 'joe.txt'
+        item.getInputStream() >> { new ByteArrayInputStream('hello'.bytes) }
+        item.getId() >> 'item.id'
+        item.getQualifier() >> ''
+        item.getMimeTypeRawData() >> 'application/octet-stream'
+
+        def copied = new ByteArrayOutputStream()
+        def digest = Mock(ContentDigester.Digest) {
+            update(*_) >> { args -> copied.write(args[0], args[1], args[2]) }
+            getValue() >> 'digest-value'
+        }
+        def digester = Mock(ContentDigester) {
+            getDigestName() >> 'test-digest'
+            newDigest() >> digest
+        }
+        opsMetacard.setContentDigesters([digester])
+
+        when:
+        opsMetacard.generateMetacardAndContentItems([item], metacardMap, contentItems, contentPaths)
+        def inputStream = contentItems[0].getInputStream()
+
+        then:
+        copied.toString() == 'hello'
+        inputStream instanceof FileBackedContent
+        ((FileBackedContent) inputStream).getPath() == contentPaths['item.id']['']
+        ((FileBackedContent) inputStream).getDigest('test-digest') == Optional.of('digest-value')
+        !((FileBackedContent) inputStream).getDigest('other-digest').isPresent()
+        inputStream.text == 'hello'
+
+        cleanup:
+        inputStream?.close()
+        contentPaths.values()*.values().flatten().each { Files.deleteIfExists(it) }
+    }
+
     def 'test set default values'() {
         setup:
         def attDescs = (1..4).collect { num ->
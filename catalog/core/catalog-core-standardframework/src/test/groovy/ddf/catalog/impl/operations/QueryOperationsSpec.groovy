@@ -19,6 +19,7 @@ import ddf.catalog.data.ContentType
 import ddf.catalog.data.MetacardType
 import ddf.catalog.data.Result
 import ddf.catalog.data.impl.MetacardImpl
+import ddf.catalog.data.impl.ResultImpl
 import ddf.catalog.federation.FederationException
 import ddf.catalog.federation.FederationStrategy
 import ddf.catalog.filter.FilterAdapter
@@ -30,8 +31,13 @@ import ddf.catalog.operation.Query
 import ddf.catalog.operation.QueryRequest
 import ddf.catalog.operation.QueryResponse
 import ddf.catalog.operation.impl.QueryImpl
+import ddf.catalog.operation.impl.QueryResponseImpl
+import ddf.catalog.plugin.AccessPlugin
+import ddf.catalog.plugin.PerResultPlugin
 import ddf.catalog.plugin.PolicyPlugin
 import ddf.catalog.plugin.PolicyResponse
+import ddf.catalog.plugin.PostQueryPlugin
+import ddf.catalog.plugin.impl.PolicyResponseImpl
 import ddf.catalog.source.CatalogProvider
 import ddf.catalog.source.ConnectedSource
 import ddf.catalog.source.FederatedSource
@@ -41,9 +47,12 @@ import ddf.catalog.util.impl.SourcePollerRunner
 import ddf.security.SecurityConstants
 import ddf.security.Subject
 import org.apache.commons.collections.CollectionUtils
+import org.codehaus.groovy.runtime.ProxyGenerator
 import spock.lang.Shared
 import spock.lang.Specification
 
+import java.util.concurrent.ConcurrentHashMap
+
 class QueryOperationsSpec extends Specification {
     private static final String SOURCE_ID = "test_source"
 
@@ -826,6 +835,93 @@ class QueryOperationsSpec extends Specification {
 
     }
 
+    def 'process results in parallel chunks'() {
+        setup:
+        def parallelQueryOperations = new QueryOperations(frameworkProperties, sourceOperations,
+                new OperationsSecuritySupport(), opsMetacard)
+        parallelQueryOperations.setId(SOURCE_ID)
+        parallelQueryOperations.setPluginChunkSize(10)
+        parallelQueryOperations.setPluginParallelism(4)
+        parallelQueryOperations.setParallelPluginProcessing(true)
+
+        def request = Mock(QueryRequest)
+        def query = Mock(Query)
+        query.getTimeoutMillis() >> { 100 }
+        request.query >> { query }
+        request.getQuery() >> { query }
+        request.getProperties() >> [:]
+        request.getSourceIds() >> { ['fed1', 'fed2'] }
+        sourceOperations.isSourceAvailable(_) >> true
+        opsMetacard.applyInjectors(_, _) >> { metacard, injectors -> metacard }
+
+        def ids = (0..49).collect { String.format('id%02d', it) }
+        def results = ids.collect { new ResultImpl(new MetacardImpl(id: it)) }
+        frameworkProperties.federationStrategy = Mock(FederationStrategy)
+        frameworkProperties.federationStrategy.federate(_, _) >> {
+            new QueryResponseImpl(request, results, true, results.size(), [:])
+        }
+
+        def stages = new ConcurrentHashMap<String, List<String>>()
+        def record = { String id, String stage ->
+            stages.computeIfAbsent(id) { Collections.synchronizedList([]) }.add(stage)
+        }
+
+        def policyPlugin = Mock(PolicyPlugin)
+        policyPlugin.processPreQuery(_, _) >> new PolicyResponseImpl()
+        policyPlugin.processPostQuery(_, _) >> { Result result, Map properties ->
+            record(result.metacard.id, 'policy')
+            new PolicyResponseImpl(['op': ["v-${result.metacard.id}".toString()] as Set], [:])
+        }
+        frameworkProperties.policyPlugins = [policyPlugin]
+
+        def partsProcessed = Collections.synchronizedList([])
+        def perResultPlugin = { String name, Class type, Closure<Boolean> keep ->
+            def process = { QueryResponse response ->
+                response.results.each { record(it.metacard.id, name) }
+                response.results.removeAll { !keep(it.metacard.id) }
+                assert response.getPropertyValue(PerResultPlugin.RESPONSE_PART)
+                response
+            }
+            ProxyGenerator.INSTANCE.instantiateAggregate([
+                    processPreQuery : { it },
+                    processPostQuery: process,
+                    process         : process,
+                    processedInParts: { parts, response -> partsProcessed << [name, parts.size()] }
+            ], [type, PerResultPlugin])
+        }
+        def removed = { String id -> (id.substring(2) as int) % 3 == 0 }
+        frameworkProperties.accessPlugins = [
+                perResultPlugin('access1', AccessPlugin, { !removed(it) }),
+                perResultPlugin('access2', AccessPlugin, { true })]
+
+        def responsePlugin = Mock(PostQueryPlugin)
+        def seenByResponsePlugin
+        responsePlugin.process(_) >> { QueryResponse response ->
+            seenByResponsePlugin = response.results*.metacard*.id
+            response
+        }
+        frameworkProperties.postQuery = [perResultPlugin('post1', PostQueryPlugin, { true }),
+                                         responsePlugin]
+
+        def expectedIds = ids.findAll { !removed(it) }
+
+        when:
+        def response = parallelQueryOperations.query(request, null, false, false)
+
+        then:
+        response.results*.metacard*.id == expectedIds
+        seenByResponsePlugin == expectedIds
+        response.properties[PolicyPlugin.OPERATION_SECURITY] ==
+                ['op': ids.collect { "v-$it".toString() } as Set]
+        ids.findAll { removed(it) }.every { stages[it] == ['policy', 'access1'] }
+        expectedIds.every { stages[it] == ['policy', 'access1', 'access2', 'post1'] }
+        partsProcessed*.get(0) == ['access1', 'access2', 'post1']
+        partsProcessed.every { it[1] > 1 }
+
+        cleanup:
+        parallelQueryOperations.destroy()
+    }
+
     private def mockCatalogProvider(def id) {
         def catProv = Mock(CatalogProvider)
         catProv.getId() >> { return id }
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Calendar;
+import javax.activation.MimeType;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalResourceCacheTest {
+
+  private static final long ONE_MB = FileUtils.ONE_MB;
+
+  private LocalResourceCache resourceCache;
+
+  private File productCacheDirectory;
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  @Before
+  public void setUp() throws IOException {
+    productCacheDirectory = testFolder.newFolder("Product_Cache");
+    resourceCache = new LocalResourceCache(productCacheDirectory.getAbsolutePath());
+  }
+
+  @After
+  public void teardownTest() {
+    resourceCache.teardownCache();
+  }
+
+  @Test
+  public void testPutThenGet() throws Exception {
+    Metacard metacard = generateMetacard("id123");
+    ReliableResource reliableResource = createCachedResource("ddf-1-id123", metacard, 15);
+
+    resourceCache.addPendingCacheEntry(reliableResource);
+    assertTrue(resourceCache.isPending("ddf-1-id123"));
+    resourceCache.put(reliableResource);
+
+    assertFalse(resourceCache.isPending("ddf-1-id123"));
+    assertThat(resourceCache.containsValid("ddf-1-id123", metacard), is(true));
+    Resource resource = resourceCache.getValid("ddf-1-id123", metacard);
+    assertThat(resource, notNullValue());
+    assertThat(resource.getName(), is("ddf-1-id123"));
+    assertThat(resourceCache.getEntryCount(), is(1));
+    assertThat(resourceCache.getCachedBytes(), is(15L));
+    assertThat(resourceCache.getHitCount(), is(1L));
+  }
+
+  @Test
+  public void testGetValidWhenNotInCache() throws Exception {
+    assertThat(resourceCache.getValid("ddf-1-id123", generateMetacard("id123")), nullValue());
+    assertThat(resourceCache.getMissCount(), is(1L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetValidWhenNullKey() {
+    resourceCache.getValid(null, new MetacardImpl());
+  }
+
+  @Test
+  public void testGetValidWhenMetacardChanged() throws Exception {
+    Metacard metacard = generateMetacard("id123");
+    ReliableResource reliableResource = createCachedResource("ddf-1-id123", metacard, 15);
+    resourceCache.put(reliableResource);
+
+    MetacardImpl latestMetacard = generateMetacard("id123");
+    latestMetacard.setAttribute(Metacard.CHECKSUM, "2");
+
+    assertThat(resourceCache.getValid("ddf-1-id123", latestMetacard), nullValue());
+    assertThat(resourceCache.getMissCount(), is(1L));
+    assertThat(resourceCache.getEntryCount(), is(0));
+    assertFalse(new File(reliableResource.getFilePath()).exists());
+  }
+
+  @Test
+  public void testGetValidWhenProductRemoved() throws Exception {
+    Metacard metacard = generateMetacard("id123");
+    ReliableResource reliableResource = createCachedResource("ddf-1-id123", metacard, 15);
+    resourceCache.put(reliableResource);
+    FileUtils.forceDelete(new File(reliableResource.getFilePath()));
+
+    assertThat(resourceCache.getValid("ddf-1-id123", metacard), nullValue());
+    assertThat(resourceCache.getEntryCount(), is(0));
+  }
+
+  /**
+   * Verifies that the products that were retrieved from the cache are kept when products that were
+   * only cached once have to be evicted to make room for a new product.
+   */
+  @Test
+  public void testEvictsProductsNotRetrievedFirst() throws Exception {
+    resourceCache.setCacheDirMaxSizeMegabytes(3);
+    Metacard first = generateMetacard("first");
+    Metacard second = generateMetacard("second");
+    resourceCache.put(createCachedResource("first", first, ONE_MB));
+    resourceCache.put(createCachedResource("second", second, ONE_MB));
+    resourceCache.put(createCachedResource("third", generateMetacard("third"), ONE_MB));
+
+    assertThat(resourceCache.getValid("first", first), notNullValue());
+
+    resourceCache.put(createCachedResource("fourth", generateMetacard("fourth"), ONE_MB));
+
+    assertThat(resourceCache.getValid("first", first), notNullValue());
+    assertThat(resourceCache.getValid("second", second), nullValue());
+    assertFalse(new File(productCacheDirectory, "second").exists());
+    assertThat(resourceCache.getEntryCount(), is(3));
+    assertThat(resourceCache.getCachedBytes(), is(3 * ONE_MB));
+    assertThat(resourceCache.getEvictionCount(), is(1L));
+    assertThat(resourceCache.getEvictedBytes(), is(ONE_MB));
+  }
+
+  /** Verifies that a single product larger than the maximum size is not kept in the cache. */
+  @Test
+  public void testEvictsProductLargerThanMaximum() throws Exception {
+    resourceCache.setCacheDirMaxSizeMegabytes(1);
+    Metacard metacard = generateMetacard("id123");
+    resourceCache.put(createCachedResource("ddf-1-id123", metacard, 2 * ONE_MB));
+
+    assertThat(resourceCache.getValid("ddf-1-id123", metacard), nullValue());
+    assertThat(resourceCache.getCachedBytes(), is(0L));
+  }
+
+  @Test
+  public void testReducingMaximumSizeEvicts() throws Exception {
+    resourceCache.put(createCachedResource("first", generateMetacard("first"), ONE_MB));
+    resourceCache.put(createCachedResource("second", generateMetacard("second"), ONE_MB));
+
+    resourceCache.setCacheDirMaxSizeMegabytes(1);
+
+    assertThat(resourceCache.getEntryCount(), is(1));
+    assertThat(resourceCache.getEvictionCount(), is(1L));
+  }
+
+  /** Verifies that the cache is rebuilt from the product cache directory. */
+  @Test
+  public void testRebuildsFromProductCacheDirectory() throws Exception {
+    Metacard metacard = generateMetacard("id123");
+    resourceCache.put(createCachedResource("ddf-1-id123", metacard, 15));
+    resourceCache.put(createCachedResource("ddf-1-other", generateMetacard("other"), 20));
+    FileUtils.forceDelete(new File(productCacheDirectory, "ddf-1-other"));
+    resourceCache.teardownCache();
+
+    resourceCache = new LocalResourceCache(productCacheDirectory.getAbsolutePath());
+
+    assertThat(resourceCache.getEntryCount(), is(1));
+    assertThat(resourceCache.getCachedBytes(), is(15L));
+    assertThat(resourceCache.getValid("ddf-1-id123", metacard), notNullValue());
+    assertFalse(new File(productCacheDirectory, "ddf-1-other.ser").exists());
+  }
+
+  /**
+   * Creates a cached product of the given size in the product cache directory, as the {@link
+   * ddf.catalog.resource.download.ReliableResourceDownloader} does.
+   */
+  private ReliableResource createCachedResource(String key, Metacard metacard, long size)
+      throws IOException {
+    File product = new File(productCacheDirectory, key);
+    FileUtils.writeByteArrayToFile(product, new byte[(int) size]);
+
+    ReliableResource reliableResource =
+        new ReliableResource(key, product.getAbsolutePath(), new MimeType(), key, metacard);
+    reliableResource.setSize(size);
+    return reliableResource;
+  }
+
+  private MetacardImpl generateMetacard(String id) throws URISyntaxException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setAttribute(Metacard.CHECKSUM, "1");
+    metacard.setSourceId("ddf-1");
+    metacard.setId(id);
+    metacard.setContentTypeName("content-type-name");
+    metacard.setContentTypeVersion("content-type-version");
+    Calendar c = Calendar.getInstance();
+    c.setTimeInMillis(1400673600); // hardcode date to ensure it is the same time.
+    metacard.setCreatedDate(c.getTime());
+    metacard.setEffectiveDate(c.getTime());
+    metacard.setExpirationDate(c.getTime());
+    metacard.setModifiedDate(c.getTime());
+    metacard.setMetadata("<metadata>abc</metadata>");
+    metacard.setResourceSize("100");
+    metacard.setResourceURI(new URI("https://github.com/codice"));
+    metacard.setTitle("title");
+    return metacard;
+  }
+}
@@ -16,6 +16,7 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -30,6 +31,7 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.After;
 import org.junit.Before;
@@ -110,6 +112,78 @@ public void exceedsBacklog() throws Exception {
     verify(mockSolrCache, never()).create(anyCollectionOf(Metacard.class));
   }
 
+  @Test
+  public void exceedsBacklogCountsDroppedMetacards() throws Exception {
+    cacheBulkProcessor.setMaximumBacklogSize(0);
+    cacheBulkProcessor.add(getMockResults(10));
+
+    assertThat(cacheBulkProcessor.getDroppedCount()).isEqualTo(10);
+  }
+
+  @Test
+  public void fullBacklogStillUpdatesPendingMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.add(getMockResults(5));
+
+    List<Result> latestResults = getMockResults(10);
+    cacheBulkProcessor.add(latestResults);
+    assertThat(cacheBulkProcessor.getQueueDepth()).isEqualTo(5);
+    assertThat(cacheBulkProcessor.getDroppedCount()).isEqualTo(5);
+
+    cacheBulkProcessor.setFlushInterval(1);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache).create(capturedMetacards.capture());
+    assertThat(capturedMetacards.getValue())
+        .hasSize(5)
+        .containsAll(getMetacards(latestResults.subList(0, 5)));
+  }
+
+  @Test
+  public void samplePolicyReplacesOldestMetacards() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.setOverflowPolicy(CacheBulkProcessor.OverflowPolicy.SAMPLE);
+
+    cacheBulkProcessor.add(getMockResults(0, 5));
+    cacheBulkProcessor.add(getMockResults(5, 20));
+
+    assertThat(cacheBulkProcessor.getQueueDepth()).isEqualTo(5);
+    assertThat(cacheBulkProcessor.getDroppedCount()).isEqualTo(20);
+  }
+
+  @Test
+  public void blockPolicyWaitsForRoom() throws Exception {
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setBatchSize(5);
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+    cacheBulkProcessor.setOverflowPolicy(CacheBulkProcessor.OverflowPolicy.BLOCK);
+    List<Result> mockResults = getMockResults(10);
+
+    cacheBulkProcessor.add(mockResults);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, times(2)).create(capturedMetacards.capture());
+    assertThat(cacheBulkProcessor.getDroppedCount()).isEqualTo(0);
+    assertThat(cacheBulkProcessor.getFlushedCount()).isEqualTo(10);
+  }
+
+  @Test
+  public void concurrentFlushers() throws Exception {
+    cacheBulkProcessor.setFlusherCount(4);
+    List<Result> mockResults = getMockResults(100);
+
+    cacheBulkProcessor.add(mockResults);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, times(10)).create(capturedMetacards.capture());
+    List<Metacard> cachedMetacards = new ArrayList<>();
+    capturedMetacards.getAllValues().forEach(cachedMetacards::addAll);
+    assertThat(cachedMetacards).hasSize(100).containsAll(getMetacards(mockResults));
+    assertThat(cacheBulkProcessor.getFlushedCount()).isEqualTo(100);
+  }
+
   @Test
   public void cacheThrowsExcpetion() throws Exception {
     doThrow(new RuntimeException())
@@ -127,6 +201,54 @@ public void cacheThrowsExcpetion() throws Exception {
     }
   }
 
+  @Test
+  public void failingMetacardsAreDroppedAfterMaxAttempts() throws Exception {
+    doThrow(new RuntimeException()).when(mockSolrCache).create(anyCollectionOf(Metacard.class));
+
+    cacheBulkProcessor.add(getMockResults(10));
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, times(3)).create(anyCollectionOf(Metacard.class));
+    assertThat(cacheBulkProcessor.getDroppedCount()).isEqualTo(10);
+    assertThat(cacheBulkProcessor.getFlushedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void failedBatchDoesNotExceedBacklog() throws Exception {
+    CountDownLatch flushStarted = new CountDownLatch(1);
+    CountDownLatch flushReleased = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              flushStarted.countDown();
+              flushReleased.await();
+              throw new RuntimeException();
+            })
+        .doNothing()
+        .when(mockSolrCache)
+        .create(anyCollectionOf(Metacard.class));
+    cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
+    cacheBulkProcessor.setBatchSize(5);
+    cacheBulkProcessor.setMaximumBacklogSize(5);
+
+    cacheBulkProcessor.add(getMockResults(0, 5));
+    flushStarted.await();
+    cacheBulkProcessor.setBatchSize(10);
+    List<Result> latestResults = getMockResults(5, 5);
+    cacheBulkProcessor.add(latestResults);
+    flushReleased.countDown();
+
+    while (cacheBulkProcessor.getDroppedCount() < 5) {
+      Thread.sleep(2);
+    }
+    assertThat(cacheBulkProcessor.getQueueDepth()).isEqualTo(5);
+
+    cacheBulkProcessor.setFlushInterval(1);
+    waitForPendingMetacardsToCache();
+
+    verify(mockSolrCache, times(2)).create(capturedMetacards.capture());
+    assertThat(capturedMetacards.getValue()).hasSize(5).containsAll(getMetacards(latestResults));
+  }
+
   @Test
   public void updateMetacards() throws Exception {
     cacheBulkProcessor.setFlushInterval(TimeUnit.MINUTES.toMillis(1));
@@ -163,9 +285,13 @@ private Collection<Metacard> getMetacards(List<Result> results) {
   }
 
   private List<Result> getMockResults(int size) {
+    return getMockResults(0, size);
+  }
+
+  private List<Result> getMockResults(int firstId, int size) {
     List<Result> results = new ArrayList<>(size);
 
-    for (int i = 0; i < size; i++) {
+    for (int i = firstId; i < firstId + size; i++) {
       Metacard mockMetacard = mock(Metacard.class);
       when(mockMetacard.getId()).thenReturn(Integer.toString(i));
 
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+import ddf.catalog.Constants;
+import ddf.catalog.operation.Operation;
+import ddf.catalog.operation.impl.OperationImpl;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OperationTimingsTest {
+
+  private static final String PLUGIN_TIMER = "query/pre/" + Object.class.getName();
+
+  private OperationTimings timings;
+
+  @Before
+  public void setUp() {
+    timings = new OperationTimings();
+  }
+
+  @Test
+  public void testPercentiles() {
+    for (long micros = 1; micros <= 10000; micros++) {
+      timings.recordNanos(
+          OperationTimings.QUERY, OperationTimings.SOURCE_STAGE, "source", micros * 1000);
+    }
+
+    String timer = "query/source/source";
+    assertThat(timings.getCount(timer), is(10000L));
+    assertThat(timings.getMax(timer), is(10000L));
+    assertThat(timings.getMean(timer), is(5000L));
+    assertCloseTo(timings.getPercentile(timer, 50), 5000);
+    assertCloseTo(timings.getPercentile(timer, 99), 9900);
+    assertThat(timings.getPercentile(timer, 100), is(10000L));
+  }
+
+  @Test
+  public void testBucketBoundaries() {
+    for (long micros : new long[] {0, 127, 128, 129, 255, 256, 1L << 20, (1L << 32) - 1}) {
+      long highest = LatencyRecorder.highestValueOf(LatencyRecorder.indexOf(micros));
+      assertThat(highest, greaterThanOrEqualTo(micros));
+      assertThat(highest - micros, lessThanOrEqualTo(micros / 64));
+    }
+  }
+
+  @Test
+  public void testLatenciesOverAnHourAreCapped() {
+    timings.recordNanos(
+        OperationTimings.QUERY, OperationTimings.SOURCE_STAGE, "source", TimeUnit.DAYS.toNanos(1));
+
+    assertThat(timings.getMax("query/source/source"), is((1L << 32) - 1));
+  }
+
+  @Test
+  public void testTimingsAreReturnedWhenRequested() {
+    Operation request = getRequest(true);
+    Operation response = newOperation(new HashMap<>());
+
+    try (OperationTimings.Scope scope = timings.open(OperationTimings.QUERY, request)) {
+      timings.record(
+          OperationTimings.QUERY, OperationTimings.PRE_STAGE, new Object(), System.nanoTime());
+      scope.complete(response);
+    }
+
+    Map<String, Long> requestTimings = getRequestTimings(response);
+    assertThat(requestTimings, allOf(hasKey(PLUGIN_TIMER), hasKey("query/total")));
+    assertThat(timings.getCount(PLUGIN_TIMER), is(1L));
+    assertThat(timings.getCount("query/total"), is(1L));
+  }
+
+  @Test
+  public void testTimingsAreNotReturnedByDefault() {
+    Operation response = newOperation(new HashMap<>());
+
+    try (OperationTimings.Scope scope = timings.open(OperationTimings.QUERY, getRequest(false))) {
+      timings.record(
+          OperationTimings.QUERY, OperationTimings.PRE_STAGE, new Object(), System.nanoTime());
+      scope.complete(response);
+    }
+
+    assertThat(response.getProperties(), not(hasKey(Constants.OPERATION_TIMINGS_KEY)));
+    assertThat(timings.getCount(PLUGIN_TIMER), is(1L));
+  }
+
+  @Test
+  public void testNestedOperationsAreReturnedWithTheOuterOne() {
+    Operation innerResponse = newOperation(new HashMap<>());
+    Operation outerResponse = newOperation(new HashMap<>());
+
+    try (OperationTimings.Scope outer = timings.open(OperationTimings.UPDATE, getRequest(true))) {
+      try (OperationTimings.Scope inner = timings.open(OperationTimings.QUERY, getRequest(true))) {
+        timings.record(
+            OperationTimings.QUERY, OperationTimings.PRE_STAGE, new Object(), System.nanoTime());
+        inner.complete(innerResponse);
+      }
+      outer.complete(outerResponse);
+    }
+
+    assertThat(innerResponse.getProperties(), not(hasKey(Constants.OPERATION_TIMINGS_KEY)));
+    assertThat(
+        getRequestTimings(outerResponse),
+        allOf(hasKey(PLUGIN_TIMER), hasKey("query/total"), hasKey("update/total")));
+  }
+
+  @Test
+  public void testTimingsDoNotLeakToTheNextOperation() {
+    try (OperationTimings.Scope scope = timings.open(OperationTimings.QUERY, getRequest(true))) {
+      scope.complete(newOperation(new HashMap<>()));
+    }
+
+    Operation response = newOperation(new HashMap<>());
+    try (OperationTimings.Scope scope = timings.open(OperationTimings.QUERY, getRequest(false))) {
+      scope.complete(response);
+    }
+
+    assertThat(response.getProperties(), not(hasKey(Constants.OPERATION_TIMINGS_KEY)));
+  }
+
+  @Test
+  public void testWriteText() throws Exception {
+    timings.recordNanos(
+        OperationTimings.QUERY, OperationTimings.SOURCE_STAGE, "a \"source\"", 2000000);
+    StringWriter writer = new StringWriter();
+
+    timings.writeText(writer);
+
+    String name = OperationTimings.METRIC_NAME;
+    String labels = "operation=\"query\",stage=\"source\",name=\"a \\\"source\\\"\"";
+    assertThat(
+        writer.toString(),
+        allOf(
+            containsString("# TYPE " + name + " summary\n"),
+            containsString(name + "{" + labels + ",quantile=\"0.5\"} 2000\n"),
+            containsString(name + "_sum{" + labels + "} 2000\n"),
+            containsString(name + "_count{" + labels + "} 1\n")));
+  }
+
+  @Test
+  public void testReset() {
+    timings.recordNanos(OperationTimings.QUERY, OperationTimings.SOURCE_STAGE, "source", 1000);
+
+    timings.reset();
+
+    assertThat(timings.getCount("query/source/source"), is(0L));
+    assertThat(timings.getMax("query/source/source"), is(0L));
+  }
+
+  private static Operation getRequest(boolean timingsRequested) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.OPERATION_TIMINGS_KEY, timingsRequested);
+    return newOperation(properties);
+  }
+
+  private static Operation newOperation(Map<String, Serializable> properties) {
+    return new OperationImpl(properties) {};
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Long> getRequestTimings(Operation response) {
+    return (Map<String, Long>) response.getProperties().get(Constants.OPERATION_TIMINGS_KEY);
+  }
+
+  private static void assertCloseTo(long actual, long expected) {
+    assertThat(Math.abs(actual - expected), lessThanOrEqualTo(expected / 50));
+  }
+}
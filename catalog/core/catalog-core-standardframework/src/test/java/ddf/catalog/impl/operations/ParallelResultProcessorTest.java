@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.plugin.StopProcessingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelResultProcessorTest {
+
+  private static final int CHUNK_SIZE = 10;
+
+  private ParallelResultProcessor processor;
+
+  @Before
+  public void setUp() {
+    processor = new ParallelResultProcessor(4, CHUNK_SIZE);
+  }
+
+  @After
+  public void tearDown() {
+    processor.shutdown();
+  }
+
+  @Test
+  public void testIsWorthSplitting() {
+    assertThat(processor.isWorthSplitting(getResults(CHUNK_SIZE)), is(false));
+    assertThat(processor.isWorthSplitting(getResults(CHUNK_SIZE + 1)), is(true));
+  }
+
+  @Test
+  public void testChunksKeepResultOrder() throws Exception {
+    List<Result> results = getResults(1000);
+
+    List<List<Result>> chunks = processor.process(results, ArrayList::new);
+
+    assertThat(
+        chunks.stream().map(List::size).collect(Collectors.toList()),
+        everyItem(lessThanOrEqualTo(CHUNK_SIZE)));
+    assertThat(chunks.stream().flatMap(List::stream).collect(Collectors.toList()), is(results));
+  }
+
+  @Test
+  public void testSmallResponseIsASingleChunk() throws Exception {
+    List<Result> results = getResults(CHUNK_SIZE);
+
+    List<Integer> sizes = processor.process(results, List::size);
+
+    assertThat(sizes.size(), is(1));
+    assertThat(sizes.get(0), is(CHUNK_SIZE));
+  }
+
+  @Test(expected = StopProcessingException.class)
+  public void testStopProcessingExceptionIsRethrown() throws Exception {
+    processor.process(
+        getResults(100),
+        chunk -> {
+          if (chunk.get(0).getMetacard().getId().equals("50")) {
+            throw new StopProcessingException("stop");
+          }
+          return chunk.size();
+        });
+  }
+
+  private List<Result> getResults(int count) {
+    List<Result> results = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId(String.valueOf(i));
+      results.add(new ResultImpl(metacard));
+    }
+    return results;
+  }
+}
@@ -28,6 +28,7 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.io.CountingOutputStream;
+import com.google.common.io.Files;
 import ddf.catalog.cache.MockInputStream;
 import ddf.catalog.cache.impl.ResourceCacheImpl;
 import ddf.catalog.data.Metacard;
@@ -38,17 +39,24 @@
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher.ProductRetrievalStatus;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
+import ddf.catalog.operation.impl.ResourceResponseImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.resource.ResourceNotSupportedException;
 import ddf.catalog.resource.data.ReliableResource;
 import ddf.catalog.resource.download.ReliableResourceStatus.DownloadStatus;
+import ddf.catalog.resource.impl.ResourceImpl;
 import ddf.catalog.resourceretriever.ResourceRetriever;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
@@ -60,6 +68,8 @@
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.rule.PowerMockRule;
@@ -226,6 +236,210 @@ public void testClientOutputStreamException() throws Exception {
     assertThat(downloaderConfig.isCacheEnabled(), is(false));
   }
 
+  @Test
+  public void testConcurrentRangesCacheProduct() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setCacheEnabled(true);
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+
+    ResourceCacheImpl mockCache = mock(ResourceCacheImpl.class);
+    when(mockCache.isPending(anyString())).thenReturn(false);
+    when(mockCache.getProductCacheDirectory()).thenReturn(productCacheDirectory);
+    downloaderConfig.setResourceCache(mockCache);
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+
+    ResourceRetriever retriever = getRangeRetriever(product);
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    ResourceResponse clientResponse =
+        downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    // The middle ranges are bounded, the last one is read until the EOF
+    verify(retriever, times(2)).retrieveResource(anyLong(), anyLong());
+    verify(retriever).retrieveResource(anyLong());
+    verify(mockPublisher)
+        .postRetrievalStatus(
+            any(ResourceResponse.class),
+            eq(ProductRetrievalStatus.COMPLETE),
+            any(Metacard.class),
+            anyString(),
+            eq((long) product.length),
+            eq(DOWNLOAD_ID));
+
+    ArgumentCaptor<ReliableResource> cachedResource =
+        ArgumentCaptor.forClass(ReliableResource.class);
+    verify(mockCache).put(cachedResource.capture());
+    assertThat(cachedResource.getValue().getSize(), is((long) product.length));
+    assertThat(
+        Files.toByteArray(new File(cachedResource.getValue().getFilePath())), is(product));
+    assertThat(IOUtils.toByteArray(clientResponse.getResource().getInputStream()), is(product));
+  }
+
+  @Test
+  public void testConcurrentRangesFailureDiscardsCacheFile() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+    downloaderConfig.setMaxRetryAttempts(2);
+    ResourceCacheImpl mockCache = getMockCache();
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+
+    // The last range, and every sequential attempt after it, fails after a few bytes
+    ResourceRetriever retriever = getRangeRetriever(product);
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int bytesToSkip = ((Long) invocation.getArguments()[0]).intValue();
+              return new ResourceResponseImpl(
+                  new ResourceImpl(
+                      new FailingInputStream(product, bytesToSkip, 10, true), "test-resource"));
+            });
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    verify(mockPublisher, never())
+        .postRetrievalStatus(
+            any(ResourceResponse.class),
+            eq(ProductRetrievalStatus.COMPLETE),
+            any(Metacard.class),
+            anyString(),
+            anyLong(),
+            eq(DOWNLOAD_ID));
+    verify(mockCache, never()).put(any(ReliableResource.class));
+
+    ArgumentCaptor<ReliableResource> pendingResource =
+        ArgumentCaptor.forClass(ReliableResource.class);
+    verify(mockCache).addPendingCacheEntry(pendingResource.capture());
+    verify(mockCache).removePendingCacheEntry(pendingResource.getValue().getKey());
+    assertThat(new File(pendingResource.getValue().getFilePath()).exists(), is(false));
+  }
+
+  @Test
+  public void testConcurrentRangesEarlyEndOfRange() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+    ResourceCacheImpl mockCache = getMockCache();
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+
+    // The middle ranges end after a few bytes
+    ResourceRetriever retriever = getRangeRetriever(product);
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int bytesToSkip = ((Long) invocation.getArguments()[0]).intValue();
+              return new ResourceResponseImpl(
+                  new ResourceImpl(
+                      new FailingInputStream(product, bytesToSkip, 10, false), "test-resource"));
+            });
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    ResourceResponse clientResponse =
+        downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    verifyCachedProduct(mockCache, clientResponse, product);
+  }
+
+  @Test
+  public void testConcurrentRangesProductLargerThanMetacardSize() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+    ResourceCacheImpl mockCache = getMockCache();
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length - 90));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+
+    ResourceRetriever retriever = getRangeRetriever(product);
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    ResourceResponse clientResponse =
+        downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    // The rest of the product is downloaded sequentially after the last range
+    verify(retriever, times(2)).retrieveResource(anyLong());
+    verifyCachedProduct(mockCache, clientResponse, product);
+  }
+
+  @Test
+  public void testConcurrentRangesReportedSizeMismatch() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+    ResourceCacheImpl mockCache = getMockCache();
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length - 90));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+    when(mockResource.getSize()).thenReturn((long) product.length);
+
+    ResourceRetriever retriever = getRangeRetriever(product);
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    ResourceResponse clientResponse =
+        downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    verify(retriever, never()).retrieveResource(anyLong());
+    verify(retriever, never()).retrieveResource(anyLong(), anyLong());
+    verifyCachedProduct(mockCache, clientResponse, product);
+  }
+
+  @Test
+  public void testConcurrentRangesCacheFileCannotBeOpened() throws Exception {
+    byte[] product = Files.toByteArray(new File(productInputFilename));
+
+    downloaderConfig.setChunkSize(64);
+    downloaderConfig.setConcurrentRanges(4);
+    ResourceCacheImpl mockCache = getMockCache();
+
+    when(mockMetacard.getResourceSize()).thenReturn(String.valueOf(product.length));
+    ResourceResponse mockResponse = getMockResourceResponse(new ByteArrayInputStream(product));
+
+    ResourceRetriever retriever = getRangeRetriever(product);
+
+    PowerMockito.mockStatic(FileChannel.class);
+    PowerMockito.when(FileChannel.open(any(Path.class), Matchers.<OpenOption>anyVararg()))
+        .thenThrow(new IOException());
+
+    ReliableResourceDownloader downloader =
+        new ReliableResourceDownloader(
+            downloaderConfig, new AtomicBoolean(), DOWNLOAD_ID, mockResponse, retriever);
+    ResourceResponse clientResponse =
+        downloader.setupDownload(mockMetacard, new DownloadStatusInfoImpl());
+    downloader.run();
+
+    verify(retriever, never()).retrieveResource(anyLong());
+    verify(retriever, never()).retrieveResource(anyLong(), anyLong());
+    verifyCachedProduct(mockCache, clientResponse, product);
+  }
+
   @Test
   public void testNullReliableResourceCallableAndStatus() throws Exception {
     ResourceResponse mockResponse = getMockResourceResponse(mockStream);
@@ -269,6 +483,61 @@ public void testNullReliableResourceCallableAndStatus() throws Exception {
             eq(DOWNLOAD_ID));
   }
 
+  private ResourceCacheImpl getMockCache() {
+    downloaderConfig.setCacheEnabled(true);
+    ResourceCacheImpl mockCache = mock(ResourceCacheImpl.class);
+    when(mockCache.isPending(anyString())).thenReturn(false);
+    when(mockCache.getProductCacheDirectory()).thenReturn(productCacheDirectory);
+    downloaderConfig.setResourceCache(mockCache);
+    return mockCache;
+  }
+
+  /** Returns a retriever that skips the requested bytes and honors the bounds of a range. */
+  private ResourceRetriever getRangeRetriever(byte[] product) throws Exception {
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    when(retriever.retrieveResource(anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int bytesToSkip = ((Long) invocation.getArguments()[0]).intValue();
+              return new ResourceResponseImpl(
+                  new ResourceImpl(
+                      new ByteArrayInputStream(product, bytesToSkip, product.length - bytesToSkip),
+                      "test-resource"));
+            });
+    when(retriever.retrieveResource(anyLong(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              int bytesToSkip = ((Long) invocation.getArguments()[0]).intValue();
+              int bytesToRead = ((Long) invocation.getArguments()[1]).intValue();
+              return new ResourceResponseImpl(
+                  new ResourceImpl(
+                      new ByteArrayInputStream(product, bytesToSkip, bytesToRead),
+                      "test-resource"));
+            });
+    return retriever;
+  }
+
+  private void verifyCachedProduct(
+      ResourceCacheImpl mockCache, ResourceResponse clientResponse, byte[] product)
+      throws Exception {
+    verify(mockPublisher)
+        .postRetrievalStatus(
+            any(ResourceResponse.class),
+            eq(ProductRetrievalStatus.COMPLETE),
+            any(Metacard.class),
+            anyString(),
+            eq((long) product.length),
+            eq(DOWNLOAD_ID));
+
+    ArgumentCaptor<ReliableResource> cachedResource =
+        ArgumentCaptor.forClass(ReliableResource.class);
+    verify(mockCache).put(cachedResource.capture());
+    assertThat(cachedResource.getValue().getSize(), is((long) product.length));
+    assertThat(
+        Files.toByteArray(new File(cachedResource.getValue().getFilePath())), is(product));
+    assertThat(IOUtils.toByteArray(clientResponse.getResource().getInputStream()), is(product));
+  }
+
   private Metacard getMockMetacard(String id, String source) {
 
     Metacard metacard = mock(Metacard.class);
@@ -307,4 +576,37 @@ private ResourceRetriever getMockRetriever()
     when(retriever.retrieveResource(anyLong())).thenReturn(mockResponse);
     return retriever;
   }
+
+  /**
+   * Returns a few bytes of the product from the given offset, then either throws an IOException or
+   * ends the stream early.
+   */
+  private static class FailingInputStream extends InputStream {
+
+    private final ByteArrayInputStream bytes;
+
+    private final boolean throwException;
+
+    FailingInputStream(byte[] product, int offset, int length, boolean throwException) {
+      this.bytes = new ByteArrayInputStream(product, offset, length);
+      this.throwException = throwException;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return bytes.available() > 0 ? bytes.read() : end();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return bytes.available() > 0 ? bytes.read(b, off, len) : end();
+    }
+
+    private int end() throws IOException {
+      if (throwException) {
+        throw new IOException("Connection reset");
+      }
+      return -1;
+    }
+  }
 }
@@ -87,6 +87,8 @@ public class URLResourceReader implements ResourceReader {
 
   private static final String BYTES_TO_SKIP = "BytesToSkip";
 
+  private static final String BYTES_TO_READ = "BytesToRead";
+
   private static final String USERNAME = "username";
 
   @SuppressWarnings("squid:S2068" /* Password property key */)
@@ -359,49 +361,70 @@ private ResourceResponse retrieveHttpProduct(
 
       WebClient client = getWebClient(resourceURI.toString(), properties);
 
-      Response response = client.get();
-
-      MultivaluedMap<String, Object> headers = response.getHeaders();
-      List<Object> cdHeaders = headers.get(HttpHeaders.CONTENT_DISPOSITION);
-      if (cdHeaders != null && !cdHeaders.isEmpty()) {
-        String contentHeader = (String) cdHeaders.get(0);
-        productName =
-            StringUtils.defaultIfBlank(handleContentDispositionHeader(contentHeader), productName);
+      // Only a bounded request asks for a range, so that the connection can be released once the
+      // bytes are read. Other requests skip the bytes as before.
+      if (properties.containsKey(BYTES_TO_READ)) {
+        long firstByte = Long.parseLong(bytesToSkip);
+        long lastByte = firstByte + Long.parseLong(properties.get(BYTES_TO_READ).toString()) - 1;
+        LOGGER.debug("Requesting bytes {} to {}", firstByte, lastByte);
+        client.header(HttpHeaders.RANGE, String.format("bytes=%d-%d", firstByte, lastByte));
       }
-      String mimeType = getMimeType(resourceURI, productName);
 
-      Response clientResponse = client.get();
-
-      InputStream is;
-      Object entityObj = clientResponse.getEntity();
-      if (entityObj instanceof InputStream) {
-        is = (InputStream) entityObj;
-        if (Response.Status.OK.getStatusCode() != clientResponse.getStatus()
-            && Response.Status.PARTIAL_CONTENT.getStatusCode() != clientResponse.getStatus()) {
-          String error = getResponseErrorMessage(is);
-          String errorMsg =
-              "Received error code while retrieving resource (status "
-                  + clientResponse.getStatus()
-                  + "): "
-                  + error;
-          throw new ResourceNotFoundException(errorMsg);
+      // The headers and the product are read from the same response, so that the product is only
+      // requested once
+      Response response = client.get();
+      boolean returned = false;
+      try {
+        MultivaluedMap<String, Object> headers = response.getHeaders();
+        List<Object> cdHeaders = headers.get(HttpHeaders.CONTENT_DISPOSITION);
+        if (cdHeaders != null && !cdHeaders.isEmpty()) {
+          String contentHeader = (String) cdHeaders.get(0);
+          productName =
+              StringUtils.defaultIfBlank(
+                  handleContentDispositionHeader(contentHeader), productName);
+        }
+        String mimeType = getMimeType(resourceURI, productName);
+
+        InputStream is;
+        Object entityObj = response.getEntity();
+        if (entityObj instanceof InputStream) {
+          is = (InputStream) entityObj;
+          if (Response.Status.OK.getStatusCode() != response.getStatus()
+              && Response.Status.PARTIAL_CONTENT.getStatusCode() != response.getStatus()) {
+            String error = getResponseErrorMessage(is);
+            String errorMsg =
+                "Received error code while retrieving resource (status "
+                    + response.getStatus()
+                    + "): "
+                    + error;
+            throw new ResourceNotFoundException(errorMsg);
+          }
+        } else {
+          throw new ResourceNotFoundException(
+              "Received null response while retrieving resource.");
         }
-      } else {
-        throw new ResourceNotFoundException("Received null response while retrieving resource.");
-      }
 
-      long responseBytesSkipped = 0L;
-      if (headers.getFirst(HttpHeaders.CONTENT_RANGE) != null) {
-        String contentRangeHeader = String.valueOf(headers.getFirst(HttpHeaders.CONTENT_RANGE));
-        responseBytesSkipped =
-            Long.parseLong(
-                StringUtils.substringBetween(contentRangeHeader.toLowerCase(), "bytes ", "-"));
+        long responseBytesSkipped = 0L;
+        if (headers.getFirst(HttpHeaders.CONTENT_RANGE) != null) {
+          String contentRangeHeader = String.valueOf(headers.getFirst(HttpHeaders.CONTENT_RANGE));
+          responseBytesSkipped =
+              Long.parseLong(
+                  StringUtils.substringBetween(contentRangeHeader.toLowerCase(), "bytes ", "-"));
+        }
+        alignStream(is, Long.parseLong(bytesToSkip), responseBytesSkipped);
+
+        ResourceResponse resourceResponse =
+            new ResourceResponseImpl(
+                new ResourceImpl(
+                    new BufferedInputStream(is), mimeType, FilenameUtils.getName(productName)));
+        returned = true;
+        return resourceResponse;
+      } finally {
+        if (!returned) {
+          // Releases the connection when the product is not handed to the caller
+          response.close();
+        }
       }
-      alignStream(is, Long.parseLong(bytesToSkip), responseBytesSkipped);
-
-      return new ResourceResponseImpl(
-          new ResourceImpl(
-              new BufferedInputStream(is), mimeType, FilenameUtils.getName(productName)));
     } catch (MimeTypeResolutionException | IOException | WebApplicationException e) {
       LOGGER.info("Error retrieving resource", e);
       throw new ResourceNotFoundException(
@@ -22,6 +22,7 @@
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableSet;
@@ -112,6 +113,8 @@ public class URLResourceReaderTest {
 
   private static final String BYTES_TO_SKIP = "BytesToSkip";
 
+  private static final String BYTES_TO_READ = "BytesToRead";
+
   @Rule
   public MethodRule watchman =
       new TestWatchman() {
@@ -536,6 +539,61 @@ public void testServerDoesNotSupportPartialContent() throws Exception {
         uri, JPEG_FILE_NAME_1, JPEG_MIME_TYPE, bytesToSkip, null, 3, uri.toString());
   }
 
+  /**
+   * Tests that a request bounded with the number of bytes to read asks the server for that range.
+   *
+   * @throws Exception
+   */
+  @Test
+  public void testBoundedRequestAsksForRange() throws Exception {
+    URI uri = new URI(HTTP_SCHEME_PLUS_SEP + HOST + TEST_PATH + BAD_FILE_NAME);
+
+    Response mockResponse = mock(Response.class);
+    when(mockWebClient.get()).thenReturn(mockResponse);
+    MultivaluedMap<String, Object> map = new MultivaluedHashMap<>();
+    map.put(
+        HttpHeaders.CONTENT_DISPOSITION,
+        Arrays.asList("inline; filename=\"" + JPEG_FILE_NAME_1 + "\""));
+    map.put(HttpHeaders.CONTENT_RANGE, Arrays.asList("Bytes 2-3/5"));
+    when(mockResponse.getHeaders()).thenReturn(map);
+    when(mockResponse.getStatus()).thenReturn(Response.Status.PARTIAL_CONTENT.getStatusCode());
+    when(mockResponse.getEntity()).thenReturn(getBinaryDataWithOffset(2));
+
+    Map<String, Serializable> arguments = new HashMap<>();
+    arguments.put(BYTES_TO_SKIP, 2L);
+    arguments.put(BYTES_TO_READ, 2L);
+
+    TestURLResourceReader resourceReader =
+        new TestURLResourceReader(mimeTypeMapper, clientFactoryFactory);
+    resourceReader.retrieveResource(uri, arguments);
+
+    verify(mockWebClient).header(HttpHeaders.RANGE, "bytes=2-3");
+    verify(mockWebClient).get();
+  }
+
+  @Test
+  public void testErrorResponseIsClosed() throws Exception {
+    URI uri = new URI(HTTP_SCHEME_PLUS_SEP + HOST + TEST_PATH + BAD_FILE_NAME);
+
+    Response mockResponse = mock(Response.class);
+    when(mockWebClient.get()).thenReturn(mockResponse);
+    when(mockResponse.getHeaders()).thenReturn(new MultivaluedHashMap<>());
+    when(mockResponse.getStatus()).thenReturn(Response.Status.NOT_FOUND.getStatusCode());
+    when(mockResponse.getEntity()).thenReturn(getBinaryData());
+
+    TestURLResourceReader resourceReader =
+        new TestURLResourceReader(mimeTypeMapper, clientFactoryFactory);
+    try {
+      resourceReader.retrieveResource(uri, new HashMap<>());
+      fail("Expected the error response to be rejected");
+    } catch (ResourceNotFoundException e) {
+      // expected
+    }
+
+    verify(mockWebClient).get();
+    verify(mockResponse).close();
+  }
+
   @Test
   public void testUnquotedNameInContentDisposition() throws Exception {
     URI uri = new URI(HTTP_SCHEME_PLUS_SEP + HOST + TEST_PATH + BAD_FILE_NAME);
@@ -14,8 +14,10 @@
 package org.codice.ddf.catalog.content.plugin.checksum;
 
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
+import ddf.catalog.content.plugin.ContentDigester;
 import ddf.catalog.content.plugin.PreCreateStoragePlugin;
 import ddf.catalog.content.plugin.PreUpdateStoragePlugin;
 import ddf.catalog.data.Metacard;
@@ -25,10 +27,18 @@
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Optional;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.checksum.ChecksumProvider;
+import org.codice.ddf.checksum.IncrementalChecksum;
 
-public class Checksum implements PreCreateStoragePlugin, PreUpdateStoragePlugin {
+/**
+ * Adds the checksum of their content to the metacards of the content items being stored. When the
+ * {@link ChecksumProvider} can compute its checksum incrementally, this plugin is also a {@link
+ * ContentDigester}, so the checksum is computed while the framework copies the incoming content and
+ * the content does not have to be read again here.
+ */
+public class Checksum implements PreCreateStoragePlugin, PreUpdateStoragePlugin, ContentDigester {
   private final ChecksumProvider checksumProvider;
 
   public Checksum(ChecksumProvider checksumProvider) {
@@ -55,6 +65,27 @@ public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExe
     return input;
   }
 
+  @Override
+  public String getDigestName() {
+    return checksumProvider.getChecksumAlgorithm();
+  }
+
+  @Override
+  public Digest newDigest() {
+    Optional<IncrementalChecksum> incrementalChecksum = checksumProvider.newIncrementalChecksum();
+    return new Digest() {
+      @Override
+      public void update(byte[] bytes, int offset, int length) {
+        incrementalChecksum.ifPresent(checksum -> checksum.update(bytes, offset, length));
+      }
+
+      @Override
+      public String getValue() {
+        return incrementalChecksum.map(IncrementalChecksum::getValue).orElse(null);
+      }
+    };
+  }
+
   private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
     for (ContentItem contentItem : contentItems) {
       if (StringUtils.isNotEmpty(contentItem.getQualifier())) {
@@ -66,10 +97,12 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
       try (InputStream inputStream = contentItem.getInputStream()) {
         // calculate checksum so that it can be added as an attribute on metacard
         String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
-        String checksumValue;
+        String checksumValue = getComputedChecksum(inputStream, checksumAlgorithm);
 
         try {
-          checksumValue = checksumProvider.calculateChecksum(inputStream);
+          if (checksumValue == null) {
+            checksumValue = checksumProvider.calculateChecksum(inputStream);
+          }
         } catch (IOException e) {
           throw new PluginExecutionException("Error calculating checksum", e);
         } catch (NoSuchAlgorithmException e) {
@@ -83,6 +116,13 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
     }
   }
 
+  private String getComputedChecksum(InputStream inputStream, String checksumAlgorithm) {
+    if (inputStream instanceof FileBackedContent) {
+      return ((FileBackedContent) inputStream).getDigest(checksumAlgorithm).orElse(null);
+    }
+    return null;
+  }
+
   private void addChecksumAttributes(
       Metacard metacard, final String checksumAlgorithm, final String checksumValue) {
     metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM_ALGORITHM, checksumAlgorithm));
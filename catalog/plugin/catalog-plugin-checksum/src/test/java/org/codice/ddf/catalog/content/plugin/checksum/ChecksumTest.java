@@ -23,10 +23,13 @@
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
+import ddf.catalog.content.plugin.ContentDigester;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -36,7 +39,9 @@
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import org.codice.ddf.checksum.ChecksumProvider;
+import org.codice.ddf.checksum.IncrementalChecksum;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -194,4 +199,62 @@ public void testProcessUpdateDerivedContentDoesNotSetAttribute() throws Exceptio
 
     verify(metacard, never()).setAttribute(any(Attribute.class));
   }
+
+  @Test
+  public void testProcessCreateUsesDigestComputedByFramework() throws Exception {
+    InputStream inputStream =
+        mock(InputStream.class, withSettings().extraInterfaces(FileBackedContent.class));
+    when(((FileBackedContent) inputStream).getDigest(SAMPLE_CHECKSUM_ALGORITHM))
+        .thenReturn(Optional.of("computed-checksum"));
+    when(mockCreateRequest.getContentItems().get(0).getInputStream()).thenReturn(inputStream);
+
+    CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+    assertThat(
+        request.getContentItems().get(0).getMetacard().getAttribute(Metacard.CHECKSUM).getValue(),
+        is("computed-checksum"));
+    verify(mockChecksumProvider, never()).calculateChecksum(any(InputStream.class));
+  }
+
+  @Test
+  public void testProcessCreateWithoutDigestComputedByFramework() throws Exception {
+    InputStream inputStream =
+        mock(InputStream.class, withSettings().extraInterfaces(FileBackedContent.class));
+    when(((FileBackedContent) inputStream).getDigest(SAMPLE_CHECKSUM_ALGORITHM))
+        .thenReturn(Optional.empty());
+    when(mockChecksumProvider.calculateChecksum(inputStream)).thenReturn(SAMPLE_CHECKSUM_VALUE);
+    when(mockCreateRequest.getContentItems().get(0).getInputStream()).thenReturn(inputStream);
+
+    CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+    assertThat(
+        request.getContentItems().get(0).getMetacard().getAttribute(Metacard.CHECKSUM).getValue(),
+        is(SAMPLE_CHECKSUM_VALUE));
+  }
+
+  @Test
+  public void testNewDigest() {
+    IncrementalChecksum incrementalChecksum = mock(IncrementalChecksum.class);
+    when(incrementalChecksum.getValue()).thenReturn(SAMPLE_CHECKSUM_VALUE);
+    when(mockChecksumProvider.newIncrementalChecksum())
+        .thenReturn(Optional.of(incrementalChecksum));
+    byte[] bytes = new byte[] {1, 2, 3};
+
+    ContentDigester.Digest digest = checksum.newDigest();
+    digest.update(bytes, 1, 2);
+
+    verify(incrementalChecksum).update(bytes, 1, 2);
+    assertThat(digest.getValue(), is(SAMPLE_CHECKSUM_VALUE));
+    assertThat(checksum.getDigestName(), is(SAMPLE_CHECKSUM_ALGORITHM));
+  }
+
+  @Test
+  public void testNewDigestWithoutIncrementalChecksum() {
+    when(mockChecksumProvider.newIncrementalChecksum()).thenReturn(Optional.empty());
+
+    ContentDigester.Digest digest = checksum.newDigest();
+    digest.update(new byte[] {1, 2, 3}, 0, 3);
+
+    assertThat(digest.getValue(), is((String) null));
+  }
 }
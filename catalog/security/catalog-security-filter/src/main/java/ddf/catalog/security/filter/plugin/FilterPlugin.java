@@ -28,6 +28,7 @@
 import ddf.catalog.operation.Response;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.plugin.AccessPlugin;
+import ddf.catalog.plugin.PerResultPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.security.FilterResult;
 import ddf.catalog.security.FilterStrategy;
@@ -42,6 +43,7 @@
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -59,10 +61,14 @@
  * This {@link AccessPlugin} performs redaction and filtering on {@link QueryResponse} objects as
  * they pass through the framework.
  */
-public class FilterPlugin implements AccessPlugin {
+public class FilterPlugin implements AccessPlugin, PerResultPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlugin.class);
 
+  private static final String FILTERED_METACARDS = "ddf.catalog.security.filter.filteredMetacards";
+
+  private static final String RETURNED_METACARDS = "ddf.catalog.security.filter.returnedMetacards";
+
   private Map<ServiceReference, FilterStrategy> filterStrategies =
       Collections.synchronizedMap(new TreeMap<>(new ServiceComparator()));
 
@@ -193,10 +199,12 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
     List<Metacard> newResults = new ArrayList<>(results.size());
     KeyValueCollectionPermission securityPermission =
         new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    Map<Serializable, Boolean> decisions = new HashMap<>();
     int filteredMetacards = 0;
     for (Metacard metacard : results) {
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!checkPermissions(
+          attr, securityPermission, subject, CollectionPermission.READ_ACTION, decisions)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -242,11 +250,13 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
     Metacard metacard;
     KeyValueCollectionPermission securityPermission =
         new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    Map<Serializable, Boolean> decisions = new HashMap<>();
     int filteredMetacards = 0;
     for (Result result : results) {
       metacard = result.getMetacard();
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!checkPermissions(
+          attr, securityPermission, subject, CollectionPermission.READ_ACTION, decisions)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -263,9 +273,12 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
       }
     }
 
-    if (filteredMetacards > 0) {
-      SecurityLogger.audit(
-          "Filtered " + filteredMetacards + " metacards, returned " + newResults.size(), subject);
+    if (Boolean.TRUE.equals(input.getPropertyValue(RESPONSE_PART))) {
+      // Audited once for the whole response by processedInParts
+      input.getProperties().put(FILTERED_METACARDS, filteredMetacards);
+      input.getProperties().put(RETURNED_METACARDS, newResults.size());
+    } else {
+      auditFiltered(filteredMetacards, newResults.size(), subject);
     }
 
     input.getResults().clear();
@@ -274,6 +287,37 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
     return input;
   }
 
+  @Override
+  public void processedInParts(List<QueryResponse> parts, QueryResponse response) {
+    int filteredMetacards = 0;
+    int returnedMetacards = 0;
+    for (QueryResponse part : parts) {
+      filteredMetacards += getCount(part, FILTERED_METACARDS);
+      returnedMetacards += getCount(part, RETURNED_METACARDS);
+    }
+
+    if (filteredMetacards > 0) {
+      try {
+        auditFiltered(filteredMetacards, returnedMetacards, getSubject(response));
+      } catch (StopProcessingException e) {
+        // The parts could not have been filtered without a subject
+        LOGGER.debug("Unable to audit the filtered metacards.", e);
+      }
+    }
+  }
+
+  private int getCount(QueryResponse part, String property) {
+    Serializable count = part.getPropertyValue(property);
+    return count instanceof Integer ? (Integer) count : 0;
+  }
+
+  private void auditFiltered(int filteredMetacards, int returnedMetacards, Subject subject) {
+    if (filteredMetacards > 0) {
+      SecurityLogger.audit(
+          "Filtered " + filteredMetacards + " metacards, returned " + returnedMetacards, subject);
+    }
+  }
+
   @Override
   public ResourceRequest processPreResource(ResourceRequest input) throws StopProcessingException {
     return input;
@@ -333,6 +377,21 @@ private Subject getSubject(Request input) throws StopProcessingException {
     return subject;
   }
 
+  /**
+   * Checks the permissions of the subject only once for each distinct set of security attributes,
+   * since the results of a request usually share a handful of security markings.
+   */
+  private boolean checkPermissions(
+      Attribute attr,
+      KeyValueCollectionPermission securityPermission,
+      Subject subject,
+      String action,
+      Map<Serializable, Boolean> decisions) {
+    Serializable securityAttributes = attr != null ? attr.getValue() : null;
+    return decisions.computeIfAbsent(
+        securityAttributes, key -> checkPermissions(attr, securityPermission, subject, action));
+  }
+
   private boolean checkPermissions(
       Attribute attr,
       KeyValueCollectionPermission securityPermission,
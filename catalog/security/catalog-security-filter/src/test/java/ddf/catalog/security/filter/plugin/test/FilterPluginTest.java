@@ -19,6 +19,8 @@
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Metacard;
@@ -38,6 +40,7 @@
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.ResourceResponseImpl;
 import ddf.catalog.operation.impl.UpdateRequestImpl;
+import ddf.catalog.plugin.PerResultPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.security.filter.plugin.FilterPlugin;
@@ -80,6 +83,8 @@ public class FilterPluginTest {
 
   FilterPlugin plugin;
 
+  AuthorizingRealm realm;
+
   QueryResponseImpl incomingResponse;
 
   ResourceResponseImpl resourceResponse;
@@ -96,7 +101,7 @@ public class FilterPluginTest {
 
   @Before
   public void setup() {
-    AuthorizingRealm realm = mock(AuthorizingRealm.class);
+    realm = mock(AuthorizingRealm.class);
 
     when(realm.getName()).thenReturn("mockRealm");
     when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class)))
@@ -201,6 +206,50 @@ public void testPluginFilter() {
     }
   }
 
+  @Test
+  public void testPluginFilterChecksSameSecurityOnce() throws StopProcessingException {
+    QueryResponseImpl response = new QueryResponseImpl(incomingResponse.getRequest());
+    response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+    response.addResult(new ResultImpl(getExactRolesMetacard()), false);
+    response.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+    response.addResult(new ResultImpl(getExactRolesMetacard()), true);
+
+    QueryResponse filteredResponse = plugin.processPostQuery(response);
+
+    assertThat(filteredResponse.getResults().size(), is(3));
+    verify(realm, times(2)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+  }
+
+  @Test
+  public void testPluginFilterResponseParts() throws StopProcessingException {
+    Map<String, Serializable> partProperties = new HashMap<>();
+    partProperties.put(PerResultPlugin.RESPONSE_PART, true);
+    List<QueryResponse> parts = new ArrayList<>();
+    parts.add(
+        new QueryResponseImpl(
+            incomingResponse.getRequest(),
+            incomingResponse.getResults().subList(0, 2),
+            true,
+            2,
+            new HashMap<>(partProperties)));
+    parts.add(
+        new QueryResponseImpl(
+            incomingResponse.getRequest(),
+            incomingResponse.getResults().subList(2, 5),
+            true,
+            3,
+            new HashMap<>(partProperties)));
+
+    int returned = 0;
+    for (QueryResponse part : parts) {
+      returned += plugin.processPostQuery(part).getResults().size();
+    }
+    plugin.processedInParts(parts, incomingResponse);
+
+    assertThat(returned, is(4));
+  }
+
   @Test
   public void testPluginFilterNoStrategies() {
     plugin = new FilterPlugin();
@@ -132,6 +132,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetCapabilitiesRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordByIdRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.source.reader.GetRecordsMessageBodyReader;
+import org.codice.ddf.spatial.ogc.csw.catalog.converter.GetRecordsResponseConverter;
 import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -169,6 +170,7 @@ public abstract class AbstractCswSource extends MaskableImpl
   protected static final String NO_FORCE_SPATIAL_FILTER = "NO_FILTER";
   protected static final String CONNECTION_TIMEOUT_PROPERTY = "connectionTimeout";
   protected static final String RECEIVE_TIMEOUT_PROPERTY = "receiveTimeout";
+  protected static final String RECORD_CONVERSION_THREADS_PROPERTY = "recordConversionThreads";
   protected static final String QUERY_TYPE_NAME_PROPERTY = "queryTypeName";
   protected static final String QUERY_TYPE_NAMESPACE_PROPERTY = "queryTypeNamespace";
   protected static final String USE_POS_LIST_PROPERTY = "usePosList";
@@ -238,6 +240,7 @@ public abstract class AbstractCswSource extends MaskableImpl
   private String cswVersion;
   private ScheduledExecutorService scheduler;
   private AvailabilityTask availabilityTask;
+  private int recordConversionThreads;
   private boolean isConstraintCql;
 
   /**
@@ -439,6 +442,9 @@ private void setConsumerMap() {
         RECEIVE_TIMEOUT_PROPERTY,
         value -> cswSourceConfiguration.setReceiveTimeout((Integer) value));
 
+    consumerMap.put(
+        RECORD_CONVERSION_THREADS_PROPERTY, value -> setRecordConversionThreads((Integer) value));
+
     consumerMap.put(
         OUTPUT_SCHEMA_PROPERTY, value -> setConsumerOutputSchemaProperty((String) value));
 
@@ -1088,6 +1094,30 @@ public Converter getCswTransformConverter() {
 
   public void setCswTransformConverter(Converter provider) {
     this.cswTransformConverter = provider;
+    configureRecordConversion();
+  }
+
+  public int getRecordConversionThreads() {
+    return recordConversionThreads;
+  }
+
+  /**
+   * Sets the number of threads that convert the records of GetRecords responses to metacards, 0 to
+   * convert them in the thread reading the response.
+   */
+  public void setRecordConversionThreads(Integer recordConversionThreads) {
+    int threads = recordConversionThreads == null ? 0 : recordConversionThreads;
+    if (threads != this.recordConversionThreads) {
+      this.recordConversionThreads = threads;
+      configureRecordConversion();
+    }
+  }
+
+  private void configureRecordConversion() {
+    if (cswTransformConverter instanceof GetRecordsResponseConverter) {
+      ((GetRecordsResponseConverter) cswTransformConverter)
+          .setRecordConversionThreads(recordConversionThreads);
+    }
   }
 
   public String getForceSpatialFilter() {
@@ -1882,6 +1912,7 @@ public void destroy(int code) {
     LOGGER.debug("{}: Entering destroy()", cswSourceConfiguration.getId());
     availabilityPollFuture.cancel(true);
     scheduler.shutdownNow();
+    setRecordConversionThreads(0);
     removeEventServiceSubscription();
   }
 
@@ -24,6 +24,8 @@
 import ddf.catalog.data.types.Core;
 import ddf.catalog.resource.impl.ResourceImpl;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -60,9 +62,12 @@ public class GetRecordsMessageBodyReader implements MessageBodyReader<CswRecordC
 
   public static final String BYTES_SKIPPED = "bytes-skipped";
 
+  /** The number of bytes at the start of a response that are kept to report a failure. */
+  private static final int MAX_REPORTED_BYTES = 64 * 1024;
+
   private XStream xstream;
 
-  private DataHolder argumentHolder;
+  private Map<String, Object> arguments;
 
   public GetRecordsMessageBodyReader(Converter converter, CswSourceConfiguration configuration) {
     xstream = new XStream(new XppDriver());
@@ -78,14 +83,24 @@ public GetRecordsMessageBodyReader(Converter converter, CswSourceConfiguration c
   }
 
   private void buildArguments(CswSourceConfiguration configuration) {
-    argumentHolder = xstream.newDataHolder();
-    argumentHolder.put(CswConstants.OUTPUT_SCHEMA_PARAMETER, configuration.getOutputSchema());
-    argumentHolder.put(CswConstants.CSW_MAPPING, configuration.getMetacardCswMappings());
-    argumentHolder.put(CswConstants.AXIS_ORDER_PROPERTY, configuration.getCswAxisOrder());
-    argumentHolder.put(Core.RESOURCE_URI, configuration.getMetacardMapping(Core.RESOURCE_URI));
-    argumentHolder.put(Core.THUMBNAIL, configuration.getMetacardMapping(Core.THUMBNAIL));
-    argumentHolder.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.SCHEMA);
-    argumentHolder.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, configuration.getOutputSchema());
+    arguments = new HashMap<>();
+    arguments.put(CswConstants.OUTPUT_SCHEMA_PARAMETER, configuration.getOutputSchema());
+    arguments.put(CswConstants.CSW_MAPPING, configuration.getMetacardCswMappings());
+    arguments.put(CswConstants.AXIS_ORDER_PROPERTY, configuration.getCswAxisOrder());
+    arguments.put(Core.RESOURCE_URI, configuration.getMetacardMapping(Core.RESOURCE_URI));
+    arguments.put(Core.THUMBNAIL, configuration.getMetacardMapping(Core.THUMBNAIL));
+    arguments.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.SCHEMA);
+    arguments.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, configuration.getOutputSchema());
+  }
+
+  /**
+   * Creates the data holder of a single response, since the converters add the namespace
+   * declarations of the response to it.
+   */
+  private DataHolder newArgumentHolder() {
+    DataHolder argumentHolder = xstream.newDataHolder();
+    arguments.forEach(argumentHolder::put);
+    return argumentHolder;
   }
 
   @Override
@@ -128,21 +143,17 @@ public CswRecordCollection readFrom(
       return cswRecords;
     }
 
-    // Save original input stream for any exception message that might need to be
-    // created
-    String originalInputStream = IOUtils.toString(inStream, "UTF-8");
-    LOGGER.debug("Converting to CswRecordCollection: \n {}", originalInputStream);
-
-    // Re-create the input stream (since it has already been read for potential
-    // exception message creation)
-    inStream = new ByteArrayInputStream(originalInputStream.getBytes("UTF-8"));
+    // The response is parsed as it is received rather than read into memory first. Only its
+    // start is kept for any exception message that might need to be created
+    HeadKeepingInputStream keepingStream = new HeadKeepingInputStream(inStream);
 
     try {
       HierarchicalStreamReader reader =
           new XppReader(
-              new InputStreamReader(inStream, StandardCharsets.UTF_8),
+              new InputStreamReader(keepingStream, StandardCharsets.UTF_8),
               XmlPullParserFactory.newInstance().newPullParser());
-      cswRecords = (CswRecordCollection) xstream.unmarshal(reader, null, argumentHolder);
+      cswRecords = (CswRecordCollection) xstream.unmarshal(reader, null, newArgumentHolder());
+      LOGGER.debug("Converted {} bytes to CswRecordCollection", keepingStream.getCount());
     } catch (XmlPullParserException e) {
       LOGGER.debug("Unable to create XmlPullParser, and cannot parse CSW Response.", e);
     } catch (XStreamException e) {
@@ -154,9 +165,8 @@ public CswRecordCollection readFrom(
       // exception and creating a JAX-RS response containing the original stream
       // (with the ExceptionReport) and rethrowing it as a WebApplicatioNException,
       // which CXF will wrap as a ClientException that the CswSource catches, converts
-      // to a CswException, and logs.
-      ByteArrayInputStream bis =
-          new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
+      // to a CswException, and logs. Responses longer than MAX_REPORTED_BYTES are cut.
+      ByteArrayInputStream bis = new ByteArrayInputStream(keepingStream.getOriginalHead());
       ResponseBuilder responseBuilder = Response.ok(bis);
       responseBuilder.type("text/xml");
       Response response = responseBuilder.build();
@@ -185,4 +195,74 @@ private String handleContentDispositionHeader(MultivaluedMap<String, String> htt
     }
     return "";
   }
+
+  /**
+   * Keeps the first {@link #MAX_REPORTED_BYTES} bytes read from a stream, so that a response that
+   * could not be converted can be returned without having buffered the whole response.
+   */
+  private static class HeadKeepingInputStream extends FilterInputStream {
+
+    private final ByteArrayOutputStream head = new ByteArrayOutputStream();
+
+    private long count;
+
+    HeadKeepingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        keep(new byte[] {(byte) b}, 0, 1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        keep(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      byte[] skipped = new byte[(int) Math.min(n, 8192)];
+      int read = read(skipped, 0, skipped.length);
+      return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    /**
+     * @return the first bytes of the stream, including the ones that have not been read yet up to
+     *     {@link #MAX_REPORTED_BYTES} bytes
+     */
+    byte[] getOriginalHead() throws IOException {
+      byte[] buffer = new byte[8192];
+      int read = 0;
+      while (read != -1 && head.size() < MAX_REPORTED_BYTES) {
+        read = read(buffer, 0, Math.min(buffer.length, MAX_REPORTED_BYTES - head.size()));
+      }
+      return head.toByteArray();
+    }
+
+    private void keep(byte[] b, int off, int len) {
+      count += len;
+      int kept = Math.min(len, MAX_REPORTED_BYTES - head.size());
+      if (kept > 0) {
+        head.write(b, off, kept);
+      }
+    }
+  }
 }
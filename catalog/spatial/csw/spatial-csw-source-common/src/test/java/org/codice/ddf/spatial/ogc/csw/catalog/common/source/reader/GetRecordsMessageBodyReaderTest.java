@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -36,13 +37,17 @@
 import ddf.security.encryption.EncryptionService;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswAxisOrder;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
@@ -171,6 +176,22 @@ public void testGetMultipleMetacardsWithForeignText() throws Exception {
     assertThat(metacards, contains(metacard));
   }
 
+  @Test
+  public void testExceptionReportIsReturned() throws Exception {
+    String exceptionReport = newExceptionReport("The XML request is not valid.");
+
+    assertThat(readUnconvertibleResponse(exceptionReport), is(exceptionReport));
+  }
+
+  @Test
+  public void testLargeUnconvertibleResponseIsCut() throws Exception {
+    String exceptionReport = newExceptionReport(StringUtils.repeat("x", 100 * 1024));
+
+    assertThat(
+        readUnconvertibleResponse(exceptionReport),
+        is(exceptionReport.substring(0, 64 * 1024)));
+  }
+
   @Test
   public void testReadProductData() throws Exception {
     CswSourceConfiguration config = new CswSourceConfiguration(encryptionService);
@@ -267,4 +288,36 @@ public void testPartialContentNotSupportedHandling() throws Exception {
     // of bytes that was attempted to be skipped, the stream must be aligned there instead.
     assertThat(resource.getByteArray(), is(data));
   }
+
+  private String readUnconvertibleResponse(String response) throws Exception {
+    CswSourceConfiguration config = new CswSourceConfiguration(encryptionService);
+    config.setMetacardCswMappings(DefaultCswRecordMap.getCswToMetacardAttributeNames());
+    config.setOutputSchema(CswConstants.CSW_OUTPUT_SCHEMA);
+    GetRecordsMessageBodyReader reader = new GetRecordsMessageBodyReader(mockProvider, config);
+
+    try {
+      reader.readFrom(
+          CswRecordCollection.class,
+          null,
+          null,
+          null,
+          new MultivaluedHashMap<>(),
+          new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)));
+    } catch (WebApplicationException e) {
+      return IOUtils.toString(
+          (InputStream) e.getResponse().getEntity(), StandardCharsets.UTF_8.name());
+    }
+    fail("The response should not have been converted.");
+    return null;
+  }
+
+  private static String newExceptionReport(String exceptionText) {
+    return "<ows:ExceptionReport version=\"1.2.0\" xmlns:ows=\"http://www.opengis.net/ows\">"
+        + "<ows:Exception exceptionCode=\"OPERATION_NOT_SUPPORTED\">"
+        + "<ows:ExceptionText>"
+        + exceptionText
+        + "</ows:ExceptionText>"
+        + "</ows:Exception>"
+        + "</ows:ExceptionReport>";
+  }
 }
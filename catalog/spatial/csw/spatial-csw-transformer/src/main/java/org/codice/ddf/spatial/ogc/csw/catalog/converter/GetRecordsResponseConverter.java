@@ -13,16 +13,34 @@
  */
 package org.codice.ddf.spatial.ogc.csw.catalog.converter;
 
+import com.thoughtworks.xstream.XStreamException;
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.core.ClassLoaderReference;
+import com.thoughtworks.xstream.core.DefaultConverterLookup;
+import com.thoughtworks.xstream.core.TreeUnmarshaller;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.mapper.DefaultMapper;
+import com.thoughtworks.xstream.mapper.Mapper;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import javax.measure.converter.ConversionException;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.slf4j.Logger;
@@ -36,8 +54,18 @@ public class GetRecordsResponseConverter implements Converter {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GetRecordsResponseConverter.class);
 
+  private static final int LOOK_AHEAD_PER_THREAD = 4;
+
+  private static final Mapper MAPPER =
+      new DefaultMapper(
+          new ClassLoaderReference(GetRecordsResponseConverter.class.getClassLoader()));
+
+  private static final DefaultConverterLookup CONVERTER_LOOKUP = new DefaultConverterLookup();
+
   private Converter transformProvider;
 
+  private volatile ThreadPoolExecutor recordConversionExecutor;
+
   /**
    * Creates a new GetRecordsResponseConverter Object
    *
@@ -48,6 +76,39 @@ public GetRecordsResponseConverter(Converter transformProvider) {
     this.transformProvider = transformProvider;
   }
 
+  /**
+   * Sets the number of threads that convert the records of a response to metacards. With one or
+   * more threads, each record is copied as it is read and converted while the following records are
+   * still being read. With 0, the records are converted one after the other as they are read.
+   *
+   * @param recordConversionThreads the number of threads, 0 to convert the records in the thread
+   *     reading the response
+   */
+  public void setRecordConversionThreads(int recordConversionThreads) {
+    ThreadPoolExecutor previousExecutor = recordConversionExecutor;
+    recordConversionExecutor =
+        recordConversionThreads > 0 ? newRecordConversionExecutor(recordConversionThreads) : null;
+    if (previousExecutor != null) {
+      previousExecutor.shutdown();
+    }
+  }
+
+  private static ThreadPoolExecutor newRecordConversionExecutor(int threads) {
+    // Runs the conversion in the thread reading the response when the executor was replaced while
+    // a response was using it
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            1L,
+            TimeUnit.MINUTES,
+            new ArrayBlockingQueue<>(threads * LOOK_AHEAD_PER_THREAD),
+            StandardThreadFactoryBuilder.newThreadFactory("cswRecordConversionThread"),
+            (task, rejectingExecutor) -> task.run());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   @Override
   public boolean canConvert(Class type) {
     boolean canConvert = CswRecordCollection.class.isAssignableFrom(type);
@@ -96,19 +157,11 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
       if (reader.getNodeName().contains("SearchResults")) {
         setSearchResults(reader, cswRecords);
 
-        // Loop through the <SearchResults>, converting each
-        // <csw:Record> into a Metacard
-        while (reader.hasMoreChildren()) {
-          reader.moveDown(); // move down to the <csw:Record> tag
-          String name = reader.getNodeName();
-          LOGGER.debug("node name = {}", name);
-          Metacard metacard =
-              (Metacard) context.convertAnother(null, MetacardImpl.class, transformProvider);
-          metacards.add(metacard);
-
-          // move back up to the <SearchResults> parent of the
-          // <csw:Record> tags
-          reader.moveUp();
+        ThreadPoolExecutor executor = recordConversionExecutor;
+        if (executor == null) {
+          convertRecords(reader, context, metacards);
+        } else {
+          convertRecords(reader, context, metacards, executor);
         }
       }
       reader.moveUp();
@@ -135,6 +188,99 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
     return cswRecords;
   }
 
+  private void convertRecords(
+      HierarchicalStreamReader reader, UnmarshallingContext context, List<Metacard> metacards) {
+    // Loop through the <SearchResults>, converting each
+    // <csw:Record> into a Metacard
+    while (reader.hasMoreChildren()) {
+      reader.moveDown(); // move down to the <csw:Record> tag
+      String name = reader.getNodeName();
+      LOGGER.debug("node name = {}", name);
+      Metacard metacard =
+          (Metacard) context.convertAnother(null, MetacardImpl.class, transformProvider);
+      metacards.add(metacard);
+
+      // move back up to the <SearchResults> parent of the
+      // <csw:Record> tags
+      reader.moveUp();
+    }
+  }
+
+  /**
+   * Converts the records of the {@code <SearchResults>} in the threads of the executor. Only a few
+   * records per thread are read ahead of the conversions, so the copies of the records that are
+   * waiting to be converted stay small however large the response is.
+   */
+  private void convertRecords(
+      HierarchicalStreamReader reader,
+      UnmarshallingContext context,
+      List<Metacard> metacards,
+      ThreadPoolExecutor executor) {
+    int lookAhead = executor.getMaximumPoolSize() * LOOK_AHEAD_PER_THREAD;
+    Deque<Future<Metacard>> conversions = new ArrayDeque<>();
+    try {
+      while (reader.hasMoreChildren()) {
+        reader.moveDown(); // move down to the <csw:Record> tag
+        LOGGER.debug("node name = {}", reader.getNodeName());
+        conversions.add(submitRecord(reader, context, executor));
+        reader.moveUp();
+
+        if (conversions.size() > lookAhead) {
+          metacards.add(getMetacard(conversions.remove()));
+        }
+      }
+      while (!conversions.isEmpty()) {
+        metacards.add(getMetacard(conversions.remove()));
+      }
+    } finally {
+      conversions.forEach(conversion -> conversion.cancel(true));
+    }
+  }
+
+  /**
+   * Copies the record the reader is at, with the namespaces declared by its ancestors, and submits
+   * its conversion with a copy of the context data.
+   */
+  private Future<Metacard> submitRecord(
+      HierarchicalStreamReader reader, UnmarshallingContext context, ThreadPoolExecutor executor) {
+    Map<Object, Object> data = new HashMap<>();
+    Iterator keys = context.keys();
+    while (keys.hasNext()) {
+      Object key = keys.next();
+      data.put(key, context.get(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, String> namespaces =
+        (Map<String, String>) context.get(CswConstants.NAMESPACE_DECLARATIONS);
+    HierarchicalStreamReader recordReader =
+        XStreamAttributeCopier.copyXml(reader, new StringWriter(), namespaces);
+
+    return executor.submit(() -> convertRecord(recordReader, data));
+  }
+
+  private Metacard convertRecord(HierarchicalStreamReader recordReader, Map<Object, Object> data) {
+    TreeUnmarshaller recordContext =
+        new TreeUnmarshaller(null, recordReader, CONVERTER_LOOKUP, MAPPER);
+    data.forEach(recordContext::put);
+    return (Metacard) recordContext.convertAnother(null, MetacardImpl.class, transformProvider);
+  }
+
+  private Metacard getMetacard(Future<Metacard> conversion) {
+    try {
+      return conversion.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new XStreamException("Interrupted while converting the CSW records.", e);
+    } catch (ExecutionException e) {
+      // The conversions only throw unchecked exceptions
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw (RuntimeException) e.getCause();
+    }
+  }
+
   private void setSearchResults(HierarchicalStreamReader reader, CswRecordCollection cswRecords) {
 
     String numberOfRecordsMatched = reader.getAttribute("numberOfRecordsMatched");
@@ -352,6 +352,58 @@ public void testUnmarshalGetRecordsResponseConversionWithEmptyBoundingBox() {
     assertThat(metacards.size(), is(1));
   }
 
+  @Test
+  public void testUnmarshalRecordsInParallel() throws XmlPullParserException {
+    int recordCount = 100;
+    StringBuilder xml =
+        new StringBuilder(
+            "<csw:GetRecordsResponse xmlns:csw=\"http://www.opengis.net/cat/csw\" "
+                + "xmlns:dc=\"http://purl.org/dc/elements/1.1/\">\r\n"
+                + "  <csw:SearchResults numberOfRecordsMatched=\"479\" "
+                + "numberOfRecordsReturned=\""
+                + recordCount
+                + "\">\r\n");
+    for (int i = 0; i < recordCount; i++) {
+      xml.append("    <csw:Record>\r\n")
+          .append("      <dc:identifier>id")
+          .append(i)
+          .append("</dc:identifier>\r\n")
+          .append("      <dc:title>title ")
+          .append(i)
+          .append("</dc:title>\r\n")
+          .append("    </csw:Record>\r\n");
+    }
+    xml.append("  </csw:SearchResults>\r\n").append("</csw:GetRecordsResponse>");
+
+    when(mockInputManager.getTransformerBySchema(anyString()))
+        .thenReturn(new CswRecordConverter(CswRecordConverterTest.getCswMetacardType()));
+    GetRecordsResponseConverter converter =
+        new GetRecordsResponseConverter(new CswTransformProvider(null, mockInputManager));
+    converter.setRecordConversionThreads(4);
+
+    XStream xstream = new XStream();
+    xstream.setClassLoader(this.getClass().getClassLoader());
+    xstream.registerConverter(converter);
+    xstream.alias("csw:GetRecordsResponse", CswRecordCollection.class);
+
+    CswRecordCollection cswRecords =
+        (CswRecordCollection)
+            xstream.unmarshal(
+                new XppReader(
+                    new InputStreamReader(IOUtils.toInputStream(xml.toString())),
+                    XmlPullParserFactory.newInstance().newPullParser()));
+    converter.setRecordConversionThreads(0);
+
+    assertThat(cswRecords.getNumberOfRecordsMatched(), is(479L));
+    assertThat(cswRecords.getNumberOfRecordsReturned(), is((long) recordCount));
+    List<Metacard> metacards = cswRecords.getCswRecords();
+    assertThat(metacards.size(), is(recordCount));
+    for (int i = 0; i < recordCount; i++) {
+      assertThat(metacards.get(i).getId(), is("id" + i));
+      assertThat(metacards.get(i).getTitle(), is("title " + i));
+    }
+  }
+
   @Ignore
   public void testMarshalRecordCollectionGetBrief()
       throws UnsupportedEncodingException, JAXBException {
@@ -17,18 +17,21 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.IncrementalInputStream;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 import net.minidev.json.parser.JSONParser;
@@ -40,7 +43,8 @@
  * Implements the {@link QueryResponseTransformer} interface to transform a {@link SourceResponse}
  * instance to GeoJSON. This class creates JSON objects for the list of {@link
  * ddf.catalog.data.Metacard}s that are the results from a query. This class leverages the {@link
- * GeoJsonMetacardTransformer} to convert metacards to JSON.
+ * GeoJsonMetacardTransformer} to convert metacards to JSON. The returned content is written as it
+ * is read, one result at a time, so a failure to convert a result is reported by its input stream.
  *
  * @see GeoJsonMetacardTransformer
  * @see QueryResponseTransformer
@@ -112,26 +116,79 @@ public BinaryContent transform(
           "Cannot transform null " + SourceResponse.class.getName());
     }
 
-    JSONObject rootObject = new JSONObject();
+    List<Result> results =
+        upstreamResponse.getResults() != null
+            ? upstreamResponse.getResults()
+            : Collections.emptyList();
+    for (Result result : results) {
+      if (result == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+      }
+      if (result.getMetacard() == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Metacard.class.getName());
+      }
+    }
+    if (metacardTransformer == null && !results.isEmpty()) {
+      throw new CatalogTransformerException("The metacard transformer cannot be null");
+    }
+
+    return new BinaryContentImpl(
+        new GeoJsonInputStream(upstreamResponse.getHits(), results.iterator()),
+        DEFAULT_MIME_TYPE);
+  }
+
+  /**
+   * Writes the response as the stream is read, converting one result at a time so that only the
+   * JSON of the result being read is held in memory.
+   */
+  private class GeoJsonInputStream extends IncrementalInputStream {
+
+    private final long hits;
+
+    private final Iterator<Result> results;
 
-    addNonNullObject(rootObject, "hits", upstreamResponse.getHits());
+    private boolean started;
 
-    JSONArray resultsList = new JSONArray();
+    private boolean firstResult = true;
 
-    if (upstreamResponse.getResults() != null) {
-      for (Result result : upstreamResponse.getResults()) {
-        if (result == null) {
-          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+    private boolean ended;
+
+    GeoJsonInputStream(long hits, Iterator<Result> results) {
+      this.hits = hits;
+      this.results = results;
+    }
+
+    @Override
+    protected byte[] nextChunk() throws IOException {
+      if (!started) {
+        started = true;
+        return toBytes("{\"hits\":" + hits + ",\"results\":[");
+      }
+
+      if (results.hasNext()) {
+        StringBuilder json = new StringBuilder();
+        if (!firstResult) {
+          json.append(',');
+        }
+        firstResult = false;
+        try {
+          JSONValue.writeJSONString(convertToJSON(results.next()), json);
+        } catch (CatalogTransformerException e) {
+          throw new IOException("Unable to transform result to GeoJSON", e);
         }
-        resultsList.add(convertToJSON(result));
+        return toBytes(json.toString());
       }
-    }
-    addNonNullObject(rootObject, "results", resultsList);
 
-    String jsonText = JSONValue.toJSONString(rootObject);
+      if (!ended) {
+        ended = true;
+        return toBytes("]}");
+      }
+      return null;
+    }
 
-    return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+    private byte[] toBytes(String json) {
+      return json.getBytes(StandardCharsets.UTF_8);
+    }
   }
 
   @Override
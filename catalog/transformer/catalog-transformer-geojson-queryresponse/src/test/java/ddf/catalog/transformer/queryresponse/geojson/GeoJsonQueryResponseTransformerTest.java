@@ -155,6 +155,24 @@ public void testCustomTransformerWithJsonArray()
     assertThat(((JSONObject) metacard.get(1)).get("id"), is("1"));
   }
 
+  @Test(expected = IOException.class)
+  public void testInvalidMetacardJsonFailsWhenRead()
+      throws ParseException, IOException, CatalogTransformerException {
+    GeoJsonQueryResponseTransformer geoJsonQRT =
+        new GeoJsonQueryResponseTransformer(createCustomMetacardTransformer("{\"id\":"));
+
+    transform(setupResponse(1, 1L), geoJsonQRT);
+  }
+
+  @Test
+  public void testManyResults() throws CatalogTransformerException, IOException, ParseException {
+    final int resultCount = 1000;
+    SourceResponse sourceResponse = setupResponse(resultCount, resultCount);
+    JSONObject obj = transform(sourceResponse);
+
+    verifyResponse(obj, resultCount, resultCount);
+  }
+
   private MetacardTransformer createCustomMetacardTransformer(String binContent) {
     return (metacard, arguments) ->
         new BinaryContentImpl(IOUtils.toInputStream(binContent, StandardCharsets.UTF_8));
@@ -26,19 +26,21 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.IncrementalInputStream;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.geo.formatter.CompositeGeometry;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -224,12 +226,62 @@ public BinaryContent transform(SourceResponse sourceResponse, Map<String, Serial
       startIndex.setText(Integer.toString(sourceResponse.getRequest().getQuery().getStartIndex()));
     }
 
-    if (getCount(sourceResponse) != 0) {
-      sourceResponse.getResults().stream().forEach(r -> addSingleResult(currentDate, feed, r));
+    List<Result> results =
+        getCount(sourceResponse) != 0 && sourceResponse.getResults() != null
+            ? sourceResponse.getResults()
+            : Collections.emptyList();
+
+    // The entries are written between the start and the end of the feed as the content is read
+    String feedXml = new String(createOutputStream(feed), StandardCharsets.UTF_8);
+    int feedEnd = feedXml.lastIndexOf("</");
+
+    return new BinaryContentImpl(
+        new FeedInputStream(
+            feedXml.substring(0, feedEnd),
+            results.iterator(),
+            feedXml.substring(feedEnd),
+            currentDate),
+        MIME_TYPE);
+  }
+
+  /**
+   * Writes the feed as the stream is read, one entry at a time, so that only the entry being read
+   * is held in memory. Each entry is written as a standalone element that declares the namespaces
+   * it uses.
+   */
+  private class FeedInputStream extends IncrementalInputStream {
+
+    private final Iterator<Result> results;
+
+    private final Date currentDate;
+
+    private String start;
+
+    private String end;
+
+    FeedInputStream(String start, Iterator<Result> results, String end, Date currentDate) {
+      this.start = start;
+      this.results = results;
+      this.end = end;
+      this.currentDate = currentDate;
     }
 
-    byte[] bytes = createOutputStream(feed);
-    return new BinaryContentImpl(new ByteArrayInputStream(bytes), MIME_TYPE);
+    @Override
+    protected byte[] nextChunk() throws IOException {
+      String xml;
+      if (start != null) {
+        xml = start;
+        start = null;
+      } else if (results.hasNext()) {
+        xml = writeEntry(createEntry(currentDate, results.next()));
+      } else if (end != null) {
+        xml = end;
+        end = null;
+      } else {
+        return null;
+      }
+      return xml.getBytes(StandardCharsets.UTF_8);
+    }
   }
 
   private byte[] createOutputStream(Feed feed) throws CatalogTransformerException {
@@ -259,14 +311,47 @@ private Feed createFeed() {
     }
   }
 
-  private void addSingleResult(Date currentDate, Feed feed, Result result) {
+  private Entry newEntry() {
+    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+
+    try {
+      Thread.currentThread().setContextClassLoader(AtomTransformer.class.getClassLoader());
+      return ABDERA.newEntry();
+    } finally {
+      Thread.currentThread().setContextClassLoader(tccl);
+    }
+  }
+
+  private String writeEntry(Entry entry) throws IOException {
+    if (entry == null) {
+      return "";
+    }
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+
+    try {
+      Thread.currentThread().setContextClassLoader(AtomTransformer.class.getClassLoader());
+      entry.writeTo(baos);
+    } finally {
+      Thread.currentThread().setContextClassLoader(tccl);
+    }
+
+    String xml = new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    if (xml.startsWith("<?xml")) {
+      xml = xml.substring(xml.indexOf("?>") + 2);
+    }
+    return xml;
+  }
+
+  private Entry createEntry(Date currentDate, Result result) {
     Metacard metacard = result.getMetacard();
 
     if (metacard == null) {
-      return;
+      return null;
     }
 
-    Entry entry = feed.addEntry();
+    Entry entry = newEntry();
     entry.setId(URN_CATALOG_ID + metacard.getId());
 
     addSourceExtension(result, entry);
@@ -310,6 +395,7 @@ private void addSingleResult(Date currentDate, Feed feed, Result result) {
     Optional.ofNullable(metacard.getContentTypeName()).ifPresent(entry::addCategory);
     addPosition(metacard, entry);
     setContent(metacard, entry);
+    return entry;
   }
 
   private void addPosition(Metacard metacard, Entry entry) {
@@ -48,6 +48,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import javax.xml.XMLConstants;
@@ -305,6 +306,42 @@ public void testNoMetacardTransformer()
     assertXpathEvaluatesTo(SAMPLE_ID, "/atom:feed/atom:entry/atom:content", output);
   }
 
+  @Test
+  public void testEntriesKeepResultOrder()
+      throws IOException, CatalogTransformerException, XpathException, SAXException {
+    // given
+    AtomTransformer transformer =
+        getConfiguredAtomTransformer(getXmlMetacardTransformerStub(), true);
+
+    SourceResponse response = mock(SourceResponse.class);
+    when(response.getRequest()).thenReturn(getStubRequest());
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MetacardStub metacard = new MetacardStub("");
+      metacard.setId(SAMPLE_ID + i);
+      results.add(new ResultImpl(metacard));
+    }
+    when(response.getResults()).thenReturn(results);
+
+    // when
+    BinaryContent binaryContent = transformer.transform(response, null);
+
+    // then
+    byte[] bytes = binaryContent.getByteArray();
+    String output = new String(bytes);
+
+    assertFeedCompliant(output);
+    validateAgainstAtomSchema(bytes);
+    assertXpathEvaluatesTo("3", "count(/atom:feed/atom:entry)", output);
+    for (int i = 0; i < 3; i++) {
+      assertXpathEvaluatesTo(
+          AtomTransformer.URN_CATALOG_ID + SAMPLE_ID + i,
+          "/atom:feed/atom:entry[" + (i + 1) + "]/atom:id",
+          output);
+    }
+  }
+
   @Test
   public void testThrowMetacardTransformerCatalogTransformerException()
       throws IOException, CatalogTransformerException, XpathException, SAXException {
@@ -15,6 +15,8 @@
 
 import com.github.jaiimageio.impl.plugins.tiff.TIFFImageReaderSpi;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
+import com.google.common.io.ByteSource;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.content.operation.MetadataExtractor;
 import ddf.catalog.data.Attribute;
@@ -40,6 +42,8 @@
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -354,6 +358,13 @@ public Metacard transform(InputStream input, String id)
       throw new CatalogTransformerException("Cannot transform null input.");
     }
 
+    if (input instanceof FileBackedContent) {
+      // The content is already in a file, read it from there rather than copying it again.
+      Path path = ((FileBackedContent) input).getPath();
+      return transform(
+          com.google.common.io.Files.asByteSource(path.toFile()), Files.size(path), id);
+    }
+
     try (TemporaryFileBackedOutputStream fileBackedOutputStream =
         new TemporaryFileBackedOutputStream()) {
       try {
@@ -362,54 +373,58 @@ public Metacard transform(InputStream input, String id)
         throw new CatalogTransformerException("Could not copy bytes of content message.", e);
       }
 
-      Metadata metadata;
-      String bodyText = null;
-      String metadataText;
-      Metacard metacard = new MetacardImpl(commonTikaMetacardType);
-      String contentType = DataType.DATASET.name();
-      TikaMetadataExtractor extractor = null;
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
-        extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
-
-      } catch (TikaException | RuntimeException t) {
-        LOGGER.debug("Unable to extract tika metadata", t);
-      }
+      return transform(fileBackedOutputStream.asByteSource(), bytes, id);
+    }
+  }
 
-      if (extractor != null) {
-        metadataText = extractor.getMetadataXml();
-        Attribute validationAttribute = null;
-        if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
-          validationAttribute =
-              new AttributeImpl(
-                  Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
-          metadataText = "";
-        }
-        bodyText = extractor.getBodyText();
-        metadata = extractor.getMetadata();
-        contentType = metadata.get(Metadata.CONTENT_TYPE);
-        MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
-        metacard =
-            MetacardCreator.createMetacard(
-                metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
-        if (StringUtils.isNotBlank(bodyText)) {
-          metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
-          processContentMetadataExtractors(bodyText, metacard);
-        }
+  private Metacard transform(ByteSource content, long bytes, String id) throws IOException {
+    Metadata metadata;
+    String bodyText = null;
+    String metadataText;
+    Metacard metacard = new MetacardImpl(commonTikaMetacardType);
+    String contentType = DataType.DATASET.name();
+    TikaMetadataExtractor extractor = null;
+    try (InputStream inputStreamCopy = content.openStream()) {
+      extractor = new TikaMetadataExtractor(inputStreamCopy, previewMaxLength, metadataMaxLength);
 
-        if (StringUtils.isNotBlank(metadataText)) {
-          processMetadataExtractors(metadataText, metacard);
-        }
+    } catch (TikaException | RuntimeException t) {
+      LOGGER.debug("Unable to extract tika metadata", t);
+    }
 
-        if (validationAttribute != null) {
-          metacard.setAttribute(validationAttribute);
-        }
+    if (extractor != null) {
+      metadataText = extractor.getMetadataXml();
+      Attribute validationAttribute = null;
+      if (metadataText.equals(TikaMetadataExtractor.METADATA_LIMIT_REACHED_MSG)) {
+        validationAttribute =
+            new AttributeImpl(
+                Validation.VALIDATION_WARNINGS, Collections.singletonList(metadataText));
+        metadataText = "";
+      }
+      bodyText = extractor.getBodyText();
+      metadata = extractor.getMetadata();
+      contentType = metadata.get(Metadata.CONTENT_TYPE);
+      MetacardType metacardType = mergeAttributes(getMetacardType(contentType));
+      metacard =
+          MetacardCreator.createMetacard(
+              metadata, id, metadataText, metacardType, useResourceTitleAsTitle);
+      if (StringUtils.isNotBlank(bodyText)) {
+        metacard.setAttribute(new AttributeImpl(Extracted.EXTRACTED_TEXT, bodyText));
+        processContentMetadataExtractors(bodyText, metacard);
       }
 
-      enrichMetacard(fileBackedOutputStream, contentType, bytes, metacard);
+      if (StringUtils.isNotBlank(metadataText)) {
+        processMetadataExtractors(metadataText, metacard);
+      }
 
-      LOGGER.debug("Finished transforming input stream using Tika.");
-      return metacard;
+      if (validationAttribute != null) {
+        metacard.setAttribute(validationAttribute);
+      }
     }
+
+    enrichMetacard(content, contentType, bytes, metacard);
+
+    LOGGER.debug("Finished transforming input stream using Tika.");
+    return metacard;
   }
 
   private void processMetadataExtractors(String metadataText, Metacard metacard) {
@@ -521,13 +536,19 @@ protected void enrichMetacard(
       long bytes,
       Metacard metacard)
       throws IOException {
+    enrichMetacard(fileBackedOutputStream.asByteSource(), metacardContentType, bytes, metacard);
+  }
+
+  protected void enrichMetacard(
+      ByteSource content, String metacardContentType, long bytes, Metacard metacard)
+      throws IOException {
 
     if (StringUtils.isNotBlank(metacardContentType)) {
       metacard.setAttribute(new AttributeImpl(Core.DATATYPE, getDatatype(metacardContentType)));
     }
 
     if (StringUtils.startsWith(metacardContentType, "image")) {
-      try (InputStream inputStreamCopy = fileBackedOutputStream.asByteSource().openStream()) {
+      try (InputStream inputStreamCopy = content.openStream()) {
         createThumbnail(inputStreamCopy, metacard);
       }
     }
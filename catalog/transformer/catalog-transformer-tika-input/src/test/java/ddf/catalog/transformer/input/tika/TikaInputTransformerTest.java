@@ -26,6 +26,7 @@
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
@@ -34,8 +35,10 @@
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import com.google.common.collect.ImmutableSet;
+import ddf.catalog.content.data.FileBackedContent;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.content.operation.MetadataExtractor;
 import ddf.catalog.data.AttributeDescriptor;
@@ -58,6 +61,9 @@
 import ddf.catalog.transformer.common.tika.TikaMetadataExtractor;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
@@ -464,6 +470,34 @@ public void testPng() throws Exception {
     assertThat(metacard.getAttribute(Core.DATATYPE).getValue(), is(IMAGE));
   }
 
+  @Test
+  public void testFileBackedContentIsReadFromFile() throws Exception {
+    Path path = Files.createTempFile("testPNG", ".png");
+    try {
+      try (InputStream resource =
+          Thread.currentThread().getContextClassLoader().getResourceAsStream("testPNG.png")) {
+        Files.copy(resource, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+      InputStream stream =
+          mock(InputStream.class, withSettings().extraInterfaces(FileBackedContent.class));
+      when(((FileBackedContent) stream).getPath()).thenReturn(path);
+
+      Metacard metacard = transform(stream);
+
+      assertThat(metacard.getContentTypeName(), is("image/png"));
+      assertThat(metacard.getAttribute(Core.DATATYPE).getValue(), is(IMAGE));
+      assertThat(metacard.getThumbnail(), notNullValue());
+      assertThat(
+          metacard.getAttribute(Core.RESOURCE_SIZE).getValue(),
+          is(String.valueOf(Files.size(path))));
+      verify(stream, never()).read();
+      verify(stream, never()).read(any(byte[].class));
+      verify(stream, never()).read(any(byte[].class), anyInt(), anyInt());
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
   @Test
   public void testMp3() throws Exception {
     InputStream stream =
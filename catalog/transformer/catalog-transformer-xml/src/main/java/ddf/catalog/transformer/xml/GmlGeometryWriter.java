@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.xml;
+
+import com.vividsolutions.jts.geom.Coordinate;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryCollection;
+import com.vividsolutions.jts.geom.LineString;
+import com.vividsolutions.jts.geom.LinearRing;
+import com.vividsolutions.jts.geom.MultiLineString;
+import com.vividsolutions.jts.geom.MultiPoint;
+import com.vividsolutions.jts.geom.MultiPolygon;
+import com.vividsolutions.jts.geom.Point;
+import com.vividsolutions.jts.geom.Polygon;
+import ddf.catalog.transformer.api.PrintWriter;
+
+/**
+ * Writes JTS geometries as GML 3.1.1 elements straight into a {@link PrintWriter}. The elements are
+ * the ones the JAXB binding of {@link ddf.catalog.transformer.xml.adapter.GeometryAdapter}
+ * produces, without building, marshalling and parsing them again. The {@code gml} prefix must be
+ * bound by an enclosing element.
+ */
+final class GmlGeometryWriter {
+
+  private static final String GML_PREFIX = "gml:";
+
+  private final StringBuilder position = new StringBuilder();
+
+  /**
+   * @return whether the geometry can be written, which is not the case of empty geometries or
+   *     collections containing an empty geometry
+   */
+  static boolean canWrite(Geometry geometry) {
+    if (geometry.isEmpty()) {
+      return false;
+    }
+    if (geometry instanceof GeometryCollection) {
+      for (int i = 0; i < geometry.getNumGeometries(); i++) {
+        if (!canWrite(geometry.getGeometryN(i))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Writes the GML element of a geometry accepted by {@link #canWrite(Geometry)}. */
+  void write(PrintWriter writer, Geometry geometry) {
+    if (geometry instanceof Point) {
+      writePoint(writer, (Point) geometry);
+    } else if (geometry instanceof LinearRing) {
+      writePositions(writer, "LinearRing", geometry.getCoordinates());
+    } else if (geometry instanceof LineString) {
+      writePositions(writer, "LineString", geometry.getCoordinates());
+    } else if (geometry instanceof Polygon) {
+      writePolygon(writer, (Polygon) geometry);
+    } else if (geometry instanceof MultiPoint) {
+      writeMembers(writer, "MultiPoint", "pointMember", geometry);
+    } else if (geometry instanceof MultiLineString) {
+      writeMembers(writer, "MultiLineString", "lineStringMember", geometry);
+    } else if (geometry instanceof MultiPolygon) {
+      writeMembers(writer, "MultiPolygon", "polygonMember", geometry);
+    } else if (geometry instanceof GeometryCollection) {
+      writeMembers(writer, "MultiGeometry", "geometryMember", geometry);
+    } else {
+      throw new IllegalArgumentException(
+          "Unsupported geometry type: " + geometry.getGeometryType());
+    }
+  }
+
+  private void writePoint(PrintWriter writer, Point point) {
+    writer.startNode(GML_PREFIX + "Point");
+    writePosition(writer, point.getCoordinate());
+    writer.endNode();
+  }
+
+  private void writePolygon(PrintWriter writer, Polygon polygon) {
+    writer.startNode(GML_PREFIX + "Polygon");
+    writeRing(writer, "exterior", polygon.getExteriorRing());
+    for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+      writeRing(writer, "interior", polygon.getInteriorRingN(i));
+    }
+    writer.endNode();
+  }
+
+  private void writeRing(PrintWriter writer, String property, LineString ring) {
+    writer.startNode(GML_PREFIX + property);
+    writePositions(writer, "LinearRing", ring.getCoordinates());
+    writer.endNode();
+  }
+
+  private void writeMembers(
+      PrintWriter writer, String element, String memberProperty, Geometry collection) {
+    writer.startNode(GML_PREFIX + element);
+    for (int i = 0; i < collection.getNumGeometries(); i++) {
+      writer.startNode(GML_PREFIX + memberProperty);
+      write(writer, collection.getGeometryN(i));
+      writer.endNode();
+    }
+    writer.endNode();
+  }
+
+  private void writePositions(PrintWriter writer, String element, Coordinate[] coordinates) {
+    writer.startNode(GML_PREFIX + element);
+    for (Coordinate coordinate : coordinates) {
+      writePosition(writer, coordinate);
+    }
+    writer.endNode();
+  }
+
+  private void writePosition(PrintWriter writer, Coordinate coordinate) {
+    position.setLength(0);
+    appendOrdinate(coordinate.x);
+    position.append(' ');
+    appendOrdinate(coordinate.y);
+    if (!Double.isNaN(coordinate.z)) {
+      position.append(' ');
+      appendOrdinate(coordinate.z);
+    }
+
+    writer.startNode(GML_PREFIX + "pos");
+    writer.setValue(position.toString());
+    writer.endNode();
+  }
+
+  /** Appends an ordinate the way JAXB prints an {@code xs:double}. */
+  private void appendOrdinate(double ordinate) {
+    if (ordinate == Double.POSITIVE_INFINITY) {
+      position.append("INF");
+    } else if (ordinate == Double.NEGATIVE_INFINITY) {
+      position.append("-INF");
+    } else {
+      position.append(ordinate);
+    }
+  }
+}
@@ -17,6 +17,10 @@
 import com.thoughtworks.xstream.io.copy.HierarchicalStreamCopier;
 import com.thoughtworks.xstream.io.xml.XppReader;
 import com.thoughtworks.xstream.io.xml.xppdom.XppFactory;
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
@@ -35,12 +39,14 @@
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.codice.ddf.parser.Parser;
@@ -69,6 +75,12 @@ public class MetacardMarshallerImpl implements MetacardMarshaller {
 
   public static final String OMIT_XML_DECL = "OMIT_XML_DECLARATION";
 
+  private static final String XML_DECL_START = "<?xml";
+
+  private static final Pattern XML_DECL_PATTERN = Pattern.compile("[<][?]xml.*[?][>]");
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
   static {
     TYPE_NAME_LOOKUP =
         new ImmutableMap.Builder<AttributeType.AttributeFormat, String>()
@@ -151,9 +163,8 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
       writer.endNode(); // source
     }
 
-    // if multi-threading, cannot abstract XmlPullParser creation to class member.
-    // xmlPullParser used only for geometry
-    XmlPullParser xmlPullParser = XppFactory.createDefaultParser();
+    // if multi-threading, cannot abstract the WKTReader and GmlGeometryWriter to class members
+    GeometryContext geometryContext = new GeometryContext();
 
     Set<AttributeDescriptor> attributeDescriptors =
         metacard.getMetacardType().getAttributeDescriptors();
@@ -168,7 +179,7 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
 
       if (attribute != null && attribute.getValue() != null) {
         AttributeType.AttributeFormat format = attributeDescriptor.getType().getAttributeFormat();
-        writeAttributeToXml(writer, xmlPullParser, attribute, format);
+        writeAttributeToXml(writer, geometryContext, attribute, format);
       }
     }
     writer.endNode(); // metacard
@@ -176,11 +187,8 @@ public String marshal(Metacard metacard, Map<String, Serializable> arguments)
   }
 
   private String getStringValue(
-      XmlPullParser parser,
-      Attribute attribute,
-      AttributeType.AttributeFormat format,
-      Serializable value)
-      throws IOException, CatalogTransformerException {
+      Attribute attribute, AttributeType.AttributeFormat format, Serializable value)
+      throws IOException {
     switch (format) {
       case STRING:
       case BOOLEAN:
@@ -193,8 +201,6 @@ private String getStringValue(
       case DATE:
         Date date = (Date) value;
         return DateFormatUtils.formatUTC(date, DF_PATTERN);
-      case GEOMETRY:
-        return geoToXml(geometryTransformer.transform(attribute), parser);
       case OBJECT:
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
         try (ObjectOutput output = new ObjectOutputStream(bos)) {
@@ -204,16 +210,23 @@ private String getStringValue(
       case BINARY:
         return Base64.getEncoder().encodeToString((byte[]) value);
       case XML:
-        return value.toString().replaceAll("[<][?]xml.*[?][>]", "");
+        return removeXmlDeclaration(value.toString());
       default:
         LOGGER.debug("Unsupported attribute: {}", format);
         return value.toString();
     }
   }
 
+  private String removeXmlDeclaration(String xml) {
+    if (!xml.contains(XML_DECL_START)) {
+      return xml;
+    }
+    return XML_DECL_PATTERN.matcher(xml).replaceAll("");
+  }
+
   private void writeAttributeToXml(
       PrintWriter writer,
-      XmlPullParser parser,
+      GeometryContext geometryContext,
       Attribute attribute,
       AttributeType.AttributeFormat format)
       throws IOException, CatalogTransformerException {
@@ -221,36 +234,60 @@ private void writeAttributeToXml(
     List<Serializable> values = attribute.getValues();
 
     if (values.size() > 0) {
-      // The GeometryTransformer creates an XML fragment containing
-      // both the name - with namespaces declared - and the value
-      if (format != AttributeType.AttributeFormat.GEOMETRY) {
-        writer.startNode(TYPE_NAME_LOOKUP.get(format));
-        writer.addAttribute("name", attributeName);
+      if (format == AttributeType.AttributeFormat.GEOMETRY) {
+        writeGeometryToXml(writer, geometryContext, attribute);
+        return;
       }
 
-      for (Serializable value : values) {
-        String stringifiedValue = getStringValue(parser, attribute, format, value);
+      writer.startNode(TYPE_NAME_LOOKUP.get(format));
+      writer.addAttribute("name", attributeName);
 
-        if (format != AttributeType.AttributeFormat.GEOMETRY) {
-          writer.startNode("value");
-        }
+      for (Serializable value : values) {
+        String stringifiedValue = getStringValue(attribute, format, value);
 
-        if (format == AttributeType.AttributeFormat.XML
-            || format == AttributeType.AttributeFormat.GEOMETRY) {
+        writer.startNode("value");
+        if (format == AttributeType.AttributeFormat.XML) {
           writer.setRawValue(stringifiedValue);
         } else {
           writer.setValue(stringifiedValue);
         }
-
-        if (format != AttributeType.AttributeFormat.GEOMETRY) {
-          writer.endNode(); // value
-        }
+        writer.endNode(); // value
       }
 
-      if (format != AttributeType.AttributeFormat.GEOMETRY) {
-        writer.endNode(); // type
+      writer.endNode(); // type
+    }
+  }
+
+  /**
+   * Writes the GML of the WKT values of a geometry attribute straight into the writer. Empty
+   * geometries, which the {@link GmlGeometryWriter} does not write, go through the JAXB binding of
+   * the {@link GeometryTransformer} instead.
+   */
+  private void writeGeometryToXml(
+      PrintWriter writer, GeometryContext geometryContext, Attribute attribute)
+      throws IOException, CatalogTransformerException {
+    List<Geometry> geometries = new ArrayList<>();
+    for (Serializable value : attribute.getValues()) {
+      if (!(value instanceof String)) {
+        continue;
       }
+      Geometry geometry = geometryContext.read((String) value);
+      if (!GmlGeometryWriter.canWrite(geometry)) {
+        writer.setRawValue(
+            geoToXml(geometryTransformer.transform(attribute), XppFactory.createDefaultParser()));
+        return;
+      }
+      geometries.add(geometry);
+    }
+
+    writer.startNode("geometry");
+    writer.addAttribute("name", attribute.getName());
+    for (Geometry geometry : geometries) {
+      writer.startNode("value");
+      geometryContext.gmlWriter.write(writer, geometry);
+      writer.endNode(); // value
     }
+    writer.endNode(); // geometry
   }
 
   private String geoToXml(BinaryContent content, XmlPullParser parser)
@@ -269,4 +306,21 @@ private String geoToXml(BinaryContent content, XmlPullParser parser)
     }
     return destination.makeString();
   }
+
+  /** The geometry helpers of a single {@link #marshal(Metacard, Map)} call. */
+  private static class GeometryContext {
+
+    private final WKTReader wktReader = new WKTReader(GEOMETRY_FACTORY);
+
+    private final GmlGeometryWriter gmlWriter = new GmlGeometryWriter();
+
+    private Geometry read(String wkt) throws CatalogTransformerException {
+      try {
+        return wktReader.read(wkt);
+      } catch (ParseException e) {
+        throw new CatalogTransformerException(
+            "Could not transform Metacard to XML.  Invalid WKT.", e);
+      }
+    }
+  }
 }
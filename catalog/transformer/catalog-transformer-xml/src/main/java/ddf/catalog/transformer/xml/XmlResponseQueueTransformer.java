@@ -13,33 +13,33 @@
  */
 package ddf.catalog.transformer.xml;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.IncrementalInputStream;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.RecursiveTask;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ForkJoinTask;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import javax.xml.bind.DataBindingException;
 import org.codice.ddf.parser.Parser;
 import org.codice.ddf.platform.util.ForkJoinPoolFactory;
 import org.slf4j.Logger;
@@ -49,117 +49,27 @@
 /**
  * Transforms a {@link SourceResponse} object into Metacard Element XML text, which is GML 3.1.1.
  * compliant XML.
+ *
+ * <p>The metacards are marshalled as the returned content is read, so only the metacards being
+ * written are held in memory. For large responses, the next metacards are marshalled in parallel
+ * while the reader consumes the previous ones, a bounded number of them ahead of the reader.
  */
 public class XmlResponseQueueTransformer extends AbstractXmlTransformer
     implements QueryResponseTransformer {
 
   public static final int BUFFER_SIZE = 1024;
 
-  private static class MetacardForkTask extends RecursiveTask<StringWriter> {
-    private static final long serialVersionUID = 1L;
-
-    private final transient ImmutableList<Result> resultList;
-
-    private final transient ForkJoinPool fjp;
-
-    private final transient GeometryTransformer geometryTransformer;
-
-    private final int threshold;
-
-    private final AtomicBoolean cancelOperation;
-
-    private final transient MetacardMarshaller metacardMarshaller;
-
-    MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        MetacardMarshaller mcm) {
-      this(resultList, fjp, geometryTransformer, threshold, new AtomicBoolean(false), mcm);
-    }
-
-    private MetacardForkTask(
-        ImmutableList<Result> resultList,
-        ForkJoinPool fjp,
-        GeometryTransformer geometryTransformer,
-        int threshold,
-        AtomicBoolean cancelOperation,
-        MetacardMarshaller mcm) {
-      this.resultList = resultList;
-      this.fjp = fjp;
-      this.geometryTransformer = geometryTransformer;
-      this.threshold = threshold;
-      this.cancelOperation = cancelOperation;
-      this.metacardMarshaller = mcm;
-    }
-
-    @Override
-    protected StringWriter compute() {
-      if (cancelOperation.get()) {
-        return null;
-      }
-
-      if (resultList.size() < threshold) {
-        return doCompute();
-      } else {
-        int half = resultList.size() / 2;
-
-        MetacardForkTask fLeft =
-            new MetacardForkTask(
-                resultList.subList(0, half),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        fLeft.fork();
-        MetacardForkTask fRight =
-            new MetacardForkTask(
-                resultList.subList(half, resultList.size()),
-                fjp,
-                geometryTransformer,
-                threshold,
-                cancelOperation,
-                metacardMarshaller);
-        StringWriter rightList = fRight.compute();
-        StringWriter leftList = fLeft.join();
-
-        leftList.append(rightList.getBuffer());
-        return leftList;
-      }
-    } // end compute()
-
-    private StringWriter doCompute() {
-      StringWriter sw = new StringWriter(BUFFER_SIZE);
-      Map<String, Serializable> args = new HashMap<>();
-      args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
-      try {
-        for (Result result : resultList) {
-          Metacard metacard = result.getMetacard();
-          String xmlString = metacardMarshaller.marshal(metacard, args);
-          sw.append(xmlString);
-        }
-      } catch (XmlPullParserException | IOException | CatalogTransformerException e) {
-        cancelOperation.set(true);
-        throw new DataBindingException("Failure to write node; operation aborted", e);
-      }
-      return sw;
-    }
-
-    private void writeObject(ObjectOutputStream stream) throws IOException {
-      stream.defaultWriteObject();
-    }
+  /**
+   * Number of metacards marshalled ahead of the reader of the response, per thread of the pool,
+   * when marshalling in parallel.
+   */
+  private static final int LOOK_AHEAD_PER_THREAD = 4;
 
-    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
-      stream.defaultReadObject();
-    }
-  } // end MetacardForkTask class
+  /** Marks where the metacards go in the serialized {@code metacards} element. */
+  private static final String METACARDS_PLACEHOLDER = "<!--metacards-->";
 
   private final ForkJoinPool fjp;
 
-  private final GeometryTransformer geometryTransformer;
-
   private final PrintWriterProvider printWriterProvider;
 
   private final MetacardMarshaller metacardMarshaller;
@@ -189,17 +99,13 @@ private void readObject(ObjectInputStream stream) throws IOException, ClassNotFo
 
   /**
    * Constructs a transformer that will convert query responses to XML. The {@code ForkJoinPool} is
-   * used for splitting large collections of {@link Metacard}s into smaller collections for
-   * concurrent processing. Currently injected through Blueprint, if we choose to use fork-join for
-   * other tasks in the application, we should move the construction of the pool from its current
-   * location. Conversely, if we move to Java 8 we can simply use the new {@code commonPool} static
-   * method provided on {@code ForkJoinPool}.
+   * used to marshal the {@link Metacard}s of large responses concurrently, ahead of the reader of
+   * the response.
    */
   public XmlResponseQueueTransformer(
       Parser parser, PrintWriterProvider pwp, MetacardMarshaller mcm, MimeType mimeType) {
     super(parser);
     this.fjp = ForkJoinPoolFactory.getNewForkJoinPool(null, false);
-    geometryTransformer = new GeometryTransformer(parser);
     this.printWriterProvider = pwp;
     this.metacardMarshaller = mcm;
     this.mimeType = mimeType;
@@ -213,8 +119,9 @@ public XmlResponseQueueTransformer(
   }
 
   /**
-   * @param threshold the fork threshold: result lists smaller than this size will be processed
-   *     serially; larger than this size will be processed in threshold-sized chunks in parallel
+   * @param threshold the parallel threshold: result lists smaller than this size will be
+   *     marshalled serially, as the response is read; larger result lists will be marshalled in
+   *     parallel, a bounded number of metacards ahead of the reader
    */
   public void setThreshold(int threshold) {
     this.threshold = threshold <= 1 ? 2 : threshold;
@@ -231,29 +138,110 @@ public BinaryContent transform(SourceResponse response, Map<String, Serializable
       for (Map.Entry<String, String> nsRow : NAMESPACE_MAP.entrySet()) {
         writer.addAttribute(nsRow.getKey(), nsRow.getValue());
       }
-
-      if (response.getResults() != null && !response.getResults().isEmpty()) {
-        StringWriter metacardContent =
-            fjp.invoke(
-                new MetacardForkTask(
-                    ImmutableList.copyOf(response.getResults()),
-                    fjp,
-                    geometryTransformer,
-                    threshold,
-                    metacardMarshaller));
-
-        writer.setRawValue(metacardContent.getBuffer().toString());
-      }
-
+      writer.setRawValue(METACARDS_PLACEHOLDER);
       writer.endNode(); // metacards
 
-      ByteArrayInputStream bais =
-          new ByteArrayInputStream(writer.makeString().getBytes(StandardCharsets.UTF_8));
+      String document = writer.makeString();
+      int placeholder = document.indexOf(METACARDS_PLACEHOLDER);
+
+      List<Result> results =
+          response.getResults() != null ? response.getResults() : Collections.emptyList();
 
-      return new BinaryContentImpl(bais, mimeType);
+      return new BinaryContentImpl(
+          new MetacardsInputStream(
+              document.substring(0, placeholder),
+              results,
+              document.substring(placeholder + METACARDS_PLACEHOLDER.length())),
+          mimeType);
     } catch (Exception e) {
       LOGGER.info("Failed Query response transformation", e);
       throw new CatalogTransformerException("Failed Query response transformation");
     }
   }
+
+  private String marshal(Result result)
+      throws XmlPullParserException, IOException, CatalogTransformerException {
+    Map<String, Serializable> args = new HashMap<>();
+    args.put(MetacardMarshallerImpl.OMIT_XML_DECL, Boolean.TRUE);
+    return metacardMarshaller.marshal(result.getMetacard(), args);
+  }
+
+  /**
+   * Writes the {@code metacards} element as the stream is read. When marshalling in parallel, the
+   * pool marshals up to {@code lookAhead} metacards ahead of the one being read.
+   */
+  private class MetacardsInputStream extends IncrementalInputStream {
+
+    private final Iterator<Result> results;
+
+    private final int lookAhead;
+
+    private final Deque<ForkJoinTask<String>> pending = new ArrayDeque<>();
+
+    private String start;
+
+    private String end;
+
+    MetacardsInputStream(String start, List<Result> results, String end) {
+      this.start = start;
+      this.results = results.iterator();
+      this.end = end;
+      this.lookAhead =
+          results.size() < threshold ? 0 : fjp.getParallelism() * LOOK_AHEAD_PER_THREAD;
+    }
+
+    @Override
+    protected byte[] nextChunk() throws IOException {
+      String xml;
+      if (start != null) {
+        xml = start;
+        start = null;
+      } else {
+        while (pending.size() < lookAhead && results.hasNext()) {
+          Result result = results.next();
+          pending.add(fjp.submit(() -> marshal(result)));
+        }
+
+        if (!pending.isEmpty()) {
+          xml = join(pending.poll());
+        } else if (results.hasNext()) {
+          xml = marshalSerially(results.next());
+        } else if (end != null) {
+          xml = end;
+          end = null;
+        } else {
+          return null;
+        }
+      }
+      return xml.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+      pending.forEach(task -> task.cancel(false));
+      pending.clear();
+      super.close();
+    }
+
+    private String join(ForkJoinTask<String> task) throws IOException {
+      try {
+        return task.get();
+      } catch (InterruptedException e) {
+        close();
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while marshalling metacards", e);
+      } catch (ExecutionException e) {
+        close();
+        throw new IOException("Failure to write node; operation aborted", e.getCause());
+      }
+    }
+
+    private String marshalSerially(Result result) throws IOException {
+      try {
+        return marshal(result);
+      } catch (XmlPullParserException | CatalogTransformerException e) {
+        throw new IOException("Failure to write node; operation aborted", e);
+      }
+    }
+  }
 }
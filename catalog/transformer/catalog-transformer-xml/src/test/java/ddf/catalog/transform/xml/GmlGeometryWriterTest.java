@@ -0,0 +1,166 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transform.xml;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
+import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
+import ddf.catalog.transformer.xml.adapter.GeometryAdapter;
+import ddf.catalog.transformer.xml.binding.MetacardElement;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.opengis.gml.v_3_1_1.AbstractGeometryType;
+import org.codice.ddf.parser.Parser;
+import org.codice.ddf.parser.xml.XmlParser;
+import org.custommonkey.xmlunit.Diff;
+import org.custommonkey.xmlunit.XMLUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+
+/**
+ * Checks that the GML written directly by the {@link MetacardMarshallerImpl} is the GML of the
+ * JAXB binding of {@link GeometryAdapter}.
+ */
+public class GmlGeometryWriterTest {
+
+  private static final String METACARD_NAMESPACE = "urn:catalog:metacard";
+
+  private Parser parser;
+
+  private MetacardMarshallerImpl marshaller;
+
+  @Before
+  public void setup() {
+    parser = new XmlParser();
+    marshaller = new MetacardMarshallerImpl(parser, new PrintWriterProviderImpl());
+    XMLUnit.setIgnoreWhitespace(true);
+  }
+
+  @After
+  public void tearDown() {
+    XMLUnit.setIgnoreWhitespace(false);
+  }
+
+  @Test
+  public void testPoint() throws Exception {
+    assertSameAsJaxb("POINT (1.5 -2.25)");
+  }
+
+  @Test
+  public void testPointWithZ() throws Exception {
+    assertSameAsJaxb("POINT (1 2 3)");
+  }
+
+  @Test
+  public void testLineString() throws Exception {
+    assertSameAsJaxb("LINESTRING (30 10, 10 30, 40 40)");
+  }
+
+  @Test
+  public void testPolygonWithHoles() throws Exception {
+    assertSameAsJaxb(
+        "POLYGON ((35 10, 45 45, 15 40, 10 20, 35 10), (20 30, 35 35, 30 20, 20 30),"
+            + " (21 31, 22 32, 23 31, 21 31))");
+  }
+
+  @Test
+  public void testMultiPoint() throws Exception {
+    assertSameAsJaxb("MULTIPOINT ((10 40), (40 30), (20 20), (30 10))");
+  }
+
+  @Test
+  public void testMultiLineString() throws Exception {
+    assertSameAsJaxb("MULTILINESTRING ((10 10, 20 20, 10 40), (40 40, 30 30, 40 20, 30 10))");
+  }
+
+  @Test
+  public void testMultiPolygon() throws Exception {
+    assertSameAsJaxb(
+        "MULTIPOLYGON (((40 40, 20 45, 45 30, 40 40)),"
+            + " ((20 35, 10 30, 10 10, 30 5, 45 20, 20 35), (30 20, 20 15, 20 25, 30 20)))");
+  }
+
+  @Test
+  public void testGeometryCollection() throws Exception {
+    assertSameAsJaxb(
+        "GEOMETRYCOLLECTION (POINT (4 6), LINESTRING (4 6, 7 10),"
+            + " POLYGON ((0 0, 1 0, 1 1, 0 0)))");
+  }
+
+  @Test
+  public void testSmallAndLargeOrdinates() throws Exception {
+    assertSameAsJaxb("LINESTRING (0.000001 -179.99999999, 1.0E-10 12345678.9)");
+  }
+
+  @Test
+  public void testMultipleValues() throws Exception {
+    assertSameAsJaxb("POINT (1 2)", "LINESTRING (30 10, 10 30, 40 40)");
+  }
+
+  @Test(expected = CatalogTransformerException.class)
+  public void testInvalidWkt() throws Exception {
+    marshaller.marshal(newMetacard(new AttributeImpl(Metacard.GEOGRAPHY, "POINT (1")));
+  }
+
+  private void assertSameAsJaxb(String... wkts) throws Exception {
+    List<Serializable> values = new ArrayList<>(Arrays.asList(wkts));
+    Attribute attribute = new AttributeImpl(Metacard.GEOGRAPHY, values);
+
+    Document metacard = XMLUnit.buildTestDocument(marshaller.marshal(newMetacard(attribute)));
+    NodeList geometries = metacard.getElementsByTagNameNS(METACARD_NAMESPACE, "geometry");
+    assertThat(geometries.getLength(), is(1));
+    Document actual = XMLUnit.newTestParser().newDocument();
+    actual.appendChild(actual.importNode(geometries.item(0), true));
+
+    Document expected = XMLUnit.buildControlDocument(marshalWithJaxb(attribute));
+
+    Diff diff = new Diff(expected, actual);
+    assertThat(diff.toString(), diff.similar(), is(true));
+  }
+
+  private String marshalWithJaxb(Attribute attribute) throws Exception {
+    List<String> contextPath =
+        Arrays.asList(
+            MetacardElement.class.getPackage().getName(),
+            GeometryAdapter.class.getPackage().getName(),
+            AbstractGeometryType.class.getPackage().getName());
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    parser.marshal(
+        parser.configureParser(contextPath, MetacardMarshallerImpl.class.getClassLoader()),
+        GeometryAdapter.marshalFrom(attribute),
+        os);
+    return new String(os.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  private Metacard newMetacard(Attribute geometry) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("1234567890");
+    metacard.setAttribute(geometry);
+    return metacard;
+  }
+}
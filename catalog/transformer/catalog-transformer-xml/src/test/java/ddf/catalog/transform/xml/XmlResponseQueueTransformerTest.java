@@ -481,7 +481,7 @@ public void testMimeTypeInitException()
     // then exception
   }
 
-  @Test(expected = CatalogTransformerException.class)
+  @Test(expected = IOException.class)
   public void testMetacardMarshallThrowsXmlPullParserException()
       throws IOException, CatalogTransformerException, XmlPullParserException,
           MimeTypeParseException {
@@ -497,11 +497,33 @@ public void testMetacardMarshallThrowsXmlPullParserException()
         new XmlResponseQueueTransformer(parser, pwp, mockMetacardMarshaller, getMimeType());
     xrqt.setThreshold(2);
 
-    xrqt.transform(response, null);
+    // Metacards are marshalled as the content is read
+    xrqt.transform(response, null).getByteArray();
 
     // then exception
   }
 
+  @Test
+  public void testParallelMarshallingKeepsResultOrder()
+      throws IOException, CatalogTransformerException, XpathException, SAXException {
+    transformer.setThreshold(2);
+
+    Metacard[] metacards = new Metacard[200];
+    for (int i = 0; i < metacards.length; i++) {
+      metacards[i] = new MetacardStub(DEFAULT_SOURCE_ID, "id" + i);
+    }
+
+    BinaryContent binaryContent = transformer.transform(givenSourceResponse(metacards), null);
+    String output = new String(binaryContent.getByteArray());
+
+    assertXpathEvaluatesTo(
+        Integer.toString(metacards.length), "count(/mc:metacards/mc:metacard)", output);
+    for (int i = 0; i < metacards.length; i++) {
+      assertXpathEvaluatesTo(
+          "id" + i, "/mc:metacards/mc:metacard[" + (i + 1) + "]/@gml:id", output);
+    }
+  }
+
   /** @return */
   private MetacardType getMetacardTypeStub(String name, Set<AttributeDescriptor> descriptors) {
 
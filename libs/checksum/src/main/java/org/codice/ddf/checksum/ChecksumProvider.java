@@ -16,6 +16,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
 
 public interface ChecksumProvider {
 
@@ -33,4 +34,16 @@ public interface ChecksumProvider {
    * @return checksum algorithm identifier
    */
   String getChecksumAlgorithm();
+
+  /**
+   * Returns a new {@link IncrementalChecksum} computing the same value as {@link
+   * #calculateChecksum(InputStream)}, for callers that already read the content and can hand it the
+   * bytes as they go.
+   *
+   * @return a new incremental checksum, or an empty {@link Optional} if this provider can only
+   *     calculate checksums by reading an {@link InputStream} itself
+   */
+  default Optional<IncrementalChecksum> newIncrementalChecksum() {
+    return Optional.empty();
+  }
 }
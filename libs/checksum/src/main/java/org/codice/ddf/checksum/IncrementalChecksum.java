@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.checksum;
+
+/**
+ * A checksum computed from bytes handed to it as they are read by someone else, so content that is
+ * already being copied does not have to be read a second time to be checksummed.
+ */
+public interface IncrementalChecksum {
+
+  /**
+   * Updates the checksum with the given bytes.
+   *
+   * @param bytes the bytes to add
+   * @param offset the offset of the first byte to add
+   * @param length the number of bytes to add
+   */
+  void update(byte[] bytes, int offset, int length);
+
+  /**
+   * Returns the checksum of all the bytes added so far, in the same format as {@link
+   * ChecksumProvider#calculateChecksum(java.io.InputStream)}.
+   *
+   * @return calculated checksum value
+   */
+  String getValue();
+}
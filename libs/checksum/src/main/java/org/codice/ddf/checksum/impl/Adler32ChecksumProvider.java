@@ -16,9 +16,11 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
 import java.util.zip.Adler32;
 import java.util.zip.CheckedInputStream;
 import org.codice.ddf.checksum.AbstractChecksumProvider;
+import org.codice.ddf.checksum.IncrementalChecksum;
 
 /**
  * The Adler32 checksum algorithm is nearly as reliable as CRC32 but is significantly faster. For
@@ -51,4 +53,21 @@ public String calculateChecksum(InputStream inputStream)
   public String getChecksumAlgorithm() {
     return DIGEST_ALGORITHM;
   }
+
+  @Override
+  public Optional<IncrementalChecksum> newIncrementalChecksum() {
+    final Adler32 adler32 = new Adler32();
+    return Optional.of(
+        new IncrementalChecksum() {
+          @Override
+          public void update(byte[] bytes, int offset, int length) {
+            adler32.update(bytes, offset, length);
+          }
+
+          @Override
+          public String getValue() {
+            return Long.toHexString(adler32.getValue());
+          }
+        });
+  }
 }
@@ -81,6 +81,24 @@ public void testCalculateChecksumObject() throws IOException, NoSuchAlgorithmExc
     Assert.assertThat(checksumValue, is(checksumCompareHash));
   }
 
+  @Test
+  public void testIncrementalChecksumMatchesCalculatedChecksum()
+      throws IOException, NoSuchAlgorithmException {
+    final char[] chars = new char[1024 * 100];
+    Arrays.fill(chars, 'a');
+    final byte[] bytes = toByteArray(chars);
+
+    IncrementalChecksum incrementalChecksum = checksumProvider.newIncrementalChecksum().get();
+    for (int offset = 0; offset < bytes.length; offset += 1000) {
+      incrementalChecksum.update(bytes, offset, Math.min(1000, bytes.length - offset));
+    }
+
+    assertThat(
+        incrementalChecksum.getValue(),
+        is(checksumProvider.calculateChecksum(new ByteArrayInputStream(bytes))));
+    assertThat(incrementalChecksum.getValue(), is("bf3aa1d5"));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testCalculateChecksumWithNullInputStream()
       throws IOException, NoSuchAlgorithmException {
@@ -101,13 +119,17 @@ public void testGetChecksumAlgorithm() {
   }
 
   private InputStream getInputStreamFromObject(Object obj) throws IOException {
+    InputStream inputStream = new ByteArrayInputStream(toByteArray(obj));
+    return inputStream;
+  }
+
+  private byte[] toByteArray(Object obj) throws IOException {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
     ObjectOutputStream objOutputStream = new ObjectOutputStream(byteArrayOutputStream);
     objOutputStream.writeObject(obj);
     objOutputStream.flush();
     objOutputStream.close();
 
-    InputStream inputStream = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-    return inputStream;
+    return byteArrayOutputStream.toByteArray();
   }
 }
@@ -0,0 +1,252 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes KLV-encoded data directly from a {@link ByteBuffer}, such as a memory-mapped file, and
+ * gives the data elements it finds to a {@link KlvVisitor}.
+ *
+ * <p>Unlike the {@link KlvDecoder}, the {@code KlvBufferDecoder} does not copy the encoded data,
+ * the keys or the data elements of the {@link KlvContext}: the keys are looked up in a table built
+ * once from the {@code KlvContext}, and the values are given to the visitor as {@link KlvValue}
+ * views of the buffer, only decoded when the visitor asks for them.
+ *
+ * <p>The {@code KlvContext} is read when the {@code KlvBufferDecoder} is created, so data elements
+ * added to the {@code KlvContext} afterwards are not decoded. A {@code KlvBufferDecoder} can be
+ * used by several threads at the same time.
+ */
+public class KlvBufferDecoder {
+  private static final Logger LOGGER = LoggerFactory.getLogger(KlvBufferDecoder.class);
+
+  private final KeyLength keyLength;
+
+  private final LengthEncoding lengthEncoding;
+
+  private final KlvKeyTable<Entry> keyTable;
+
+  /**
+   * Creates a {@code KlvBufferDecoder} for the data elements of the given {@link KlvContext} and of
+   * its {@link KlvLocalSet}s.
+   *
+   * @param klvContext the {@code KlvContext} containing the properties of the KLV data to be
+   *     decoded by this {@code KlvBufferDecoder}
+   * @throws IllegalArgumentException if {@code klvContext} is null
+   */
+  public KlvBufferDecoder(final KlvContext klvContext) {
+    Preconditions.checkArgument(klvContext != null, "The KlvContext cannot be null.");
+
+    this.keyLength = klvContext.getKeyLength();
+    this.lengthEncoding = klvContext.getLengthEncoding();
+
+    final Collection<KlvDataElement> dataElements = klvContext.getKeyToDataElementMap().values();
+    final long[] highKeys = new long[dataElements.size()];
+    final long[] lowKeys = new long[dataElements.size()];
+    final Entry[] entries = new Entry[dataElements.size()];
+    int count = 0;
+    for (final KlvDataElement<?> dataElement : dataElements) {
+      final byte[] key = dataElement.getKey();
+      if (key.length != keyLength.value()) {
+        // Such a data element can never match a key of the data
+        continue;
+      }
+      final ByteBuffer keyBuffer = ByteBuffer.wrap(key);
+      highKeys[count] = readHighKey(keyBuffer, 0);
+      lowKeys[count] = readLowKey(keyBuffer, 0);
+      entries[count] = new Entry(dataElement);
+      count++;
+    }
+
+    this.keyTable =
+        new KlvKeyTable<>(
+            Arrays.copyOf(highKeys, count),
+            Arrays.copyOf(lowKeys, count),
+            Arrays.copyOf(entries, count));
+  }
+
+  /**
+   * Decodes the KLV data between the position and the limit of {@code buffer} according to the
+   * properties in the {@link KlvContext} that was provided in the constructor, and gives the data
+   * elements of the {@code KlvContext} that are found to {@code visitor}.
+   *
+   * <p>The position of {@code buffer} is not changed.
+   *
+   * <p>If a {@link KlvLocalSet} cannot be decoded, the data elements of the local set that were
+   * found before the error have been visited, and the decoding continues after the local set, as
+   * the {@link KlvDecoder} does.
+   *
+   * @param buffer bytes encoding data in KLV format
+   * @param visitor the visitor given the data elements found in the data
+   * @throws IllegalArgumentException if any of the arguments are null
+   * @throws KlvDecodingException if the KLV cannot be decoded using the given context information.
+   *     The data elements found before the error have been visited.
+   */
+  public void decode(final ByteBuffer buffer, final KlvVisitor visitor)
+      throws KlvDecodingException {
+    Preconditions.checkArgument(buffer != null, "The buffer to decode cannot be null.");
+    Preconditions.checkArgument(visitor != null, "The visitor cannot be null.");
+
+    decode(buffer, buffer.position(), buffer.limit(), new KlvValue(), visitor);
+  }
+
+  /**
+   * Decodes the KLV data inside {@code klvBytes}, as {@link #decode(ByteBuffer, KlvVisitor)} does.
+   *
+   * @param klvBytes bytes encoding data in KLV format
+   * @param visitor the visitor given the data elements found in the data
+   * @throws IllegalArgumentException if any of the arguments are null
+   * @throws KlvDecodingException if the KLV cannot be decoded using the given context information
+   */
+  public void decode(final byte[] klvBytes, final KlvVisitor visitor) throws KlvDecodingException {
+    Preconditions.checkArgument(klvBytes != null, "The array of bytes to decode cannot be null.");
+    decode(ByteBuffer.wrap(klvBytes), visitor);
+  }
+
+  private void decode(
+      final ByteBuffer buffer,
+      final int start,
+      final int end,
+      final KlvValue value,
+      final KlvVisitor visitor)
+      throws KlvDecodingException {
+    int position = start;
+    while (position < end) {
+      checkEnoughBytesRemaining(
+          end - position,
+          keyLength.value(),
+          "Not enough bytes for %d-byte key.",
+          keyLength.value());
+      final long highKey = readHighKey(buffer, position);
+      final long lowKey = readLowKey(buffer, position);
+      position += keyLength.value();
+
+      final long length;
+      switch (lengthEncoding) {
+        case BER:
+          checkEnoughBytesRemaining(
+              end - position, 1, "Not enough bytes for %s length encoding.", lengthEncoding);
+          final int ber = buffer.get(position++) & 0xFF;
+          if ((ber & 0x80) == 0) {
+            length = ber;
+          } else {
+            final int following = ber & 0x7F;
+            if (following > 4) {
+              throw new KlvDecodingException(
+                  String.format("BER length of %d bytes is not supported.", following));
+            }
+            checkEnoughBytesRemaining(
+                end - position,
+                following,
+                "Not enough bytes for %s length encoding.",
+                lengthEncoding);
+            length = read(buffer, position, following);
+            position += following;
+          }
+          break;
+        default:
+          checkEnoughBytesRemaining(
+              end - position,
+              lengthEncoding.value(),
+              "Not enough bytes for %s length encoding.",
+              lengthEncoding);
+          length = read(buffer, position, lengthEncoding.value());
+          position += lengthEncoding.value();
+          break;
+      }
+
+      checkEnoughBytesRemaining(
+          end - position, length, "Not enough bytes left for the declared length (%d).", length);
+      final int valueEnd = position + (int) length;
+
+      final Entry entry = keyTable.get(highKey, lowKey);
+      if (entry != null) {
+        if (entry.localSet != null) {
+          visitor.startLocalSet(entry.localSet);
+          try {
+            entry.getLocalSetDecoder().decode(buffer, position, valueEnd, value, visitor);
+          } catch (KlvDecodingException e) {
+            LOGGER.debug("Couldn't decode the KLV local set named {}", entry.localSet.getName(), e);
+          }
+          visitor.endLocalSet(entry.localSet);
+        } else {
+          value.set(buffer, position, (int) length);
+          visitor.visit(entry.dataElement, value);
+        }
+      }
+
+      position = valueEnd;
+    }
+  }
+
+  private long readHighKey(final ByteBuffer buffer, final int offset) {
+    return keyLength == KeyLength.SixteenBytes ? read(buffer, offset, 8) : 0;
+  }
+
+  private long readLowKey(final ByteBuffer buffer, final int offset) {
+    return keyLength == KeyLength.SixteenBytes
+        ? read(buffer, offset + 8, 8)
+        : read(buffer, offset, keyLength.value());
+  }
+
+  private static long read(final ByteBuffer buffer, final int offset, final int bytes) {
+    long value = 0;
+    for (int i = 0; i < bytes; i++) {
+      value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+    }
+    return value;
+  }
+
+  private static void checkEnoughBytesRemaining(
+      final long remaining, final long expected, final String message, final Object argument)
+      throws KlvDecodingException {
+    if (remaining < expected) {
+      throw new KlvDecodingException(String.format(message, argument));
+    }
+  }
+
+  private static class Entry {
+    private final KlvDataElement<?> dataElement;
+
+    private final KlvLocalSet localSet;
+
+    private volatile KlvBufferDecoder localSetDecoder;
+
+    Entry(final KlvDataElement<?> dataElement) {
+      this.dataElement = dataElement;
+      this.localSet = dataElement instanceof KlvLocalSet ? (KlvLocalSet) dataElement : null;
+    }
+
+    /**
+     * The decoder of a local set is created the first time the local set is found, so that a
+     * context that contains itself does not need an infinite number of decoders.
+     */
+    KlvBufferDecoder getLocalSetDecoder() {
+      KlvBufferDecoder decoder = localSetDecoder;
+      if (decoder == null) {
+        decoder = new KlvBufferDecoder(localSet.getLocalSetContext());
+        localSetDecoder = decoder;
+      }
+      return decoder;
+    }
+  }
+}
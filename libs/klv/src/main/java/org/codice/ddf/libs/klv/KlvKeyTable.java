@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+/**
+ * An immutable open-addressing table from KLV keys of up to 16 bytes to values. A key is given as
+ * two longs holding its bytes in Big Endian order, so a key is looked up without being copied or
+ * converted to a {@link String}.
+ */
+class KlvKeyTable<V> {
+  private final long[] highKeys;
+
+  private final long[] lowKeys;
+
+  private final Object[] values;
+
+  private final int mask;
+
+  /**
+   * @param highKeys the first eight bytes of each key, or 0 for keys of up to eight bytes
+   * @param lowKeys the last eight bytes of each key
+   * @param values the value of each key
+   */
+  KlvKeyTable(final long[] highKeys, final long[] lowKeys, final V[] values) {
+    int capacity = Integer.highestOneBit(Math.max(1, values.length) * 2) * 2;
+    this.highKeys = new long[capacity];
+    this.lowKeys = new long[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+
+    for (int i = 0; i < values.length; i++) {
+      int slot = slot(highKeys[i], lowKeys[i]);
+      while (this.values[slot] != null
+          && (this.highKeys[slot] != highKeys[i] || this.lowKeys[slot] != lowKeys[i])) {
+        slot = (slot + 1) & mask;
+      }
+      this.highKeys[slot] = highKeys[i];
+      this.lowKeys[slot] = lowKeys[i];
+      this.values[slot] = values[i];
+    }
+  }
+
+  /** @return the value of the key, or null if the key is not in the table */
+  @SuppressWarnings("unchecked")
+  V get(final long highKey, final long lowKey) {
+    int slot = slot(highKey, lowKey);
+    while (values[slot] != null) {
+      if (highKeys[slot] == highKey && lowKeys[slot] == lowKey) {
+        return (V) values[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+    return null;
+  }
+
+  private int slot(final long highKey, final long lowKey) {
+    long hash = (highKey * 31 + lowKey) * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32)) & mask;
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * A view of the value of a KLV data element, given to a {@link KlvVisitor} by a {@link
+ * KlvBufferDecoder}. The value is not copied out of the decoded {@link ByteBuffer}; it is only read
+ * when one of the {@code getAs...} methods is called.
+ *
+ * <p>The same {@code KlvValue} is reused for every data element of the decoded data, so it is only
+ * valid during the call to {@link KlvVisitor#visit}.
+ *
+ * <p>Like {@link org.codice.ddf.libs.klv.data.Klv}, the numerical values are Big Endian and are
+ * read from the available bytes when the value is shorter than the numerical type.
+ */
+public final class KlvValue {
+  private ByteBuffer buffer;
+
+  private int offset;
+
+  private int length;
+
+  KlvValue() {}
+
+  void set(final ByteBuffer buffer, final int offset, final int length) {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /** @return the number of bytes in the value */
+  public int getLength() {
+    return length;
+  }
+
+  /** @return up to the first byte of the value as an 8-bit signed integer */
+  public int getAs8bitSignedInt() {
+    return length > 0 ? buffer.get(offset) : 0;
+  }
+
+  /** @return up to the first byte of the value as an 8-bit unsigned integer */
+  public int getAs8bitUnsignedInt() {
+    return length > 0 ? buffer.get(offset) & 0xFF : 0;
+  }
+
+  /** @return up to the first two bytes of the value as a 16-bit signed integer */
+  public int getAs16bitSignedInt() {
+    return (short) getAs16bitUnsignedInt();
+  }
+
+  /** @return up to the first two bytes of the value as a 16-bit unsigned integer */
+  public int getAs16bitUnsignedInt() {
+    return (int) readBigEndian(2);
+  }
+
+  /** @return up to the first four bytes of the value as a 32-bit int */
+  public int getAs32bitInt() {
+    return (int) readBigEndian(4);
+  }
+
+  /** @return up to the first eight bytes of the value as a 64-bit signed long */
+  public long getAs64bitLong() {
+    return readBigEndian(8);
+  }
+
+  /** @return the first four bytes of the value as a float, or NaN if there are fewer bytes */
+  public float getAsFloat() {
+    return length < 4 ? Float.NaN : Float.intBitsToFloat(getAs32bitInt());
+  }
+
+  /** @return the first eight bytes of the value as a double, or NaN if there are fewer bytes */
+  public double getAsDouble() {
+    return length < 8 ? Double.NaN : Double.longBitsToDouble(getAs64bitLong());
+  }
+
+  /**
+   * @param charset the character encoding of the value
+   * @return the value as a String interpreted with the given encoding
+   */
+  public String getAsString(final Charset charset) {
+    if (buffer.hasArray()) {
+      return new String(buffer.array(), buffer.arrayOffset() + offset, length, charset);
+    }
+    return new String(getBytes(), charset);
+  }
+
+  /** @return a copy of the bytes of the value */
+  public byte[] getBytes() {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return bytes;
+  }
+
+  /**
+   * @return a read-only {@link ByteBuffer} sharing the bytes of the value, which stays valid after
+   *     the call to {@link KlvVisitor#visit}
+   */
+  public ByteBuffer asByteBuffer() {
+    final ByteBuffer view = buffer.asReadOnlyBuffer();
+    view.limit(offset + length);
+    view.position(offset);
+    return view.slice();
+  }
+
+  private long readBigEndian(final int maxBytes) {
+    final int bytes = Math.min(length, maxBytes);
+    long value = 0;
+    for (int i = 0; i < bytes; i++) {
+      value = (value << 8) | (buffer.get(offset + i) & 0xFF);
+    }
+    return value;
+  }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+
+/**
+ * Receives the data elements found by a {@link KlvBufferDecoder}, in the order in which they are
+ * encoded.
+ */
+public interface KlvVisitor {
+  /**
+   * Called for each data element of the {@link KlvContext} found in the data, other than the {@link
+   * KlvLocalSet}s.
+   *
+   * @param dataElement the data element of the {@code KlvContext} describing the value. It is not
+   *     a copy and its own value is not set.
+   * @param value the encoded value, only valid during this call
+   */
+  void visit(KlvDataElement<?> dataElement, KlvValue value);
+
+  /**
+   * Called when a {@link KlvLocalSet} is found, before its data elements are visited.
+   *
+   * @param localSet the local set of the {@link KlvContext}
+   */
+  default void startLocalSet(KlvLocalSet localSet) {}
+
+  /**
+   * Called after the data elements of a {@link KlvLocalSet} have been visited.
+   *
+   * @param localSet the local set of the {@link KlvContext}
+   */
+  default void endLocalSet(KlvLocalSet localSet) {}
+}
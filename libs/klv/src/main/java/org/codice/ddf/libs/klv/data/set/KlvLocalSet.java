@@ -40,6 +40,11 @@ public KlvLocalSet(final byte[] key, final String name, final KlvContext localSe
     this.localSetKlvContext = localSetKlvContext;
   }
 
+  /** @return the {@link KlvContext} describing the local KLV set */
+  public KlvContext getLocalSetContext() {
+    return localSetKlvContext;
+  }
+
   @Override
   protected void decodeValue(final Klv klv) {
     try {
@@ -0,0 +1,368 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import static org.codice.ddf.libs.klv.data.Klv.KeyLength;
+import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.libs.klv.data.raw.KlvBytes;
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+import org.junit.Test;
+
+public class KlvBufferDecoderTest {
+  private static final byte[] UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
+  private static final String LOCAL_SET = "local set";
+
+  @Test
+  public void testSameElementsAsKlvDecoder() throws Exception {
+    final byte[] klvBytes;
+    try (final InputStream inputStream =
+        getClass().getClassLoader().getResourceAsStream("testKLV.klv")) {
+      klvBytes = IOUtils.toByteArray(inputStream);
+    }
+
+    // Every tag of the UAS Datalink Local Set, decoded as raw bytes
+    final Set<KlvDataElement> dataElements = new HashSet<>();
+    for (int tag = 1; tag < 128; tag++) {
+      dataElements.add(new KlvBytes(new byte[] {(byte) tag}, "tag " + tag));
+    }
+    final KlvContext klvContext = getUasContext(dataElements);
+
+    final KlvContext decodedLocalSet =
+        (KlvContext)
+            new KlvDecoder(klvContext)
+                .decode(klvBytes)
+                .getDataElementByName(LOCAL_SET)
+                .getValue();
+    final Map<String, byte[]> expected = new LinkedHashMap<>();
+    decodedLocalSet
+        .getDataElements()
+        .forEach((name, dataElement) -> expected.put(name, (byte[]) dataElement.getValue()));
+
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(klvBytes.length);
+    directBuffer.put(klvBytes).flip();
+
+    for (ByteBuffer buffer : new ByteBuffer[] {ByteBuffer.wrap(klvBytes), directBuffer}) {
+      final CollectingVisitor visitor = new CollectingVisitor();
+      new KlvBufferDecoder(klvContext).decode(buffer, visitor);
+
+      assertThat(visitor.events, contains("start " + LOCAL_SET, "end " + LOCAL_SET));
+      assertThat(visitor.values.size(), is(expected.size()));
+      expected.forEach((name, value) -> assertThat(visitor.values.get(name), is(value)));
+      assertThat(buffer.position(), is(0));
+    }
+  }
+
+  @Test
+  public void testTwoByteKey() throws KlvDecodingException {
+    final byte[] klvBytes = {-14, 99, 3, -1, 0, 1};
+    assertThat(
+        decodeValue(KeyLength.TwoBytes, LengthEncoding.OneByte, klvBytes),
+        is(new byte[] {-1, 0, 1}));
+  }
+
+  @Test
+  public void testFourByteKey() throws KlvDecodingException {
+    final byte[] klvBytes = {-14, 99, -55, 101, 3, -1, 0, 1};
+    assertThat(
+        decodeValue(KeyLength.FourBytes, LengthEncoding.OneByte, klvBytes),
+        is(new byte[] {-1, 0, 1}));
+  }
+
+  @Test
+  public void testSixteenByteKey() throws KlvDecodingException {
+    final byte[] klvBytes = {
+      -14, 99, -55, 101, 22, 0, -9, -45, -55, -1, 77, 89, 112, 17, 18, 19, 3, -1, 0, 1
+    };
+    assertThat(
+        decodeValue(KeyLength.SixteenBytes, LengthEncoding.OneByte, klvBytes),
+        is(new byte[] {-1, 0, 1}));
+  }
+
+  @Test
+  public void testTwoByteLengthEncoding() throws KlvDecodingException {
+    final byte[] klvBytes = new byte[3 + 256];
+    klvBytes[0] = 5;
+    klvBytes[1] = 1;
+    assertThat(
+        decodeValue(KeyLength.OneByte, LengthEncoding.TwoBytes, klvBytes), is(new byte[256]));
+  }
+
+  @Test
+  public void testFourByteLengthEncoding() throws KlvDecodingException {
+    final byte[] klvBytes = {5, 0, 0, 0, 2, 7, 8};
+    assertThat(
+        decodeValue(KeyLength.OneByte, LengthEncoding.FourBytes, klvBytes), is(new byte[] {7, 8}));
+  }
+
+  @Test
+  public void testBERLengthEncoding() throws KlvDecodingException {
+    assertThat(
+        decodeValue(KeyLength.OneByte, LengthEncoding.BER, new byte[] {5, 2, 7, 8}),
+        is(new byte[] {7, 8}));
+    assertThat(
+        decodeValue(KeyLength.OneByte, LengthEncoding.BER, new byte[] {5, (byte) 0x82, 0, 2, 7, 8}),
+        is(new byte[] {7, 8}));
+  }
+
+  @Test(expected = KlvDecodingException.class)
+  public void testUnsupportedBERLength() throws KlvDecodingException {
+    decodeValue(KeyLength.OneByte, LengthEncoding.BER, new byte[] {5, (byte) 0x85, 0, 0, 0, 0, 0});
+  }
+
+  @Test(expected = KlvDecodingException.class)
+  public void testMissingBERLengthBytes() throws KlvDecodingException {
+    decodeValue(KeyLength.OneByte, LengthEncoding.BER, new byte[] {5, (byte) 0x82, 0});
+  }
+
+  @Test(expected = KlvDecodingException.class)
+  public void testMissingLengthBytes() throws KlvDecodingException {
+    decodeValue(KeyLength.OneByte, LengthEncoding.TwoBytes, new byte[] {5, 0});
+  }
+
+  @Test(expected = KlvDecodingException.class)
+  public void testMissingKeyBytes() throws KlvDecodingException {
+    decodeValue(KeyLength.FourBytes, LengthEncoding.OneByte, new byte[] {5, 0, 0});
+  }
+
+  @Test
+  public void testMissingValueBytes() {
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvBytes(new byte[] {1}, "first"));
+    klvContext.addDataElement(new KlvBytes(new byte[] {2}, "second"));
+    final CollectingVisitor visitor = new CollectingVisitor();
+    try {
+      new KlvBufferDecoder(klvContext).decode(new byte[] {1, 1, 9, 2, 4, 9}, visitor);
+      fail("Should have thrown a KlvDecodingException.");
+    } catch (KlvDecodingException e) {
+      assertThat(visitor.values.keySet(), contains("first"));
+    }
+  }
+
+  @Test
+  public void testUnknownKeysAreSkipped() throws KlvDecodingException {
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvBytes(new byte[] {2}, "known"));
+    // A key of the wrong length can never be found
+    klvContext.addDataElement(new KlvBytes(new byte[] {2, 2}, "wrong length"));
+    final CollectingVisitor visitor = new CollectingVisitor();
+
+    new KlvBufferDecoder(klvContext).decode(new byte[] {1, 1, 9, 2, 1, 8, 3, 0}, visitor);
+
+    assertThat(visitor.values.keySet(), contains("known"));
+    assertThat(visitor.values.get("known"), is(new byte[] {8}));
+  }
+
+  @Test
+  public void testManyKeys() throws KlvDecodingException {
+    final KlvContext klvContext = new KlvContext(KeyLength.TwoBytes, LengthEncoding.OneByte);
+    final ByteBuffer buffer = ByteBuffer.allocate(1000 * 4);
+    for (int i = 0; i < 1000; i++) {
+      final byte[] key = {(byte) (i >> 8), (byte) i};
+      klvContext.addDataElement(new KlvBytes(key, String.valueOf(i)));
+      buffer.put(key).put((byte) 1).put((byte) i);
+    }
+    buffer.flip();
+    final CollectingVisitor visitor = new CollectingVisitor();
+
+    new KlvBufferDecoder(klvContext).decode(buffer, visitor);
+
+    assertThat(visitor.values.size(), is(1000));
+    for (int i = 0; i < 1000; i++) {
+      assertThat(visitor.values.get(String.valueOf(i)), is(new byte[] {(byte) i}));
+    }
+  }
+
+  @Test
+  public void testBufferPositionAndLimit() throws KlvDecodingException {
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvBytes(new byte[] {1}, "test"));
+    final ByteBuffer buffer = ByteBuffer.wrap(new byte[] {9, 1, 1, 5, 1, 1, 6});
+    buffer.position(1).limit(4);
+    final CollectingVisitor visitor = new CollectingVisitor();
+
+    new KlvBufferDecoder(klvContext).decode(buffer, visitor);
+
+    assertThat(visitor.values.get("test"), is(new byte[] {5}));
+    assertThat(buffer.position(), is(1));
+  }
+
+  @Test
+  public void testLocalSetThatCannotBeDecoded() throws KlvDecodingException {
+    final KlvContext localSetContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    localSetContext.addDataElement(new KlvBytes(new byte[] {1}, "inner"));
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvLocalSet(new byte[] {7}, LOCAL_SET, localSetContext));
+    klvContext.addDataElement(new KlvBytes(new byte[] {2}, "outer"));
+    final CollectingVisitor visitor = new CollectingVisitor();
+
+    // The local set holds a complete element followed by a truncated one
+    new KlvBufferDecoder(klvContext).decode(new byte[] {7, 5, 1, 1, 3, 1, 4, 2, 1, 6}, visitor);
+
+    assertThat(visitor.events, contains("start " + LOCAL_SET, "end " + LOCAL_SET));
+    assertThat(visitor.values.keySet(), contains("inner", "outer"));
+    assertThat(visitor.values.get("outer"), is(new byte[] {6}));
+  }
+
+  @Test
+  public void testNumericalValues() throws KlvDecodingException {
+    final KlvValue value = decodeView(new byte[] {(byte) 0xAF, 0x69, 0x1E, 0x0F});
+    assertThat(value.getLength(), is(4));
+    assertThat(value.getAs8bitSignedInt(), is((int) (byte) 0xAF));
+    assertThat(value.getAs8bitUnsignedInt(), is(0xAF));
+    assertThat(value.getAs16bitSignedInt(), is((int) (short) 0xAF69));
+    assertThat(value.getAs16bitUnsignedInt(), is(0xAF69));
+    assertThat(value.getAs32bitInt(), is(-1352065521));
+    assertThat(value.getAs64bitLong(), is(2942901775L));
+    assertThat(value.getAsFloat(), is(Float.intBitsToFloat(-1352065521)));
+    assertThat(Double.isNaN(value.getAsDouble()), is(true));
+
+    final KlvValue doubleValue =
+        decodeView(
+            new byte[] {
+              0x40, (byte) 0xD5, 0x0F, (byte) 0xCB, 0x21, 0x07, (byte) 0xB7, (byte) 0x84
+            });
+    assertThat(doubleValue.getAsDouble(), is(21567.173891));
+
+    final KlvValue emptyValue = decodeView(new byte[0]);
+    assertThat(emptyValue.getAs8bitSignedInt(), is(0));
+    assertThat(emptyValue.getAs8bitUnsignedInt(), is(0));
+    assertThat(emptyValue.getAs32bitInt(), is(0));
+    assertThat(Float.isNaN(emptyValue.getAsFloat()), is(true));
+  }
+
+  @Test
+  public void testStringValue() throws KlvDecodingException {
+    final byte[] bytes = "KLV".getBytes(StandardCharsets.UTF_8);
+    assertThat(decodeView(bytes).getAsString(StandardCharsets.UTF_8), is("KLV"));
+
+    final ByteBuffer directBuffer = ByteBuffer.allocateDirect(5);
+    directBuffer.put(new byte[] {1, 3}).put(bytes).flip();
+    assertThat(decodeView(directBuffer).getAsString(StandardCharsets.UTF_8), is("KLV"));
+  }
+
+  @Test
+  public void testValueAsByteBuffer() throws KlvDecodingException {
+    final ByteBuffer[] views = new ByteBuffer[1];
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvBytes(new byte[] {1}, "test"));
+
+    new KlvBufferDecoder(klvContext)
+        .decode(
+            new byte[] {1, 2, 4, 5, 1, 1, 6},
+            (dataElement, value) -> {
+              if (views[0] == null) {
+                views[0] = value.asByteBuffer();
+              }
+            });
+
+    assertThat(views[0].isReadOnly(), is(true));
+    assertThat(views[0].remaining(), is(2));
+    assertThat(views[0].get(0), is((byte) 4));
+    assertThat(views[0].get(1), is((byte) 5));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullContext() {
+    new KlvBufferDecoder(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullBytes() throws KlvDecodingException {
+    new KlvBufferDecoder(new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte))
+        .decode((byte[]) null, new CollectingVisitor());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullVisitor() throws KlvDecodingException {
+    new KlvBufferDecoder(new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte))
+        .decode(new byte[0], null);
+  }
+
+  private KlvContext getUasContext(final Set<KlvDataElement> dataElements) {
+    final KlvContext localSetContext =
+        new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte, dataElements);
+    return new KlvContext(
+        KeyLength.SixteenBytes,
+        LengthEncoding.BER,
+        Collections.singleton(
+            new KlvLocalSet(UAS_DATALINK_LOCAL_SET_UNIVERSAL_KEY, LOCAL_SET, localSetContext)));
+  }
+
+  private byte[] decodeValue(
+      final KeyLength keyLength, final LengthEncoding lengthEncoding, final byte[] klvBytes)
+      throws KlvDecodingException {
+    final byte[] key = new byte[keyLength.value()];
+    System.arraycopy(klvBytes, 0, key, 0, Math.min(key.length, klvBytes.length));
+    final KlvContext klvContext = new KlvContext(keyLength, lengthEncoding);
+    klvContext.addDataElement(new KlvBytes(key, "test"));
+    final CollectingVisitor visitor = new CollectingVisitor();
+    new KlvBufferDecoder(klvContext).decode(klvBytes, visitor);
+    return visitor.values.get("test");
+  }
+
+  private KlvValue decodeView(final byte[] valueBytes) throws KlvDecodingException {
+    final ByteBuffer buffer = ByteBuffer.allocate(valueBytes.length + 2);
+    buffer.put((byte) 1).put((byte) valueBytes.length).put(valueBytes).flip();
+    return decodeView(buffer);
+  }
+
+  /** Decodes a single one-byte key and one-byte length element, keeping its value view. */
+  private KlvValue decodeView(final ByteBuffer buffer) throws KlvDecodingException {
+    final KlvValue[] values = new KlvValue[1];
+    final KlvContext klvContext = new KlvContext(KeyLength.OneByte, LengthEncoding.OneByte);
+    klvContext.addDataElement(new KlvBytes(new byte[] {1}, "test"));
+    new KlvBufferDecoder(klvContext).decode(buffer, (dataElement, value) -> values[0] = value);
+    return values[0];
+  }
+
+  private static class CollectingVisitor implements KlvVisitor {
+    private final Map<String, byte[]> values = new LinkedHashMap<>();
+
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void visit(final KlvDataElement<?> dataElement, final KlvValue value) {
+      values.put(dataElement.getName(), value.getBytes());
+    }
+
+    @Override
+    public void startLocalSet(final KlvLocalSet localSet) {
+      events.add("start " + localSet.getName());
+    }
+
+    @Override
+    public void endLocalSet(final KlvLocalSet localSet) {
+      events.add("end " + localSet.getName());
+    }
+  }
+}
@@ -0,0 +1,486 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.jcodec.api.JCodecException;
+import org.jcodec.containers.mps.MTSUtils.StreamType;
+import org.jcodec.containers.mps.psi.PMTSection;
+import org.jcodec.containers.mps.psi.PMTSection.PMTStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.taktik.mpegts.PATSection;
+
+/**
+ * This class is for extracting arbitrary metadata (as raw bytes) from an MPEG transport stream
+ * file, like the {@link MpegTransportStreamMetadataExtractor}, without reading the file through a
+ * stream.
+ *
+ * <p>The file is memory-mapped and its packets are read in place by a {@link
+ * TransportStreamPacketCursor}, which finds the packets again after bad data. Only the packets of
+ * the metadata streams are copied, into one reused buffer per stream, and each metadata packet is
+ * given to the callback as soon as it is complete.
+ *
+ * <p>When created with a parallelism greater than one, a large file is split into packet-aligned
+ * segments that are read at the same time. A segment owns the metadata packets that start in it
+ * and reads up to 16 MB past its end to complete them. Each segment packs its metadata packets
+ * into a single buffer. The metadata packets of all the segments are then
+ * given to the callback ordered by their presentation timestamp, a metadata packet without one
+ * being ordered after the one before it in its stream.
+ */
+public class MappedMpegTransportStreamMetadataExtractor {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(MappedMpegTransportStreamMetadataExtractor.class);
+
+  static final long DEFAULT_MIN_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+  private static final int PACKET_ID_COUNT = 0x2000;
+
+  /**
+   * How far past its end a segment reads to complete its last metadata packets, so that a stream
+   * without a later metadata packet does not make the segment read the rest of the file.
+   */
+  private static final long MAX_OVERSCAN = 16L * 1024 * 1024;
+
+  private final Path path;
+
+  private final int parallelism;
+
+  private final long minSegmentSize;
+
+  private final int windowSize;
+
+  /**
+   * Constructs a {@code MappedMpegTransportStreamMetadataExtractor} that reads the transport stream
+   * file with the given path in a single pass.
+   *
+   * @param path the path of the transport stream file
+   */
+  public MappedMpegTransportStreamMetadataExtractor(final Path path) {
+    this(path, 1);
+  }
+
+  /**
+   * Constructs a {@code MappedMpegTransportStreamMetadataExtractor} that reads the transport stream
+   * file with the given path in up to {@code parallelism} segments at the same time.
+   *
+   * @param path the path of the transport stream file
+   * @param parallelism the maximum number of segments read at the same time, 1 to read the file
+   *     in a single pass
+   */
+  public MappedMpegTransportStreamMetadataExtractor(final Path path, final int parallelism) {
+    this(
+        path,
+        parallelism,
+        DEFAULT_MIN_SEGMENT_SIZE,
+        TransportStreamPacketCursor.DEFAULT_WINDOW_SIZE);
+  }
+
+  MappedMpegTransportStreamMetadataExtractor(
+      final Path path, final int parallelism, final long minSegmentSize, final int windowSize) {
+    notNull(path);
+    isTrue(parallelism > 0, "The parallelism must be positive.");
+    isTrue(
+        minSegmentSize >= TransportStreamPacketCursor.PACKET_SIZE,
+        "The minimum segment size must hold a packet.");
+    this.path = path;
+    this.parallelism = parallelism;
+    this.minSegmentSize = minSegmentSize;
+    this.windowSize = windowSize;
+  }
+
+  /**
+   * Parses the transport stream and calls the given callback for each metadata packet in each
+   * metadata stream found in the transport stream. When the file is read in a single pass, the
+   * callback is called immediately upon finding a complete metadata packet.
+   *
+   * @param callback a callback that will be called for each metadata packet in each metadata stream
+   *     found in the transport stream, where the first parameter is the packet ID of the metadata
+   *     stream and the second parameter is the metadata packet's payload
+   * @throws Exception if an error occurs while parsing the transport stream
+   */
+  public void getMetadata(final BiConsumer<Integer, byte[]> callback) throws Exception {
+    extractTransportStreamMetadata(
+        callback,
+        PesPacketBuffer::toByteArray,
+        MappedMpegTransportStreamMetadataExtractor::toByteArray);
+  }
+
+  /**
+   * Parses the transport stream like {@link #getMetadata(BiConsumer)}, but gives each metadata
+   * packet's payload to the callback as a read-only {@link ByteBuffer} instead of a copy. The
+   * buffer is only valid during the call to the callback.
+   *
+   * @param callback a callback that will be called for each metadata packet in each metadata stream
+   *     found in the transport stream, where the first parameter is the packet ID of the metadata
+   *     stream and the second parameter is the metadata packet's payload
+   * @throws Exception if an error occurs while parsing the transport stream
+   */
+  public void getMetadataBuffers(final BiConsumer<Integer, ByteBuffer> callback)
+      throws Exception {
+    extractTransportStreamMetadata(
+        callback,
+        PesPacketBuffer::asReadOnlyByteBuffer,
+        ByteBuffer::asReadOnlyBuffer);
+  }
+
+  /**
+   * Parses the transport stream and returns all the metadata packet payloads (in the order in which
+   * they were given to the callback of {@link #getMetadata(BiConsumer)}) that belong to each
+   * metadata stream.
+   *
+   * @return a {@link Map} whose keys are the packet IDs of the metadata streams and whose values
+   *     are the packet payloads belonging to that stream
+   * @throws Exception if an error occurs while parsing the transport stream
+   */
+  public Map<Integer, List<byte[]>> getMetadata() throws Exception {
+    final Map<Integer, List<byte[]>> metadataPacketsByStream = new HashMap<>();
+
+    getMetadata(
+        (streamId, metadataPacketBytes) ->
+            metadataPacketsByStream
+                .computeIfAbsent(streamId, id -> new ArrayList<>())
+                .add(metadataPacketBytes));
+
+    return metadataPacketsByStream;
+  }
+
+  private <T> void extractTransportStreamMetadata(
+      final BiConsumer<Integer, T> callback,
+      final Function<PesPacketBuffer, T> fromBuffer,
+      final Function<ByteBuffer, T> fromSegment)
+      throws Exception {
+    notNull(callback);
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final boolean[] metadataPacketIds = getMetadataPacketIds(channel);
+
+      final long size = channel.size();
+      final int segmentCount = (int) Math.min(parallelism, Math.max(1, size / minSegmentSize));
+
+      if (segmentCount == 1) {
+        scanSegment(
+            channel,
+            0,
+            size,
+            metadataPacketIds,
+            packet -> callback.accept(packet.getPacketId(), fromBuffer.apply(packet)));
+      } else {
+        for (final MetadataPacket packet :
+            scanSegmentsInParallel(channel, size, segmentCount, metadataPacketIds)) {
+          callback.accept(packet.packetId, fromSegment.apply(packet.getBytes()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads the program association table and the program map tables it lists from the start of the
+   * file.
+   *
+   * @return the packet IDs of the metadata streams, as a table indexed by packet ID
+   */
+  private boolean[] getMetadataPacketIds(final FileChannel channel)
+      throws IOException, JCodecException {
+    final Set<Integer> programMapTablePacketIdDirectory = new HashSet<>();
+    final Set<Integer> programMapTablesSeen = new HashSet<>();
+    final boolean[] metadataPacketIds = new boolean[PACKET_ID_COUNT];
+
+    final TransportStreamPacketCursor cursor =
+        new TransportStreamPacketCursor(channel, 0, windowSize);
+    while (cursor.next()) {
+      if (!cursor.isPayloadUnitStart() || cursor.getPayloadLength() == 0) {
+        continue;
+      }
+
+      final int packetId = cursor.getPacketId();
+      if (packetId == 0 && programMapTablePacketIdDirectory.isEmpty()) {
+        programMapTablePacketIdDirectory.addAll(getProgramMapTablePacketIds(cursor.getPayload()));
+      } else if (programMapTablePacketIdDirectory.contains(packetId)
+          && programMapTablesSeen.add(packetId)) {
+        final PMTSection pmt = PMTSection.parsePMT(skipPointerField(cursor.getPayload()));
+        for (final PMTStream stream : pmt.getStreams()) {
+          if (isMetadataStream(stream)) {
+            metadataPacketIds[stream.getPid()] = true;
+          }
+        }
+
+        if (programMapTablesSeen.size() == programMapTablePacketIdDirectory.size()) {
+          break;
+        }
+      }
+    }
+
+    metadataPacketIds[0] = false;
+    programMapTablePacketIdDirectory.forEach(packetId -> metadataPacketIds[packetId] = false);
+    return metadataPacketIds;
+  }
+
+  private Set<Integer> getProgramMapTablePacketIds(final ByteBuffer payload)
+      throws JCodecException {
+    final PATSection programAssociationTable = PATSection.parse(skipPointerField(payload));
+    if (programAssociationTable == null) {
+      throw new JCodecException("Program association table does not exist.");
+    }
+
+    final Set<Integer> packetIds = new HashSet<>(programAssociationTable.getPrograms().values());
+    if (packetIds.isEmpty()) {
+      throw new JCodecException("No programs found in transport stream.");
+    }
+    return packetIds;
+  }
+
+  private ByteBuffer skipPointerField(final ByteBuffer payload) {
+    final int pointer = payload.get() & 0xff;
+    payload.position(payload.position() + pointer);
+    return payload;
+  }
+
+  private boolean isMetadataStream(final PMTStream stream) {
+    return stream.getStreamType() == StreamType.PRIVATE_DATA
+        || stream.getStreamType() == StreamType.META_PES;
+  }
+
+  /**
+   * Gives {@code consumer} the metadata packets that start at or after {@code start} and before
+   * {@code end}, reading up to {@link #MAX_OVERSCAN} bytes past {@code end} to complete the ones
+   * still open there.
+   */
+  private void scanSegment(
+      final FileChannel channel,
+      final long start,
+      final long end,
+      final boolean[] metadataPacketIds,
+      final Consumer<PesPacketBuffer> consumer)
+      throws IOException {
+    final TransportStreamPacketCursor cursor =
+        new TransportStreamPacketCursor(channel, start, windowSize);
+    final PesPacketBuffer[] packets = new PesPacketBuffer[PACKET_ID_COUNT];
+    int openPackets = 0;
+
+    try {
+      while (cursor.next()) {
+        final boolean pastEnd = cursor.getOffset() >= end;
+        if (pastEnd && openPackets == 0) {
+          return;
+        }
+        if (pastEnd && cursor.getOffset() - end >= MAX_OVERSCAN) {
+          LOGGER.debug(
+              "{} metadata packets still open {} bytes past the end of the segment at {}",
+              openPackets,
+              MAX_OVERSCAN,
+              end);
+          break;
+        }
+
+        final int packetId = cursor.getPacketId();
+        if (!metadataPacketIds[packetId]) {
+          continue;
+        }
+
+        PesPacketBuffer packet = packets[packetId];
+        if (cursor.isPayloadUnitStart()) {
+          if (packet != null && packet.isStarted()) {
+            consumer.accept(packet);
+            packet.finish();
+            openPackets--;
+          }
+          if (!pastEnd) {
+            if (packet == null) {
+              packet = new PesPacketBuffer(packetId);
+              packets[packetId] = packet;
+            }
+            packet.start(cursor.getOffset());
+            cursor.copyPayloadTo(packet);
+            openPackets++;
+          }
+        } else if (packet != null && packet.isStarted()) {
+          cursor.copyPayloadTo(packet);
+        }
+      }
+    } finally {
+      LOGGER.debug(
+          "Mpegts Packet Processing Complete for bytes {} to {}: Total Processed {}, "
+              + "Total Failed: {}, Bytes Skipped: {}",
+          start,
+          end,
+          cursor.getPacketsProcessed(),
+          cursor.getPacketsFailed(),
+          cursor.getBytesSkipped());
+    }
+
+    /*
+     * The end of a metadata packet is only known when the next one of its stream starts, so the
+     * last metadata packet of each stream is given to the consumer at the end of the file, or once
+     * the segment read as far past its end as it may.
+     */
+    Arrays.stream(packets)
+        .filter(Objects::nonNull)
+        .filter(PesPacketBuffer::isStarted)
+        .sorted(Comparator.comparingLong(PesPacketBuffer::getOffset))
+        .forEach(consumer);
+  }
+
+  private List<MetadataPacket> scanSegmentsInParallel(
+      final FileChannel channel,
+      final long size,
+      final int segmentCount,
+      final boolean[] metadataPacketIds)
+      throws Exception {
+    final long segmentSize =
+        size / segmentCount
+            / TransportStreamPacketCursor.PACKET_SIZE
+            * TransportStreamPacketCursor.PACKET_SIZE;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(segmentCount);
+    try {
+      final List<Future<List<MetadataPacket>>> segments = new ArrayList<>(segmentCount);
+      for (int i = 0; i < segmentCount; i++) {
+        final long start = i * segmentSize;
+        final long end = i == segmentCount - 1 ? size : start + segmentSize;
+        segments.add(
+            executor.submit(
+                () -> {
+                  final SegmentBuffer segment = new SegmentBuffer();
+                  scanSegment(channel, start, end, metadataPacketIds, segment::add);
+                  return segment.packets;
+                }));
+      }
+
+      final List<MetadataPacket> packets = new ArrayList<>();
+      for (final Future<List<MetadataPacket>> segment : segments) {
+        packets.addAll(getSegmentPackets(segment));
+      }
+      return orderByPresentationTimestamp(packets);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<MetadataPacket> getSegmentPackets(final Future<List<MetadataPacket>> segment)
+      throws Exception {
+    try {
+      return segment.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private List<MetadataPacket> orderByPresentationTimestamp(final List<MetadataPacket> packets) {
+    packets.sort(Comparator.comparingLong(packet -> packet.offset));
+
+    final long[] lastPresentationTimestamps = new long[PACKET_ID_COUNT];
+    Arrays.fill(lastPresentationTimestamps, PesPacketBuffer.NO_PRESENTATION_TIMESTAMP);
+    for (final MetadataPacket packet : packets) {
+      if (packet.presentationTimestamp == PesPacketBuffer.NO_PRESENTATION_TIMESTAMP) {
+        packet.presentationTimestamp = lastPresentationTimestamps[packet.packetId];
+      } else {
+        lastPresentationTimestamps[packet.packetId] = packet.presentationTimestamp;
+      }
+    }
+
+    // The sort is stable, so packets with the same timestamp stay in file order.
+    packets.sort(Comparator.comparingLong(packet -> packet.presentationTimestamp));
+    return packets;
+  }
+
+  private static byte[] toByteArray(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * The metadata packets of one segment, whose bytes are packed one after the other in a single
+   * buffer so that the packets can be reordered without copying them.
+   */
+  private static class SegmentBuffer {
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final List<MetadataPacket> packets = new ArrayList<>();
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+    private int length;
+
+    void add(final PesPacketBuffer packet) {
+      final ByteBuffer source = packet.asReadOnlyByteBuffer();
+      final int count = source.remaining();
+      if (length + count > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+      }
+      source.get(bytes, length, count);
+      packets.add(new MetadataPacket(this, packet, length, count));
+      length += count;
+    }
+  }
+
+  private static class MetadataPacket {
+    private final SegmentBuffer segment;
+
+    private final int packetId;
+
+    private final long offset;
+
+    private final int start;
+
+    private final int length;
+
+    private long presentationTimestamp;
+
+    MetadataPacket(
+        final SegmentBuffer segment,
+        final PesPacketBuffer packet,
+        final int start,
+        final int length) {
+      this.segment = segment;
+      this.packetId = packet.getPacketId();
+      this.offset = packet.getOffset();
+      this.start = start;
+      this.length = length;
+      this.presentationTimestamp = packet.getPresentationTimestamp();
+    }
+
+    /** @return the bytes of the metadata packet, sharing the buffer of its segment */
+    ByteBuffer getBytes() {
+      return ByteBuffer.wrap(segment.bytes, start, length).slice();
+    }
+  }
+}
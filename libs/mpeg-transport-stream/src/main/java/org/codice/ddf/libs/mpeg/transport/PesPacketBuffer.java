@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reassembles the PES packets of one elementary stream from the payloads of its transport stream
+ * packets. The same buffer is reused for every PES packet of the stream, so it only grows to the
+ * size of the largest one.
+ */
+final class PesPacketBuffer {
+  static final long NO_PRESENTATION_TIMESTAMP = -1;
+
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private static final int MIN_HEADER_SIZE_WITH_PTS = 14;
+
+  private final int packetId;
+
+  private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+  private int length;
+
+  private long offset;
+
+  private boolean started;
+
+  PesPacketBuffer(final int packetId) {
+    this.packetId = packetId;
+  }
+
+  /** @return the packet ID of the elementary stream */
+  int getPacketId() {
+    return packetId;
+  }
+
+  /** @return the offset in the file of the transport stream packet that started the PES packet */
+  long getOffset() {
+    return offset;
+  }
+
+  /** @return whether a PES packet has been started and not delivered yet */
+  boolean isStarted() {
+    return started;
+  }
+
+  /** Starts a new PES packet, dropping the bytes of the previous one. */
+  void start(final long offset) {
+    this.offset = offset;
+    this.length = 0;
+    this.started = true;
+  }
+
+  /** Marks the current PES packet as delivered. */
+  void finish() {
+    started = false;
+  }
+
+  /** Appends the next {@code count} bytes of {@code source}, moving its position. */
+  void append(final ByteBuffer source, final int count) {
+    if (length + count > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+    }
+    source.get(bytes, length, count);
+    length += count;
+  }
+
+  /**
+   * @return a read-only {@link ByteBuffer} sharing the bytes of the PES packet, which are only
+   *     valid until the next PES packet is started
+   */
+  ByteBuffer asReadOnlyByteBuffer() {
+    return ByteBuffer.wrap(bytes, 0, length).asReadOnlyBuffer();
+  }
+
+  /** @return a copy of the bytes of the PES packet */
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, length);
+  }
+
+  /**
+   * @return the 33-bit presentation timestamp in the header of the PES packet, or {@link
+   *     #NO_PRESENTATION_TIMESTAMP} if it has none
+   */
+  long getPresentationTimestamp() {
+    if (length < MIN_HEADER_SIZE_WITH_PTS
+        || bytes[0] != 0
+        || bytes[1] != 0
+        || bytes[2] != 1
+        || (bytes[6] & 0xC0) != 0x80
+        || (bytes[7] & 0x80) == 0
+        || (bytes[8] & 0xFF) < 5) {
+      return NO_PRESENTATION_TIMESTAMP;
+    }
+    return ((long) ((bytes[9] >> 1) & 0x07) << 30)
+        | ((long) (bytes[10] & 0xFF) << 22)
+        | ((long) ((bytes[11] & 0xFF) >> 1) << 15)
+        | ((long) (bytes[12] & 0xFF) << 7)
+        | ((bytes[13] & 0xFF) >> 1);
+  }
+}
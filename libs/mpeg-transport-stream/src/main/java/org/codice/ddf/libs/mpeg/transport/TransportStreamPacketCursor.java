@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import static org.apache.commons.lang.Validate.isTrue;
+import static org.apache.commons.lang.Validate.notNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * Reads the 188-byte packets of a transport stream file through a memory-mapped window that is
+ * moved along the file, so files larger than 2 GB can be read and no packet is copied.
+ *
+ * <p>The cursor starts out of sync: a packet is only accepted where a sync byte is followed by
+ * another sync byte one packet later (or by the end of the file). Once in sync, packets are read
+ * every 188 bytes for as long as they start with a sync byte. When a packet does not, the cursor
+ * loses sync and looks for the next packet one byte at a time, so a run of bad bytes of any length
+ * only costs the packets it overlaps. Packets with the transport error indicator set or with an
+ * adaptation field longer than the packet are skipped.
+ */
+final class TransportStreamPacketCursor {
+  static final int PACKET_SIZE = 188;
+
+  static final int DEFAULT_WINDOW_SIZE = 16 * 1024 * 1024;
+
+  private static final int SYNC_BYTE = 0x47;
+
+  private static final int HEADER_SIZE = 4;
+
+  private final FileChannel channel;
+
+  private final long size;
+
+  private final int windowSize;
+
+  private ByteBuffer window;
+
+  private long windowStart;
+
+  private long nextOffset;
+
+  private boolean synced;
+
+  private long offset = -1;
+
+  private int packetId;
+
+  private boolean payloadUnitStart;
+
+  private int payloadStart;
+
+  private int payloadLength;
+
+  private long packetsProcessed;
+
+  private long packetsFailed;
+
+  private long bytesSkipped;
+
+  /**
+   * @param channel the channel of the transport stream file
+   * @param start the offset in the file at which to start looking for packets
+   * @param windowSize the number of bytes of the file mapped at a time, at least two packets
+   * @throws IOException if the size of the file cannot be read
+   */
+  TransportStreamPacketCursor(final FileChannel channel, final long start, final int windowSize)
+      throws IOException {
+    notNull(channel);
+    isTrue(start >= 0, "The start offset cannot be negative.");
+    isTrue(windowSize >= 2 * PACKET_SIZE, "The window must hold at least two packets.");
+    this.channel = channel;
+    this.size = channel.size();
+    this.windowSize = windowSize;
+    this.nextOffset = start;
+  }
+
+  /**
+   * Moves the cursor to the next valid packet.
+   *
+   * @return false if there are no more packets in the file
+   * @throws IOException if the file cannot be mapped
+   */
+  boolean next() throws IOException {
+    while (nextOffset + PACKET_SIZE <= size) {
+      if (!isPacketStart(nextOffset)) {
+        synced = false;
+        nextOffset++;
+        bytesSkipped++;
+        continue;
+      }
+
+      synced = true;
+      offset = nextOffset;
+      nextOffset += PACKET_SIZE;
+      packetsProcessed++;
+      if (readHeader()) {
+        return true;
+      }
+      packetsFailed++;
+    }
+    return false;
+  }
+
+  /** @return the offset in the file of the current packet */
+  long getOffset() {
+    return offset;
+  }
+
+  /** @return the packet ID of the current packet */
+  int getPacketId() {
+    return packetId;
+  }
+
+  /** @return whether the payload of the current packet starts a PES packet or a PSI section */
+  boolean isPayloadUnitStart() {
+    return payloadUnitStart;
+  }
+
+  /** @return the number of bytes of payload in the current packet */
+  int getPayloadLength() {
+    return payloadLength;
+  }
+
+  /**
+   * @return a read-only {@link ByteBuffer} sharing the payload of the current packet, which stays
+   *     valid after the cursor moves
+   */
+  ByteBuffer getPayload() {
+    final ByteBuffer payload = window.asReadOnlyBuffer();
+    final int index = (int) (offset - windowStart) + payloadStart;
+    payload.limit(index + payloadLength);
+    payload.position(index);
+    return payload.slice();
+  }
+
+  /** Appends the payload of the current packet to {@code packet}. */
+  void copyPayloadTo(final PesPacketBuffer packet) {
+    window.position((int) (offset - windowStart) + payloadStart);
+    packet.append(window, payloadLength);
+  }
+
+  /** @return the number of packets found, including the skipped ones */
+  long getPacketsProcessed() {
+    return packetsProcessed;
+  }
+
+  /** @return the number of packets found that were skipped */
+  long getPacketsFailed() {
+    return packetsFailed;
+  }
+
+  /** @return the number of bytes skipped while looking for packets */
+  long getBytesSkipped() {
+    return bytesSkipped;
+  }
+
+  private boolean isPacketStart(final long position) throws IOException {
+    map(position);
+    if (byteAt(position) != SYNC_BYTE) {
+      return false;
+    }
+    if (synced) {
+      return true;
+    }
+    final long following = position + PACKET_SIZE;
+    return following >= size || byteAt(following) == SYNC_BYTE;
+  }
+
+  private boolean readHeader() {
+    final int flagsAndPacketId = byteAt(offset + 1);
+    if ((flagsAndPacketId & 0x80) != 0) {
+      // The transport error indicator is set.
+      return false;
+    }
+    payloadUnitStart = (flagsAndPacketId & 0x40) != 0;
+    packetId = ((flagsAndPacketId & 0x1F) << 8) | byteAt(offset + 2);
+
+    final int adaptationFieldControl = (byteAt(offset + 3) >> 4) & 0x03;
+    payloadStart = HEADER_SIZE;
+    if ((adaptationFieldControl & 0x02) != 0) {
+      payloadStart += 1 + byteAt(offset + HEADER_SIZE);
+      if (payloadStart > PACKET_SIZE) {
+        return false;
+      }
+    }
+    payloadLength = (adaptationFieldControl & 0x01) != 0 ? PACKET_SIZE - payloadStart : 0;
+    return true;
+  }
+
+  /** Maps the window so it holds the packet at {@code position} and the packet following it. */
+  private void map(final long position) throws IOException {
+    final long end = Math.min(position + 2 * PACKET_SIZE, size);
+    if (window == null || position < windowStart || end > windowStart + window.limit()) {
+      windowStart = position;
+      window = channel.map(MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+    }
+  }
+
+  private int byteAt(final long position) {
+    return window.get((int) (position - windowStart)) & 0xFF;
+  }
+}
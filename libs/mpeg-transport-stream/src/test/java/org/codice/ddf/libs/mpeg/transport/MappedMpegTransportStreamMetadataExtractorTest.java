@@ -0,0 +1,325 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import static org.codice.ddf.libs.mpeg.transport.TransportStreamBuilder.METADATA_PACKET_ID;
+import static org.codice.ddf.libs.mpeg.transport.TransportStreamBuilder.PRIVATE_DATA_PACKET_ID;
+import static org.codice.ddf.libs.mpeg.transport.TransportStreamBuilder.VIDEO_PACKET_ID;
+import static org.codice.ddf.libs.mpeg.transport.TransportStreamBuilder.newPesPacket;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.collection.IsMapContaining.hasKey;
+
+import com.google.common.io.ByteSource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedMpegTransportStreamMetadataExtractorTest {
+  private static final int PACKET_SIZE = TransportStreamPacketCursor.PACKET_SIZE;
+
+  private static final int SMALL_WINDOW_SIZE = 2 * PACKET_SIZE + 1;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testExtractCallback() throws Exception {
+    final MappedMpegTransportStreamMetadataExtractor extractor =
+        new MappedMpegTransportStreamMetadataExtractor(getDayflight());
+
+    final List<Integer> packetIds = new ArrayList<>();
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    extractor.getMetadata(
+        (packetId, bytes) -> {
+          packetIds.add(packetId);
+          metadataPackets.add(bytes);
+        });
+
+    // The packet ID of the metadata stream in this file is 497.
+    packetIds.forEach(packetId -> assertThat(packetId, is(497)));
+    verifyExtractedBytes(metadataPackets);
+  }
+
+  @Test
+  public void testExtractAll() throws Exception {
+    final MappedMpegTransportStreamMetadataExtractor extractor =
+        new MappedMpegTransportStreamMetadataExtractor(getDayflight());
+
+    final Map<Integer, List<byte[]>> metadataStreams = extractor.getMetadata();
+
+    // The packet ID of the metadata stream in this file is 497.
+    assertThat(metadataStreams.size(), is(1));
+    assertThat(metadataStreams, hasKey(497));
+    verifyExtractedBytes(metadataStreams.get(497));
+  }
+
+  @Test
+  public void testExtractSameAsStreamingExtractor() throws Exception {
+    final Path dayflight = getDayflight();
+    final Map<Integer, List<byte[]>> expected =
+        new MpegTransportStreamMetadataExtractor(ByteSource.wrap(Files.readAllBytes(dayflight)))
+            .getMetadata();
+
+    assertSameMetadata(
+        new MappedMpegTransportStreamMetadataExtractor(dayflight).getMetadata(), expected);
+    assertSameMetadata(
+        new MappedMpegTransportStreamMetadataExtractor(dayflight, 1, PACKET_SIZE, SMALL_WINDOW_SIZE)
+            .getMetadata(),
+        expected);
+  }
+
+  @Test
+  public void testExtractInParallel() throws Exception {
+    final MappedMpegTransportStreamMetadataExtractor extractor =
+        new MappedMpegTransportStreamMetadataExtractor(
+            getDayflight(), 4, 20 * PACKET_SIZE, SMALL_WINDOW_SIZE);
+
+    final Map<Integer, List<byte[]>> metadataStreams = extractor.getMetadata();
+
+    assertThat(metadataStreams.size(), is(1));
+    verifyExtractedBytes(metadataStreams.get(497));
+  }
+
+  @Test
+  public void testExtractBuffers() throws Exception {
+    final MappedMpegTransportStreamMetadataExtractor extractor =
+        new MappedMpegTransportStreamMetadataExtractor(getDayflight());
+
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    extractor.getMetadataBuffers(
+        (packetId, buffer) -> {
+          assertThat(buffer.isReadOnly(), is(true));
+          metadataPackets.add(toByteArray(buffer));
+        });
+
+    verifyExtractedBytes(metadataPackets);
+  }
+
+  @Test
+  public void testExtractBuffersInParallel() throws Exception {
+    final MappedMpegTransportStreamMetadataExtractor extractor =
+        new MappedMpegTransportStreamMetadataExtractor(
+            getDayflight(), 4, 20 * PACKET_SIZE, SMALL_WINDOW_SIZE);
+
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    extractor.getMetadataBuffers(
+        (packetId, buffer) -> {
+          assertThat(buffer.isReadOnly(), is(true));
+          metadataPackets.add(toByteArray(buffer));
+        });
+
+    verifyExtractedBytes(metadataPackets);
+  }
+
+  @Test
+  public void testMetadataPacketsSpanningTransportStreamPackets() throws Exception {
+    final byte[] first = newPesPacket(9000, payload(1, 400));
+    final byte[] privateData = newPesPacket(3000, payload(2, 50));
+    final byte[] second = newPesPacket(12000, payload(3, 10));
+    final Path file =
+        write(
+            new TransportStreamBuilder()
+                .programAssociationTable()
+                .programMapTable()
+                .pesPacket(VIDEO_PACKET_ID, newPesPacket(0, payload(4, 300)))
+                .pesPacket(METADATA_PACKET_ID, first)
+                .pesPacket(VIDEO_PACKET_ID, newPesPacket(3000, payload(5, 300)))
+                .bytes(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05})
+                .pesPacket(PRIVATE_DATA_PACKET_ID, privateData)
+                .pesPacket(METADATA_PACKET_ID, second)
+                .build());
+
+    final List<Integer> packetIds = new ArrayList<>();
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    new MappedMpegTransportStreamMetadataExtractor(file, 1, PACKET_SIZE, SMALL_WINDOW_SIZE)
+        .getMetadata(
+            (packetId, bytes) -> {
+              packetIds.add(packetId);
+              metadataPackets.add(bytes);
+            });
+
+    // The first metadata packet is complete when the second one starts, and the other two are
+    // complete at the end of the file.
+    assertThat(
+        packetIds,
+        is(Arrays.asList(METADATA_PACKET_ID, PRIVATE_DATA_PACKET_ID, METADATA_PACKET_ID)));
+    assertThat(metadataPackets.get(0), is(first));
+    assertThat(metadataPackets.get(1), is(privateData));
+    assertThat(metadataPackets.get(2), is(second));
+  }
+
+  @Test
+  public void testExtractInParallelOrderedByPresentationTimestamp() throws Exception {
+    final byte[] first = newPesPacket(9000, payload(1, 400));
+    final byte[] privateData = newPesPacket(3000, payload(2, 50));
+    final byte[] withoutTimestamp = newPesPacket(-1, payload(3, 10));
+    final byte[] last = newPesPacket(12000, payload(4, 10));
+    final Path file =
+        write(
+            new TransportStreamBuilder()
+                .programAssociationTable()
+                .programMapTable()
+                .pesPacket(METADATA_PACKET_ID, first)
+                .pesPacket(PRIVATE_DATA_PACKET_ID, privateData)
+                .pesPacket(VIDEO_PACKET_ID, newPesPacket(3000, payload(5, 1000)))
+                .pesPacket(METADATA_PACKET_ID, withoutTimestamp)
+                .pesPacket(VIDEO_PACKET_ID, newPesPacket(6000, payload(6, 1000)))
+                .pesPacket(METADATA_PACKET_ID, last)
+                .build());
+
+    final List<Integer> packetIds = new ArrayList<>();
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    new MappedMpegTransportStreamMetadataExtractor(file, 8, PACKET_SIZE, SMALL_WINDOW_SIZE)
+        .getMetadata(
+            (packetId, bytes) -> {
+              packetIds.add(packetId);
+              metadataPackets.add(bytes);
+            });
+
+    // The metadata packet without a timestamp stays after the one before it in its stream.
+    assertThat(
+        packetIds,
+        is(
+            Arrays.asList(
+                PRIVATE_DATA_PACKET_ID,
+                METADATA_PACKET_ID,
+                METADATA_PACKET_ID,
+                METADATA_PACKET_ID)));
+    assertThat(metadataPackets.get(0), is(privateData));
+    assertThat(metadataPackets.get(1), is(first));
+    assertThat(metadataPackets.get(2), is(withoutTimestamp));
+    assertThat(metadataPackets.get(3), is(last));
+  }
+
+  @Test
+  public void testSegmentsSplitMetadataPackets() throws Exception {
+    final TransportStreamBuilder builder =
+        new TransportStreamBuilder().programAssociationTable().programMapTable();
+    final List<byte[]> expected = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      final byte[] metadataPacket = newPesPacket(i * 3000L, payload(i, 400));
+      expected.add(metadataPacket);
+      builder
+          .pesPacket(METADATA_PACKET_ID, metadataPacket)
+          .pesPacket(VIDEO_PACKET_ID, newPesPacket(i * 3000L, payload(i, 100)));
+    }
+    final Path file = write(builder.build());
+
+    for (final int parallelism : new int[] {1, 2, 3, 7, 16}) {
+      final Map<Integer, List<byte[]>> metadataStreams =
+          new MappedMpegTransportStreamMetadataExtractor(
+                  file, parallelism, 5 * PACKET_SIZE, SMALL_WINDOW_SIZE)
+              .getMetadata();
+
+      assertThat(metadataStreams.size(), is(1));
+      final List<byte[]> metadataPackets = metadataStreams.get(METADATA_PACKET_ID);
+      assertThat(metadataPackets.size(), is(expected.size()));
+      for (int i = 0; i < expected.size(); i++) {
+        assertThat(metadataPackets.get(i), is(expected.get(i)));
+      }
+    }
+  }
+
+  @Test
+  public void testNoProgramAssociationTable() throws Exception {
+    final Path file =
+        write(
+            new TransportStreamBuilder()
+                .pesPacket(METADATA_PACKET_ID, newPesPacket(0, payload(1, 10)))
+                .build());
+
+    assertThat(new MappedMpegTransportStreamMetadataExtractor(file).getMetadata().size(), is(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() throws IOException {
+    new MappedMpegTransportStreamMetadataExtractor(getDayflight(), 0);
+  }
+
+  private Path getDayflight() throws IOException {
+    final File file = temporaryFolder.newFile("dayflight.mpg");
+    try (InputStream inputStream =
+        getClass().getClassLoader().getResourceAsStream("dayflight.mpg")) {
+      Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    return file.toPath();
+  }
+
+  private Path write(final byte[] stream) throws IOException {
+    final File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), stream);
+    return file.toPath();
+  }
+
+  private static void assertSameMetadata(
+      final Map<Integer, List<byte[]>> actual, final Map<Integer, List<byte[]>> expected) {
+    assertThat(actual.keySet(), is(expected.keySet()));
+    expected.forEach(
+        (packetId, expectedPackets) -> {
+          final List<byte[]> actualPackets = actual.get(packetId);
+          assertThat(actualPackets.size(), is(expectedPackets.size()));
+          for (int i = 0; i < expectedPackets.size(); i++) {
+            assertThat(actualPackets.get(i), is(expectedPackets.get(i)));
+          }
+        });
+  }
+
+  private static void verifyExtractedBytes(final List<byte[]> metadataPackets) {
+    assertThat(metadataPackets.size(), is(12));
+
+    final byte[] expectedMetadataBytesNoPayload =
+        new byte[] {0x00, 0x00, 0x01, (byte) 0xBD, 0x00, 0x03, (byte) 0x84, 0x00, 0x00};
+
+    final byte[] expectedHeaderMetadataBytesWithPayload =
+        new byte[] {0x00, 0x00, 0x01, (byte) 0xBD, 0x00, (byte) 0xA6};
+
+    for (int packetNum = 0; packetNum < metadataPackets.size(); ++packetNum) {
+      final byte[] metadataPacketBytes = metadataPackets.get(packetNum);
+      // The 11th metadata packet is the only one with a payload.
+      if (packetNum == 10) {
+        assertThat(
+            metadataPacketBytes.length, is(0xA6 + expectedHeaderMetadataBytesWithPayload.length));
+        assertThat(
+            Arrays.copyOf(metadataPacketBytes, 6), is(expectedHeaderMetadataBytesWithPayload));
+      } else {
+        assertThat(metadataPacketBytes, is(expectedMetadataBytesNoPayload));
+      }
+    }
+  }
+
+  private static byte[] payload(final int value, final int length) {
+    final byte[] payload = new byte[length];
+    for (int i = 0; i < length; i++) {
+      payload[i] = (byte) (value * 7 + i);
+    }
+    return payload;
+  }
+
+  private static byte[] toByteArray(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/** Writes small transport streams for the tests, one packet at a time. */
+class TransportStreamBuilder {
+  static final int PROGRAM_MAP_TABLE_PACKET_ID = 0x100;
+
+  static final int VIDEO_PACKET_ID = 0x1E1;
+
+  static final int METADATA_PACKET_ID = 0x1F1;
+
+  static final int PRIVATE_DATA_PACKET_ID = 0x1F2;
+
+  private static final int PACKET_SIZE = 188;
+
+  private static final int STREAM_TYPE_H264 = 0x1B;
+
+  private static final int STREAM_TYPE_PRIVATE_DATA = 0x06;
+
+  private static final int STREAM_TYPE_METADATA_PES = 0x15;
+
+  private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+  /** Writes a program association table listing a single program. */
+  TransportStreamBuilder programAssociationTable() {
+    final byte[] section = {
+      0x00, (byte) 0xB0, 0x0D, 0x00, 0x01, (byte) 0xC1, 0x00, 0x00,
+      0x00, 0x01, (byte) (0xE0 | PROGRAM_MAP_TABLE_PACKET_ID >> 8),
+      (byte) PROGRAM_MAP_TABLE_PACKET_ID
+    };
+    return section(0, section);
+  }
+
+  /** Writes the program map table of a video stream, a metadata stream and a private stream. */
+  TransportStreamBuilder programMapTable() {
+    final byte[] section = {
+      0x02, (byte) 0xB0, 0x1C, 0x00, 0x01, (byte) 0xC1, 0x00, 0x00,
+      (byte) (0xE0 | VIDEO_PACKET_ID >> 8), (byte) VIDEO_PACKET_ID, (byte) 0xF0, 0x00,
+      STREAM_TYPE_H264, (byte) (0xE0 | VIDEO_PACKET_ID >> 8), (byte) VIDEO_PACKET_ID,
+      (byte) 0xF0, 0x00,
+      STREAM_TYPE_METADATA_PES, (byte) (0xE0 | METADATA_PACKET_ID >> 8),
+      (byte) METADATA_PACKET_ID, (byte) 0xF0, 0x00,
+      STREAM_TYPE_PRIVATE_DATA, (byte) (0xE0 | PRIVATE_DATA_PACKET_ID >> 8),
+      (byte) PRIVATE_DATA_PACKET_ID, (byte) 0xF0, 0x00
+    };
+    return section(PROGRAM_MAP_TABLE_PACKET_ID, section);
+  }
+
+  /**
+   * Writes a PES packet split over as many transport stream packets as needed, the last one padded
+   * with an adaptation field.
+   */
+  TransportStreamBuilder pesPacket(final int packetId, final byte[] pesPacket) {
+    int written = 0;
+    do {
+      final int count = Math.min(PACKET_SIZE - 4, pesPacket.length - written);
+      packet(
+          packetId, written == 0, Arrays.copyOfRange(pesPacket, written, written + count), true);
+      written += count;
+    } while (written < pesPacket.length);
+    return this;
+  }
+
+  /** Writes a transport stream packet, padding the payload with an adaptation field. */
+  TransportStreamBuilder packet(
+      final int packetId,
+      final boolean payloadUnitStart,
+      final byte[] payload,
+      final boolean hasPayload) {
+    final byte[] packet = new byte[PACKET_SIZE];
+    packet[0] = 0x47;
+    packet[1] = (byte) ((payloadUnitStart ? 0x40 : 0) | (packetId >> 8));
+    packet[2] = (byte) packetId;
+
+    final int stuffing = PACKET_SIZE - 4 - payload.length;
+    if (stuffing == 0) {
+      packet[3] = 0x10;
+    } else {
+      packet[3] = (byte) (hasPayload ? 0x30 : 0x20);
+      packet[4] = (byte) (stuffing - 1);
+      if (stuffing > 1) {
+        Arrays.fill(packet, 6, 4 + stuffing, (byte) 0xFF);
+      }
+    }
+    System.arraycopy(payload, 0, packet, 4 + stuffing, payload.length);
+    return bytes(packet);
+  }
+
+  /** Writes the given bytes, which need not be a packet. */
+  TransportStreamBuilder bytes(final byte[] bytes) {
+    stream.write(bytes, 0, bytes.length);
+    return this;
+  }
+
+  byte[] build() {
+    return stream.toByteArray();
+  }
+
+  /**
+   * @return a PES packet of the private stream 1 with the given payload, and a presentation
+   *     timestamp unless {@code presentationTimestamp} is negative
+   */
+  static byte[] newPesPacket(final long presentationTimestamp, final byte[] payload) {
+    final boolean hasTimestamp = presentationTimestamp >= 0;
+    final int headerDataLength = hasTimestamp ? 5 : 0;
+    final int length = 3 + headerDataLength + payload.length;
+    final byte[] pesPacket = new byte[6 + length];
+    pesPacket[2] = 0x01;
+    pesPacket[3] = (byte) 0xBD;
+    pesPacket[4] = (byte) (length >> 8);
+    pesPacket[5] = (byte) length;
+    pesPacket[6] = (byte) 0x84;
+    pesPacket[7] = (byte) (hasTimestamp ? 0x80 : 0x00);
+    pesPacket[8] = (byte) headerDataLength;
+    if (hasTimestamp) {
+      pesPacket[9] = (byte) (0x21 | ((presentationTimestamp >> 29) & 0x0E));
+      pesPacket[10] = (byte) (presentationTimestamp >> 22);
+      pesPacket[11] = (byte) (((presentationTimestamp >> 14) & 0xFE) | 0x01);
+      pesPacket[12] = (byte) (presentationTimestamp >> 7);
+      pesPacket[13] = (byte) (((presentationTimestamp << 1) & 0xFE) | 0x01);
+    }
+    System.arraycopy(payload, 0, pesPacket, 9 + headerDataLength, payload.length);
+    return pesPacket;
+  }
+
+  private TransportStreamBuilder section(final int packetId, final byte[] section) {
+    final byte[] payload = new byte[PACKET_SIZE - 4];
+    Arrays.fill(payload, (byte) 0xFF);
+    // The pointer field is 0, the section starts right after it.
+    payload[0] = 0x00;
+    System.arraycopy(section, 0, payload, 1, section.length);
+    final int crc = crc32(section);
+    for (int i = 0; i < 4; i++) {
+      payload[1 + section.length + i] = (byte) (crc >> (24 - 8 * i));
+    }
+    return packet(packetId, true, payload, true);
+  }
+
+  /** The CRC-32 of MPEG-2 sections, which is not the one of {@link java.util.zip.CRC32}. */
+  private static int crc32(final byte[] bytes) {
+    int crc = 0xFFFFFFFF;
+    for (final byte b : bytes) {
+      crc ^= (b & 0xFF) << 24;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ 0x04C11DB7 : crc << 1;
+      }
+    }
+    return crc;
+  }
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.mpeg.transport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Validate the behavior of {@link TransportStreamPacketCursor}. */
+public class TransportStreamPacketCursorTest {
+  private static final int PACKET_ID = 0x123;
+
+  private static final int PACKET_SIZE = TransportStreamPacketCursor.PACKET_SIZE;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private FileChannel channel;
+
+  @After
+  public void tearDown() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testReadsPackets() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder()
+                .packet(PACKET_ID, true, payload(0, 184), true)
+                .packet(PACKET_ID + 1, false, payload(1, 10), true)
+                .build());
+
+    assertThat(cursor.next(), is(true));
+    assertThat(cursor.getOffset(), is(0L));
+    assertThat(cursor.getPacketId(), is(PACKET_ID));
+    assertThat(cursor.isPayloadUnitStart(), is(true));
+    assertThat(cursor.getPayloadLength(), is(184));
+    assertThat(toByteArray(cursor.getPayload()), is(payload(0, 184)));
+
+    assertThat(cursor.next(), is(true));
+    assertThat(cursor.getOffset(), is((long) PACKET_SIZE));
+    assertThat(cursor.getPacketId(), is(PACKET_ID + 1));
+    assertThat(cursor.isPayloadUnitStart(), is(false));
+    assertThat(toByteArray(cursor.getPayload()), is(payload(1, 10)));
+
+    assertThat(cursor.next(), is(false));
+    assertThat(cursor.getPacketsProcessed(), is(2L));
+    assertThat(cursor.getPacketsFailed(), is(0L));
+    assertThat(cursor.getBytesSkipped(), is(0L));
+  }
+
+  @Test
+  public void testPacketWithoutPayload() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder().packet(PACKET_ID, false, new byte[0], false).build());
+
+    assertThat(cursor.next(), is(true));
+    assertThat(cursor.getPayloadLength(), is(0));
+    assertThat(cursor.getPayload().remaining(), is(0));
+  }
+
+  @Test
+  public void testBadBytesAtBeginning() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder()
+                .bytes(new byte[] {0x47, 0x00, 0x47, 0x12, 0x34})
+                .packet(PACKET_ID, true, payload(0, 20), true)
+                .packet(PACKET_ID, false, payload(1, 20), true)
+                .build());
+
+    assertThat(getOffsets(cursor), is(offsets(5, 5 + PACKET_SIZE)));
+    assertThat(cursor.getBytesSkipped(), is(5L));
+  }
+
+  @Test
+  public void testBadBytesInbetween() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder()
+                .packet(PACKET_ID, true, payload(0, 20), true)
+                .packet(PACKET_ID, false, payload(1, 20), true)
+                .bytes(new byte[] {0x12, 0x34, 0x56})
+                .packet(PACKET_ID, false, payload(2, 20), true)
+                .packet(PACKET_ID, false, payload(3, 20), true)
+                .build());
+
+    assertThat(
+        getOffsets(cursor),
+        is(offsets(0, PACKET_SIZE, 2 * PACKET_SIZE + 3, 3 * PACKET_SIZE + 3)));
+    assertThat(cursor.getBytesSkipped(), is(3L));
+  }
+
+  @Test
+  public void testBadBytesAfterFirstPacket() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder()
+                .packet(PACKET_ID, true, payload(0, 20), true)
+                .bytes(new byte[] {0x12, 0x34, 0x56})
+                .packet(PACKET_ID, false, payload(1, 20), true)
+                .build());
+
+    // The first packet cannot be told apart from bad bytes that start with a sync byte.
+    assertThat(getOffsets(cursor), is(offsets(PACKET_SIZE + 3)));
+    assertThat(cursor.getBytesSkipped(), is(PACKET_SIZE + 3L));
+  }
+
+  @Test
+  public void testCorruptedSyncByte() throws IOException {
+    final byte[] stream =
+        new TransportStreamBuilder()
+            .packet(PACKET_ID, true, payload(0, 20), true)
+            .packet(PACKET_ID, false, payload(1, 20), true)
+            .packet(PACKET_ID, false, payload(2, 20), true)
+            .packet(PACKET_ID, false, payload(3, 20), true)
+            .build();
+    stream[2 * PACKET_SIZE] = 0x00;
+    final TransportStreamPacketCursor cursor = getCursor(stream);
+
+    assertThat(getOffsets(cursor), is(offsets(0, PACKET_SIZE, 3 * PACKET_SIZE)));
+    assertThat(cursor.getBytesSkipped(), is((long) PACKET_SIZE));
+  }
+
+  @Test
+  public void testTransportErrorIndicator() throws IOException {
+    final byte[] stream =
+        new TransportStreamBuilder()
+            .packet(PACKET_ID, true, payload(0, 20), true)
+            .packet(PACKET_ID, false, payload(1, 20), true)
+            .build();
+    stream[1] |= 0x80;
+    final TransportStreamPacketCursor cursor = getCursor(stream);
+
+    assertThat(getOffsets(cursor), is(offsets(PACKET_SIZE)));
+    assertThat(cursor.getPacketsProcessed(), is(2L));
+    assertThat(cursor.getPacketsFailed(), is(1L));
+  }
+
+  @Test
+  public void testAdaptationFieldLongerThanPacket() throws IOException {
+    final byte[] stream =
+        new TransportStreamBuilder()
+            .packet(PACKET_ID, true, payload(0, 20), true)
+            .packet(PACKET_ID, false, payload(1, 20), true)
+            .build();
+    stream[4] = (byte) 184;
+    final TransportStreamPacketCursor cursor = getCursor(stream);
+
+    assertThat(getOffsets(cursor), is(offsets(PACKET_SIZE)));
+    assertThat(cursor.getPacketsFailed(), is(1L));
+  }
+
+  @Test
+  public void testTruncatedLastPacket() throws IOException {
+    final byte[] stream =
+        new TransportStreamBuilder()
+            .packet(PACKET_ID, true, payload(0, 20), true)
+            .packet(PACKET_ID, false, payload(1, 20), true)
+            .build();
+    final TransportStreamPacketCursor cursor =
+        getCursor(Arrays.copyOf(stream, stream.length - 1));
+
+    assertThat(getOffsets(cursor), is(offsets(0)));
+  }
+
+  @Test
+  public void testWindowMovesAlongTheFile() throws IOException {
+    final TransportStreamBuilder builder = new TransportStreamBuilder();
+    for (int i = 0; i < 10; i++) {
+      builder.packet(PACKET_ID, i == 0, payload(i, 184), true);
+    }
+    final TransportStreamPacketCursor cursor = getCursor(builder.build(), 0, 2 * PACKET_SIZE + 1);
+
+    final PesPacketBuffer packet = new PesPacketBuffer(PACKET_ID);
+    packet.start(0);
+    int packets = 0;
+    while (cursor.next()) {
+      assertThat(toByteArray(cursor.getPayload()), is(payload(packets, 184)));
+      cursor.copyPayloadTo(packet);
+      packets++;
+    }
+
+    assertThat(packets, is(10));
+    final byte[] bytes = packet.toByteArray();
+    assertThat(bytes.length, is(10 * 184));
+    for (int i = 0; i < 10; i++) {
+      assertThat(Arrays.copyOfRange(bytes, i * 184, (i + 1) * 184), is(payload(i, 184)));
+    }
+  }
+
+  @Test
+  public void testStartInsidePacket() throws IOException {
+    final TransportStreamPacketCursor cursor =
+        getCursor(
+            new TransportStreamBuilder()
+                .packet(PACKET_ID, true, payload(0, 20), true)
+                .packet(PACKET_ID, false, payload(1, 20), true)
+                .packet(PACKET_ID, false, payload(2, 20), true)
+                .build(),
+            100,
+            TransportStreamPacketCursor.DEFAULT_WINDOW_SIZE);
+
+    assertThat(getOffsets(cursor), is(offsets(PACKET_SIZE, 2 * PACKET_SIZE)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWindowTooSmall() throws IOException {
+    getCursor(new byte[0], 0, PACKET_SIZE);
+  }
+
+  private TransportStreamPacketCursor getCursor(final byte[] stream) throws IOException {
+    return getCursor(stream, 0, TransportStreamPacketCursor.DEFAULT_WINDOW_SIZE);
+  }
+
+  private TransportStreamPacketCursor getCursor(
+      final byte[] stream, final long start, final int windowSize) throws IOException {
+    final File file = temporaryFolder.newFile();
+    Files.write(file.toPath(), stream);
+    channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    return new TransportStreamPacketCursor(channel, start, windowSize);
+  }
+
+  private static List<Long> getOffsets(final TransportStreamPacketCursor cursor)
+      throws IOException {
+    final List<Long> offsets = new ArrayList<>();
+    while (cursor.next()) {
+      offsets.add(cursor.getOffset());
+    }
+    return offsets;
+  }
+
+  private static List<Long> offsets(final long... offsets) {
+    final List<Long> list = new ArrayList<>();
+    for (final long offset : offsets) {
+      list.add(offset);
+    }
+    return list;
+  }
+
+  private static byte[] payload(final int value, final int length) {
+    final byte[] payload = new byte[length];
+    for (int i = 0; i < length; i++) {
+      payload[i] = (byte) (value + i);
+    }
+    return payload;
+  }
+
+  private static byte[] toByteArray(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
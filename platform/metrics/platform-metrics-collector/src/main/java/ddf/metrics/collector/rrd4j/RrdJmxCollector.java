@@ -19,28 +19,16 @@
 import java.io.File;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
-import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import javax.management.AttributeNotFoundException;
-import javax.management.InstanceNotFoundException;
-import javax.management.MBeanException;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
-import javax.management.ReflectionException;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.codice.ddf.configuration.AbsolutePathResolver;
-import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
-import org.rrd4j.ConsolFun;
 import org.rrd4j.DsType;
-import org.rrd4j.core.RrdDb;
-import org.rrd4j.core.RrdDbPool;
-import org.rrd4j.core.RrdDef;
-import org.rrd4j.core.Sample;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +41,7 @@ public class RrdJmxCollector implements JmxCollector {
 
   public static final String DERIVE_DATA_SOURCE_TYPE = "DERIVE";
 
+  /** Name of the data source of the single data source RRD files of previous versions. */
   public static final String DEFAULT_DATA_SOURCE_NAME = "data";
 
   public static final String GAUGE_DATA_SOURCE_TYPE = "GAUGE";
@@ -67,24 +56,10 @@ public class RrdJmxCollector implements JmxCollector {
 
   private static final int FIVE_MINUTES_MILLIS = 300000;
 
-  /**
-   * RRD default X-Files factor. he X-Files factor defines what part of an RRD consolidation
-   * interval may be made up from *UNKNOWN* data while the consolidated value is still regarded as
-   * known. It is given as the ratio of allowed *UNKNOWN* Primary Data Points (PDPs) to the number
-   * of PDPs in the interval. Thus, it ranges from 0 <= xff < 1.
-   *
-   * <p>Examples: 0.5 --> 50% --> half of the intervals used may be unknown to build one, known
-   * interval
-   *
-   * <p>0.0 --> 0% --> every PDP must be known in order to build a known Consolidated Data Point
-   * (CDP).
-   *
-   * <p>0.999 --> almost 100% --> a known CDP is built even if there's only one known PDP out of
-   * many PDPs.
-   */
-  private static final double DEFAULT_XFF_FACTOR = 0.5;
+  private static final int MBEAN_RETRY_MILLIS = 1000;
 
-  private final RrdDbPool pool;
+  /** Maximum length of the name of an RRD data source. */
+  private static final int MAX_DATA_SOURCE_NAME_LENGTH = 20;
 
   /**
    * Name of the JMX MBean that contains the metric being collected. (Should be set by <config>
@@ -103,15 +78,16 @@ public class RrdJmxCollector implements JmxCollector {
   private String metricType;
 
   /**
-   * Name of the RRD file to store the metric's data being collected. The DDF metrics base directory
-   * will be prepended to this filename.
+   * Path of the RRD file to store the metric's data being collected. The file is shared by the
+   * metrics of all of the MBeans of the same domain that are sampled at the same rate, e.g.,
+   * ddf.metrics.catalog-60s.rrd, in the DDF metrics base directory.
    */
   private String rrdPath;
 
   /**
-   * The name of the RRD data source to use for the metric being collected. This can (and should) be
-   * the same for all metrics configured, e.g., "data", since there should only be one data source
-   * per RRD file they do not need to be unique data source names.
+   * The name of the RRD data source to use for the metric being collected. It must be unique
+   * within the metric's RRD file, so it defaults to the metric's name, shortened to the maximum
+   * length of an RRD data source name if needed.
    */
   private String rrdDataSourceName;
 
@@ -131,34 +107,25 @@ public class RrdJmxCollector implements JmxCollector {
 
   private long minimumUpdateTimeDelta;
 
-  private long sampleSkipCount;
-
-  private int rrdStep;
+  private final AtomicLong sampleSkipCount = new AtomicLong();
 
   private MBeanServer localMBeanServer;
 
-  private RrdDb rrdDb;
-
-  private Sample sample = null;
+  private long mbeanTimeoutMillis = FIVE_MINUTES_MILLIS;
 
-  private ScheduledThreadPoolExecutor executor;
+  private final RrdSampler sampler;
 
-  private long mbeanTimeoutMillis = FIVE_MINUTES_MILLIS;
+  private ScheduledFuture<?> configureTask;
 
-  private ExecutorService executorPool;
+  private boolean destroyed;
 
   public RrdJmxCollector(String mbeanName, String mbeanAttributeName, String metricName) {
-    this(
-        mbeanName,
-        mbeanAttributeName,
-        metricName,
-        DERIVE_DATA_SOURCE_TYPE,
-        DEFAULT_DATA_SOURCE_NAME);
+    this(mbeanName, mbeanAttributeName, metricName, DERIVE_DATA_SOURCE_TYPE, null);
   }
 
   public RrdJmxCollector(
       String mbeanName, String mbeanAttributeName, String metricName, String metricType) {
-    this(mbeanName, mbeanAttributeName, metricName, metricType, DEFAULT_DATA_SOURCE_NAME);
+    this(mbeanName, mbeanAttributeName, metricName, metricType, null);
   }
 
   public RrdJmxCollector(
@@ -167,6 +134,22 @@ public RrdJmxCollector(
       String metricName,
       String metricType,
       String dataSourceName) {
+    this(
+        mbeanName,
+        mbeanAttributeName,
+        metricName,
+        metricType,
+        dataSourceName,
+        RrdSampler.getInstance());
+  }
+
+  RrdJmxCollector(
+      String mbeanName,
+      String mbeanAttributeName,
+      String metricName,
+      String metricType,
+      String dataSourceName,
+      RrdSampler sampler) {
 
     LOGGER.debug(
         "Creating RrdJmxCollector for {}, {}, {}, {}, {}",
@@ -191,14 +174,11 @@ public RrdJmxCollector(
     // unit tests.
     this.sampleRate = 60;
     this.minimumUpdateTimeDelta = 1;
-    this.sampleSkipCount = 0;
 
-    // Should always be the same as the sample rate
-    rrdStep = this.sampleRate;
-    pool = RrdDbPool.getInstance();
-
-    this.rrdDataSourceName = dataSourceName;
+    this.rrdDataSourceName =
+        dataSourceName != null ? dataSourceName : getDefaultDataSourceName(metricName);
     this.rrdDataSourceType = metricType;
+    this.sampler = sampler;
   }
 
   /**
@@ -212,6 +192,24 @@ public static boolean isNumeric(Object value) {
         || ((value instanceof String) && NumberUtils.isNumber((String) value)));
   }
 
+  /**
+   * Returns the name of the metric's data source, which is the metric's name if it is a valid data
+   * source name, or the start of the metric's name followed by its hash code otherwise.
+   */
+  static String getDefaultDataSourceName(String metricName) {
+    if (metricName == null) {
+      return null;
+    }
+
+    String name = metricName.replaceAll("[^A-Za-z0-9_]", "_");
+    if (name.length() <= MAX_DATA_SOURCE_NAME_LENGTH) {
+      return name;
+    }
+
+    String hash = String.format("%08x", metricName.hashCode());
+    return name.substring(0, MAX_DATA_SOURCE_NAME_LENGTH - hash.length() - 1) + "_" + hash;
+  }
+
   @Override
   public String getMbeanName() {
     return mbeanName;
@@ -236,38 +234,47 @@ public String getMetricType() {
   public void init() {
     LOGGER.trace("ENTERING: init() for metric {}", metricName);
 
-    if (executorPool == null) {
-      executorPool =
-          Executors.newCachedThreadPool(
-              StandardThreadFactoryBuilder.newThreadFactory("rrdJmxCollectorThread"));
+    // Creating JmxCollector can be time consuming, and the MBean may not be registered yet,
+    // so do this on the shared sampling thread, retrying until the MBean shows up, to prevent
+    // holding up creation of Sources or the Catalog without holding a thread per collector
+    final long startTime = System.currentTimeMillis();
+    LOGGER.debug("Scheduling configureCollector for JmxCollector {}", mbeanAttributeName);
+    synchronized (this) {
+      configureTask = sampler.schedule(() -> attemptConfigure(startTime), 0, TimeUnit.SECONDS);
     }
 
-    // Creating JmxCollector can be time consuming,
-    // so do this in a separate thread to prevent holding up creation
-    // of Sources or the Catalog
-    final Runnable jmxCollectorCreator =
-        new Runnable() {
-          public void run() {
-            try {
-              configureCollector();
-            } catch (CollectorException e) {
-              // Ignore, it has already been logged
-            } catch (IOException e) {
-              // Ignore, it has already been logged
-            }
-          }
-        };
-
-    LOGGER.debug("Start configureCollector thread for JmxCollector {}", mbeanAttributeName);
-    executorPool.execute(jmxCollectorCreator);
-
     LOGGER.trace("EXITING: init()");
   }
 
+  private synchronized void attemptConfigure(final long startTime) {
+    if (destroyed) {
+      return;
+    }
+
+    Boolean numeric = checkMbeanAttribute();
+    if (numeric == null && System.currentTimeMillis() - startTime < mbeanTimeoutMillis) {
+      LOGGER.trace("MBean [{}] not found, retrying...", mbeanName);
+      configureTask =
+          sampler.schedule(
+              () -> attemptConfigure(startTime), MBEAN_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+      return;
+    }
+
+    try {
+      configureCollector(Boolean.TRUE.equals(numeric));
+    } catch (CollectorException | IOException e) {
+      // Ignore, it has already been logged
+    }
+  }
+
   void configureCollector() throws CollectorException, IOException {
+    configureCollector(isMbeanAccessible());
+  }
+
+  private void configureCollector(boolean mbeanAccessible) throws CollectorException, IOException {
     LOGGER.trace("ENTERING: configureCollector() for collector {}", mbeanAttributeName);
 
-    if (!isMbeanAccessible()) {
+    if (!mbeanAccessible) {
       LOGGER.debug(
           "MBean attribute {} is not accessible - no collector will be configured for it.",
           mbeanAttributeName);
@@ -288,7 +295,9 @@ void configureCollector() throws CollectorException, IOException {
     }
 
     LOGGER.trace("rrdDataSourceType = {}", rrdDataSourceType);
-    createRrdFile(metricName, rrdDataSourceName, DsType.valueOf(rrdDataSourceType));
+    validateDataSource(metricName, rrdDataSourceName, DsType.valueOf(rrdDataSourceType));
+
+    rrdPath = metricsDir + getRrdFilename();
 
     updateSamples();
 
@@ -298,28 +307,17 @@ void configureCollector() throws CollectorException, IOException {
   /**
    * Cleanup when the JmxCollector is destroyed, e.g., when system is shutdown. Called by blueprint.
    */
-  public void destroy() {
+  public synchronized void destroy() {
     LOGGER.trace("ENTERING: destroy() for metric {}", metricName);
 
-    // Shutdown the scheduled threaded executor that is polling the MBean attribute (metric)
-    if (executor != null) {
-      List<Runnable> tasks = executor.shutdownNow();
-      if (tasks != null) {
-        LOGGER.debug("Num tasks awaiting execution = {}", tasks.size());
-      } else {
-        LOGGER.debug("No tasks awaiting execution");
-      }
+    destroyed = true;
+    if (configureTask != null) {
+      configureTask.cancel(false);
     }
 
-    // Close the RRD DB
-    try {
-      if (rrdDb != null) {
-        rrdDb.close();
-        pool.release(rrdDb);
-      }
-    } catch (IOException e) {
-      LOGGER.info("Unable to close RRD DB", e);
-    }
+    // Stop polling the MBean attribute (metric), which closes the RRD file if it was the last
+    // metric of the file
+    sampler.unregister(this);
 
     LOGGER.trace("EXITING: destroy()");
   }
@@ -331,77 +329,59 @@ public void destroy() {
    * @return true if MBean can be accessed, false otherwise
    */
   private boolean isMbeanAccessible() {
-    Object attr = null;
+    Boolean numeric = checkMbeanAttribute();
     long startTime = System.currentTimeMillis();
-    while (attr == null && (System.currentTimeMillis() - startTime < mbeanTimeoutMillis)) {
+    while (numeric == null && (System.currentTimeMillis() - startTime < mbeanTimeoutMillis)) {
       try {
-        attr = localMBeanServer.getAttribute(new ObjectName(mbeanName), mbeanAttributeName);
-
-        if (!isNumeric(attr)) {
-          LOGGER.debug("{} from MBean {} has non-numeric data", mbeanAttributeName, mbeanName);
-          return false;
-        }
-
-        if (!(attr instanceof Integer)
-            && !(attr instanceof Long)
-            && !(attr instanceof Float)
-            && !(attr instanceof Double)) {
-          return false;
-        }
-      } catch (Exception e) {
-        try {
-          LOGGER.trace("MBean [{}] not found, sleeping...", mbeanName);
-          Thread.sleep(1000);
-        } catch (InterruptedException ie) {
-          // Ignore this
-        }
+        LOGGER.trace("MBean [{}] not found, sleeping...", mbeanName);
+        Thread.sleep(MBEAN_RETRY_MILLIS);
+      } catch (InterruptedException ie) {
+        // Ignore this
       }
+      numeric = checkMbeanAttribute();
     }
 
-    return attr != null;
-  }
-
-  private void createRrdFile(final String metricName, final String dsName, final DsType dsType)
-      throws IOException, CollectorException {
-    createRrdFile(metricName, dsName, dsType, 0, Double.NaN);
+    return Boolean.TRUE.equals(numeric);
   }
 
   /**
-   * Create an RRD file based on the metric's name (path) in the DDF metrics sub-directory. An RRD
-   * DB instance is created from this RRD file's definition (if the RRD file did not already exist,
-   * which can occur if the RRD file is created then DDF is restarted and this method is called). If
-   * the RRD file already exists, then just create an RRD DB instance based on the existing RRD
-   * file.
-   *
-   * @param metricName path where the RRD file is to be created. This is required.
-   * @param dsName data source name for the RRD file. This is required.
-   * @param dsType data source type, i.e., DERIVE, COUNTER or GAUGE (This is required.) (ABSOLUTE is
-   *     not currently supported)
-   * @param minValue the minimum value that will be stored in the data source; any values smaller
-   *     than this will be stored as NaN (aka Unknown)
-   * @param maxValue the maximum value that will be stored in the data source; any values larger
-   *     than this will be stored as NaN (aka Unknown)
-   * @throws IOException
-   * @throws CollectorException
+   * @return whether the MBean attribute has numeric data, or null if the MBean or its attribute
+   *     cannot be read (yet)
    */
-  private void createRrdFile(
-      final String metricName,
-      final String dsName,
-      final DsType dsType,
-      double minValue,
-      double maxValue)
-      throws IOException, CollectorException {
-    LOGGER.trace("ENTERING: createRrdFile");
+  private Boolean checkMbeanAttribute() {
+    Object attr;
+    try {
+      attr = localMBeanServer.getAttribute(new ObjectName(mbeanName), mbeanAttributeName);
+    } catch (Exception e) {
+      return null;
+    }
+
+    if (attr == null) {
+      return null;
+    }
+
+    if (!isNumeric(attr)) {
+      LOGGER.debug("{} from MBean {} has non-numeric data", mbeanAttributeName, mbeanName);
+      return false;
+    }
+
+    return attr instanceof Integer
+        || attr instanceof Long
+        || attr instanceof Float
+        || attr instanceof Double;
+  }
 
+  private void validateDataSource(final String metricName, final String dsName, final DsType dsType)
+      throws CollectorException {
     if (StringUtils.isEmpty(metricName)) {
-      throw new CollectorException("Path where RRD file is to be created must be specified.");
-    } else {
-      rrdPath = metricsDir + metricName + RRD_FILENAME_SUFFIX;
+      throw new CollectorException("The name of the metric must be specified.");
     }
 
-    if (StringUtils.isEmpty(dsName)) {
+    if (StringUtils.isEmpty(dsName) || dsName.length() > MAX_DATA_SOURCE_NAME_LENGTH) {
       throw new CollectorException(
-          "The name of the data source used in the RRD file must be specified.");
+          "The name of the data source used in the RRD file must be specified and be at most "
+              + MAX_DATA_SOURCE_NAME_LENGTH
+              + " characters long.");
     }
 
     if (!dsType.equals(DsType.COUNTER)
@@ -410,174 +390,95 @@ private void createRrdFile(
       throw new CollectorException(
           "Data Source type for the RRD file must be either DERIVE, COUNTER or GAUGE.");
     }
+  }
 
-    File file = new File(rrdPath);
-    if (!file.exists()) {
-      // Create necessary parent directories
-      if (!file.getParentFile().exists()) {
-        if (!file.getParentFile().mkdirs()) {
-          LOGGER.debug("Could not create parent file: {}", file.getParentFile().getAbsolutePath());
-        }
-      }
-
-      LOGGER.debug("Creating new RRD file {}", rrdPath);
-
-      RrdDef def = new RrdDef(rrdPath, rrdStep);
-
-      // NOTE: Currently restrict each RRD file to only have one data source
-      // (even though RRD supports multiple data sources in a single RRD file)
-      def.addDatasource(dsName, dsType, 90, minValue, maxValue);
-
-      // NOTE: Separate code segments based on dsType in case in future
-      // we want more or less archivers based on data source type.
-
-      // Use a COUNTER or DERIVE (preferred) for continuous incrementing counters, e.g.,
-      // number of queries.
-      // DERIVE data source type is preferred because it does not rollover when the
-      // underlying MBean counter's value is reset to zero, causing spikes in the
-      // RRD graph (and the MBean value gets reset to zero after every system restart
-      // since all JMX MBeans are recreated).
-      if (dsType == DsType.COUNTER || dsType == DsType.DERIVE || dsType == DsType.GAUGE) {
-        // 1 minute resolution for last 60 minutes
-        def.addArchive(ConsolFun.TOTAL, DEFAULT_XFF_FACTOR, 1, 60);
-
-        // 15 minute resolution for the last year
-        def.addArchive(ConsolFun.TOTAL, DEFAULT_XFF_FACTOR, 15, ONE_YEAR_IN_15_MINUTE_STEPS);
-
-        // 1 minute resolution for last 60 minutes
-        def.addArchive(ConsolFun.AVERAGE, DEFAULT_XFF_FACTOR, 1, 60);
-
-        // 15 minute resolution for the last year
-        def.addArchive(ConsolFun.AVERAGE, DEFAULT_XFF_FACTOR, 15, ONE_YEAR_IN_15_MINUTE_STEPS);
-
-        // 1 minute resolution for last 60 minutes
-        def.addArchive(ConsolFun.MAX, DEFAULT_XFF_FACTOR, 1, 60);
-
-        // 15 minute resolution for the last year
-        def.addArchive(ConsolFun.MAX, DEFAULT_XFF_FACTOR, 15, ONE_YEAR_IN_15_MINUTE_STEPS);
-
-        // 1 minute resolution for last 60 minutes
-        def.addArchive(ConsolFun.MIN, DEFAULT_XFF_FACTOR, 1, 60);
-
-        // 15 minute resolution for the last year
-        def.addArchive(ConsolFun.MIN, DEFAULT_XFF_FACTOR, 15, ONE_YEAR_IN_15_MINUTE_STEPS);
-
-        // Use a GAUGE to store the values we measure directly as they are,
-        // e.g., response time for an ingest or query
-      }
-
-      // Create RRD file based on the RRD file definition
-      rrdDb = pool.requestRrdDb(def);
-    } else {
-      LOGGER.debug(
-          "rrd file {} already exists - absolute path = {}", rrdPath, file.getAbsolutePath());
-      rrdDb = pool.requestRrdDb(rrdPath);
+  /**
+   * @return name of the RRD file shared by the metrics of the MBean's domain that are sampled at
+   *     the same rate
+   */
+  private String getRrdFilename() throws CollectorException {
+    String domain;
+    try {
+      domain = ObjectName.getInstance(mbeanName).getDomain();
+    } catch (MalformedObjectNameException e) {
+      throw new CollectorException("Invalid MBean name " + mbeanName, e);
     }
 
-    LOGGER.trace("EXITING: createRrdFile");
+    return domain.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + sampleRate + "s" + RRD_FILENAME_SUFFIX;
   }
 
   /**
-   * Configures a scheduled threaded executor to poll the metric's MBean periodically and add a
-   * sample to the RRD file with the metric's current value.
+   * Registers the collector with the shared sampler, which adds the metric's data source to the
+   * RRD file, polls the metric's MBean periodically and calls {@link #sample(long, Object)} with
+   * the metric's current value.
    *
    * @throws CollectorException
    */
   public void updateSamples() throws CollectorException {
     LOGGER.trace("ENTERING: updateSamples");
 
-    if (executor == null) {
-      executor =
-          new ScheduledThreadPoolExecutor(
-              1, StandardThreadFactoryBuilder.newThreadFactory("rrdJmxCollectorThread"));
+    // The sampler retrieves this MBean attribute's value at the specified sample rate
+    LOGGER.debug("Registering MBean {} with the RRD sampler", mbeanName);
+    try {
+      sampler.register(this, sampleRate);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to add metric {} to RRD file {}", metricName, rrdPath, e);
+      throw new CollectorException(
+          "Unable to add metric " + metricName + " to RRD file " + rrdPath, e);
     }
 
-    final Runnable updater =
-        new Runnable() {
-          public void run() {
-            Object attr = null;
-            try {
-              attr = localMBeanServer.getAttribute(new ObjectName(mbeanName), mbeanAttributeName);
-
-              LOGGER.trace("Sampling attribute {} from MBean {}", mbeanAttributeName, mbeanName);
-
-              // Cast the metric's sampled value to the appropriate data type
-              double val = 0;
-              if (attr instanceof Integer) {
-                val = (Integer) attr;
-              } else if (attr instanceof Long) {
-                val = ((Long) attr).intValue();
-              } else if (attr instanceof Float) {
-                val = ((Float) attr);
-              } else if (attr instanceof Double) {
-                val = ((Double) attr);
-              } else {
-                throw new IllegalArgumentException(
-                    "Unsupported type " + attr + " for attribute " + mbeanAttributeName);
-              }
-
-              LOGGER.trace("MBean attribute {} has value = {}", mbeanAttributeName, val);
-
-              // If first time this metric has been sampled, then need to create a
-              // sample in the RRD file
-              if (sample == null) {
-                sample = rrdDb.createSample();
-              }
-
-              try {
-                long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
-                long lastUpdateTime = rrdDb.getLastUpdateTime();
-
-                // Add metric's sample to RRD file with current timestamp
-                if (now - rrdDb.getLastUpdateTime() >= minimumUpdateTimeDelta) {
-                  updateSample(now, val);
-                } else {
-                  LOGGER.debug(
-                      "Skipping sample update because time between updates is less than {} seconds",
-                      minimumUpdateTimeDelta);
-
-                  sampleSkipCount++;
-
-                  LOGGER.debug(
-                      "now = {},   lastUpdateTime = {}   (sampleSkipCount = {})",
-                      now,
-                      lastUpdateTime,
-                      sampleSkipCount);
-                }
-              } catch (IllegalArgumentException iae) {
-                LOGGER.info("Dropping sample of datasource {}", rrdDataSourceName, iae);
-              }
-            } catch (MalformedObjectNameException
-                | AttributeNotFoundException
-                | InstanceNotFoundException
-                | MBeanException
-                | ReflectionException e) {
-              LOGGER.info("Problems getting MBean attribute {}", mbeanAttributeName, e);
-            } catch (IOException e) {
-              LOGGER.info("Error updating RRD", e);
-            }
-          }
-        };
-
-    // Setup threaded scheduler to retrieve this MBean attribute's value
-    // at the specified sample rate
-    LOGGER.debug("Setup ScheduledThreadPoolExecutor for MBean {}", mbeanName);
-    executor.scheduleWithFixedDelay(updater, 0, sampleRate, TimeUnit.SECONDS);
-
     LOGGER.trace("EXITING: updateSamples");
   }
 
-  private void updateSample(long now, double val) throws IOException {
+  /**
+   * Converts the metric's sampled value to the value stored in its data source. Called by the
+   * sampler, which samples all of the attributes of an MBean at once and then updates all of the
+   * data sources of the RRD file together.
+   *
+   * @param now sample time, in seconds
+   * @param attr value of the MBean attribute
+   * @return the value to store, or NaN if the value's type is not supported
+   */
+  double sample(long now, Object attr) {
+    LOGGER.trace("Sampling attribute {} from MBean {}", mbeanAttributeName, mbeanName);
+
+    // Cast the metric's sampled value to the appropriate data type
+    double val;
+    if (attr instanceof Integer) {
+      val = (Integer) attr;
+    } else if (attr instanceof Long) {
+      val = ((Long) attr).intValue();
+    } else if (attr instanceof Float) {
+      val = ((Float) attr);
+    } else if (attr instanceof Double) {
+      val = ((Double) attr);
+    } else {
+      LOGGER.info("Unsupported type {} for attribute {}", attr, mbeanAttributeName);
+      return Double.NaN;
+    }
 
     LOGGER.debug(
         "Sample time is [{}], updating metric [{}] with value [{}]",
         MetricsUtil.getCalendarTime(now),
-        mbeanName,
+        metricName,
         val);
 
-    sample.setTime(now);
-    sample.setValue(rrdDataSourceName, val);
-    sample.update();
+    return val;
+  }
+
+  /**
+   * Records that a sample was skipped because the RRD file was updated less than the minimum
+   * update time delta ago.
+   */
+  void skipSample(long now, long lastUpdateTime) {
+    LOGGER.debug(
+        "Skipping sample update because time between updates is less than {} seconds",
+        minimumUpdateTimeDelta);
+
+    long skipCount = sampleSkipCount.incrementAndGet();
+
+    LOGGER.debug(
+        "now = {},   lastUpdateTime = {}   (sampleSkipCount = {})", now, lastUpdateTime, skipCount);
   }
 
   /** @return local MBean server */
@@ -605,9 +506,9 @@ void setRrdPath(String rrdPath) {
     this.rrdPath = rrdPath;
   }
 
-  // void setRrdDataSourceName(String rrdDataSourceName) {
-  // this.rrdDataSourceName = rrdDataSourceName;
-  // }
+  public String getRrdDataSourceName() {
+    return rrdDataSourceName;
+  }
 
   public String getRrdDataSourceType() {
     return rrdDataSourceType;
@@ -627,11 +528,14 @@ protected int getSampleRate() {
 
   protected void setSampleRate(int sampleRate) {
     this.sampleRate = sampleRate;
-    this.rrdStep = this.sampleRate;
   }
 
   protected long getSampleSkipCount() {
-    return sampleSkipCount;
+    return sampleSkipCount.get();
+  }
+
+  long getMinimumUpdateTimeDelta() {
+    return minimumUpdateTimeDelta;
   }
 
   public void setMinimumUpdateTimeDelta(long minimumUpdateTimeDelta) {
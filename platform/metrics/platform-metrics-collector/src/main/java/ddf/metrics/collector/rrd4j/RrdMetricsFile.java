@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import ddf.metrics.collector.CollectorException;
+import ddf.metrics.collector.MetricsUtil;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import org.apache.commons.lang.StringUtils;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.Datasource;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * RRD file with one data source per metric, shared by the collectors of the MBeans of one domain
+ * that are sampled at the same rate. All of the metrics are written with a single update per
+ * sample.
+ *
+ * <p>The data source of each metric is listed in a properties file next to the RRD file, which the
+ * metrics endpoint uses to find the metric. When a metric is added, the data of its single data
+ * source RRD file from previous versions, i.e., {@code <metricName>.rrd}, is moved into its data
+ * source.
+ */
+final class RrdMetricsFile {
+
+  /** Suffix of the file that maps the metric names to their data source names. */
+  static final String INDEX_FILENAME_SUFFIX = ".properties";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RrdMetricsFile.class);
+
+  private static final String TEMP_FILENAME_SUFFIX = ".tmp";
+
+  private static final long HEARTBEAT = 90;
+
+  /**
+   * RRD default X-Files factor. he X-Files factor defines what part of an RRD consolidation
+   * interval may be made up from *UNKNOWN* data while the consolidated value is still regarded as
+   * known. It is given as the ratio of allowed *UNKNOWN* Primary Data Points (PDPs) to the number
+   * of PDPs in the interval. Thus, it ranges from 0 <= xff < 1.
+   *
+   * <p>Examples: 0.5 --> 50% --> half of the intervals used may be unknown to build one, known
+   * interval
+   *
+   * <p>0.0 --> 0% --> every PDP must be known in order to build a known Consolidated Data Point
+   * (CDP).
+   *
+   * <p>0.999 --> almost 100% --> a known CDP is built even if there's only one known PDP out of
+   * many PDPs.
+   */
+  private static final double DEFAULT_XFF_FACTOR = 0.5;
+
+  private final String path;
+
+  private final String indexPath;
+
+  private final long step;
+
+  /** Metric names mapped to the names of their data sources. */
+  private final Properties index = new Properties();
+
+  private final Set<RrdJmxCollector> collectors = new CopyOnWriteArraySet<>();
+
+  private RrdDb rrdDb;
+
+  private Sample sample;
+
+  RrdMetricsFile(String path, long step) {
+    this.path = path;
+    this.indexPath = getIndexPath(path);
+    this.step = step;
+  }
+
+  /** @return the path of the file listing the data source of each metric of an RRD file */
+  static String getIndexPath(String rrdPath) {
+    return StringUtils.removeEnd(rrdPath, RrdJmxCollector.RRD_FILENAME_SUFFIX)
+        + INDEX_FILENAME_SUFFIX;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  Set<RrdJmxCollector> getCollectors() {
+    return collectors;
+  }
+
+  /**
+   * Adds the collector's data source to the RRD file, creating the file or rewriting it with the
+   * new data source if needed.
+   *
+   * @throws CollectorException if the data source is already used by another metric
+   */
+  synchronized void add(RrdJmxCollector collector) throws IOException, CollectorException {
+    String metricName = collector.getMetricName();
+    String dsName = collector.getRrdDataSourceName();
+
+    open();
+
+    for (String otherMetricName : index.stringPropertyNames()) {
+      if (!otherMetricName.equals(metricName) && dsName.equals(index.get(otherMetricName))) {
+        throw new CollectorException(
+            "Data source "
+                + dsName
+                + " of metric "
+                + metricName
+                + " is already used by metric "
+                + otherMetricName
+                + " in RRD file "
+                + path);
+      }
+    }
+
+    if (rrdDb == null || !rrdDb.containsDs(dsName)) {
+      addDataSource(metricName, dsName, DsType.valueOf(collector.getRrdDataSourceType()));
+    }
+
+    if (!dsName.equals(index.get(metricName))) {
+      index.setProperty(metricName, dsName);
+      storeIndex();
+    }
+
+    collectors.add(collector);
+  }
+
+  /**
+   * Removes the collector. The RRD file is closed when its last collector is removed.
+   *
+   * @return whether the RRD file has no collectors left
+   */
+  synchronized boolean remove(RrdJmxCollector collector) {
+    collectors.remove(collector);
+    if (collectors.isEmpty()) {
+      close();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Stores the sampled values of the collectors with a single update of the RRD file.
+   *
+   * @param now sample time, in seconds
+   * @param values sampled MBean attribute values of the collectors
+   */
+  synchronized void update(long now, Map<RrdJmxCollector, Object> values) throws IOException {
+    if (rrdDb == null) {
+      return;
+    }
+
+    long lastUpdateTime = rrdDb.getLastUpdateTime();
+    long minimumUpdateTimeDelta =
+        collectors.stream().mapToLong(RrdJmxCollector::getMinimumUpdateTimeDelta).max().orElse(0);
+    if (now - lastUpdateTime < minimumUpdateTimeDelta) {
+      collectors.forEach(collector -> collector.skipSample(now, lastUpdateTime));
+      return;
+    }
+
+    if (sample == null) {
+      sample = rrdDb.createSample();
+    }
+    sample.setTime(now);
+
+    boolean sampled = false;
+    for (RrdJmxCollector collector : collectors) {
+      Object value = values.get(collector);
+      if (value != null) {
+        double sampleValue = collector.sample(now, value);
+        if (!Double.isNaN(sampleValue)) {
+          sample.setValue(collector.getRrdDataSourceName(), sampleValue);
+          sampled = true;
+        }
+      }
+    }
+
+    if (sampled) {
+      LOGGER.debug(
+          "Sample time is [{}], updating RRD file [{}]", MetricsUtil.getCalendarTime(now), path);
+      sample.update();
+    }
+  }
+
+  private void open() throws IOException {
+    if (rrdDb != null) {
+      return;
+    }
+
+    index.clear();
+    if (!new File(path).exists()) {
+      return;
+    }
+
+    LOGGER.debug("Opening existing RRD file {}", path);
+    rrdDb = new RrdDb(path);
+
+    File indexFile = new File(indexPath);
+    if (indexFile.exists()) {
+      try (InputStream is = Files.newInputStream(indexFile.toPath())) {
+        index.load(is);
+      }
+    }
+  }
+
+  private void close() {
+    sample = null;
+    if (rrdDb != null) {
+      try {
+        rrdDb.close();
+      } catch (IOException e) {
+        LOGGER.info("Unable to close RRD file {}", path, e);
+      }
+      rrdDb = null;
+    }
+  }
+
+  private void storeIndex() throws IOException {
+    Path tempPath = new File(indexPath + TEMP_FILENAME_SUFFIX).toPath();
+    try (OutputStream os = Files.newOutputStream(tempPath)) {
+      index.store(os, "Data source of each metric in " + new File(path).getName());
+    }
+    Files.move(tempPath, new File(indexPath).toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /**
+   * Writes a copy of the RRD file with the new data source, which gets the data of the metric's
+   * file from previous versions if there is one, and replaces the RRD file with it.
+   */
+  private void addDataSource(String metricName, String dsName, DsType dsType) throws IOException {
+    File file = new File(path);
+    File legacyFile =
+        new File(file.getParentFile(), metricName + RrdJmxCollector.RRD_FILENAME_SUFFIX);
+    boolean migrated = false;
+
+    RrdDef def;
+    if (rrdDb != null) {
+      LOGGER.debug("Adding data source {} to RRD file {}", dsName, path);
+      def = rrdDb.getRrdDef();
+    } else {
+      LOGGER.debug("Creating new RRD file {}", path);
+      if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+        LOGGER.debug("Could not create parent file: {}", file.getParentFile().getAbsolutePath());
+      }
+      def = createRrdDef();
+    }
+
+    // Anything above the maximum value is stored as NaN (aka Unknown), as is anything below 0
+    def.addDatasource(dsName, dsType, HEARTBEAT, 0, Double.NaN);
+
+    File tempFile = new File(path + TEMP_FILENAME_SUFFIX);
+    Files.deleteIfExists(tempFile.toPath());
+    def.setPath(tempFile.getPath());
+
+    RrdDb newRrdDb = new RrdDb(def);
+    try {
+      if (legacyFile.isFile() && !legacyFile.equals(file)) {
+        migrated = migrate(legacyFile, dsName, newRrdDb);
+      }
+
+      // Copied last so that the file keeps its own last update time
+      if (rrdDb != null) {
+        rrdDb.copyStateTo(newRrdDb);
+      }
+    } finally {
+      newRrdDb.close();
+    }
+
+    close();
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    rrdDb = new RrdDb(path);
+
+    if (migrated) {
+      LOGGER.info("Moved the data of {} into data source {} of {}", legacyFile, dsName, path);
+      if (!legacyFile.delete()) {
+        LOGGER.info("Unable to delete {}", legacyFile);
+      }
+    }
+  }
+
+  /**
+   * Copies the data of a single data source RRD file into a data source of another RRD file.
+   *
+   * @return whether the data was copied
+   */
+  private boolean migrate(File legacyFile, String dsName, RrdDb target) throws IOException {
+    // Work on a copy since renaming the data source changes the file
+    File copy = new File(legacyFile.getPath() + TEMP_FILENAME_SUFFIX);
+    Files.copy(legacyFile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    RrdDb legacyRrdDb = new RrdDb(copy.getPath());
+    try {
+      if (legacyRrdDb.getDsCount() != 1 || legacyRrdDb.getHeader().getStep() != step) {
+        LOGGER.info(
+            "Not moving the data of {} into {}, it has {} data sources and a step of {} seconds",
+            legacyFile,
+            path,
+            legacyRrdDb.getDsCount(),
+            legacyRrdDb.getHeader().getStep());
+        return false;
+      }
+
+      Datasource legacyDataSource = legacyRrdDb.getDatasource(0);
+      if (!legacyDataSource.getName().equals(dsName)) {
+        legacyDataSource.setDsName(dsName);
+      }
+
+      // Archives are copied by aligning their last rows, so both files need the same last
+      // update time. Bringing the old file up to date fills the gap with unknown values.
+      long lastUpdateTime = target.getLastUpdateTime();
+      if (legacyRrdDb.getLastUpdateTime() < lastUpdateTime) {
+        legacyRrdDb.createSample(lastUpdateTime).update();
+      }
+
+      legacyRrdDb.copyStateTo(target);
+      return true;
+    } catch (IllegalArgumentException e) {
+      LOGGER.info("Unable to move the data of {} into {}", legacyFile, path, e);
+      return false;
+    } finally {
+      legacyRrdDb.close();
+      Files.deleteIfExists(copy.toPath());
+    }
+  }
+
+  private RrdDef createRrdDef() {
+    RrdDef def = new RrdDef(path, step);
+
+    // 1 minute resolution for last 60 minutes
+    def.addArchive(ConsolFun.TOTAL, DEFAULT_XFF_FACTOR, 1, 60);
+
+    // 15 minute resolution for the last year
+    def.addArchive(
+        ConsolFun.TOTAL, DEFAULT_XFF_FACTOR, 15, RrdJmxCollector.ONE_YEAR_IN_15_MINUTE_STEPS);
+
+    // 1 minute resolution for last 60 minutes
+    def.addArchive(ConsolFun.AVERAGE, DEFAULT_XFF_FACTOR, 1, 60);
+
+    // 15 minute resolution for the last year
+    def.addArchive(
+        ConsolFun.AVERAGE, DEFAULT_XFF_FACTOR, 15, RrdJmxCollector.ONE_YEAR_IN_15_MINUTE_STEPS);
+
+    // 1 minute resolution for last 60 minutes
+    def.addArchive(ConsolFun.MAX, DEFAULT_XFF_FACTOR, 1, 60);
+
+    // 15 minute resolution for the last year
+    def.addArchive(
+        ConsolFun.MAX, DEFAULT_XFF_FACTOR, 15, RrdJmxCollector.ONE_YEAR_IN_15_MINUTE_STEPS);
+
+    // 1 minute resolution for last 60 minutes
+    def.addArchive(ConsolFun.MIN, DEFAULT_XFF_FACTOR, 1, 60);
+
+    // 15 minute resolution for the last year
+    def.addArchive(
+        ConsolFun.MIN, DEFAULT_XFF_FACTOR, 15, RrdJmxCollector.ONE_YEAR_IN_15_MINUTE_STEPS);
+
+    return def;
+  }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import ddf.metrics.collector.CollectorException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples the MBean attributes of all of the {@link RrdJmxCollector}s on a single thread.
+ *
+ * <p>Collectors with the same sample rate are sampled by the same tick. Each tick reads all of the
+ * attributes of an MBean with one {@link MBeanServer#getAttributes(ObjectName, String[])} call and
+ * then writes the values of all the collectors of an {@link RrdMetricsFile} with a single update,
+ * so neither the number of threads nor the number of RRD updates depends on the number of
+ * collectors.
+ */
+final class RrdSampler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RrdSampler.class);
+
+  private static final long MILLIS_PER_SECOND = 1000;
+
+  private static final RrdSampler INSTANCE =
+      new RrdSampler(ManagementFactory.getPlatformMBeanServer());
+
+  private final MBeanServer mBeanServer;
+
+  private final Map<Integer, Tick> ticks = new HashMap<>();
+
+  private ScheduledExecutorService scheduler;
+
+  RrdSampler(MBeanServer mBeanServer) {
+    this.mBeanServer = mBeanServer;
+  }
+
+  static RrdSampler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Runs a task on the sampling thread, e.g., to retry the configuration of a collector whose MBean
+   * is not registered yet without holding a thread while waiting for it.
+   */
+  synchronized ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+    return getScheduler().schedule(task, delay, unit);
+  }
+
+  /**
+   * Adds the collector's data source to its RRD file and starts sampling it every {@code
+   * sampleRate} seconds.
+   *
+   * @throws CollectorException if the collector's data source cannot be added to its RRD file
+   */
+  synchronized void register(RrdJmxCollector collector, int sampleRate)
+      throws IOException, CollectorException {
+    Tick tick = ticks.get(sampleRate);
+    if (tick == null) {
+      tick = new Tick(sampleRate);
+      tick.add(collector);
+      ticks.put(sampleRate, tick);
+      tick.future = getScheduler().scheduleWithFixedDelay(tick, 0, sampleRate, TimeUnit.SECONDS);
+      LOGGER.debug("Started sampling every {} seconds", sampleRate);
+    } else {
+      tick.add(collector);
+    }
+  }
+
+  /** Stops sampling the collector. The sampling thread stops with the last collector. */
+  synchronized void unregister(RrdJmxCollector collector) {
+    ticks
+        .entrySet()
+        .removeIf(
+            entry -> {
+              Tick tick = entry.getValue();
+              if (tick.remove(collector)) {
+                tick.future.cancel(false);
+                LOGGER.debug("Stopped sampling every {} seconds", entry.getKey());
+                return true;
+              }
+              return false;
+            });
+
+    // Tasks that are already scheduled, e.g., configuration retries, still run after shutdown and
+    // any task scheduled later starts a new thread
+    if (ticks.isEmpty() && scheduler != null) {
+      scheduler.shutdown();
+      scheduler = null;
+    }
+  }
+
+  /** @return the number of collectors being sampled */
+  synchronized int getCollectorCount() {
+    return ticks
+        .values()
+        .stream()
+        .flatMap(tick -> tick.files.values().stream())
+        .mapToInt(file -> file.getCollectors().size())
+        .sum();
+  }
+
+  private ScheduledExecutorService getScheduler() {
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor =
+          new ScheduledThreadPoolExecutor(
+              1, StandardThreadFactoryBuilder.newThreadFactory("rrdJmxCollectorThread"));
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  /** Samples all of the collectors of a sample rate. */
+  private class Tick implements Runnable {
+
+    private final int sampleRate;
+
+    /** RRD files by path. */
+    private final Map<String, RrdMetricsFile> files = new ConcurrentHashMap<>();
+
+    private ScheduledFuture<?> future;
+
+    Tick(int sampleRate) {
+      this.sampleRate = sampleRate;
+    }
+
+    void add(RrdJmxCollector collector) throws IOException, CollectorException {
+      RrdMetricsFile file =
+          files.computeIfAbsent(
+              collector.getRrdPath(), path -> new RrdMetricsFile(path, sampleRate));
+      try {
+        file.add(collector);
+      } catch (IOException | CollectorException e) {
+        if (file.remove(collector)) {
+          files.remove(file.getPath());
+        }
+        throw e;
+      }
+    }
+
+    /** @return whether the tick has no collectors left */
+    boolean remove(RrdJmxCollector collector) {
+      files.values().removeIf(file -> file.remove(collector));
+      return files.isEmpty();
+    }
+
+    @Override
+    public void run() {
+      long now = System.currentTimeMillis() / MILLIS_PER_SECOND;
+
+      Map<String, List<RrdJmxCollector>> collectorsByMbean = new LinkedHashMap<>();
+      for (RrdMetricsFile file : files.values()) {
+        for (RrdJmxCollector collector : file.getCollectors()) {
+          collectorsByMbean
+              .computeIfAbsent(collector.getMbeanName(), name -> new ArrayList<>())
+              .add(collector);
+        }
+      }
+
+      Map<RrdJmxCollector, Object> values = new HashMap<>();
+      for (Map.Entry<String, List<RrdJmxCollector>> entry : collectorsByMbean.entrySet()) {
+        try {
+          sample(entry.getKey(), entry.getValue(), values);
+        } catch (RuntimeException e) {
+          // Keep sampling the other MBeans, the scheduler would stop the tick otherwise
+          LOGGER.info("Unable to sample MBean {}", entry.getKey(), e);
+        }
+      }
+
+      for (RrdMetricsFile file : files.values()) {
+        try {
+          file.update(now, values);
+        } catch (IllegalArgumentException e) {
+          LOGGER.info("Dropping sample of RRD file {}", file.getPath(), e);
+        } catch (IOException | RuntimeException e) {
+          LOGGER.info("Error updating RRD file {}", file.getPath(), e);
+        }
+      }
+    }
+
+    private void sample(
+        String mbeanName,
+        List<RrdJmxCollector> mbeanCollectors,
+        Map<RrdJmxCollector, Object> values) {
+      String[] attributeNames =
+          mbeanCollectors
+              .stream()
+              .map(RrdJmxCollector::getMbeanAttributeName)
+              .distinct()
+              .toArray(String[]::new);
+
+      AttributeList attributes;
+      try {
+        attributes = mBeanServer.getAttributes(new ObjectName(mbeanName), attributeNames);
+      } catch (MalformedObjectNameException | InstanceNotFoundException | ReflectionException e) {
+        LOGGER.info("Problems getting attributes of MBean {}", mbeanName, e);
+        return;
+      }
+
+      Map<String, Object> attributeValues = new HashMap<>();
+      for (Attribute attribute : attributes.asList()) {
+        attributeValues.put(attribute.getName(), attribute.getValue());
+      }
+
+      for (RrdJmxCollector collector : mbeanCollectors) {
+        Object value = attributeValues.get(collector.getMbeanAttributeName());
+        if (value == null) {
+          LOGGER.info(
+              "Problems getting MBean attribute {} of MBean {}",
+              collector.getMbeanAttributeName(),
+              mbeanName);
+        } else {
+          values.put(collector, value);
+        }
+      }
+    }
+  }
+}
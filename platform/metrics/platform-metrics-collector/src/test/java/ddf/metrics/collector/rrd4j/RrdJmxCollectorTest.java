@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.fail;
 
 import ddf.metrics.collector.CollectorException;
@@ -49,6 +50,9 @@ public class RrdJmxCollectorTest {
 
   private static final String TEST_DIR = "target/";
 
+  /** RRD file of the java.lang MBeans sampled every second. */
+  private static final String RRD_FILENAME = "java.lang-1s" + RrdJmxCollector.RRD_FILENAME_SUFFIX;
+
   public RrdJmxCollector jmxCollector;
 
   public RrdDb rrdDb;
@@ -66,14 +70,19 @@ public void tearDown() throws Exception {
       jmxCollector.destroy();
     }
 
-    if (rrdDb == null) {
-      return;
+    if (rrdDb != null && !rrdDb.isClosed()) {
+      rrdDb.close();
     }
 
-    if (!rrdDb.isClosed()) {
-      rrdDb.close();
+    // The RRD file is shared by the metrics of the MBean's domain, so delete it and its list of
+    // data sources for the next test
+    if (jmxCollector != null && jmxCollector.getRrdPath() != null) {
+      deleteFile(jmxCollector.getRrdPath());
+      deleteFile(RrdMetricsFile.getIndexPath(jmxCollector.getRrdPath()));
     }
-    String path = rrdDb.getPath();
+  }
+
+  private void deleteFile(String path) {
     File rrdFile = new File(path);
     if (rrdFile.exists()) {
       boolean status = rrdFile.delete();
@@ -93,6 +102,22 @@ public void testConstruction() {
         new RrdJmxCollector("java.lang:type=Runtime", "Uptime", name.getMethodName());
     assertThat(jmxCollector, not(nullValue()));
     assertThat(jmxCollector.getRrdDataSourceType(), is(RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE));
+    assertThat(jmxCollector.getRrdDataSourceName(), is(name.getMethodName()));
+  }
+
+  @Test
+  public void testDefaultDataSourceName() {
+    assertThat(RrdJmxCollector.getDefaultDataSourceName("catalogQueries"), is("catalogQueries"));
+    assertThat(
+        RrdJmxCollector.getDefaultDataSourceName("source.one.queries"), is("source_one_queries"));
+
+    // Long metric names are shortened to the maximum data source name length of 20
+    String dsName = RrdJmxCollector.getDefaultDataSourceName("catalogQueriesFederated");
+    assertThat(dsName.length(), is(20));
+    assertThat(dsName, startsWith("catalogQuer_"));
+    assertThat(
+        RrdJmxCollector.getDefaultDataSourceName("catalogQueriesFederatedTotal"),
+        not(equalTo(dsName)));
   }
 
   @Test
@@ -105,7 +130,7 @@ public void testRrdFileCreationForDeriveDataSource() throws Exception {
         mbeanAttributeName, metricName, RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE, sampleRate);
 
     String rrdFilename = jmxCollector.getRrdPath();
-    assertThat(rrdFilename, is(TEST_DIR + metricName + RrdJmxCollector.RRD_FILENAME_SUFFIX));
+    assertThat(rrdFilename, is(TEST_DIR + RRD_FILENAME));
 
     rrdDb = new RrdDb(rrdFilename);
     assertThat(rrdDb, not(nullValue()));
@@ -152,7 +177,7 @@ public void testRrdFileCreationForGaugeDataSource() throws Exception {
         mbeanAttributeName, metricName, RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE, sampleRate);
 
     String rrdFilename = jmxCollector.getRrdPath();
-    assertThat(rrdFilename, is(TEST_DIR + metricName + RrdJmxCollector.RRD_FILENAME_SUFFIX));
+    assertThat(rrdFilename, is(TEST_DIR + RRD_FILENAME));
 
     rrdDb = new RrdDb(rrdFilename);
     assertThat(rrdDb, not(nullValue()));
@@ -205,7 +230,7 @@ public void testRrdFileCreationWhenRrdFileAlreadyExists() throws Exception {
         mbeanAttributeName, metricName, RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE, sampleRate);
 
     String rrdFilename1 = jmxCollector.getRrdPath();
-    assertThat(rrdFilename1, is(TEST_DIR + metricName + RrdJmxCollector.RRD_FILENAME_SUFFIX));
+    assertThat(rrdFilename1, is(TEST_DIR + RRD_FILENAME));
 
     rrdDb = new RrdDb(rrdFilename1);
     assertThat(rrdDb, not(nullValue()));
@@ -230,7 +255,7 @@ public void testRrdFileCreationWhenRrdFileAlreadyExists() throws Exception {
 
     // Verify the 2 JMX Collectors are using the same RRD file
     String rrdFilename2 = jmxCollector2.getRrdPath();
-    assertThat(rrdFilename2, is(TEST_DIR + metricName + RrdJmxCollector.RRD_FILENAME_SUFFIX));
+    assertThat(rrdFilename2, is(TEST_DIR + RRD_FILENAME));
     assertThat(rrdFilename1, equalTo(rrdFilename2));
 
     jmxCollector2.destroy();
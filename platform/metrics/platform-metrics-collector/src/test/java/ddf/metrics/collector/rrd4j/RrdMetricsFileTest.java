@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import ddf.metrics.collector.CollectorException;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rrd4j.ConsolFun;
+import org.rrd4j.DsType;
+import org.rrd4j.core.FetchData;
+import org.rrd4j.core.RrdDb;
+import org.rrd4j.core.RrdDef;
+import org.rrd4j.core.Sample;
+import org.rrd4j.core.Util;
+
+public class RrdMetricsFileTest {
+
+  private static final String MBEAN_NAME = "ddf.metrics.test:name=Test";
+
+  private static final int STEP = 60;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String rrdPath;
+
+  private RrdMetricsFile rrdMetricsFile;
+
+  @Before
+  public void setUp() {
+    rrdPath = new File(temporaryFolder.getRoot(), "ddf.metrics.test-60s.rrd").getPath();
+    rrdMetricsFile = new RrdMetricsFile(rrdPath, STEP);
+  }
+
+  @Test
+  public void testMetricsShareOneRrdFile() throws Exception {
+    RrdJmxCollector queryCount =
+        createCollector("Count", "queryCount", RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE, null);
+    RrdJmxCollector responseTime =
+        createCollector("Mean", "responseTime", RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE, null);
+
+    rrdMetricsFile.add(queryCount);
+    rrdMetricsFile.add(responseTime);
+
+    long now = Util.getTime();
+    Map<RrdJmxCollector, Object> values = new HashMap<>();
+    values.put(queryCount, 42L);
+    values.put(responseTime, 1.5);
+    rrdMetricsFile.update(now, values);
+
+    assertThat(rrdMetricsFile.remove(queryCount), is(false));
+    assertThat(rrdMetricsFile.remove(responseTime), is(true));
+
+    RrdDb rrdDb = new RrdDb(rrdPath, true);
+    try {
+      assertThat(rrdDb.getDsCount(), is(2));
+      assertThat(rrdDb.getDatasource("queryCount").getType(), is(DsType.DERIVE));
+      assertThat(rrdDb.getDatasource("responseTime").getType(), is(DsType.GAUGE));
+      assertThat(rrdDb.getLastUpdateTime(), is(now));
+      assertThat(rrdDb.getArcCount(), is(8));
+    } finally {
+      rrdDb.close();
+    }
+
+    Properties index = loadIndex();
+    assertThat(index.size(), is(2));
+    assertThat(index.getProperty("queryCount"), is("queryCount"));
+    assertThat(index.getProperty("responseTime"), is("responseTime"));
+  }
+
+  @Test
+  public void testLegacyRrdFileIsMovedIntoDataSource() throws Exception {
+    // Single data source file of a previous version with 10 minutes of data
+    File legacyFile = new File(temporaryFolder.getRoot(), "queryCount.rrd");
+    long startTime = Util.getTime() - 1800;
+    RrdDef def = new RrdDef(legacyFile.getPath(), startTime, STEP);
+    def.addDatasource(RrdJmxCollector.DEFAULT_DATA_SOURCE_NAME, DsType.DERIVE, 90, 0, Double.NaN);
+    def.addArchive(ConsolFun.TOTAL, 0.5, 1, 60);
+    RrdDb legacyRrdDb = new RrdDb(def);
+    Sample sample = legacyRrdDb.createSample();
+    for (int i = 1; i <= 10; i++) {
+      sample.setTime(startTime + i * STEP);
+      sample.setValue(RrdJmxCollector.DEFAULT_DATA_SOURCE_NAME, i * 100);
+      sample.update();
+    }
+    legacyRrdDb.close();
+
+    rrdMetricsFile.add(
+        createCollector("Count", "queryCount", RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE, null));
+
+    assertThat(legacyFile.exists(), is(false));
+
+    RrdDb rrdDb = new RrdDb(rrdPath, true);
+    try {
+      assertThat(rrdDb.getDsCount(), is(1));
+      // The counter was incremented by 100 every step
+      FetchData fetchData =
+          rrdDb
+              .createFetchRequest(ConsolFun.TOTAL, startTime + 3 * STEP, startTime + 9 * STEP)
+              .fetchData();
+      assertThat(fetchData.getRowCount(), is(greaterThan(0)));
+      for (double value : fetchData.getValues("queryCount")) {
+        assertThat(value * STEP, is(closeTo(100, 0.001)));
+      }
+    } finally {
+      rrdDb.close();
+    }
+  }
+
+  @Test(expected = CollectorException.class)
+  public void testDataSourceOfAnotherMetric() throws Exception {
+    rrdMetricsFile.add(
+        createCollector("Count", "queryCount", RrdJmxCollector.DERIVE_DATA_SOURCE_TYPE, "count"));
+    rrdMetricsFile.add(
+        createCollector("Mean", "responseTime", RrdJmxCollector.GAUGE_DATA_SOURCE_TYPE, "count"));
+  }
+
+  private RrdJmxCollector createCollector(
+      String attributeName, String metricName, String type, String dataSourceName) {
+    RrdJmxCollector collector =
+        new RrdJmxCollector(MBEAN_NAME, attributeName, metricName, type, dataSourceName);
+    collector.setRrdPath(rrdPath);
+    return collector;
+  }
+
+  private Properties loadIndex() throws Exception {
+    Properties index = new Properties();
+    try (InputStream is =
+        Files.newInputStream(new File(RrdMetricsFile.getIndexPath(rrdPath)).toPath())) {
+      index.load(is);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.collector.rrd4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rrd4j.core.RrdDb;
+
+public class RrdSamplerTest {
+
+  private static final String MBEAN_NAME = "ddf.metrics.test:name=Sampler";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private MBeanServer mBeanServer;
+
+  private CountingMBean mbean;
+
+  private RrdSampler sampler;
+
+  @Before
+  public void setUp() throws Exception {
+    mBeanServer = MBeanServerFactory.newMBeanServer();
+    mbean = new CountingMBean();
+    mBeanServer.registerMBean(mbean, new ObjectName(MBEAN_NAME));
+    sampler = new RrdSampler(mBeanServer);
+  }
+
+  private RecordingCollector createCollector(String attributeName, CountDownLatch samples) {
+    RecordingCollector collector = new RecordingCollector(attributeName, samples);
+    collector.setRrdPath(new File(temporaryFolder.getRoot(), "ddf.metrics.test.rrd").getPath());
+    return collector;
+  }
+
+  @Test
+  public void testAttributesOfAnMBeanAreReadTogether() throws Exception {
+    CountDownLatch samples = new CountDownLatch(4);
+    RecordingCollector count = createCollector("Count", samples);
+    RecordingCollector mean = createCollector("Mean", samples);
+
+    sampler.register(count, 1);
+    sampler.register(mean, 1);
+    assertThat(sampler.getCollectorCount(), is(2));
+
+    assertThat(samples.await(10, TimeUnit.SECONDS), is(true));
+    sampler.unregister(count);
+    sampler.unregister(mean);
+
+    assertThat(mbean.getAttributeCalls.get(), is(0));
+    assertThat(mbean.getAttributesCalls.get(), greaterThan(1));
+    assertThat(count.value, is(42L));
+    assertThat(mean.value, is(1.5));
+    assertThat(count.time, greaterThan(0L));
+  }
+
+  @Test
+  public void testCollectorsOfAnRrdFileAreStoredTogether() throws Exception {
+    CountDownLatch samples = new CountDownLatch(4);
+    RecordingCollector count = createCollector("Count", samples);
+    RecordingCollector mean = createCollector("Mean", samples);
+
+    sampler.register(count, 1);
+    sampler.register(mean, 1);
+
+    assertThat(samples.await(10, TimeUnit.SECONDS), is(true));
+    sampler.unregister(count);
+    sampler.unregister(mean);
+
+    RrdDb rrdDb = new RrdDb(count.getRrdPath(), true);
+    try {
+      assertThat(rrdDb.getDsCount(), is(2));
+      assertThat(rrdDb.containsDs("count"), is(true));
+      assertThat(rrdDb.containsDs("mean"), is(true));
+      assertThat(rrdDb.getLastUpdateTime(), greaterThanOrEqualTo(count.time));
+    } finally {
+      rrdDb.close();
+    }
+  }
+
+  @Test
+  public void testCollectorsShareTheSampleTime() throws Exception {
+    CountDownLatch samples = new CountDownLatch(2);
+    RecordingCollector count = createCollector("Count", samples);
+    RecordingCollector mean = createCollector("Mean", samples);
+
+    sampler.register(count, 60);
+    sampler.register(mean, 60);
+
+    assertThat(samples.await(10, TimeUnit.SECONDS), is(true));
+    sampler.unregister(count);
+    sampler.unregister(mean);
+
+    assertThat(mbean.getAttributesCalls.get(), is(1));
+    assertThat(count.time, equalTo(mean.time));
+  }
+
+  @Test
+  public void testUnregisterStopsSampling() throws Exception {
+    CountDownLatch samples = new CountDownLatch(1);
+    RecordingCollector count = createCollector("Count", samples);
+
+    sampler.register(count, 1);
+    assertThat(samples.await(10, TimeUnit.SECONDS), is(true));
+    sampler.unregister(count);
+    assertThat(sampler.getCollectorCount(), is(0));
+
+    int calls = mbean.getAttributesCalls.get();
+    Thread.sleep(1500);
+    assertThat(mbean.getAttributesCalls.get(), is(calls));
+  }
+
+  @Test
+  public void testMissingAttributeDoesNotStopOtherCollectors() throws Exception {
+    CountDownLatch samples = new CountDownLatch(1);
+    RecordingCollector missing = createCollector("Missing", new CountDownLatch(1));
+    RecordingCollector count = createCollector("Count", samples);
+
+    sampler.register(missing, 1);
+    sampler.register(count, 1);
+
+    assertThat(samples.await(10, TimeUnit.SECONDS), is(true));
+    sampler.unregister(missing);
+    sampler.unregister(count);
+
+    assertThat(missing.time, is(0L));
+    assertThat(count.value, is(42L));
+  }
+
+  private static class RecordingCollector extends RrdJmxCollector {
+
+    private final CountDownLatch samples;
+
+    private volatile long time;
+
+    private volatile Object value;
+
+    RecordingCollector(String attributeName, CountDownLatch samples) {
+      super(MBEAN_NAME, attributeName, attributeName.toLowerCase());
+      this.samples = samples;
+    }
+
+    @Override
+    double sample(long now, Object attr) {
+      time = now;
+      value = attr;
+      samples.countDown();
+      return super.sample(now, attr);
+    }
+  }
+
+  /** An MBean that counts how its attributes are read. */
+  private static class CountingMBean implements DynamicMBean {
+
+    private final AtomicInteger getAttributeCalls = new AtomicInteger();
+
+    private final AtomicInteger getAttributesCalls = new AtomicInteger();
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    CountingMBean() {
+      attributes.put("Count", 42L);
+      attributes.put("Mean", 1.5);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+      getAttributeCalls.incrementAndGet();
+      if (!attributes.containsKey(attribute)) {
+        throw new AttributeNotFoundException(attribute);
+      }
+      return attributes.get(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+      getAttributesCalls.incrementAndGet();
+      AttributeList list = new AttributeList();
+      for (String name : names) {
+        if (attributes.containsKey(name)) {
+          list.add(new Attribute(name, attributes.get(name)));
+        }
+      }
+      return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+      return new MBeanInfo(
+          CountingMBean.class.getName(),
+          null,
+          new MBeanAttributeInfo[] {
+            new MBeanAttributeInfo("Count", Long.class.getName(), null, true, false, false),
+            new MBeanAttributeInfo("Mean", Double.class.getName(), null, true, false, false)
+          },
+          null,
+          null,
+          null);
+    }
+  }
+}
@@ -26,13 +26,16 @@ public interface MetricsRetriever {
    *
    * @param metricName name of the metric to be graphed
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @return PNG-formatted graph of metric's data
    * @throws IOException
    * @throws MetricsGraphException
    */
-  public byte[] createGraph(String metricName, String rrdFilename, long startTime, long endTime)
+  public byte[] createGraph(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException;
 
   /**
@@ -41,6 +44,8 @@ public byte[] createGraph(String metricName, String rrdFilename, long startTime,
    *
    * @param metricName name of the metric to be graphed
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @param verticalAxisLabel label to use for the vertical (y) axis
@@ -52,6 +57,7 @@ public byte[] createGraph(String metricName, String rrdFilename, long startTime,
   public byte[] createGraph(
       String metricName,
       String rrdFilename,
+      String dataSourceName,
       long startTime,
       long endTime,
       String verticalAxisLabel,
@@ -65,13 +71,16 @@ public byte[] createGraph(
    * the timestamp and value for a single sample of the metric's data.
    *
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @return CSV-formatted string of the metric's data
    * @throws IOException
    * @throws MetricsGraphException
    */
-  public String createCsvData(String rrdFilename, long startTime, long endTime)
+  public String createCsvData(
+      String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException;
 
   /**
@@ -101,13 +110,16 @@ public String createCsvData(String rrdFilename, long startTime, long endTime)
    *
    * @param metricName name of the metric to retrieve data for
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @return XML-formatted string of the metric's data
    * @throws IOException
    * @throws MetricsGraphException
    */
-  public String createXmlData(String metricName, String rrdFilename, long startTime, long endTime)
+  public String createXmlData(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException;
 
   /**
@@ -125,6 +137,8 @@ public String createXmlData(String metricName, String rrdFilename, long startTim
    *
    * @param metricName name of the metric to retrieve data for
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @return XLS-formatted stream of the metric's data
@@ -132,7 +146,7 @@ public String createXmlData(String metricName, String rrdFilename, long startTim
    * @throws MetricsGraphException
    */
   public OutputStream createXlsData(
-      String metricName, String rrdFilename, long startTime, long endTime)
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException;
 
   /**
@@ -163,13 +177,16 @@ public OutputStream createXlsData(
    *
    * @param metricName name of the metric to retrieve data for
    * @param rrdFilename name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName name of the metric's data source in the RRD file, or null if the RRD file
+   *     only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to retrieve metric's data
    * @param endTime end time, in seconds since Unix epoch, to retrieve metric's data
    * @return JSON-formatted string of the metric's data
    * @throws IOException
    * @throws MetricsGraphException
    */
-  public String createJsonData(String metricName, String rrdFilename, long startTime, long endTime)
+  public String createJsonData(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException;
 
   /**
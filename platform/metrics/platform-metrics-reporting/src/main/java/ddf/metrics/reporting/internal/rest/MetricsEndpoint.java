@@ -16,19 +16,17 @@
 import ddf.metrics.reporting.internal.MetricsEndpointException;
 import ddf.metrics.reporting.internal.MetricsGraphException;
 import ddf.metrics.reporting.internal.MetricsRetriever;
+import ddf.metrics.reporting.internal.rrd4j.RrdMetricsIndex;
 import ddf.metrics.reporting.internal.rrd4j.RrdMetricsRetriever;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
@@ -48,7 +46,6 @@
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.configuration.AbsolutePathResolver;
 import org.codice.ddf.configuration.SystemBaseUrl;
@@ -80,8 +77,6 @@ public class MetricsEndpoint {
 
   private static final String METRICS_SERVICE_BASE_URL = "/internal/metrics";
 
-  private static final String RRD_FILE_EXTENSION = ".rrd";
-
   private static final String JSON_MIME_TYPE = "application/json";
 
   private static final String PNG_MIME_TYPE = "image/png";
@@ -243,16 +238,18 @@ public Response getMetricsData(
           RrdMetricsRetriever.convertCamelCase(metricName) + " for " + startDate + " to " + endDate;
     }
 
-    // Convert metric filename to rrd filename (because RRD file required by MetricRetriever to
-    // generate graph)
-    String rrdFilename = metricsDir + metricName + RRD_FILE_EXTENSION;
+    // Look up the RRD file and the data source within it holding the metric's data (because RRD
+    // file required by MetricRetriever to generate graph)
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
+    String rrdFilename = metricsIndex.getRrdFilename(metricName);
+    String dataSourceName = metricsIndex.getDataSourceName(metricName);
 
     if (outputFormat.equalsIgnoreCase(PNG_FORMAT)) {
       LOGGER.trace("Retrieving PNG-formatted data for metric {}", metricName);
       try {
         byte[] metricsGraphBytes =
             metricsRetriever.createGraph(
-                metricName, rrdFilename, startTime, endTime, yAxisLabel, title);
+                metricName, rrdFilename, dataSourceName, startTime, endTime, yAxisLabel, title);
         ByteArrayInputStream bis = new ByteArrayInputStream(metricsGraphBytes);
         response = Response.ok(bis, PNG_MIME_TYPE).build();
       } catch (IOException | MetricsGraphException e) {
@@ -262,7 +259,8 @@ public Response getMetricsData(
       }
     } else if (outputFormat.equalsIgnoreCase("csv")) {
       try {
-        String csv = metricsRetriever.createCsvData(rrdFilename, startTime, endTime);
+        String csv =
+            metricsRetriever.createCsvData(rrdFilename, dataSourceName, startTime, endTime);
         ResponseBuilder responseBuilder = Response.ok(csv);
         responseBuilder.type("text/csv");
         response = responseBuilder.build();
@@ -274,7 +272,8 @@ public Response getMetricsData(
     } else if (outputFormat.equalsIgnoreCase("xls")) {
       LOGGER.trace("Retrieving XLS-formatted data for metric {}", metricName);
       try (OutputStream os =
-          metricsRetriever.createXlsData(metricName, rrdFilename, startTime, endTime)) {
+          metricsRetriever.createXlsData(
+              metricName, rrdFilename, dataSourceName, startTime, endTime)) {
         InputStream is = new ByteArrayInputStream(((ByteArrayOutputStream) os).toByteArray());
         ResponseBuilder responseBuilder = Response.ok(is);
         responseBuilder.type("application/vnd.ms-excel");
@@ -288,7 +287,8 @@ public Response getMetricsData(
       LOGGER.trace("Retrieving XML-formatted data for metric {}", metricName);
       try {
         String xmlData =
-            metricsRetriever.createXmlData(metricName, rrdFilename, startTime, endTime);
+            metricsRetriever.createXmlData(
+                metricName, rrdFilename, dataSourceName, startTime, endTime);
         ResponseBuilder responseBuilder = Response.ok(xmlData);
         responseBuilder.type("text/xml");
         response = responseBuilder.build();
@@ -301,7 +301,8 @@ public Response getMetricsData(
       LOGGER.trace("Retrieving JSON-formatted data for metric {}", metricName);
       try {
         String jsonData =
-            metricsRetriever.createJsonData(metricName, rrdFilename, startTime, endTime);
+            metricsRetriever.createJsonData(
+                metricName, rrdFilename, dataSourceName, startTime, endTime);
         ResponseBuilder responseBuilder = Response.ok(jsonData);
         responseBuilder.type(JSON_MIME_TYPE);
         response = responseBuilder.build();
@@ -591,42 +592,13 @@ protected void generateMetricsUrls(
   }
 
   /**
-   * Returns the list of all of the RRD files in the metrics directory.
-   *
-   * @return
-   */
-  private String[] getRrdFiles() {
-    FilenameFilter rrdFilter =
-        new FilenameFilter() {
-          public boolean accept(File dir, String name) {
-            return name.endsWith(RRD_FILE_EXTENSION);
-          }
-        };
-
-    File dir = new File(metricsDir);
-    String[] rrdFiles = dir.list(rrdFilter);
-
-    return rrdFiles;
-  }
-
-  /**
-   * Returns a list of all of the metrics' names based on the list of RRD files found in the metrics
-   * directory.
+   * Returns a list of all of the metrics' names based on the RRD files and their lists of data
+   * sources found in the metrics directory.
    *
    * @return
    */
   private List<String> getMetricsNames() {
-    String[] rrdFiles = getRrdFiles();
-    List<String> metricNames = new ArrayList<String>();
-    if (rrdFiles != null) {
-      for (String rrdFile : rrdFiles) {
-        String metricsName =
-            FilenameUtils.getFullPath(rrdFile) + FilenameUtils.getBaseName(rrdFile);
-        metricNames.add(metricsName);
-      }
-    }
-
-    Collections.sort(metricNames);
+    List<String> metricNames = new RrdMetricsIndex(metricsDir).getMetricNames();
 
     LOGGER.trace("Returning {} metrics", metricNames.size());
 
@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.reporting.internal.rrd4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the RRD file and data source of each metric in the metrics directory.
+ *
+ * <p>The collectors store the metrics of the MBeans of a domain in one RRD file with a data source
+ * per metric, and list the data source of each metric in a properties file with the same name as
+ * the RRD file. An RRD file without a properties file is a single data source file from a previous
+ * version, whose metric is named after the file.
+ */
+public class RrdMetricsIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RrdMetricsIndex.class);
+
+  private static final String RRD_FILE_EXTENSION = ".rrd";
+
+  private static final String INDEX_FILE_EXTENSION = ".properties";
+
+  private final String metricsDir;
+
+  private final Map<String, String> rrdFilenames = new HashMap<>();
+
+  private final Map<String, String> dataSourceNames = new HashMap<>();
+
+  /**
+   * Reads the list of metrics of the metrics directory.
+   *
+   * @param metricsDir directory containing all of the metrics' RRD files, typically
+   *     <DDF_INSTALL_DIR>/data/metrics
+   */
+  public RrdMetricsIndex(String metricsDir) {
+    this.metricsDir = metricsDir;
+
+    File[] rrdFiles =
+        new File(metricsDir).listFiles((dir, name) -> name.endsWith(RRD_FILE_EXTENSION));
+    if (rrdFiles == null) {
+      return;
+    }
+
+    for (File rrdFile : rrdFiles) {
+      String baseName = FilenameUtils.getBaseName(rrdFile.getName());
+      File indexFile = new File(rrdFile.getParentFile(), baseName + INDEX_FILE_EXTENSION);
+      if (indexFile.exists()) {
+        addDataSources(rrdFile, indexFile);
+      } else if (!dataSourceNames.containsKey(baseName)) {
+        // A metric that has been moved into a shared RRD file is read from that file
+        rrdFilenames.put(baseName, metricsDir + rrdFile.getName());
+      }
+    }
+  }
+
+  private void addDataSources(File rrdFile, File indexFile) {
+    Properties index = new Properties();
+    try (InputStream is = Files.newInputStream(indexFile.toPath())) {
+      index.load(is);
+    } catch (IOException e) {
+      LOGGER.info("Unable to read the metrics of RRD file {}", rrdFile, e);
+      return;
+    }
+
+    for (String metricName : index.stringPropertyNames()) {
+      rrdFilenames.put(metricName, metricsDir + rrdFile.getName());
+      dataSourceNames.put(metricName, index.getProperty(metricName));
+    }
+  }
+
+  /** @return the sorted names of all of the metrics */
+  public List<String> getMetricNames() {
+    List<String> metricNames = new ArrayList<>(rrdFilenames.keySet());
+    Collections.sort(metricNames);
+    return metricNames;
+  }
+
+  /**
+   * @return the name of the RRD file containing the metric's data, which is named after the metric
+   *     if the metric is not known
+   */
+  public String getRrdFilename(String metricName) {
+    String rrdFilename = rrdFilenames.get(metricName);
+    return rrdFilename != null ? rrdFilename : metricsDir + metricName + RRD_FILE_EXTENSION;
+  }
+
+  /**
+   * @return the name of the metric's data source in its RRD file, or null if the RRD file only has
+   *     the metric's data
+   */
+  public String getDataSourceName(String metricName) {
+    return dataSourceNames.get(metricName);
+  }
+}
@@ -174,7 +174,8 @@ public static String convertCamelCase(String input) {
   }
 
   @Override
-  public byte[] createGraph(String metricName, String rrdFilename, long startTime, long endTime)
+  public byte[] createGraph(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     // Create default label and title for graph
     String displayableMetricName = convertCamelCase(metricName);
@@ -186,13 +187,15 @@ public byte[] createGraph(String metricName, String rrdFilename, long startTime,
             + " to "
             + getCalendarTime(endTime);
 
-    return createGraph(metricName, rrdFilename, startTime, endTime, verticalAxisLabel, title);
+    return createGraph(
+        metricName, rrdFilename, dataSourceName, startTime, endTime, verticalAxisLabel, title);
   }
 
   @Override
   public byte[] createGraph(
       String metricName,
       String rrdFilename,
+      String dataSourceName,
       long startTime,
       long endTime,
       String verticalAxisLabel,
@@ -200,17 +203,7 @@ public byte[] createGraph(
       throws IOException, MetricsGraphException {
     // Create RRD DB in read-only mode for the specified RRD file
     RrdDb rrdDb = new RrdDb(rrdFilename, true);
-
-    // Extract the data source (should always only be one data source per RRD file - otherwise
-    // we have a problem)
-    if (rrdDb.getDsCount() != 1) {
-      throw new MetricsGraphException(
-          "Only one data source per RRD file is supported - RRD file "
-              + rrdFilename
-              + " has "
-              + rrdDb.getDsCount()
-              + " data sources.");
-    }
+    Datasource dataSource = getDatasource(rrdDb, dataSourceName);
 
     // Define attributes of the graph to be created for this metric
     RrdGraphDef graphDef = new RrdGraphDef();
@@ -223,9 +216,6 @@ public byte[] createGraph(
     graphDef.setWidth(1000);
     graphDef.setTitle(title);
 
-    // Since we have verified only one datasource in RRD file/RRDb, then know
-    // that we can index by zero safely and get the metric's data
-    Datasource dataSource = rrdDb.getDatasource(0);
     DsType dataSourceType = dataSource.getType();
 
     // Determine the type of Data Source for this RRD file
@@ -234,7 +224,14 @@ public byte[] createGraph(
     // generated graph by default will show data per rrdStep interval)
     if (dataSourceType == DsType.COUNTER || dataSourceType == DsType.DERIVE) {
       if (LOGGER.isTraceEnabled()) {
-        dumpData(ConsolFun.TOTAL, "TOTAL", rrdDb, dataSourceType.name(), startTime, endTime);
+        dumpData(
+            ConsolFun.TOTAL,
+            "TOTAL",
+            rrdDb,
+            dataSource.getName(),
+            dataSourceType.name(),
+            startTime,
+            endTime);
       }
 
       // If we ever needed to adjust the metric's data collected by RRD by the archive step
@@ -277,7 +274,14 @@ public byte[] createGraph(
       graphDef.gprint("constrainedTotal", ConsolFun.MAX, "Max = %.3f%s");
     } else if (dataSourceType == DsType.GAUGE) {
       if (LOGGER.isTraceEnabled()) {
-        dumpData(ConsolFun.AVERAGE, "AVERAGE", rrdDb, dataSourceType.name(), startTime, endTime);
+        dumpData(
+            ConsolFun.AVERAGE,
+            "AVERAGE",
+            rrdDb,
+            dataSource.getName(),
+            dataSourceType.name(),
+            startTime,
+            endTime);
       }
 
       graphDef.datasource("myAverage", rrdFilename, dataSource.getName(), ConsolFun.AVERAGE);
@@ -313,11 +317,12 @@ public byte[] createGraph(
   }
 
   @Override
-  public String createCsvData(String rrdFilename, long startTime, long endTime)
+  public String createCsvData(
+      String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: createCsvData");
 
-    MetricData metricData = getMetricData(rrdFilename, startTime, endTime);
+    MetricData metricData = getMetricData(rrdFilename, dataSourceName, startTime, endTime);
 
     StringBuilder csv = new StringBuilder();
 
@@ -339,11 +344,12 @@ public String createCsvData(String rrdFilename, long startTime, long endTime)
   }
 
   @Override
-  public String createXmlData(String metricName, String rrdFilename, long startTime, long endTime)
+  public String createXmlData(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: createXmlData");
 
-    MetricData metricData = getMetricData(rrdFilename, startTime, endTime);
+    MetricData metricData = getMetricData(rrdFilename, dataSourceName, startTime, endTime);
 
     String displayableMetricName = convertCamelCase(metricName);
 
@@ -411,12 +417,12 @@ public String createXmlData(String metricName, String rrdFilename, long startTim
 
   @Override
   public OutputStream createXlsData(
-      String metricName, String rrdFilename, long startTime, long endTime)
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: createXlsData");
 
     Workbook wb = new HSSFWorkbook();
-    createSheet(wb, metricName, rrdFilename, startTime, endTime);
+    createSheet(wb, metricName, rrdFilename, dataSourceName, startTime, endTime);
 
     ByteArrayOutputStream bos = new ByteArrayOutputStream();
     wb.write(bos);
@@ -428,7 +434,8 @@ public OutputStream createXlsData(
   }
 
   @Override
-  public String createJsonData(String metricName, String rrdFilename, long startTime, long endTime)
+  public String createJsonData(
+      String metricName, String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: createJsonData");
 
@@ -436,7 +443,7 @@ public String createJsonData(String metricName, String rrdFilename, long startTi
 
     String displayableMetricName = convertCamelCase(metricName);
 
-    MetricData metricData = getMetricData(rrdFilename, startTime, endTime);
+    MetricData metricData = getMetricData(rrdFilename, dataSourceName, startTime, endTime);
 
     String title =
         displayableMetricName
@@ -496,12 +503,14 @@ public OutputStream createXlsReport(
             endTime,
             SUMMARY_INTERVALS.valueOf(summaryInterval));
       } else {
+        RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
         for (int i = 0; i < metricNames.size(); i++) {
           String metricName = metricNames.get(i);
-          String rrdFilename = getRrdFilename(metricsDir, metricName);
+          String rrdFilename = metricsIndex.getRrdFilename(metricName);
+          String dataSourceName = metricsIndex.getDataSourceName(metricName);
           String displayName = i + metricName;
 
-          createSheet(wb, displayName, rrdFilename, startTime, endTime);
+          createSheet(wb, displayName, rrdFilename, dataSourceName, startTime, endTime);
         }
       }
 
@@ -535,6 +544,7 @@ private void createSummary(
         reportStart.toString(SUMMARY_TIMESTAMP) + " to " + reportEnd.toString(SUMMARY_TIMESTAMP));
     Row headingRow = sheet.createRow(0);
 
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
     int columnMax = 1;
     for (String metricName : metricNames) {
       MutableDateTime chunkStart = new MutableDateTime(reportStart);
@@ -553,7 +563,8 @@ private void createSummary(
         chunkEnd.addMillis(-1);
         MetricData metricData =
             getMetricData(
-                getRrdFilename(metricsDir, metricName),
+                metricsIndex.getRrdFilename(metricName),
+                metricsIndex.getDataSourceName(metricName),
                 TimeUnit.MILLISECONDS.toSeconds(chunkStart.getMillis()),
                 TimeUnit.MILLISECONDS.toSeconds(chunkEnd.getMillis()));
         isSum = metricData.hasTotalCount();
@@ -630,10 +641,6 @@ private String getTimestamp(
     return title.toString();
   }
 
-  private String getRrdFilename(String metricsDir, String metricName) {
-    return metricsDir + metricName + ".rrd";
-  }
-
   private void increment(MutableDateTime chunkStart, SUMMARY_INTERVALS summaryInterval) {
     switch (summaryInterval) {
       case minute:
@@ -662,17 +669,24 @@ private void increment(MutableDateTime chunkStart, SUMMARY_INTERVALS summaryInte
    * @param wb the workbook to add this worksheet to
    * @param metricName the name of the metric whose data is being rendered in this worksheet
    * @param rrdFilename the name of the RRD file to retrieve the metric's data from
+   * @param dataSourceName the name of the metric's data source in the RRD file, or null if the RRD
+   *     file only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to fetch metric's data
    * @param endTime end time, in seconds since Unix epoch, to fetch metric's data
    * @throws IOException
    * @throws MetricsGraphException
    */
   private void createSheet(
-      Workbook wb, String metricName, String rrdFilename, long startTime, long endTime)
+      Workbook wb,
+      String metricName,
+      String rrdFilename,
+      String dataSourceName,
+      long startTime,
+      long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: createSheet");
 
-    MetricData metricData = getMetricData(rrdFilename, startTime, endTime);
+    MetricData metricData = getMetricData(rrdFilename, dataSourceName, startTime, endTime);
 
     String displayableMetricName = convertCamelCase(metricName);
 
@@ -753,6 +767,8 @@ private void createSheet(
    * Retrieves the RRD stored data for the specified metric over the specified time range.
    *
    * @param rrdFilename the name of the RRD file containing the metric's data
+   * @param dataSourceName the name of the metric's data source in the RRD file, or null if the RRD
+   *     file only has the metric's data
    * @param startTime start time, in seconds since Unix epoch, to fetch metric's data
    * @param endTime end time, in seconds since Unix epoch, to fetch metric's data
    * @return domain object containing the metric's sampled data, which consists of the timestamps
@@ -760,36 +776,27 @@ private void createSheet(
    * @throws IOException
    * @throws MetricsGraphException
    */
-  public MetricData getMetricData(String rrdFilename, long startTime, long endTime)
+  public MetricData getMetricData(
+      String rrdFilename, String dataSourceName, long startTime, long endTime)
       throws IOException, MetricsGraphException {
     LOGGER.trace("ENTERING: getMetricData");
 
     // Create RRD DB in read-only mode for the specified RRD file
     RrdDb rrdDb = new RrdDb(rrdFilename, true);
-
-    // Extract the data source (should always only be one data source per RRD file - otherwise
-    // we have a problem)
-    if (rrdDb.getDsCount() != 1) {
-      throw new MetricsGraphException(
-          "Only one data source per RRD file is supported - RRD file "
-              + rrdFilename
-              + " has "
-              + rrdDb.getDsCount()
-              + " data sources.");
-    }
+    Datasource dataSource = getDatasource(rrdDb, dataSourceName);
 
     // The step (sample) interval that determines how often RRD collects the metric's data
     long rrdStep = rrdDb.getRrdDef().getStep();
 
     // Retrieve the RRD file's data source type to determine how (later)
     // to store the metric's data for presentation.
-    DsType dataSourceType = rrdDb.getDatasource(0).getType();
+    DsType dataSourceType = dataSource.getType();
 
     // Fetch the metric's data from the RRD file for the specified time range
     FetchRequest fetchRequest = rrdDb.createFetchRequest(ConsolFun.TOTAL, startTime, endTime);
     FetchData fetchData = fetchRequest.fetchData();
     long[] timestamps = fetchData.getTimestamps();
-    double[] values = fetchData.getValues(0);
+    double[] values = fetchData.getValues(dataSource.getName());
 
     // Done retrieving data from the RRD database - close it, otherwise no one else will
     // be able to access it later.
@@ -848,10 +855,46 @@ public MetricData getMetricData(String rrdFilename, long startTime, long endTime
     return metricData;
   }
 
+  /**
+   * Retrieves the data source of the metric from the RRD file, closing the RRD file if it does not
+   * have the data source.
+   *
+   * @param rrdDb the RRD file containing the metric's data
+   * @param dataSourceName the name of the metric's data source in the RRD file, or null if the RRD
+   *     file only has the metric's data
+   * @return the metric's data source
+   * @throws IOException
+   * @throws MetricsGraphException
+   */
+  private Datasource getDatasource(RrdDb rrdDb, String dataSourceName)
+      throws IOException, MetricsGraphException {
+    if (dataSourceName == null) {
+      // An RRD file of a previous version, whose only data source is the metric's data
+      if (rrdDb.getDsCount() != 1) {
+        rrdDb.close();
+        throw new MetricsGraphException(
+            "No data source specified for RRD file "
+                + rrdDb.getPath()
+                + ", which has "
+                + rrdDb.getDsCount()
+                + " data sources.");
+      }
+      return rrdDb.getDatasource(0);
+    }
+
+    if (!rrdDb.containsDs(dataSourceName)) {
+      rrdDb.close();
+      throw new MetricsGraphException(
+          "RRD file " + rrdDb.getPath() + " has no data source " + dataSourceName + ".");
+    }
+    return rrdDb.getDatasource(dataSourceName);
+  }
+
   private void dumpData(
       ConsolFun consolFun,
       String dataType,
       RrdDb rrdDb,
+      String dsName,
       String dsType,
       long startTime,
       long endTime) {
@@ -866,7 +909,7 @@ private void dumpData(
 
       int rrdStep = RRD_STEP; // in seconds
       long[] timestamps = fetchData.getTimestamps();
-      double[] values = fetchData.getValues(0);
+      double[] values = fetchData.getValues(dsName);
       double[] adjustedValues = new double[values.length];
       for (int i = 0; i < values.length; i++) {
         double adjustedValue = values[i] * rrdStep;
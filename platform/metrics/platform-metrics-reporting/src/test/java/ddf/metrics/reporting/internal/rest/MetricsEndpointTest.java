@@ -14,8 +14,10 @@
 package ddf.metrics.reporting.internal.rest;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
@@ -34,6 +36,11 @@
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -184,6 +191,60 @@ public Map createObjectContainer() {
     }
   }
 
+  @Test
+  public void testGetMetricsDataFromSharedRrdFile() throws Exception {
+    // Delete all files in test directory to ensure only the shared RRD file is detected
+    File testDir = new File(TEST_DIR);
+    File[] fileList = testDir.listFiles();
+    if (fileList != null) {
+      for (File file : fileList) {
+        if (file.isFile()) {
+          file.delete();
+        }
+      }
+    }
+
+    // Create RRD file with the data sources of two metrics and the list of its data sources
+    int dateOffset = 900; // 15 minutes in seconds
+    createRrdFile(dateOffset, "ddf.metrics.test-60s", "uptime_ds", "other_ds");
+    Path indexPath = Paths.get(TEST_DIR, "ddf.metrics.test-60s.properties");
+    Files.write(
+        indexPath, Arrays.asList("uptime=uptime_ds", "other=other_ds"), StandardCharsets.UTF_8);
+
+    UriInfo uriInfo = createUriInfo();
+
+    MetricsEndpoint endpoint = getEndpoint();
+    endpoint.setMetricsDir(TEST_DIR);
+    String metricsList = (String) endpoint.getMetricsList(uriInfo).getEntity();
+    String uptimeJson =
+        (String)
+            endpoint
+                .getMetricsData(
+                    "uptime", "json", null, null, Integer.toString(dateOffset), null, null, uriInfo)
+                .getEntity();
+    String otherJson =
+        (String)
+            endpoint
+                .getMetricsData(
+                    "other", "json", null, null, Integer.toString(dateOffset), null, null, uriInfo)
+                .getEntity();
+
+    cleanupRrd();
+    Files.delete(indexPath);
+
+    JSONParser parser = new JSONParser();
+    JSONObject metrics = (JSONObject) parser.parse(metricsList);
+    assertThat(metrics.keySet(), containsInAnyOrder("uptime", "other"));
+
+    // Verify each metric's samples were read from its own data source
+    JSONObject uptime = (JSONObject) parser.parse(uptimeJson);
+    assertThat(((JSONArray) uptime.get("data")).size(), equalTo(2));
+    assertThat(((Number) uptime.get("totalCount")).longValue(), greaterThan(0L));
+    JSONObject other = (JSONObject) parser.parse(otherJson);
+    assertThat(((JSONArray) other.get("data")).size(), equalTo(2));
+    assertThat(((Number) other.get("totalCount")).longValue(), equalTo(0L));
+  }
+
   @Test
   public void testGetMetricsGraphPositiveCase() throws Exception {
     // Create RRD file that Metrics Endpoint will detect
@@ -269,7 +330,7 @@ public void testGetMetricsGraphWithIOException() throws Exception {
 
     RrdMetricsRetriever metricsRetriever = mock(RrdMetricsRetriever.class);
     when(metricsRetriever.createGraph(
-            anyString(), anyString(), anyLong(), anyLong(), anyString(), anyString()))
+            anyString(), anyString(), anyString(), anyLong(), anyLong(), anyString(), anyString()))
         .thenThrow(IOException.class);
 
     MetricsEndpoint endpoint = getEndpoint();
@@ -300,7 +361,7 @@ public void testGetMetricsGraphWithMetricsGraphException() throws Exception {
 
     RrdMetricsRetriever metricsRetriever = mock(RrdMetricsRetriever.class);
     when(metricsRetriever.createGraph(
-            anyString(), anyString(), anyLong(), anyLong(), anyString(), anyString()))
+            anyString(), anyString(), anyString(), anyLong(), anyLong(), anyString(), anyString()))
         .thenThrow(MetricsGraphException.class);
 
     MetricsEndpoint endpoint = getEndpoint();
@@ -616,31 +677,37 @@ private void createRrdFile(int dateOffset) throws Exception {
   }
 
   private void createRrdFile(int dateOffset, String metricName) throws Exception {
+    createRrdFile(dateOffset, metricName, "data");
+  }
+
+  private void createRrdFile(int dateOffset, String rrdName, String dsName, String... otherDsNames)
+      throws Exception {
     // Create RRD file that Metrics Endpoint will detect
-    rrdPath = TEST_DIR + metricName + ".rrd";
+    rrdPath = TEST_DIR + rrdName + ".rrd";
     int rrdStep = 60;
     RrdDef def = new RrdDef(rrdPath, rrdStep);
     long startTime = System.currentTimeMillis() / 1000 - dateOffset;
     def.setStartTime(startTime - rrdStep);
-    def.addDatasource("data", DsType.COUNTER, 90, 0, Double.NaN);
+    for (String otherDsName : otherDsNames) {
+      def.addDatasource(otherDsName, DsType.COUNTER, 90, 0, Double.NaN);
+    }
+    def.addDatasource(dsName, DsType.COUNTER, 90, 0, Double.NaN);
     def.addArchive(ConsolFun.TOTAL, 0.5, 1, 5);
     rrdDb = RrdDbPool.getInstance().requestRrdDb(def);
 
-    // Add enough samples to get one averaged sample stored into the RRD file
+    // Add enough samples to get one averaged sample stored into the RRD file, leaving the data of
+    // the other data sources unchanged
     long endTime = startTime;
     Sample sample = rrdDb.createSample();
-    sample.setTime(endTime);
-    sample.setValue("data", 100);
-    sample.update();
-    endTime += rrdStep;
-    sample.setTime(endTime);
-    sample.setValue("data", 200);
-    sample.update();
-    endTime += rrdStep;
-    sample.setTime(endTime);
-    sample.setValue("data", 100);
-    sample.update();
-    endTime += rrdStep;
+    for (int value : new int[] {100, 200, 100}) {
+      sample.setTime(endTime);
+      sample.setValue(dsName, value);
+      for (String otherDsName : otherDsNames) {
+        sample.setValue(otherDsName, 0);
+      }
+      sample.update();
+      endTime += rrdStep;
+    }
 
     LOGGER.debug(rrdDb.dump());
 
@@ -649,7 +716,7 @@ private void createRrdFile(int dateOffset, String metricName) throws Exception {
 
     LOGGER.debug(fetchData.dump());
     long[] timestamps = fetchData.getTimestamps();
-    double[] values = fetchData.getValues(0);
+    double[] values = fetchData.getValues(dsName);
     for (int i = 0; i < timestamps.length; i++) {
       LOGGER.debug("{}:  {}", getCalendarTime(timestamps[i]), values[i]);
     }
@@ -678,13 +745,16 @@ private void verifyException(String format, Class exceptionClass) throws Excepti
     UriInfo uriInfo = createUriInfo();
 
     RrdMetricsRetriever metricsRetriever = mock(RrdMetricsRetriever.class);
-    when(metricsRetriever.createJsonData(anyString(), anyString(), anyLong(), anyLong()))
+    when(metricsRetriever.createJsonData(
+            anyString(), anyString(), anyString(), anyLong(), anyLong()))
         .thenThrow(exceptionClass);
-    when(metricsRetriever.createCsvData(anyString(), anyLong(), anyLong()))
+    when(metricsRetriever.createCsvData(anyString(), anyString(), anyLong(), anyLong()))
         .thenThrow(exceptionClass);
-    when(metricsRetriever.createXlsData(anyString(), anyString(), anyLong(), anyLong()))
+    when(metricsRetriever.createXlsData(
+            anyString(), anyString(), anyString(), anyLong(), anyLong()))
         .thenThrow(exceptionClass);
-    when(metricsRetriever.createXmlData(anyString(), anyString(), anyLong(), anyLong()))
+    when(metricsRetriever.createXmlData(
+            anyString(), anyString(), anyString(), anyLong(), anyLong()))
         .thenThrow(exceptionClass);
 
     // Get the metrics data from the endpoint
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.metrics.reporting.internal.rrd4j;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RrdMetricsIndexTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private String metricsDir;
+
+  @Before
+  public void setUp() throws Exception {
+    metricsDir = temporaryFolder.getRoot().getPath() + File.separator;
+
+    // Shared RRD file of the current version and the list of its data sources
+    temporaryFolder.newFile("ddf.metrics.catalog-60s.rrd");
+    Files.write(
+        temporaryFolder.newFile("ddf.metrics.catalog-60s.properties").toPath(),
+        Arrays.asList(
+            "catalogQueries=catalogQueries", "catalogQueriesFederated=catalogQuer_1a2b3c4d"),
+        StandardCharsets.ISO_8859_1);
+
+    // Single data source RRD files of previous versions, one of which has been moved into the
+    // shared RRD file
+    temporaryFolder.newFile("catalogQueries.rrd");
+    temporaryFolder.newFile("catalogExceptions.rrd");
+  }
+
+  @Test
+  public void testMetricNames() {
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
+
+    assertThat(
+        metricsIndex.getMetricNames(),
+        contains("catalogExceptions", "catalogQueries", "catalogQueriesFederated"));
+  }
+
+  @Test
+  public void testMetricOfSharedRrdFile() {
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
+
+    assertThat(
+        metricsIndex.getRrdFilename("catalogQueriesFederated"),
+        is(metricsDir + "ddf.metrics.catalog-60s.rrd"));
+    assertThat(
+        metricsIndex.getDataSourceName("catalogQueriesFederated"), is("catalogQuer_1a2b3c4d"));
+
+    // The shared RRD file takes precedence over the metric's file from a previous version
+    assertThat(
+        metricsIndex.getRrdFilename("catalogQueries"),
+        is(metricsDir + "ddf.metrics.catalog-60s.rrd"));
+    assertThat(metricsIndex.getDataSourceName("catalogQueries"), is("catalogQueries"));
+  }
+
+  @Test
+  public void testMetricOfLegacyRrdFile() {
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
+
+    assertThat(
+        metricsIndex.getRrdFilename("catalogExceptions"),
+        is(metricsDir + "catalogExceptions.rrd"));
+    assertThat(metricsIndex.getDataSourceName("catalogExceptions"), is(nullValue()));
+  }
+
+  @Test
+  public void testUnknownMetric() {
+    RrdMetricsIndex metricsIndex = new RrdMetricsIndex(metricsDir);
+
+    assertThat(metricsIndex.getRrdFilename("unknown"), is(metricsDir + "unknown.rrd"));
+    assertThat(metricsIndex.getDataSourceName("unknown"), is(nullValue()));
+  }
+}
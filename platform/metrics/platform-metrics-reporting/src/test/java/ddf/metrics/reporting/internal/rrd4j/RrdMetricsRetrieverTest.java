@@ -33,7 +33,11 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
 import java.util.Random;
@@ -81,7 +85,7 @@ public void tearDown() throws Exception {
     FilenameFilter pngFilter =
         new FilenameFilter() {
           public boolean accept(File dir, String name) {
-            if (name.endsWith(".rrd") || name.endsWith(".png")) {
+            if (name.endsWith(".rrd") || name.endsWith(".properties") || name.endsWith(".png")) {
               return true;
             }
 
@@ -107,7 +111,7 @@ public void testMetricsGraphWithGauge() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     byte[] metricsGraph =
-        metricsRetriever.createGraph("Query Reponse Time", rrdFilename, START_TIME, endTime);
+        metricsRetriever.createGraph("Query Reponse Time", rrdFilename, null, START_TIME, endTime);
 
     assertThat(metricsGraph, not(nullValue()));
     assertThat(metricsGraph.length, is(greaterThan(0)));
@@ -121,6 +125,7 @@ public void testMetricsGraphWithGauge() throws Exception {
         metricsRetriever.createGraph(
             "Query Reponse Time",
             rrdFilename,
+            null,
             START_TIME,
             endTime,
             "My Vertical Axis Label",
@@ -137,7 +142,7 @@ public void testMetricsGraphWithCounter() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     byte[] metricsGraph =
-        metricsRetriever.createGraph("Query Count", rrdFilename, START_TIME, endTime);
+        metricsRetriever.createGraph("Query Count", rrdFilename, null, START_TIME, endTime);
 
     assertThat(metricsGraph, not(nullValue()));
     assertThat(metricsGraph.length, is(greaterThan(0)));
@@ -149,7 +154,13 @@ public void testMetricsGraphWithCounter() throws Exception {
     // visual inspection can verify the graph's accurracy, title, and axis labels.
     metricsGraph =
         metricsRetriever.createGraph(
-            "Query Count", rrdFilename, START_TIME, endTime, "My Vertical Axis Label", "My Title");
+            "Query Count",
+            rrdFilename,
+            null,
+            START_TIME,
+            endTime,
+            "My Vertical Axis Label",
+            "My Title");
 
     assertThat(metricsGraph, not(nullValue()));
     assertThat(metricsGraph.length, is(greaterThan(0)));
@@ -161,7 +172,8 @@ public void testMetricsJsonDataWithCounter() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String json = metricsRetriever.createJsonData("queryCount", rrdFilename, START_TIME, endTime);
+    String json =
+        metricsRetriever.createJsonData("queryCount", rrdFilename, null, START_TIME, endTime);
 
     JSONParser parser = new JSONParser();
     JSONObject jsonObj = (JSONObject) parser.parse(json);
@@ -192,7 +204,8 @@ public void testMetricsJsonDataWithGauge() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).dsType(DsType.GAUGE).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String json = metricsRetriever.createJsonData("queryCount", rrdFilename, START_TIME, endTime);
+    String json =
+        metricsRetriever.createJsonData("queryCount", rrdFilename, null, START_TIME, endTime);
 
     JSONParser parser = new JSONParser();
     JSONObject jsonObj = (JSONObject) parser.parse(json);
@@ -222,7 +235,7 @@ public void testMetricsCsvDataWithCounter() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String csv = metricsRetriever.createCsvData(rrdFilename, START_TIME, endTime);
+    String csv = metricsRetriever.createCsvData(rrdFilename, null, START_TIME, endTime);
 
     // Break up CSV data into its individual lines
     // Each line should have 2 parts (cells)
@@ -244,7 +257,7 @@ public void testMetricsCsvDataWithGauge() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).dsType(DsType.GAUGE).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String csv = metricsRetriever.createCsvData(rrdFilename, START_TIME, endTime);
+    String csv = metricsRetriever.createCsvData(rrdFilename, null, START_TIME, endTime);
 
     // Break up CSV data into its individual lines
     // Each line should have 2 parts (cells)
@@ -267,7 +280,7 @@ public void testMetricsXlsDataWithCounter() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     OutputStream os =
-        metricsRetriever.createXlsData("queryCount", rrdFilename, START_TIME, endTime);
+        metricsRetriever.createXlsData("queryCount", rrdFilename, null, START_TIME, endTime);
     InputStream xls = new ByteArrayInputStream(((ByteArrayOutputStream) os).toByteArray());
     assertThat(xls, not(nullValue()));
 
@@ -299,13 +312,13 @@ public void testGetMetricDataTimeRangeFiltering() throws Exception {
         .build();
 
     RrdMetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    MetricData metricData = metricsRetriever.getMetricData(rrdFilename, startTime, endTime);
+    MetricData metricData = metricsRetriever.getMetricData(rrdFilename, null, startTime, endTime);
     assertThat(metricData.getTimestamps().size(), equalTo(minutes));
     assertThat(metricData.getTimestamps().get(minutes - 1), lessThanOrEqualTo(endTime));
     assertThat(metricData.getTimestamps().get(0), greaterThanOrEqualTo(startTime));
     metricData =
         metricsRetriever.getMetricData(
-            rrdFilename, startTime - RRD_STEP * 2, endTime + RRD_STEP * 8);
+            rrdFilename, null, startTime - RRD_STEP * 2, endTime + RRD_STEP * 8);
     assertThat(metricData.getTimestamps().get(0), lessThan(startTime));
     assertThat(metricData.getTimestamps().get(numSamples - 1), greaterThan(endTime));
     assertThat(metricData.getTimestamps().size(), equalTo(numSamples));
@@ -318,7 +331,7 @@ public void testMetricsXlsDataWithGauge() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     OutputStream os =
-        metricsRetriever.createXlsData("queryCount", rrdFilename, START_TIME, endTime);
+        metricsRetriever.createXlsData("queryCount", rrdFilename, null, START_TIME, endTime);
     InputStream xls = new ByteArrayInputStream(((ByteArrayOutputStream) os).toByteArray());
     assertThat(xls, not(nullValue()));
 
@@ -339,7 +352,8 @@ public void testMetricsXmlDataWithCounter() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String xml = metricsRetriever.createXmlData("queryCount", rrdFilename, START_TIME, endTime);
+    String xml =
+        metricsRetriever.createXmlData("queryCount", rrdFilename, null, START_TIME, endTime);
     assertXpathExists("/queryCount", xml);
     assertXpathExists("/queryCount/title", xml);
     assertXpathExists("/queryCount/data", xml);
@@ -355,7 +369,8 @@ public void testMetricsXmlDataWithGauge() throws Exception {
     long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).dsType(DsType.GAUGE).build();
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
-    String xml = metricsRetriever.createXmlData("queryCount", rrdFilename, START_TIME, endTime);
+    String xml =
+        metricsRetriever.createXmlData("queryCount", rrdFilename, null, START_TIME, endTime);
     assertXpathExists("/queryCount", xml);
     assertXpathExists("/queryCount/title", xml);
     assertXpathExists("/queryCount/data", xml);
@@ -453,7 +468,7 @@ public void testInvalidDataSourceType() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     try {
-      metricsRetriever.createGraph("Dummy", rrdFilename, START_TIME, endTime);
+      metricsRetriever.createGraph("Dummy", rrdFilename, null, START_TIME, endTime);
       fail();
     } catch (MetricsGraphException e) {
     }
@@ -469,12 +484,69 @@ public void testRrdFileWithMultipleDataSources() throws Exception {
 
     MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
     try {
-      metricsRetriever.createGraph("Dummy", rrdFilename, START_TIME, endTime);
+      metricsRetriever.createGraph("Dummy", rrdFilename, null, START_TIME, endTime);
+      fail();
+    } catch (MetricsGraphException e) {
+    }
+  }
+
+  @Test
+  public void testRrdFileWithMultipleDataSourcesByName() throws Exception {
+    String rrdFilename = TEST_DIR + "dummy" + RRD_FILE_EXTENSION;
+
+    long endTime =
+        new RrdFileBuilder().rrdFileName(rrdFilename).numSamples(4).secondDataSource(true).build();
+
+    RrdMetricsRetriever metricsRetriever = new RrdMetricsRetriever();
+    byte[] metricsGraph =
+        metricsRetriever.createGraph("Dummy", rrdFilename, "data", START_TIME, endTime);
+    assertThat(metricsGraph.length, is(greaterThan(0)));
+
+    // Only the first data source has any samples
+    MetricData metricData =
+        metricsRetriever.getMetricData(rrdFilename, "data", START_TIME, endTime);
+    assertThat(metricData.getTimestamps().size(), is(greaterThan(0)));
+    metricData = metricsRetriever.getMetricData(rrdFilename, "ds2", START_TIME, endTime);
+    assertThat(metricData.getTimestamps().size(), equalTo(0));
+  }
+
+  @Test
+  // (expected = MetricsGraphException.class)
+  public void testRrdFileWithUnknownDataSource() throws Exception {
+    String rrdFilename = TEST_DIR + "dummy" + RRD_FILE_EXTENSION;
+
+    long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).numSamples(4).build();
+
+    MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
+    try {
+      metricsRetriever.createGraph("Dummy", rrdFilename, "unknown", START_TIME, endTime);
       fail();
     } catch (MetricsGraphException e) {
     }
   }
 
+  @Test
+  public void testMetricsXlsReportWithSharedRrdFile() throws Exception {
+    String rrdFilename = TEST_DIR + "ddf.metrics.test-60s" + RRD_FILE_EXTENSION;
+    long endTime = new RrdFileBuilder().rrdFileName(rrdFilename).secondDataSource(true).build();
+    Files.write(
+        Paths.get(TEST_DIR, "ddf.metrics.test-60s.properties"),
+        Arrays.asList("queryCount=data", "responseTime=ds2"),
+        StandardCharsets.UTF_8);
+
+    List<String> metricNames = new ArrayList<String>();
+    metricNames.add("queryCount");
+
+    MetricsRetriever metricsRetriever = new RrdMetricsRetriever();
+    OutputStream os =
+        metricsRetriever.createXlsReport(metricNames, TEST_DIR, START_TIME, endTime, null);
+    InputStream xls = new ByteArrayInputStream(((ByteArrayOutputStream) os).toByteArray());
+
+    HSSFWorkbook wb = new HSSFWorkbook(xls);
+    assertThat(wb.getNumberOfSheets(), equalTo(1));
+    verifyWorksheet(wb.getSheetAt(0), wb.getSheetName(0), 6, true);
+  }
+
   private void verifyWorksheet(
       HSSFSheet sheet, String metricName, int expectedNumberOfDataRows, boolean hasTotalCount) {
     // 3 = title + blank row + column headers
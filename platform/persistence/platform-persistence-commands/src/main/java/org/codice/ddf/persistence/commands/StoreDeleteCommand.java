@@ -14,8 +14,6 @@
 package org.codice.ddf.persistence.commands;
 
 import java.io.IOException;
-import java.util.List;
-import java.util.Map;
 import org.apache.karaf.shell.api.action.Command;
 import org.apache.karaf.shell.api.action.lifecycle.Reference;
 import org.apache.karaf.shell.api.action.lifecycle.Service;
@@ -35,15 +33,15 @@ public class StoreDeleteCommand extends AbstractStoreCommand {
   @Override
   public void storeCommand() throws PersistenceException {
 
-    List<Map<String, Object>> results = persistentStore.get(type, cql);
-    if (!results.isEmpty()) {
-      console.println(results.size() + " results matched cql.");
+    long count = persistentStore.count(type, cql);
+    if (count > 0) {
+      console.println(count + " results matched cql.");
       String message = "\nAre you sure you want to delete? (yes/no): ";
       while (true) {
         try {
           String confirmation = session.readLine(message, null);
           if ("yes".equalsIgnoreCase(confirmation.toLowerCase())) {
-            int numDeleted = persistentStore.delete(type, cql);
+            long numDeleted = persistentStore.deleteAll(type, cql);
             console.println("Successfully deleted " + numDeleted + " items.");
             break;
           } else if ("no".equalsIgnoreCase(confirmation)) {
@@ -13,10 +13,11 @@
  */
 package org.codice.ddf.persistence.commands;
 
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.stream.Stream;
 import org.apache.commons.lang.StringUtils;
 import org.apache.karaf.shell.api.action.Command;
 import org.apache.karaf.shell.api.action.Option;
@@ -47,30 +48,28 @@ public class StoreListCommand extends AbstractStoreCommand {
   @Override
   public void storeCommand() throws PersistenceException {
 
-    List<Map<String, Object>> storeResults;
-
     cql = createCql(user, cql);
 
-    if (StringUtils.isNotBlank(cql)) {
-      storeResults = persistentStore.get(type, cql);
-    } else {
-      storeResults = persistentStore.get(type);
-    }
-    console.println("Results found: " + storeResults.size() + "\n");
+    console.println("Results found: " + persistentStore.count(type, cql) + "\n");
 
-    // output the entries
-    for (int i = 0; i < storeResults.size(); i++) {
-      Map<String, Object> curStore = PersistentItem.stripSuffixes(storeResults.get(i));
-      console.println("Result {" + i + "}:");
-      if (headerSet.isEmpty()) {
-        // populates the header with the keys from the first entry
-        headerSet.addAll(curStore.keySet());
-      }
+    // output the entries as they are read, a page at a time
+    try (Stream<Map<String, Object>> storeResults = persistentStore.stream(type, cql)) {
+      Iterator<Map<String, Object>> iterator = storeResults.iterator();
+      for (int i = 0; iterator.hasNext(); i++) {
+        Map<String, Object> curStore = PersistentItem.stripSuffixes(iterator.next());
+        console.println("Result {" + i + "}:");
+        if (headerSet.isEmpty()) {
+          // populates the header with the keys from the first entry
+          headerSet.addAll(curStore.keySet());
+        }
 
-      for (String curKey : headerSet) {
-        console.println(curKey + ":");
-        console.println("\t" + curStore.get(curKey).toString());
+        for (String curKey : headerSet) {
+          console.println(curKey + ":");
+          console.println("\t" + curStore.get(curKey));
+        }
       }
+    } catch (IllegalStateException e) {
+      throw new PersistenceException("Unable to read all of the entries.", e);
     }
     console.println("");
   }
@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.persistence;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Reads the items matching a query from a {@link PersistentStore} a page at a time with {@link
+ * PersistentStore#get(String, String, int, int)}, for the default implementations of its streaming
+ * operations.
+ */
+final class PagedItemSpliterator extends Spliterators.AbstractSpliterator<Map<String, Object>> {
+
+  /** The largest page size all of the stores accept. */
+  static final int PAGE_SIZE = 1000;
+
+  private final PersistentStore store;
+
+  private final String type;
+
+  private final String ecql;
+
+  private int startIndex = 0;
+
+  private Iterator<Map<String, Object>> page;
+
+  private boolean lastPage = false;
+
+  PagedItemSpliterator(PersistentStore store, String type, String ecql) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.store = store;
+    this.type = type;
+    this.ecql = ecql;
+  }
+
+  /**
+   * Reads the next page of items.
+   *
+   * @return the number of items read
+   * @throws PersistenceException if the page cannot be read
+   */
+  int nextPage() throws PersistenceException {
+    List<Map<String, Object>> items = store.get(type, ecql, startIndex, PAGE_SIZE);
+    startIndex += items.size();
+    lastPage = items.size() < PAGE_SIZE;
+    page = items.iterator();
+    return items.size();
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+    if (page == null || (!page.hasNext() && !lastPage)) {
+      try {
+        nextPage();
+      } catch (PersistenceException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    if (!page.hasNext()) {
+      return false;
+    }
+
+    action.accept(page.next());
+    return true;
+  }
+}
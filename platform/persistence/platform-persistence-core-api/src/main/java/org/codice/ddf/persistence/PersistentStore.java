@@ -13,11 +13,14 @@
  */
 package org.codice.ddf.persistence;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface PersistentStore {
 
@@ -129,4 +132,91 @@ List<Map<String, Object>> get(String type, String ecql, int startIndex, int page
    *     the max allowed.
    */
   int delete(String type, String ecql, int startIndex, int pageSize) throws PersistenceException;
+
+  /**
+   * Streams all of the items matching the ECQL query criteria. The items are read from the store a
+   * page at a time as the stream is consumed, so any number of items can be processed in constant
+   * memory. The stream should be closed when done.
+   *
+   * @param type A non-empty string identifying the type of item being retrieved.
+   * @param ecql Query criteria. All of the items of the type are returned if blank.
+   * @return the stream of the matching items. If a page after the first one cannot be read, the
+   *     stream throws an {@link IllegalStateException} caused by a {@link PersistenceException}.
+   * @throws PersistenceException If the type is empty, the query is invalid or the first page
+   *     cannot be read.
+   */
+  default Stream<Map<String, Object>> stream(String type, String ecql) throws PersistenceException {
+    PagedItemSpliterator spliterator = new PagedItemSpliterator(this, type, ecql);
+    // Read the first page right away so that an invalid query or store fails here
+    spliterator.nextPage();
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  /**
+   * Counts the items matching the ECQL query criteria. Stores should count the items without
+   * retrieving them; the default implementation reads them a page at a time.
+   *
+   * @param type A non-empty string identifying the type of item being counted.
+   * @param ecql Query criteria. All of the items of the type are counted if blank.
+   * @return Count of the matching items
+   * @throws PersistenceException
+   */
+  default long count(String type, String ecql) throws PersistenceException {
+    PagedItemSpliterator spliterator = new PagedItemSpliterator(this, type, ecql);
+    long count = 0;
+    int pageCount;
+    do {
+      pageCount = spliterator.nextPage();
+      count += pageCount;
+    } while (pageCount == PagedItemSpliterator.PAGE_SIZE);
+    return count;
+  }
+
+  /**
+   * Deletes all of the items matching the ECQL query criteria. Stores should delete the items with
+   * a single request, without retrieving them first; the default implementation deletes them a page
+   * at a time with {@link #delete(String, String, int, int)}.
+   *
+   * @param type A non-empty string identifying the type of item being deleted.
+   * @param ecql Query criteria. All of the items of the type are deleted if blank.
+   * @return Count of the items deleted
+   * @throws PersistenceException
+   */
+  default long deleteAll(String type, String ecql) throws PersistenceException {
+    long count = 0;
+    int deleted;
+    // The deleted items no longer match, so the next page always starts at the first item
+    while ((deleted = delete(type, ecql, 0, PagedItemSpliterator.PAGE_SIZE)) > 0) {
+      count += deleted;
+    }
+    return count;
+  }
+
+  /**
+   * Adds the items of a stream, replacing the items with the same ID. The items are written to the
+   * store in batches as the stream is consumed, so any number of items can be added in constant
+   * memory.
+   *
+   * @param type A non-empty string identifying the type of items being added.
+   * @param items A stream of map properties making up the items. Property keys must have a suffix
+   *     that identifies the type of value for the entry. The PersistentItem class should be used
+   *     for creating these maps.
+   * @return Count of the items added
+   * @throws PersistenceException If the type is empty or there was an issue persisting a batch of
+   *     items. The batches written before the failing one are kept.
+   */
+  default long addAll(String type, Stream<Map<String, Object>> items) throws PersistenceException {
+    List<Map<String, Object>> batch = new ArrayList<>(PagedItemSpliterator.PAGE_SIZE);
+    long count = 0;
+    Iterator<Map<String, Object>> iterator = items.iterator();
+    while (iterator.hasNext()) {
+      batch.add(iterator.next());
+      if (batch.size() == PagedItemSpliterator.PAGE_SIZE || !iterator.hasNext()) {
+        add(type, batch);
+        count += batch.size();
+        batch.clear();
+      }
+    }
+    return count;
+  }
 }
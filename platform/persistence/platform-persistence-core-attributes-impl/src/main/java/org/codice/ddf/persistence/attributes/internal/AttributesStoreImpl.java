@@ -13,68 +13,100 @@
  */
 package org.codice.ddf.persistence.attributes.internal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
 import org.codice.ddf.persistence.PersistentStore.PersistenceType;
 import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the data usage and data limit of the users in memory and writes the data usage added by
+ * {@link #updateUserDataUsage(String, long)} to the {@link PersistentStore} periodically, and when
+ * the bundle is stopped.
+ *
+ * <p>A user's record is read from the {@link PersistentStore} the first time it is needed, and all
+ * of the changes to it are made through this class, so the in-memory values always include the
+ * data usage not written yet. Downloads by different users never wait for each other, and
+ * downloads by the same user only update an atomic counter.
+ */
 public class AttributesStoreImpl implements AttributesStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AttributesStoreImpl.class);
 
-  private PersistentStore persistentStore;
-
-  private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-
   private static final String EMPTY_USERNAME_ERROR = "Empty username specified";
 
   private static final long NO_DATA_LIMIT = -1L;
 
+  private static final long DEFAULT_FLUSH_INTERVAL_SECONDS = 10;
+
+  private final PersistentStore persistentStore;
+
+  private final Map<String, UserDataUsage> users = new ConcurrentHashMap<>();
+
+  private final long flushIntervalSeconds;
+
+  private ScheduledExecutorService flushExecutor;
+
   public AttributesStoreImpl(PersistentStore persistentStore) {
+    this(persistentStore, DEFAULT_FLUSH_INTERVAL_SECONDS);
+  }
+
+  AttributesStoreImpl(PersistentStore persistentStore, long flushIntervalSeconds) {
     this.persistentStore = persistentStore;
+    this.flushIntervalSeconds = flushIntervalSeconds;
+  }
+
+  /** Starts writing the data usages periodically. Called by blueprint. */
+  public void init() {
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("attributesStoreFlushThread"));
+    flushExecutor.scheduleWithFixedDelay(
+        this::flushQuietly, flushIntervalSeconds, flushIntervalSeconds, TimeUnit.SECONDS);
+  }
+
+  /** Writes the data usages not written yet. Called by blueprint. */
+  public void destroy() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdownNow();
+      flushExecutor = null;
+    }
+    flushQuietly();
   }
 
   @Override
   public long getCurrentDataUsageByUser(final String username) throws PersistenceException {
-    long currentDataUsage = 0L;
-
     if (StringUtils.isEmpty(username)) {
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
 
-    try {
-      readWriteLock.readLock().lock();
-      currentDataUsage = getCurrentDataUsageByUserNoLock(username);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-
+    long currentDataUsage = getUser(username).dataUsage.get();
+    LOGGER.debug("User {} data usage {} ", username, currentDataUsage);
     return currentDataUsage;
   }
 
   @Override
   public long getDataLimitByUser(final String username) throws PersistenceException {
-    long dataLimit = NO_DATA_LIMIT;
-
     if (StringUtils.isEmpty(username)) {
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
 
-    try {
-      readWriteLock.readLock().lock();
-      dataLimit = getDataLimitByUserNoLock(username);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-
+    long dataLimit = getUser(username).dataLimit;
+    LOGGER.debug("User {} data limit {} ", username, dataLimit);
     return dataLimit;
   }
 
@@ -86,18 +118,11 @@ public void updateUserDataUsage(final String username, final long newDataUsage)
     }
 
     if (newDataUsage > 0) {
-      try {
-        readWriteLock.writeLock().lock();
-        long dataUsage = getCurrentDataUsageByUserNoLock(username);
-        dataUsage += newDataUsage;
+      UserDataUsage user = getUser(username);
+      long dataUsage = user.dataUsage.addAndGet(newDataUsage);
+      user.unwrittenDataUsage.addAndGet(newDataUsage);
 
-        LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, dataUsage, getDataLimitByUser(username)));
-      } finally {
-        readWriteLock.writeLock().unlock();
-      }
+      LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
     }
   }
 
@@ -109,16 +134,8 @@ public void setDataUsage(final String username, final long dataUsage)
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
     if (dataUsage >= 0) {
-      try {
-        readWriteLock.writeLock().lock();
-
-        LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, dataUsage, NO_DATA_LIMIT));
-      } finally {
-        readWriteLock.writeLock().unlock();
-      }
+      LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
+      write(username, dataUsage, NO_DATA_LIMIT);
     }
   }
 
@@ -130,29 +147,22 @@ public void setDataLimit(final String username, final long dataLimit)
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
     if (dataLimit >= NO_DATA_LIMIT) {
+      UserDataUsage user = getUser(username);
+      user.lock.lock();
       try {
-        readWriteLock.writeLock().lock();
-
         LOGGER.debug("Updating user {} data limit to {}", username, dataLimit);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, getCurrentDataUsageByUser(username), dataLimit));
+        write(username, user.dataUsage.get(), dataLimit);
       } finally {
-        readWriteLock.writeLock().unlock();
+        user.lock.unlock();
       }
     }
   }
 
   @Override
   public List<Map<String, Object>> getAllUsers() throws PersistenceException {
-    List<Map<String, Object>> userMap;
-    try {
-      readWriteLock.readLock().lock();
-      userMap = persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString());
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-    return userMap;
+    // Write the pending data usages first so that the store has the current values
+    flush();
+    return persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString());
   }
 
   @Override
@@ -161,17 +171,146 @@ public void resetUserDataUsages() throws PersistenceException {
     for (Map<String, Object> user : users) {
       String username = (String) user.get(AttributesStore.USER_KEY + "_txt");
       long dataLimit = (long) user.get(AttributesStore.DATA_USAGE_LIMIT_KEY + "_lng");
+
+      LOGGER.debug("Resetting Data usage for user : {}", username);
+      write(username, 0L, dataLimit);
+    }
+  }
+
+  /**
+   * Writes the record of a user to the {@link PersistentStore} and, if the user is in memory,
+   * replaces its values, including the data usage not written yet.
+   */
+  private void write(final String username, final long dataUsage, final long dataLimit)
+      throws PersistenceException {
+    UserDataUsage user = username == null ? null : users.get(username);
+    if (user == null) {
+      persistentStore.add(
+          PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
+          toPersistentItem(username, dataUsage, dataLimit));
+      return;
+    }
+
+    user.lock.lock();
+    try {
+      persistentStore.add(
+          PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
+          toPersistentItem(username, dataUsage, dataLimit));
+      user.set(dataUsage, dataLimit);
+    } finally {
+      user.lock.unlock();
+    }
+  }
+
+  /**
+   * Writes the data usage of every user whose usage changed since the last write, with a single
+   * call to the {@link PersistentStore}. If the write fails, the usages are written again next
+   * time.
+   *
+   * <p>The users being written stay locked until the write is done, so that a record written
+   * meanwhile by {@link #setDataUsage(String, long)}, {@link #setDataLimit(String, long)} or {@link
+   * #resetUserDataUsages()} is never overwritten by the older values. Only one flush runs at a
+   * time, and it is the only caller that holds more than one user lock.
+   */
+  synchronized void flush() throws PersistenceException {
+    List<Map<String, Object>> items = new ArrayList<>();
+    List<UserDataUsage> locked = new ArrayList<>();
+    List<UserDataUsage> written = new ArrayList<>();
+    List<Long> writtenDataUsages = new ArrayList<>();
+
+    try {
+      for (Map.Entry<String, UserDataUsage> entry : users.entrySet()) {
+        UserDataUsage user = entry.getValue();
+        if (user.unwrittenDataUsage.get() == 0) {
+          continue;
+        }
+
+        user.lock.lock();
+        locked.add(user);
+        long unwritten = user.unwrittenDataUsage.getAndSet(0);
+        if (unwritten != 0) {
+          items.add(toPersistentItem(entry.getKey(), user.dataUsage.get(), user.dataLimit));
+          written.add(user);
+          writtenDataUsages.add(unwritten);
+        }
+      }
+
+      if (items.isEmpty()) {
+        return;
+      }
+
       try {
-        readWriteLock.writeLock().lock();
+        LOGGER.debug("Writing the data usage of {} users", items.size());
+        persistentStore.add(PersistenceType.USER_ATTRIBUTE_TYPE.toString(), items);
+      } catch (PersistenceException | RuntimeException e) {
+        for (int i = 0; i < written.size(); i++) {
+          written.get(i).unwrittenDataUsage.addAndGet(writtenDataUsages.get(i));
+        }
+        throw e;
+      }
+    } finally {
+      locked.forEach(user -> user.lock.unlock());
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (PersistenceException | RuntimeException e) {
+      LOGGER.info("Unable to write the data usage of the users, will retry later", e);
+    }
+  }
+
+  /**
+   * @return the in-memory record of the user, read from the {@link PersistentStore} the first time
+   *     the user is seen
+   */
+  private UserDataUsage getUser(final String username) throws PersistenceException {
+    UserDataUsage user = users.get(username);
+    if (user != null && user.loaded) {
+      return user;
+    }
+
+    if (user == null) {
+      UserDataUsage newUser = new UserDataUsage();
+      user = users.putIfAbsent(username, newUser);
+      if (user == null) {
+        user = newUser;
+      }
+    }
+
+    user.lock.lock();
+    try {
+      if (!user.loaded) {
+        load(username, user);
+      }
+    } finally {
+      user.lock.unlock();
+    }
+    return user;
+  }
 
-        LOGGER.debug("Resetting Data usage for user : {}", username);
-        persistentStore.add(
+  private void load(final String username, final UserDataUsage user) throws PersistenceException {
+    long dataUsage = 0L;
+    long dataLimit = NO_DATA_LIMIT;
+    List<Map<String, Object>> attributesList =
+        persistentStore.get(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, 0L, dataLimit));
-      } finally {
-        readWriteLock.writeLock().unlock();
+            String.format("%s = '%s'", USER_KEY, username));
+
+    if (attributesList != null && attributesList.size() == 1) {
+      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
+      Object storedDataUsage = attributes.get(DATA_USAGE_KEY);
+      if (storedDataUsage != null) {
+        dataUsage = (long) storedDataUsage;
+      }
+      Object storedDataLimit = attributes.get(DATA_USAGE_LIMIT_KEY);
+      if (storedDataLimit != null) {
+        dataLimit = (long) storedDataLimit;
       }
     }
+
+    user.set(dataUsage, dataLimit);
   }
 
   private PersistentItem toPersistentItem(
@@ -189,37 +328,29 @@ private PersistentItem toPersistentItem(
     return item;
   }
 
-  private long getCurrentDataUsageByUserNoLock(final String username) throws PersistenceException {
-    long currentDataUsage = 0L;
-    List<Map<String, Object>> attributesList;
-    attributesList =
-        persistentStore.get(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            String.format("%s = '%s'", USER_KEY, username));
+  /**
+   * The data usage and data limit of a user. The data usage includes the usage not written to the
+   * {@link PersistentStore} yet, which is also counted by {@code unwrittenDataUsage}. The record
+   * is read and written while holding {@code lock}.
+   */
+  private static class UserDataUsage {
 
-    if (attributesList != null && attributesList.size() == 1) {
-      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      currentDataUsage = (long) attributes.get(DATA_USAGE_KEY);
+    private final Lock lock = new ReentrantLock();
 
-      LOGGER.debug("User {} data usage {} ", username, currentDataUsage);
-    }
-    return currentDataUsage;
-  }
+    private final AtomicLong dataUsage = new AtomicLong();
 
-  private long getDataLimitByUserNoLock(final String username) throws PersistenceException {
-    long dataLimit = NO_DATA_LIMIT;
-    List<Map<String, Object>> attributesList;
-    attributesList =
-        persistentStore.get(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            String.format("%s = '%s'", USER_KEY, username));
+    private final AtomicLong unwrittenDataUsage = new AtomicLong();
 
-    if (attributesList != null && attributesList.size() == 1) {
-      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      dataLimit = (long) attributes.get(DATA_USAGE_LIMIT_KEY);
+    private volatile long dataLimit = NO_DATA_LIMIT;
+
+    private volatile boolean loaded;
 
-      LOGGER.debug("User {} data limit {} ", username, dataLimit);
+    /** Sets the values that were just read from or written to the {@link PersistentStore}. */
+    private void set(final long dataUsage, final long dataLimit) {
+      this.dataUsage.set(dataUsage);
+      this.unwrittenDataUsage.set(0);
+      this.dataLimit = dataLimit;
+      this.loaded = true;
     }
-    return dataLimit;
   }
 }
@@ -15,18 +15,26 @@
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
@@ -35,6 +43,7 @@
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
 public class AttributesStoreImplTest {
 
@@ -83,7 +92,7 @@ public void testUpdateDataUsage() throws PersistenceException {
     ArgumentCaptor<String> keyArg1 = ArgumentCaptor.forClass(String.class);
     ArgumentCaptor<String> keyArg2 = ArgumentCaptor.forClass(String.class);
     ArgumentCaptor<String> cqlArg = ArgumentCaptor.forClass(String.class);
-    ArgumentCaptor<PersistentItem> itemArg = ArgumentCaptor.forClass(PersistentItem.class);
+    ArgumentCaptor<Collection> itemsArg = ArgumentCaptor.forClass(Collection.class);
 
     attributesList = new ArrayList<>();
     Map<String, Object> attributes = new HashMap<>();
@@ -93,18 +102,127 @@ public void testUpdateDataUsage() throws PersistenceException {
     when(persistentStore.get(anyString(), anyString())).thenReturn(attributesList);
 
     attributesStore.updateUserDataUsage(USER, LONG_5);
+    attributesStore.flush();
 
-    verify(persistentStore, atLeast(2)).get(keyArg1.capture(), cqlArg.capture());
-    verify(persistentStore).add(keyArg2.capture(), itemArg.capture());
+    verify(persistentStore).get(keyArg1.capture(), cqlArg.capture());
+    verify(persistentStore).add(keyArg2.capture(), itemsArg.capture());
 
     assertThat(keyArg1.getValue(), is(PersistenceType.USER_ATTRIBUTE_TYPE.toString()));
     assertThat(keyArg2.getValue(), is(PersistenceType.USER_ATTRIBUTE_TYPE.toString()));
 
-    assertThat(itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_KEY), is(600L));
+    PersistentItem item = (PersistentItem) itemsArg.getValue().iterator().next();
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_KEY), is(600L));
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_1));
 
     assertThat(cqlArg.getValue(), is(CQL));
   }
 
+  @Test
+  public void testUpdateDataUsageIsWrittenBehind() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+
+    verify(persistentStore).get(anyString(), anyString());
+    verify(persistentStore, never()).add(anyString(), anyCollection());
+    verify(persistentStore, never()).add(anyString(), anyMap());
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(400L));
+    assertThat(attributesStore.getDataLimitByUser(USER), is(LONG_5));
+  }
+
+  @Test
+  public void testFlushWritesOnlyChangedUsers() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.flush();
+    attributesStore.flush();
+
+    verify(persistentStore, times(1)).add(anyString(), anyCollection());
+  }
+
+  @Test
+  public void testFailedFlushIsRetried() throws PersistenceException {
+    ArgumentCaptor<Collection> itemsArg = ArgumentCaptor.forClass(Collection.class);
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+    doThrow(new PersistenceException())
+        .doNothing()
+        .when(persistentStore)
+        .add(anyString(), anyCollection());
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    try {
+      attributesStore.flush();
+      fail("Expected the first flush to fail");
+    } catch (PersistenceException e) {
+      // expected
+    }
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.flush();
+
+    verify(persistentStore, times(2)).add(anyString(), itemsArg.capture());
+    PersistentItem item = (PersistentItem) itemsArg.getValue().iterator().next();
+    assertThat(item.getLongProperty(AttributesStore.DATA_USAGE_KEY), is(300L));
+  }
+
+  @Test
+  public void testDestroyFlushes() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+    attributesStore.init();
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.destroy();
+
+    verify(persistentStore).add(anyString(), anyCollection());
+  }
+
+  @Test
+  public void testSetDataUsageReplacesUnwrittenUsage() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.setDataUsage(USER, 0L);
+    attributesStore.flush();
+
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(0L));
+    verify(persistentStore, never()).add(anyString(), anyCollection());
+  }
+
+  @Test
+  public void testSetDataUsageDuringFlushIsNotOverwritten() throws Exception {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_5));
+    CountDownLatch flushWriting = new CountDownLatch(1);
+    CountDownLatch finishFlush = new CountDownLatch(1);
+    doAnswer(
+            invocation -> {
+              flushWriting.countDown();
+              finishFlush.await(5, TimeUnit.SECONDS);
+              return null;
+            })
+        .when(persistentStore)
+        .add(anyString(), anyCollection());
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    Thread flush = new Thread(this::flushQuietly);
+    flush.start();
+    assertThat(flushWriting.await(5, TimeUnit.SECONDS), is(true));
+
+    Thread reset = new Thread(this::resetQuietly);
+    reset.start();
+    reset.join(200);
+    verify(persistentStore, never()).add(anyString(), anyMap());
+
+    finishFlush.countDown();
+    flush.join(5000);
+    reset.join(5000);
+
+    InOrder inOrder = inOrder(persistentStore);
+    inOrder.verify(persistentStore).add(anyString(), anyCollection());
+    inOrder.verify(persistentStore).add(anyString(), anyMap());
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(0L));
+  }
+
   @Test
   public void testSetDataUsage() throws PersistenceException {
 
@@ -255,4 +373,29 @@ public void resetUserDataUsages() throws PersistenceException {
     assertThat(
         itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_1));
   }
+
+  private void flushQuietly() {
+    try {
+      attributesStore.flush();
+    } catch (PersistenceException e) {
+      fail(e.getMessage());
+    }
+  }
+
+  private void resetQuietly() {
+    try {
+      attributesStore.setDataUsage(USER, 0L);
+    } catch (PersistenceException e) {
+      fail(e.getMessage());
+    }
+  }
+
+  private List<Map<String, Object>> usage(long dataUsage, long dataLimit) {
+    List<Map<String, Object>> list = new ArrayList<>();
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(DATA_USAGE_LONG, dataUsage);
+    attributes.put(DATA_LIMIT_LONG, dataLimit);
+    list.add(attributes);
+    return list;
+  }
 }
@@ -18,11 +18,17 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang.StringUtils;
@@ -35,6 +41,9 @@
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
@@ -166,34 +175,80 @@ public List<Map<String, Object>> get(String type, String cql, int startIndex, in
 
     // Set Solr Core name to type and create/connect to Solr Core
     SolrClient solrClient = getSolrClient(type);
-    SolrQueryFilterVisitor visitor = new SolrQueryFilterVisitor(solrClient, type);
+    SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
 
-    try {
-      SolrQuery solrQuery;
-      // If not cql specified, then return all items
-      if (StringUtils.isBlank(cql)) {
-        solrQuery = new SolrQuery("*:*");
-      } else {
-        Filter filter = ECQL.toFilter(cql);
-        solrQuery = (SolrQuery) filter.accept(visitor, null);
-      }
-      if (solrQuery == null) {
-        throw new PersistenceException("Unsupported query " + cql);
-      }
+    solrQuery.setRows(pageSize);
+    solrQuery.setStart(startIndex);
 
-      solrQuery.setRows(pageSize);
-      solrQuery.setStart(startIndex);
+    QueryResponse solrResponse = query(solrClient, solrQuery, cql);
 
-      QueryResponse solrResponse = solrClient.query(solrQuery, METHOD.POST);
+    long numResults = solrResponse.getResults().getNumFound();
+    LOGGER.debug("numResults = {}", numResults);
 
-      long numResults = solrResponse.getResults().getNumFound();
-      LOGGER.debug("numResults = {}", numResults);
+    final SolrDocumentList docs = solrResponse.getResults();
+    return documentListToResultList(docs);
+  }
 
-      final SolrDocumentList docs = solrResponse.getResults();
-      return documentListToResultList(docs);
-    } catch (CQLException e) {
+  @Override
+  public Stream<Map<String, Object>> stream(String type, String cql) throws PersistenceException {
+    if (StringUtils.isBlank(type)) {
       throw new PersistenceException(
-          "CQLException while getting Solr data with cql statement " + cql, e);
+          "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
+    }
+
+    SolrClient solrClient = getSolrClient(type);
+    SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
+
+    // A cursor mark requires a sort on the unique key, and is not affected by the items added or
+    // deleted while paging, unlike a start index
+    solrQuery.setRows(MAX_PAGE_SIZE);
+    solrQuery.setSort(PersistentItem.ID, SolrQuery.ORDER.asc);
+
+    CursorSpliterator spliterator = new CursorSpliterator(solrClient, solrQuery, cql);
+    // Read the first page right away so that an invalid query or store fails here
+    spliterator.nextPage();
+    return StreamSupport.stream(spliterator, false);
+  }
+
+  @Override
+  public long count(String type, String cql) throws PersistenceException {
+    if (StringUtils.isBlank(type)) {
+      throw new PersistenceException(
+          "The type of object(s) to count must be non-null and not blank, e.g., notification, metacard, etc.");
+    }
+
+    SolrClient solrClient = getSolrClient(type);
+    SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
+    solrQuery.setRows(0);
+
+    return query(solrClient, solrQuery, cql).getResults().getNumFound();
+  }
+
+  private SolrQuery toSolrQuery(SolrClient solrClient, String type, String cql)
+      throws PersistenceException {
+    SolrQuery solrQuery;
+    // If not cql specified, then return all items
+    if (StringUtils.isBlank(cql)) {
+      solrQuery = new SolrQuery("*:*");
+    } else {
+      try {
+        Filter filter = ECQL.toFilter(cql);
+        solrQuery = (SolrQuery) filter.accept(new SolrQueryFilterVisitor(solrClient, type), null);
+      } catch (CQLException e) {
+        throw new PersistenceException(
+            "CQLException while getting Solr data with cql statement " + cql, e);
+      }
+    }
+    if (solrQuery == null) {
+      throw new PersistenceException("Unsupported query " + cql);
+    }
+    return solrQuery;
+  }
+
+  private QueryResponse query(SolrClient solrClient, SolrParams solrParams, String cql)
+      throws PersistenceException {
+    try {
+      return solrClient.query(solrParams, METHOD.POST);
     } catch (SolrServerException | SolrException | IOException e) {
       throw new PersistenceException(
           "Exception while getting Solr data with cql statement " + cql, e);
@@ -203,29 +258,33 @@ public List<Map<String, Object>> get(String type, String cql, int startIndex, in
   private List<Map<String, Object>> documentListToResultList(SolrDocumentList docs) {
     final List<Map<String, Object>> results = new ArrayList<>();
     for (SolrDocument doc : docs) {
-      final PersistentItem result = new PersistentItem();
-      final Collection<String> fieldNames = doc.getFieldNames();
-      for (String name : fieldNames) {
-        LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
-        Collection<Object> fieldValues = doc.getFieldValues(name);
-        if (name.endsWith(PersistentItem.TEXT_SUFFIX) && fieldValues.size() > 1) {
-          result.addProperty(
-              name,
-              fieldValues
-                  .stream()
-                  .filter(String.class::isInstance)
-                  .map(String.class::cast)
-                  .collect(Collectors.toSet()));
-        } else {
-          addPropertyBasedOnSuffix(result, name, doc.getFirstValue(name));
-        }
-      }
-      results.add(result);
+      results.add(documentToResult(doc));
     }
 
     return results;
   }
 
+  private Map<String, Object> documentToResult(SolrDocument doc) {
+    final PersistentItem result = new PersistentItem();
+    final Collection<String> fieldNames = doc.getFieldNames();
+    for (String name : fieldNames) {
+      LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
+      Collection<Object> fieldValues = doc.getFieldValues(name);
+      if (name.endsWith(PersistentItem.TEXT_SUFFIX) && fieldValues.size() > 1) {
+        result.addProperty(
+            name,
+            fieldValues
+                .stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .collect(Collectors.toSet()));
+      } else {
+        addPropertyBasedOnSuffix(result, name, doc.getFirstValue(name));
+      }
+    }
+    return result;
+  }
+
   @Override
   public int delete(String type, String cql) throws PersistenceException {
     return delete(type, cql, DEFAULT_START_INDEX, DEFAULT_PAGE_SIZE);
@@ -265,6 +324,42 @@ public int delete(String type, String cql, int startIndex, int pageSize)
     return idsToDelete.size();
   }
 
+  @Override
+  public long deleteAll(String type, String cql) throws PersistenceException {
+    if (StringUtils.isBlank(type)) {
+      throw new PersistenceException(
+          "The type of object(s) to delete must be non-null and not blank, e.g., notification, metacard, etc.");
+    }
+
+    SolrClient solrClient = getSolrClient(type);
+    SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
+    solrQuery.setRows(0);
+
+    long count = query(solrClient, solrQuery, cql).getResults().getNumFound();
+    if (count == 0) {
+      return 0;
+    }
+
+    try {
+      LOGGER.debug("Deleting {} items by query", count);
+      solrClient.deleteByQuery(solrQuery.getQuery());
+    } catch (SolrServerException | SolrException | IOException e) {
+      LOGGER.info(
+          "Exception while trying to delete items by query for persistent type {}", type, e);
+      doRollback(solrClient, type);
+      throw new PersistenceException(
+          "Exception while trying to delete items by query for persistent type " + type, e);
+    } catch (RuntimeException e) {
+      LOGGER.info(
+          "RuntimeException while trying to delete items by query for persistent type {}", type, e);
+      doRollback(solrClient, type);
+      throw new PersistenceException(
+          "RuntimeException while trying to delete items by query for persistent type " + type, e);
+    }
+
+    return count;
+  }
+
   private void addPropertyBasedOnSuffix(PersistentItem result, String name, Object firstValue) {
     if (name.endsWith(PersistentItem.XML_SUFFIX)) {
       result.addXmlProperty(name, (String) firstValue);
@@ -297,4 +392,61 @@ private SolrClient getSolrClient(String storeName) throws PersistenceException {
     }
     throw new PersistenceException("Solr client is not available");
   }
+
+  /** Reads the items of a query a page at a time, using a Solr cursor mark. */
+  private class CursorSpliterator extends Spliterators.AbstractSpliterator<Map<String, Object>> {
+
+    private final SolrClient solrClient;
+
+    private final SolrQuery solrQuery;
+
+    private final String cql;
+
+    private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+    private Iterator<SolrDocument> page = Collections.emptyIterator();
+
+    private boolean lastPage;
+
+    CursorSpliterator(SolrClient solrClient, SolrQuery solrQuery, String cql) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+      this.solrClient = solrClient;
+      this.solrQuery = solrQuery;
+      this.cql = cql;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Map<String, Object>> action) {
+      while (!page.hasNext()) {
+        if (lastPage) {
+          return false;
+        }
+        try {
+          nextPage();
+        } catch (PersistenceException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+
+      action.accept(documentToResult(page.next()));
+      return true;
+    }
+
+    private void nextPage() throws PersistenceException {
+      ModifiableSolrParams solrParams = new ModifiableSolrParams(solrQuery);
+      solrParams.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+      QueryResponse solrResponse = query(solrClient, solrParams, cql);
+
+      SolrDocumentList docs = solrResponse.getResults();
+      page = docs.iterator();
+
+      String nextCursorMark = solrResponse.getNextCursorMark();
+      // Solr returns the same cursor mark once all of the items have been read
+      lastPage =
+          nextCursorMark == null
+              || nextCursorMark.equals(cursorMark)
+              || docs.size() < solrQuery.getRows();
+      cursorMark = nextCursorMark;
+    }
+  }
 }
@@ -17,10 +17,13 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -28,6 +31,9 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrRequest.METHOD;
 import org.apache.solr.client.solrj.SolrServerException;
@@ -35,6 +41,7 @@
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.SolrParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
@@ -147,6 +154,137 @@ public void testGetInvalidQuery() throws Exception {
     verify(solrClient, never()).query(any(), eq(SolrRequest.METHOD.POST));
   }
 
+  @Test
+  public void testStreamReadsPagesWithCursorMark() throws Exception {
+    QueryResponse firstPage = mock(QueryResponse.class);
+    when(firstPage.getResults()).thenReturn(getSolrDocuments(PersistentStoreImpl.MAX_PAGE_SIZE));
+    when(firstPage.getNextCursorMark()).thenReturn("cursor1");
+    QueryResponse lastPage = mock(QueryResponse.class);
+    when(lastPage.getResults()).thenReturn(getSolrDocuments(2));
+    when(lastPage.getNextCursorMark()).thenReturn("cursor2");
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(firstPage, lastPage);
+
+    List<Map<String, Object>> items;
+    try (Stream<Map<String, Object>> stream = persistentStore.stream("testcore", "")) {
+      items = stream.collect(Collectors.toList());
+    }
+
+    verify(solrClient, times(2)).query(solrParamsArgumentCaptor.capture(), eq(METHOD.POST));
+    List<SolrParams> params = solrParamsArgumentCaptor.getAllValues();
+    assertThat(params.get(0).get(CursorMarkParams.CURSOR_MARK_PARAM), is("*"));
+    assertThat(params.get(1).get(CursorMarkParams.CURSOR_MARK_PARAM), is("cursor1"));
+    assertThat(params.get(1).get("sort"), is(PersistentItem.ID + " asc"));
+    assertThat(items.size(), equalTo(PersistentStoreImpl.MAX_PAGE_SIZE + 2));
+  }
+
+  @Test
+  public void testStreamStopsWhenCursorMarkDoesNotChange() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults())
+        .thenReturn(getSolrDocuments(PersistentStoreImpl.MAX_PAGE_SIZE), new SolrDocumentList());
+    when(response.getNextCursorMark()).thenReturn("cursor1", "cursor1");
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(response);
+
+    long count = persistentStore.stream("testcore", "").count();
+
+    assertThat(count, equalTo((long) PersistentStoreImpl.MAX_PAGE_SIZE));
+    verify(solrClient, times(2)).query(any(), eq(METHOD.POST));
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void testStreamInvalidQuery() throws Exception {
+    persistentStore.stream("testcore", "property LIKE 'value'");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStreamFailsOnLaterPage() throws Exception {
+    QueryResponse firstPage = mock(QueryResponse.class);
+    when(firstPage.getResults()).thenReturn(getSolrDocuments(PersistentStoreImpl.MAX_PAGE_SIZE));
+    when(firstPage.getNextCursorMark()).thenReturn("cursor1");
+    when(solrClient.query(any(), eq(METHOD.POST)))
+        .thenReturn(firstPage)
+        .thenThrow(new SolrServerException("unavailable"));
+
+    persistentStore.stream("testcore", "").count();
+  }
+
+  @Test
+  public void testCount() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    SolrDocumentList docList = new SolrDocumentList();
+    docList.setNumFound(12345);
+    when(response.getResults()).thenReturn(docList);
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(response);
+
+    assertThat(persistentStore.count("testcore", ""), is(12345L));
+
+    verify(solrClient).query(solrParamsArgumentCaptor.capture(), eq(METHOD.POST));
+    assertThat(solrParamsArgumentCaptor.getValue().get("rows"), is("0"));
+  }
+
+  @Test
+  public void testDeleteAllDeletesByQuery() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    SolrDocumentList docList = new SolrDocumentList();
+    docList.setNumFound(12345);
+    when(response.getResults()).thenReturn(docList);
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(response);
+
+    assertThat(persistentStore.deleteAll("testcore", ""), is(12345L));
+
+    verify(solrClient).deleteByQuery("*:*");
+    verify(solrClient, never()).deleteById(anyList());
+  }
+
+  @Test
+  public void testDeleteAllNothingMatches() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(new SolrDocumentList());
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(response);
+
+    assertThat(persistentStore.deleteAll("testcore", ""), is(0L));
+
+    verify(solrClient, never()).deleteByQuery(anyString());
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void testDeleteAllFailureRollsBack() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    SolrDocumentList docList = new SolrDocumentList();
+    docList.setNumFound(1);
+    when(response.getResults()).thenReturn(docList);
+    when(solrClient.query(any(), eq(METHOD.POST))).thenReturn(response);
+    when(solrClient.deleteByQuery(anyString())).thenThrow(new SolrServerException("unavailable"));
+
+    try {
+      persistentStore.deleteAll("testcore", "");
+    } finally {
+      verify(solrClient).rollback();
+    }
+  }
+
+  @Test
+  public void testAddAllWritesInBatches() throws Exception {
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    int itemCount = PersistentStoreImpl.MAX_PAGE_SIZE + 1;
+
+    long added =
+        persistentStore.addAll(
+            "testcore",
+            IntStream.range(0, itemCount)
+                .mapToObj(
+                    i -> {
+                      PersistentItem item = new PersistentItem();
+                      item.addIdProperty("id" + i);
+                      return item;
+                    }));
+
+    assertThat(added, is((long) itemCount));
+    verify(solrClient, times(2)).add(captor.capture());
+    assertThat(captor.getAllValues().get(0).size(), is(PersistentStoreImpl.MAX_PAGE_SIZE));
+    assertThat(captor.getAllValues().get(1).size(), is(1));
+  }
+
   private SolrDocumentList getSolrDocuments(int numDocuments) {
     final SolrDocumentList docList = new SolrDocumentList();
 
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.OperationsException;
+import javax.management.StandardMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded cache of the decisions made by the {@link AuthzRealm}. A decision is keyed by a
+ * fingerprint of the subject's attributes and a fingerprint of the permission being checked, which
+ * holds the action and the security attributes of the resource. Results with the same security
+ * markings checked for the same subject are then only evaluated once.
+ *
+ * <p>Decisions expire after a configurable time to live, and are all discarded whenever the
+ * policies or the configuration of the realm change. A decision evaluated while the cache was
+ * being invalidated is not cached.
+ */
+public class AuthorizationDecisionCache implements AuthorizationDecisionCacheMBean {
+
+  public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+  public static final long DEFAULT_TIME_TO_LIVE_SECONDS = 60;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationDecisionCache.class);
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  private final EvaluationLatency evaluationLatency = new EvaluationLatency();
+
+  private volatile long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+  private long timeToLiveSeconds = DEFAULT_TIME_TO_LIVE_SECONDS;
+
+  private volatile Cache<DecisionKey, Boolean> decisions;
+
+  private ObjectName objectName;
+
+  public AuthorizationDecisionCache() {
+    decisions = newCache();
+  }
+
+  /**
+   * Returns the cached decision for the subject and the permission.
+   *
+   * @param subject fingerprint of the subject's attributes
+   * @param permission fingerprint of the permission being checked
+   * @return the cached decision, or {@code null} if the decision has to be evaluated
+   */
+  public Boolean get(String subject, String permission) {
+    if (maximumSize <= 0) {
+      return null;
+    }
+    Boolean decision = decisions.getIfPresent(new DecisionKey(subject, permission));
+    if (decision == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return decision;
+  }
+
+  /**
+   * @return the current generation of the cache, to be passed to {@link #put} once the decision
+   *     has been evaluated
+   */
+  public long getGeneration() {
+    return generation.get();
+  }
+
+  /**
+   * Caches a decision, unless the cache has been invalidated since the evaluation started.
+   *
+   * @param subject fingerprint of the subject's attributes
+   * @param permission fingerprint of the permission that was checked
+   * @param permitted the decision
+   * @param startGeneration the generation of the cache when the evaluation started
+   * @param evaluationNanos the duration of the evaluation, in nanoseconds
+   */
+  public void put(
+      String subject,
+      String permission,
+      boolean permitted,
+      long startGeneration,
+      long evaluationNanos) {
+    evaluationLatency.record(evaluationNanos);
+    if (maximumSize <= 0) {
+      return;
+    }
+    Cache<DecisionKey, Boolean> current = decisions;
+    if (generation.get() == startGeneration) {
+      current.put(new DecisionKey(subject, permission), permitted);
+      // Invalidated while the decision was stored, it might be stale
+      if (generation.get() != startGeneration) {
+        current.invalidateAll();
+      }
+    }
+  }
+
+  @Override
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    decisions.invalidateAll();
+    LOGGER.debug("Invalidated the cached authorization decisions.");
+  }
+
+  /**
+   * Sets the maximum number of decisions cached. A value of 0 disables the cache.
+   *
+   * @param maximumSize maximum number of decisions cached
+   */
+  public synchronized void setMaximumSize(long maximumSize) {
+    if (maximumSize != this.maximumSize) {
+      this.maximumSize = Math.max(0, maximumSize);
+      replaceCache();
+    }
+  }
+
+  /**
+   * Sets the number of seconds a decision is cached for.
+   *
+   * @param timeToLiveSeconds time to live of the decisions, in seconds
+   */
+  public synchronized void setTimeToLiveSeconds(long timeToLiveSeconds) {
+    if (timeToLiveSeconds > 0 && timeToLiveSeconds != this.timeToLiveSeconds) {
+      this.timeToLiveSeconds = timeToLiveSeconds;
+      replaceCache();
+    }
+  }
+
+  @Override
+  public long getSize() {
+    return decisions.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.get();
+    long total = hitCount + misses.get();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  @Override
+  public double getEvaluationLatencyMillis() {
+    return evaluationLatency.getLatencyMillis();
+  }
+
+  public void configureMBean() {
+    LOGGER.debug("Registering Authorization Decision Cache MBean");
+    final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(AuthorizationDecisionCacheMBean.OBJECT_NAME);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Could not create object name", e);
+      return;
+    }
+    try {
+      registerMBean(mbeanServer, objectName);
+    } catch (Exception e) {
+      LOGGER.debug("Could not register MBean.", e);
+    }
+  }
+
+  public void unregisterMBean() {
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (OperationsException | MBeanException e) {
+        LOGGER.debug("Could not unregister MBean.", e);
+      }
+    }
+  }
+
+  private void registerMBean(MBeanServer mbeanServer, ObjectName objectName)
+      throws NotCompliantMBeanException, MBeanException, OperationsException {
+    try {
+      mbeanServer.registerMBean(
+          new StandardMBean(this, AuthorizationDecisionCacheMBean.class), objectName);
+    } catch (InstanceAlreadyExistsException e) {
+      LOGGER.debug("Re-registering Authorization Decision Cache MBean");
+      mbeanServer.unregisterMBean(objectName);
+      mbeanServer.registerMBean(
+          new StandardMBean(this, AuthorizationDecisionCacheMBean.class), objectName);
+    }
+  }
+
+  private void replaceCache() {
+    generation.incrementAndGet();
+    decisions = newCache();
+    LOGGER.debug(
+        "Caching up to {} authorization decisions for {} seconds.", maximumSize, timeToLiveSeconds);
+  }
+
+  private Cache<DecisionKey, Boolean> newCache() {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  private static final class DecisionKey {
+
+    private final String subject;
+
+    private final String permission;
+
+    private final int hashCode;
+
+    DecisionKey(String subject, String permission) {
+      this.subject = subject;
+      this.permission = permission;
+      this.hashCode = Objects.hash(subject, permission);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof DecisionKey)) {
+        return false;
+      }
+      DecisionKey that = (DecisionKey) o;
+      return subject.equals(that.subject) && permission.equals(that.permission);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /** Exponentially weighted mean of the evaluation durations. */
+  private static class EvaluationLatency {
+
+    private static final double WEIGHT = 0.2;
+
+    private double latencyMillis = 0;
+
+    private boolean firstEvaluation = true;
+
+    synchronized void record(long latencyNanos) {
+      double millis = latencyNanos / 1e6;
+      latencyMillis = firstEvaluation ? millis : latencyMillis + WEIGHT * (millis - latencyMillis);
+      firstEvaluation = false;
+    }
+
+    synchronized double getLatencyMillis() {
+      return latencyMillis;
+    }
+  }
+}
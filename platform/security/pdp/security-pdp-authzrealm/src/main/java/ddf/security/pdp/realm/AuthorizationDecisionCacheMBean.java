@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+/** MBean interface exposing the statistics of the authorization decisions cached by the realm. */
+public interface AuthorizationDecisionCacheMBean {
+
+  String OBJECT_NAME = "ddf.security.pdp.realm.AuthzRealm:service=authorization-decision-cache";
+
+  /** @return the number of decisions currently cached */
+  long getSize();
+
+  /** @return the number of decisions answered from the cache */
+  long getHitCount();
+
+  /** @return the number of decisions that had to be evaluated */
+  long getMissCount();
+
+  /** @return the ratio of decisions answered from the cache, between 0 and 1 */
+  double getHitRatio();
+
+  /** @return the mean duration of the recent evaluations, in milliseconds */
+  double getEvaluationLatencyMillis();
+
+  /** Discards all the cached decisions. */
+  void invalidateAll();
+}
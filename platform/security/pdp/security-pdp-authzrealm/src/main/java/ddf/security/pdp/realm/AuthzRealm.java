@@ -13,6 +13,7 @@
  */
 package ddf.security.pdp.realm;
 
+import com.google.common.hash.Hashing;
 import ddf.security.common.audit.SecurityLogger;
 import ddf.security.pdp.realm.xacml.XacmlPdp;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
@@ -22,6 +23,7 @@
 import ddf.security.permission.MatchOneCollectionPermission;
 import ddf.security.policy.extension.PolicyExtension;
 import ddf.security.service.impl.AbstractAuthorizingRealm;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,6 +31,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
 import org.apache.shiro.authc.AuthenticationToken;
@@ -36,6 +39,7 @@
 import org.apache.shiro.authz.Permission;
 import org.apache.shiro.authz.permission.PermissionResolver;
 import org.apache.shiro.authz.permission.RolePermissionResolver;
+import org.apache.shiro.authz.permission.WildcardPermission;
 import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.util.CollectionUtils;
 import org.codice.ddf.parser.Parser;
@@ -47,6 +51,10 @@
  * to check permissions without making calls out to an external PDP. {@link Permission} objects are
  * checked against each other to ensure that the subject permissions imply the resource permissions.
  *
+ * <p>The decisions made for {@link KeyValueCollectionPermission}s are kept in an {@link
+ * AuthorizationDecisionCache}, keyed by a fingerprint of the subject's attributes and of the
+ * permission, so that results sharing the same security markings are only evaluated once.
+ *
  * @author tustisos
  */
 public class AuthzRealm extends AbstractAuthorizingRealm {
@@ -70,9 +78,17 @@ public class AuthzRealm extends AbstractAuthorizingRealm {
 
   private XacmlPdp xacmlPdp;
 
+  private final AuthorizationDecisionCache decisionCache = new AuthorizationDecisionCache();
+
   public AuthzRealm(String dirPath, Parser parser) throws PdpException {
     super();
     xacmlPdp = new XacmlPdp(dirPath, parser, environmentAttributes);
+    xacmlPdp.addPolicyReloadListener(decisionCache::invalidateAll);
+    decisionCache.configureMBean();
+  }
+
+  public void destroy() {
+    decisionCache.unregisterMBean();
   }
 
   // this realm is for authorization only
@@ -182,14 +198,67 @@ public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permissi
     boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
     List<Permission> expandedPermissions = expandPermissions(permissions);
+    String subjectFingerprint = null;
     int i = 0;
     for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+      String permissionFingerprint = getPermissionFingerprint(permission);
+      if (permissionFingerprint != null && subjectFingerprint == null) {
+        subjectFingerprint = getSubjectFingerprint(subjectPrincipal, authorizationInfo);
+      }
+      if (permissionFingerprint == null || subjectFingerprint == null) {
+        results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+      } else {
+        results[i++] =
+            isPermittedCached(
+                subjectPrincipal,
+                permission,
+                authorizationInfo,
+                subjectFingerprint,
+                permissionFingerprint);
+      }
     }
 
     return results;
   }
 
+  /**
+   * Returns the cached decision for the given Permission, evaluating and caching it if needed.
+   *
+   * @param subjectFingerprint fingerprint of the subject's attributes
+   * @param permissionFingerprint fingerprint of the permission being checked
+   * @return true if the user is permitted
+   */
+  private boolean isPermittedCached(
+      PrincipalCollection subjectPrincipal,
+      Permission permission,
+      AuthorizationInfo authorizationInfo,
+      String subjectFingerprint,
+      String permissionFingerprint) {
+    Boolean cached = decisionCache.get(subjectFingerprint, permissionFingerprint);
+    if (cached != null) {
+      if (!cached) {
+        SecurityLogger.audit(
+            PERMISSION_FINISH_1_MSG
+                + getUser(subjectPrincipal)
+                + PERMISSION_FINISH_2_MSG
+                + permission
+                + "] is not implied (cached decision).");
+      }
+      return cached;
+    }
+
+    long generation = decisionCache.getGeneration();
+    long start = System.nanoTime();
+    boolean permitted = isPermitted(subjectPrincipal, permission, authorizationInfo);
+    decisionCache.put(
+        subjectFingerprint,
+        permissionFingerprint,
+        permitted,
+        generation,
+        System.nanoTime() - start);
+    return permitted;
+  }
+
   /**
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
    * the given Permission.
@@ -203,10 +272,7 @@ private boolean isPermitted(
       Permission permission,
       AuthorizationInfo authorizationInfo) {
     Collection<Permission> perms = getPermissions(authorizationInfo);
-    String curUser = "<user>";
-    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
-      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
-    }
+    String curUser = getUser(subjectPrincipal);
     if (!CollectionUtils.isEmpty(perms)) {
       if (permission instanceof KeyValuePermission) {
         permission =
@@ -311,6 +377,107 @@ private boolean isPermitted(
     return false;
   }
 
+  private String getUser(PrincipalCollection subjectPrincipal) {
+    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
+      return subjectPrincipal.getPrimaryPrincipal().toString();
+    }
+    return "<user>";
+  }
+
+  /**
+   * Returns a fingerprint of everything about the subject the decisions depend on: the primary
+   * principal, which is passed to the XACML PDP, and the roles and permissions of the subject. The
+   * fingerprint is a SHA-256 digest, since the primary principal alone can be several kilobytes
+   * long.
+   *
+   * @return the fingerprint, or null if the subject has permissions that cannot be fingerprinted
+   *     and its decisions must not be cached
+   */
+  private String getSubjectFingerprint(
+      PrincipalCollection subjectPrincipal, AuthorizationInfo authorizationInfo) {
+    if (authorizationInfo == null) {
+      return null;
+    }
+    Set<String> objectPermissions = new TreeSet<>();
+    if (authorizationInfo.getObjectPermissions() != null) {
+      for (Permission permission : authorizationInfo.getObjectPermissions()) {
+        if (permission instanceof KeyValuePermission) {
+          objectPermissions.add(getFingerprint((KeyValuePermission) permission));
+        } else if (permission instanceof WildcardPermission) {
+          objectPermissions.add(permission.toString());
+        } else {
+          return null;
+        }
+      }
+    }
+
+    StringBuilder fingerprint = new StringBuilder();
+    appendToken(fingerprint, getUser(subjectPrincipal));
+    appendTokens(fingerprint, sorted(authorizationInfo.getRoles()));
+    appendTokens(fingerprint, sorted(authorizationInfo.getStringPermissions()));
+    appendTokens(fingerprint, objectPermissions);
+    return Hashing.sha256().hashString(fingerprint, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Returns a fingerprint of the action and the security attributes of a permission.
+   *
+   * @return the fingerprint, or null if the decisions for this permission must not be cached
+   */
+  private String getPermissionFingerprint(Permission permission) {
+    String action;
+    List<KeyValuePermission> keyValuePermissions;
+    if (permission instanceof KeyValueCollectionPermission) {
+      KeyValueCollectionPermission kvcp = (KeyValueCollectionPermission) permission;
+      action = kvcp.getAction();
+      keyValuePermissions = kvcp.getKeyValuePermissionList();
+    } else if (permission instanceof KeyValuePermission) {
+      action = CollectionPermission.UNKNOWN_ACTION;
+      keyValuePermissions = Collections.singletonList((KeyValuePermission) permission);
+    } else {
+      return null;
+    }
+
+    Set<String> attributes = new TreeSet<>();
+    for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+      attributes.add(getFingerprint(keyValuePermission));
+    }
+    StringBuilder fingerprint = new StringBuilder();
+    appendToken(fingerprint, action);
+    appendTokens(fingerprint, attributes);
+    return fingerprint.toString();
+  }
+
+  private String getFingerprint(KeyValuePermission keyValuePermission) {
+    StringBuilder fingerprint = new StringBuilder();
+    appendToken(fingerprint, keyValuePermission.getKey());
+    appendTokens(fingerprint, sorted(keyValuePermission.getValues()));
+    return fingerprint.toString();
+  }
+
+  private Set<String> sorted(Collection<String> values) {
+    Set<String> sortedValues = new TreeSet<>();
+    if (values != null) {
+      for (String value : values) {
+        sortedValues.add(String.valueOf(value));
+      }
+    }
+    return sortedValues;
+  }
+
+  // Tokens are prefixed with their length so that different attributes never give the same
+  // fingerprint, whatever characters their values contain
+  private void appendTokens(StringBuilder fingerprint, Collection<String> tokens) {
+    fingerprint.append(tokens.size()).append('[');
+    tokens.forEach(token -> appendToken(fingerprint, token));
+    fingerprint.append(']');
+  }
+
+  private void appendToken(StringBuilder fingerprint, String token) {
+    String value = String.valueOf(token);
+    fingerprint.append(value.length()).append(':').append(value);
+  }
+
   private KeyValueCollectionPermission isPermittedByExtensionAll(
       CollectionPermission subjectAllCollection,
       KeyValueCollectionPermission matchAllCollection,
@@ -436,20 +603,35 @@ private Collection<Permission> resolveRolePermissions(Collection<String> roleNam
    */
   public void setPolicyExtensions(List<PolicyExtension> policyExtensions) {
     this.policyExtensions = policyExtensions;
+    decisionCache.invalidateAll();
   }
 
   public void addPolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.add(policyExtension);
+      decisionCache.invalidateAll();
     }
   }
 
   public void removePolicyExtension(PolicyExtension policyExtension) {
     if (policyExtensions != null) {
       policyExtensions.remove(policyExtension);
+      decisionCache.invalidateAll();
     }
   }
 
+  @Override
+  public void setPermissionResolver(PermissionResolver permissionResolver) {
+    super.setPermissionResolver(permissionResolver);
+    decisionCache.invalidateAll();
+  }
+
+  @Override
+  public void setRolePermissionResolver(RolePermissionResolver permissionRoleResolver) {
+    super.setRolePermissionResolver(permissionRoleResolver);
+    decisionCache.invalidateAll();
+  }
+
   /**
    * Sets the mappings used by the "match all" evaluation to determine if this user should be
    * authorized to access requested data.
@@ -480,6 +662,7 @@ public void setMatchAllMappings(List<String> list) {
         }
       }
     }
+    decisionCache.invalidateAll();
   }
 
   /**
@@ -512,10 +695,30 @@ public void setMatchOneMappings(List<String> list) {
         }
       }
     }
+    decisionCache.invalidateAll();
   }
 
   public void setEnvironmentAttributes(List<String> environmentAttributes) {
     this.environmentAttributes.clear();
     this.environmentAttributes.addAll(environmentAttributes);
+    decisionCache.invalidateAll();
+  }
+
+  /**
+   * Sets the maximum number of authorization decisions cached. A value of 0 disables the cache.
+   *
+   * @param decisionCacheSize maximum number of decisions cached
+   */
+  public void setDecisionCacheSize(long decisionCacheSize) {
+    decisionCache.setMaximumSize(decisionCacheSize);
+  }
+
+  /**
+   * Sets the number of seconds an authorization decision is cached for.
+   *
+   * @param decisionCacheTimeToLive time to live of the decisions, in seconds
+   */
+  public void setDecisionCacheTimeToLive(long decisionCacheTimeToLive) {
+    decisionCache.setTimeToLiveSeconds(decisionCacheTimeToLive);
   }
 }
@@ -107,6 +107,15 @@ public XacmlPdp(String dirPath, Parser parser, List<String> environmentAttribute
     LOGGER.debug("Creating new PDP-backed Authorizing Realm");
   }
 
+  /**
+   * Adds a listener called every time the XACML policies are reloaded.
+   *
+   * @param listener called after the policies have been reloaded
+   */
+  public void addPolicyReloadListener(Runnable listener) {
+    pdp.addPolicyReloadListener(listener);
+  }
+
   public boolean isPermitted(
       String primaryPrincipal, AuthorizationInfo info, KeyValueCollectionPermission curPermission) {
     boolean curResponse;
@@ -23,8 +23,10 @@
 import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.commons.io.monitor.FileAlterationListener;
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
@@ -48,6 +50,8 @@ public class PollingPolicyFinderModule extends FileBasedPolicyFinderModule
 
   private Set<String> xacmlPolicyDirectories;
 
+  private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
   /**
    * @param xacmlPolicyDirectories - to search for policies
    * @param pollingInterval - in seconds
@@ -204,6 +208,17 @@ private FileFilter getXmlFileFilter() {
   public void reloadPolicies() {
     LOGGER.debug("Reloading XACML policies");
     this.loadPolicies();
+    reloadListeners.forEach(Runnable::run);
+  }
+
+  /**
+   * Adds a listener called every time the policies are reloaded, for instance to discard the
+   * decisions made with the previous policies.
+   *
+   * @param listener called after the policies have been reloaded
+   */
+  public void addReloadListener(Runnable listener) {
+    reloadListeners.add(listener);
   }
 
   private static class PrivilegedFileAlterationObserver extends FileAlterationObserver {
@@ -84,6 +84,8 @@ public class XacmlClient {
 
   private final Parser parser;
 
+  private PollingPolicyFinderModule policyFinderModule;
+
   /**
    * Creates the proxy to the real XACML PDP.
    *
@@ -129,6 +131,15 @@ private void initialize(File xacmlPoliciesDirectory) throws PdpException {
     createPdp(createPdpConfig());
   }
 
+  /**
+   * Adds a listener called every time the XACML policies are reloaded.
+   *
+   * @param listener called after the policies have been reloaded
+   */
+  public void addPolicyReloadListener(Runnable listener) {
+    policyFinderModule.addReloadListener(listener);
+  }
+
   /**
    * Evaluates the XACML request and returns a XACML response.
    *
@@ -182,7 +193,7 @@ private PolicyFinder createPolicyFinder() {
         "XACML policies will be looked for in the following location(s): {}",
         xacmlPolicyDirectories);
     PolicyFinder policyFinder = new PolicyFinder();
-    PollingPolicyFinderModule policyFinderModule =
+    policyFinderModule =
         new PollingPolicyFinderModule(xacmlPolicyDirectories, defaultPollingIntervalInSeconds);
     policyFinderModule.start();
     Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.pdp.realm;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AuthorizationDecisionCacheTest {
+
+  private static final String SUBJECT = "4:user";
+
+  private static final String PERMISSION = "4:read";
+
+  private AuthorizationDecisionCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new AuthorizationDecisionCache();
+  }
+
+  @Test
+  public void cachedDecisionIsReturned() {
+    assertThat(cache.get(SUBJECT, PERMISSION), is(nullValue()));
+    cache.put(SUBJECT, PERMISSION, false, cache.getGeneration(), 1000);
+
+    assertThat(cache.get(SUBJECT, PERMISSION), is(false));
+    assertThat(cache.get(SUBJECT, "6:update"), is(nullValue()));
+    assertThat(cache.get("5:other", PERMISSION), is(nullValue()));
+    assertThat(cache.getSize(), is(1L));
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(3L));
+    assertThat(cache.getHitRatio(), closeTo(0.25, 0.001));
+  }
+
+  @Test
+  public void invalidateAllDiscardsDecisions() {
+    cache.put(SUBJECT, PERMISSION, true, cache.getGeneration(), 1000);
+
+    cache.invalidateAll();
+
+    assertThat(cache.get(SUBJECT, PERMISSION), is(nullValue()));
+  }
+
+  @Test
+  public void decisionEvaluatedBeforeInvalidationIsNotCached() {
+    long generation = cache.getGeneration();
+
+    cache.invalidateAll();
+    cache.put(SUBJECT, PERMISSION, true, generation, 1000);
+
+    assertThat(cache.get(SUBJECT, PERMISSION), is(nullValue()));
+  }
+
+  @Test
+  public void decisionsAreDiscardedWhenResized() {
+    cache.put(SUBJECT, PERMISSION, true, cache.getGeneration(), 1000);
+
+    cache.setMaximumSize(100);
+
+    assertThat(cache.get(SUBJECT, PERMISSION), is(nullValue()));
+  }
+
+  @Test
+  public void disabledCacheDoesNotCache() {
+    cache.setMaximumSize(0);
+    cache.put(SUBJECT, PERMISSION, true, cache.getGeneration(), 1000);
+
+    assertThat(cache.get(SUBJECT, PERMISSION), is(nullValue()));
+    assertThat(cache.getSize(), is(0L));
+    assertThat(cache.getMissCount(), is(0L));
+  }
+
+  @Test
+  public void evaluationLatencyIsRecorded() {
+    cache.put(SUBJECT, PERMISSION, true, cache.getGeneration(), 2000000);
+
+    assertThat(cache.getEvaluationLatencyMillis(), closeTo(2.0, 0.001));
+  }
+}
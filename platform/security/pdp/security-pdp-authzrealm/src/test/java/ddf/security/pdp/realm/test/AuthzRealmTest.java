@@ -25,6 +25,7 @@
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import junit.framework.Assert;
 import org.apache.shiro.authz.AuthorizationInfo;
 import org.apache.shiro.authz.Permission;
@@ -289,4 +290,71 @@ public KeyValueCollectionPermission isPermittedMatchOne(
 
     testRealm.setPolicyExtensions(Arrays.asList(policyExtension));
   }
+
+  @Test
+  public void testCachedDecisionInvalidatedByPolicyExtension() {
+    KeyValueCollectionPermission kvcp = new KeyValueCollectionPermission("action", security);
+    permissionList.clear();
+    permissionList.add(kvcp);
+
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    Assert.assertTrue(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+
+    testRealm.addPolicyExtension(
+        new PolicyExtension() {
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchAll(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchAllCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            return new KeyValueCollectionPermission(
+                matchAllCollection.getAction(),
+                new KeyValuePermission("FineAccessControls", Arrays.asList("Z")));
+          }
+
+          @Override
+          public KeyValueCollectionPermission isPermittedMatchOne(
+              CollectionPermission subjectAllCollection,
+              KeyValueCollectionPermission matchOneCollection,
+              KeyValueCollectionPermission allPermissionsCollection) {
+            return matchOneCollection;
+          }
+        });
+
+    Assert.assertFalse(testRealm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+  }
+
+  @Test
+  public void testCachedDecisionDependsOnSubjectAttributes() throws PdpException {
+    SimpleAuthorizationInfo permittedInfo = new SimpleAuthorizationInfo();
+    permittedInfo.addObjectPermission(
+        new KeyValuePermission("FineAccessControls", Arrays.asList("A", "B")));
+    permittedInfo.addObjectPermission(
+        new KeyValuePermission("CountryOfAffiliation", Arrays.asList("AUS")));
+    SimpleAuthorizationInfo deniedInfo = new SimpleAuthorizationInfo();
+    deniedInfo.addObjectPermission(
+        new KeyValuePermission("FineAccessControls", Arrays.asList("A")));
+    deniedInfo.addObjectPermission(
+        new KeyValuePermission("CountryOfAffiliation", Arrays.asList("AUS")));
+
+    AtomicReference<AuthorizationInfo> authorizationInfo = new AtomicReference<>(permittedInfo);
+    AuthzRealm realm =
+        new AuthzRealm("src/test/resources/policies", new XmlParser()) {
+          @Override
+          public AuthorizationInfo getAuthorizationInfo(PrincipalCollection principals) {
+            return authorizationInfo.get();
+          }
+        };
+    realm.setMatchOneMappings(Arrays.asList("CountryOfAffiliation=country"));
+    realm.setMatchAllMappings(Arrays.asList("FineAccessControls=rule"));
+
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermission("action", security));
+
+    Assert.assertTrue(realm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    authorizationInfo.set(deniedInfo);
+    Assert.assertFalse(realm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+    authorizationInfo.set(permittedInfo);
+    Assert.assertTrue(realm.isPermitted(mockSubjectPrincipal, permissionList)[0]);
+  }
 }